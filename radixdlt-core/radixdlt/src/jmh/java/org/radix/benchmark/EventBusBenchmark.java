@@ -0,0 +1,192 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package org.radix.benchmark;
+
+import com.radixdlt.ModuleRunner;
+import com.radixdlt.counters.LatencyHistograms;
+import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.environment.EventProcessingMetrics;
+import com.radixdlt.environment.EventProcessor;
+import com.radixdlt.environment.ringbuffer.RingBufferEnvironment;
+import com.radixdlt.environment.ringbuffer.RingBufferModuleRunner;
+import com.radixdlt.environment.rx.ModuleRunnerImpl;
+import com.radixdlt.environment.rx.RxEnvironment;
+import com.radixdlt.utils.ThreadFactories;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JMH driven benchmark of local event dispatch through the Rx environment and the
+ * ring buffer environment, each with a single runner processing the events.
+ * <p>
+ * {@code throughput} dispatches batches of events and waits for all of them to be
+ * processed, {@code dispatchToProcessLatency} samples the time from dispatching a
+ * single event until it has been processed, including the 99th percentile. Both run
+ * with event processing metrics disabled and with one in a hundred events timed.
+ * Run with:
+ * <pre>
+ *    $ gradle clean jmh -Pjmh.includes=EventBusBenchmark
+ * </pre>
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class EventBusBenchmark {
+	private static final int BATCH_SIZE = 1000;
+
+	public static final class BenchmarkEvent {
+	}
+
+	@State(Scope.Benchmark)
+	public static class EventBus {
+		@Param({"rx", "ring_buffer"})
+		public String eventBus;
+
+		@Param({"0", "100"})
+		public int sampleInterval;
+
+		final AtomicLong processed = new AtomicLong();
+		final BenchmarkEvent event = new BenchmarkEvent();
+		ScheduledExecutorService ses;
+		ModuleRunner runner;
+		EventDispatcher<BenchmarkEvent> dispatcher;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.ses = Executors.newSingleThreadScheduledExecutor(ThreadFactories.daemonThreads("BenchmarkTimeouts"));
+			final EventProcessor<BenchmarkEvent> processor = e -> processed.incrementAndGet();
+			final var metrics = new EventProcessingMetrics(new LatencyHistograms(), sampleInterval);
+
+			switch (eventBus) {
+				case "rx":
+					final var rxEnvironment = new RxEnvironment(Set.of(), Set.of(BenchmarkEvent.class), ses, Set.of());
+					this.runner = ModuleRunnerImpl.builder(metrics, "benchmark")
+						.add(rxEnvironment.getObservable(BenchmarkEvent.class), processor, "BenchmarkEvent")
+						.build("RxBenchmark");
+					this.dispatcher = rxEnvironment.getDispatcher(BenchmarkEvent.class);
+					break;
+				case "ring_buffer":
+					final var ringEnvironment = new RingBufferEnvironment(Set.of(), Set.of(BenchmarkEvent.class), 8192, metrics, ses, Set.of());
+					this.runner = RingBufferModuleRunner.builder(ringEnvironment, "benchmark")
+						.add(BenchmarkEvent.class, processor, 0)
+						.build("RingBufferBenchmark");
+					this.dispatcher = ringEnvironment.getDispatcher(BenchmarkEvent.class);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown event bus: " + eventBus);
+			}
+			this.runner.start();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.runner.stop();
+			this.ses.shutdownNow();
+		}
+
+		void awaitProcessed(long target) {
+			while (processed.get() < target) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void throughput(EventBus bus) {
+		final long target = bus.processed.get() + BATCH_SIZE;
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			bus.dispatcher.dispatch(bus.event);
+		}
+		bus.awaitProcessed(target);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void dispatchToProcessLatency(EventBus bus) {
+		final long target = bus.processed.get() + 1;
+		bus.dispatcher.dispatch(bus.event);
+		bus.awaitProcessed(target);
+	}
+}
@@ -0,0 +1,157 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package org.radix.benchmark;
+
+import com.radixdlt.network.p2p.transport.FrameCodec;
+import com.radixdlt.network.p2p.transport.handshake.Secrets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * JMH driven benchmark of {@link FrameCodec} frame throughput on a single core.
+ * <p>
+ * Each operation encodes a payload into a pooled frame and decodes it again on the
+ * receiving side. The {@code bytes} counter reports payload bytes per second, divide
+ * by 2^20 for MB/s. Run with:
+ * <pre>
+ *    $ gradle clean jmh -Pjmh.includes=FrameCodecBenchmark
+ * </pre>
+ */
+@Threads(1)
+public class FrameCodecBenchmark {
+
+	@State(Scope.Thread)
+	public static class Codecs {
+		@Param({"256", "4096", "65536", "1048576"})
+		public int payloadSize;
+
+		FrameCodec sender;
+		FrameCodec receiver;
+		byte[] payload;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			final var random = new Random(1234L);
+			final var aes = randomBytes(random, 32);
+			final var mac = randomBytes(random, 32);
+			final var token = randomBytes(random, 32);
+			final var egressMac = keccak(randomBytes(random, 32));
+			final var ingressMac = keccak(randomBytes(random, 32));
+
+			this.sender = new FrameCodec(new Secrets(aes, mac, token, new KeccakDigest(egressMac), new KeccakDigest(ingressMac)));
+			this.receiver = new FrameCodec(new Secrets(aes, mac, token, new KeccakDigest(ingressMac), new KeccakDigest(egressMac)));
+			this.payload = randomBytes(random, payloadSize);
+		}
+
+		private static byte[] randomBytes(Random random, int size) {
+			final var bytes = new byte[size];
+			random.nextBytes(bytes);
+			return bytes;
+		}
+
+		private static KeccakDigest keccak(byte[] seed) {
+			final var digest = new KeccakDigest(256);
+			digest.update(seed, 0, seed.length);
+			return digest;
+		}
+	}
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Throughput {
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	@Benchmark
+	public void encodeDecodeFrame(Codecs codecs, Throughput throughput, Blackhole bh) throws IOException {
+		final ByteBuf frame = codecs.sender.encodeFrame(codecs.payload, PooledByteBufAllocator.DEFAULT);
+		try {
+			final var body = codecs.receiver.tryDecodeFrame(frame).orElseThrow();
+			bh.consume(body.getByte(0));
+			body.release();
+		} finally {
+			frame.release();
+		}
+		throughput.bytes += codecs.payload.length;
+	}
+}
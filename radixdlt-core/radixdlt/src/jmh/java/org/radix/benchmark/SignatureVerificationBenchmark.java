@@ -0,0 +1,148 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package org.radix.benchmark;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.crypto.ECDSASignature;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.ECPublicKey;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.PrecomputedKeys;
+import com.radixdlt.crypto.exception.PublicKeyException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH driven benchmark of signature verification against a set of validator keys,
+ * comparing the regular path with {@link PrecomputedKeys}.
+ * <p>
+ * As with messages received from the network, each verification decodes the public
+ * key of the signer from bytes first. Signers are taken in turn from the validator set.
+ * Run with:
+ * <pre>
+ *    $ gradle clean jmh -Pjmh.includes=SignatureVerificationBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class SignatureVerificationBenchmark {
+
+	@State(Scope.Thread)
+	public static class Validators {
+		@Param({"10", "100"})
+		public int validators;
+
+		final List<byte[]> keys = new ArrayList<>();
+		final List<ECDSASignature> signatures = new ArrayList<>();
+		final HashCode hash = HashUtils.random256();
+		PrecomputedKeys precomputedKeys;
+		int next;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			final var publicKeys = new ArrayList<ECPublicKey>();
+			for (int i = 0; i < validators; i++) {
+				final var keyPair = ECKeyPair.generateNew();
+				publicKeys.add(keyPair.getPublicKey());
+				keys.add(keyPair.getPublicKey().getCompressedBytes());
+				signatures.add(keyPair.sign(hash.asBytes()));
+			}
+			this.precomputedKeys = PrecomputedKeys.of(publicKeys);
+		}
+
+		int nextSigner() {
+			next = (next + 1) % validators;
+			return next;
+		}
+	}
+
+	@Benchmark
+	public boolean regularVerification(Validators validators) throws PublicKeyException {
+		final var signer = validators.nextSigner();
+		final var key = ECPublicKey.fromBytes(validators.keys.get(signer));
+		return key.verify(validators.hash, validators.signatures.get(signer));
+	}
+
+	@Benchmark
+	public boolean precomputedVerification(Validators validators) throws PublicKeyException {
+		final var signer = validators.nextSigner();
+		final var key = ECPublicKey.fromBytes(validators.keys.get(signer));
+		return validators.precomputedKeys.verify(key, validators.hash, validators.signatures.get(signer));
+	}
+}
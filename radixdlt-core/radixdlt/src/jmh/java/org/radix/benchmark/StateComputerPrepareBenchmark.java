@@ -0,0 +1,286 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package org.radix.benchmark;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.DefaultSerialization;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Scopes;
+import com.google.inject.TypeLiteral;
+import com.radixdlt.application.system.NextValidatorSetEvent;
+import com.radixdlt.application.tokens.Amount;
+import com.radixdlt.consensus.BFTHeader;
+import com.radixdlt.consensus.LedgerHeader;
+import com.radixdlt.consensus.LedgerProof;
+import com.radixdlt.consensus.QuorumCertificate;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
+import com.radixdlt.consensus.UnverifiedVertex;
+import com.radixdlt.consensus.VoteData;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.BFTValidator;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
+import com.radixdlt.consensus.bft.PersistentVertexStore;
+import com.radixdlt.consensus.bft.VerifiedVertex;
+import com.radixdlt.consensus.bft.View;
+import com.radixdlt.consensus.liveness.ProposerElection;
+import com.radixdlt.consensus.liveness.WeightedRotatingLeaders;
+import com.radixdlt.constraintmachine.PermissionLevel;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.engine.RadixEngine;
+import com.radixdlt.engine.RadixEngineException;
+import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.ledger.AccumulatorState;
+import com.radixdlt.ledger.LedgerAccumulator;
+import com.radixdlt.ledger.LedgerUpdate;
+import com.radixdlt.ledger.SimpleLedgerAccumulatorAndVerifier;
+import com.radixdlt.ledger.StateComputerLedger.PreparedTxn;
+import com.radixdlt.ledger.VerifiedTxnsAndProof;
+import com.radixdlt.mempool.MempoolAddFailure;
+import com.radixdlt.mempool.MempoolAddSuccess;
+import com.radixdlt.mempool.MempoolConfig;
+import com.radixdlt.mempool.MempoolRelayTrigger;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.statecomputer.AtomsRemovedFromMempool;
+import com.radixdlt.statecomputer.InvalidProposedTxn;
+import com.radixdlt.statecomputer.LedgerAndBFTProof;
+import com.radixdlt.statecomputer.REOutput;
+import com.radixdlt.statecomputer.RadixEngineModule;
+import com.radixdlt.statecomputer.RadixEngineStateComputer;
+import com.radixdlt.statecomputer.RadixEngineStateComputerModule;
+import com.radixdlt.statecomputer.checkpoint.Genesis;
+import com.radixdlt.statecomputer.checkpoint.MockedGenesisModule;
+import com.radixdlt.statecomputer.checkpoint.RadixEngineCheckpointModule;
+import com.radixdlt.statecomputer.forks.ForksModule;
+import com.radixdlt.statecomputer.forks.MainnetForkConfigsModule;
+import com.radixdlt.statecomputer.forks.RERulesConfig;
+import com.radixdlt.statecomputer.forks.RadixEngineForksLatestOnlyModule;
+import com.radixdlt.store.EngineStore;
+import com.radixdlt.store.InMemoryEngineStore;
+import com.radixdlt.sync.CommittedReader;
+import com.radixdlt.utils.UInt256;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH driven benchmarks for measuring {@link RadixEngineStateComputer#prepare} latency
+ * against the depth of the uncommitted vertex chain.
+ * <p>
+ * {@code prepareOnPreparedParent} prepares a vertex whose parent has already been prepared
+ * and so builds on the parent's branch, whereas {@code prepareReplayingPath} prepares a vertex
+ * whose parent is unknown and so has to re-execute every transaction on the path from the root.
+ * <p>
+ * Using gradle, it should be possible to execute:
+ * <pre>
+ *    $ gradle clean jmh -Pjmh.includes=StateComputerPrepareBenchmark
+ * </pre>
+ * from the RadixCode/radixdlt directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class StateComputerPrepareBenchmark {
+	private static final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+
+	@Param({"1", "4", "16", "64"})
+	private int chainDepth;
+
+	@Inject
+	@Genesis
+	private VerifiedTxnsAndProof genesisTxns;
+
+	@Inject
+	private RadixEngine<LedgerAndBFTProof> radixEngine;
+
+	@Inject
+	private RadixEngineStateComputer stateComputer;
+
+	@Inject
+	private ProposerElection proposerElection;
+
+	private final List<ECKeyPair> validatorKeys = List.of(ECKeyPair.generateNew(), ECKeyPair.generateNew());
+	private final List<PreparedTxn> previous = new ArrayList<>();
+	private VerifiedVertex tip;
+	private VerifiedVertex orphanTip;
+
+	@Setup(Level.Trial)
+	public void setup() throws RadixEngineException {
+		var validatorSet = BFTValidatorSet.from(validatorKeys.stream().map(ECKeyPair::getPublicKey)
+			.map(BFTNode::create)
+			.map(n -> BFTValidator.from(n, UInt256.ONE)));
+		var engineStore = new InMemoryEngineStore<LedgerAndBFTProof>();
+
+		Guice.createInjector(
+			new RadixEngineCheckpointModule(),
+			new RadixEngineStateComputerModule(),
+			new RadixEngineModule(),
+			new MockedGenesisModule(
+				validatorKeys.stream().map(ECKeyPair::getPublicKey).collect(Collectors.toSet()),
+				Amount.ofTokens(1000),
+				Amount.ofTokens(100)
+			),
+			new MainnetForkConfigsModule(),
+			new ForksModule(),
+			new RadixEngineForksLatestOnlyModule(RERulesConfig.testingDefault().overrideMaxRounds(1000)),
+			MempoolConfig.asModule(10, 10),
+			new AbstractModule() {
+				@Override
+				protected void configure() {
+					bind(ProposerElection.class).toInstance(new WeightedRotatingLeaders(validatorSet));
+					bind(Serialization.class).toInstance(DefaultSerialization.getInstance());
+					bind(Hasher.class).toInstance(hasher);
+					bind(new TypeLiteral<EngineStore<LedgerAndBFTProof>>() { }).toInstance(engineStore);
+					bind(PersistentVertexStore.class).toInstance(s -> { });
+					bind(CommittedReader.class).toInstance(CommittedReader.mocked());
+					bind(LedgerAccumulator.class).to(SimpleLedgerAccumulatorAndVerifier.class);
+					bind(new TypeLiteral<EventDispatcher<MempoolAddSuccess>>() { }).toInstance(e -> { });
+					bind(new TypeLiteral<EventDispatcher<MempoolAddFailure>>() { }).toInstance(e -> { });
+					bind(new TypeLiteral<EventDispatcher<InvalidProposedTxn>>() { }).toInstance(e -> { });
+					bind(new TypeLiteral<EventDispatcher<AtomsRemovedFromMempool>>() { }).toInstance(e -> { });
+					bind(new TypeLiteral<EventDispatcher<REOutput>>() { }).toInstance(e -> { });
+					bind(new TypeLiteral<EventDispatcher<MempoolRelayTrigger>>() { }).toInstance(e -> { });
+					bind(new TypeLiteral<EventDispatcher<LedgerUpdate>>() { }).toInstance(e -> { });
+					bind(SystemCounters.class).to(SystemCountersImpl.class).in(Scopes.SINGLETON);
+				}
+			}
+		).injectMembers(this);
+
+		executeGenesis();
+
+		// Prepare an uncommitted chain of the given depth on top of genesis
+		var parent = vertex(HashUtils.random256(), View.genesis(), View.of(1));
+		previous.addAll(stateComputer.prepare(List.of(), parent, 0).getSuccessfulCommands());
+		for (int i = 2; i <= chainDepth; i++) {
+			var next = vertex(parent.getId(), parent.getView(), View.of(i));
+			previous.addAll(stateComputer.prepare(List.copyOf(previous), next, 0).getSuccessfulCommands());
+			parent = next;
+		}
+
+		tip = vertex(parent.getId(), parent.getView(), View.of(chainDepth + 1L));
+		orphanTip = vertex(HashUtils.random256(), parent.getView(), View.of(chainDepth + 1L));
+	}
+
+	@Benchmark
+	public void prepareOnPreparedParent(Blackhole bh) {
+		bh.consume(stateComputer.prepare(previous, tip, 0));
+	}
+
+	@Benchmark
+	public void prepareReplayingPath(Blackhole bh) {
+		bh.consume(stateComputer.prepare(previous, orphanTip, 0));
+	}
+
+	private void executeGenesis() throws RadixEngineException {
+		var branch = radixEngine.transientBranch();
+		var processed = branch.execute(genesisTxns.getTxns(), PermissionLevel.SYSTEM);
+		radixEngine.deleteBranches();
+		var genesisValidatorSet = processed.getProcessedTxns().get(0).getEvents().stream()
+			.filter(NextValidatorSetEvent.class::isInstance)
+			.map(NextValidatorSetEvent.class::cast)
+			.findFirst()
+			.map(e -> BFTValidatorSet.from(
+				e.nextValidators().stream()
+					.map(v -> BFTValidator.from(BFTNode.create(v.getValidatorKey()), v.getAmount())))
+			).orElseThrow(() -> new IllegalStateException("No validator set in genesis."));
+		var genesisProof = LedgerProof.genesis(
+			new AccumulatorState(0, hasher.hash(genesisTxns.getTxns().get(0).getId())),
+			genesisValidatorSet,
+			0
+		);
+		radixEngine.execute(genesisTxns.getTxns(), LedgerAndBFTProof.create(genesisProof), PermissionLevel.SYSTEM);
+	}
+
+	private VerifiedVertex vertex(HashCode parentId, View parentView, View view) {
+		var ledgerHeader = LedgerHeader.create(1, parentView, new AccumulatorState(0, HashUtils.zero256()), 0);
+		var parentHeader = new BFTHeader(parentView, parentId, ledgerHeader);
+		var qc = new QuorumCertificate(new VoteData(parentHeader, parentHeader, null), new TimestampedECDSASignatures());
+		var unverified = UnverifiedVertex.create(qc, view, List.of(), proposerElection.getProposer(view));
+		return new VerifiedVertex(unverified, hasher.hash(unverified));
+	}
+}
@@ -64,16 +64,15 @@
 
 package com.radixdlt;
 
-import com.google.common.hash.HashCode;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.consensus.MemoizingHasher;
+import com.radixdlt.consensus.PrecomputedValidatorKeys;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.crypto.Hasher;
-import com.radixdlt.consensus.Sha256Hasher;
-import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
 
 /**
@@ -88,35 +87,17 @@ public final class CryptoModule extends AbstractModule {
 
 
 	@Provides
+	@Singleton
 	Hasher hasher(Serialization serialization, SystemCounters counters) {
-		return new Hasher() {
-			private Sha256Hasher hasher = new Sha256Hasher(serialization);
-
-			@Override
-			public int bytes() {
-				return 32;
-			}
-
-			@Override
-			public HashCode hash(Object o) {
-				// Call hashBytes to ensure counters incremented
-				return this.hashBytes(serialization.toDson(o, Output.HASH));
-			}
-
-			@Override
-			public HashCode hashBytes(byte[] bytes) {
-				counters.add(CounterType.HASHED_BYTES, bytes.length);
-				return hasher.hashBytes(bytes);
-			}
-		};
+		return new MemoizingHasher(serialization, counters);
 	}
 
 	@Provides
 	@Singleton
-	HashVerifier hashVerifier(SystemCounters counters) {
+	HashVerifier hashVerifier(SystemCounters counters, PrecomputedValidatorKeys validatorKeys) {
 		return (pubKey, hash, signature) -> {
 			counters.increment(CounterType.SIGNATURES_VERIFIED);
-			return pubKey.verify(hash, signature);
+			return validatorKeys.verify(pubKey, hash, signature);
 		};
 	}
 
@@ -74,6 +74,7 @@ import com.google.inject.multibindings.ProvidesIntoSet;
 import com.radixdlt.consensus.BFTConfiguration;
 import com.radixdlt.consensus.Ledger;
 import com.radixdlt.consensus.LedgerHeader;
+import com.radixdlt.consensus.PrecomputedValidatorKeys;
 import com.radixdlt.consensus.Proposal;
 import com.radixdlt.consensus.Vote;
 import com.radixdlt.consensus.bft.BFTCommittedUpdate;
@@ -204,6 +205,23 @@ public class EpochsConsensusModule extends AbstractModule {
 		);
     }
 
+	@ProvidesIntoSet
+	private StartProcessorOnRunner validatorKeysStartProcessor(PrecomputedValidatorKeys validatorKeys, EpochChange initialEpoch) {
+		return new StartProcessorOnRunner(
+			Runners.CONSENSUS,
+			() -> validatorKeys.update(initialEpoch.getBFTConfiguration().getValidatorSet())
+		);
+	}
+
+	@ProvidesIntoSet
+	private EventProcessorOnRunner<?> validatorKeysLedgerUpdateEventProcessor(PrecomputedValidatorKeys validatorKeys) {
+		return new EventProcessorOnRunner<>(
+			Runners.CONSENSUS,
+			LedgerUpdate.class,
+			validatorKeys.ledgerUpdateEventProcessor()
+		);
+	}
+
     @ProvidesIntoSet
 	private RemoteEventProcessorOnRunner<?> localGetVerticesRequestRemoteEventProcessor(EpochManager epochManager) {
 		return new RemoteEventProcessorOnRunner<>(
@@ -85,6 +85,7 @@ import com.radixdlt.ledger.LedgerUpdate;
 import com.radixdlt.network.p2p.PeersView;
 import com.radixdlt.sync.RemoteSyncService;
 import com.radixdlt.sync.SyncConfig;
+import com.radixdlt.sync.SyncVerificationExecutor;
 import com.radixdlt.sync.LocalSyncService;
 import com.radixdlt.sync.LocalSyncService.VerifiedSyncResponseHandler;
 import com.radixdlt.sync.LocalSyncService.InvalidSyncResponseHandler;
@@ -101,6 +102,7 @@ import com.radixdlt.sync.messages.remote.SyncResponse;
 import com.radixdlt.sync.validation.RemoteSyncResponseSignaturesVerifier;
 
 import java.util.Comparator;
+import java.util.concurrent.Executor;
 
 /**
  * Epoch+Sync extension
@@ -243,6 +245,7 @@ public class EpochsSyncModule extends AbstractModule {
 		Comparator<AccumulatorState> accComparator,
 		RemoteSyncResponseSignaturesVerifier signaturesVerifier,
 		LedgerAccumulatorVerifier accumulatorVerifier,
+		@SyncVerificationExecutor Executor verificationExecutor,
 		VerifiedSyncResponseHandler verifiedSyncResponseHandler,
 		InvalidSyncResponseHandler invalidSyncResponseHandler
 	) {
@@ -260,6 +263,7 @@ public class EpochsSyncModule extends AbstractModule {
 				remoteSyncResponseValidatorSetVerifier,
 				signaturesVerifier,
 				accumulatorVerifier,
+				verificationExecutor,
 				verifiedSyncResponseHandler,
 				invalidSyncResponseHandler,
 				syncState
@@ -74,8 +74,10 @@ import org.json.JSONObject;
 import org.radix.utils.IOUtils;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.OptionalBinder;
 import com.radixdlt.application.NodeApplicationModule;
 import com.radixdlt.atom.Txn;
 import com.radixdlt.consensus.bft.PacemakerMaxExponent;
@@ -83,6 +85,8 @@ import com.radixdlt.consensus.bft.PacemakerRate;
 import com.radixdlt.consensus.bft.PacemakerTimeout;
 import com.radixdlt.consensus.sync.BFTSyncPatienceMillis;
 import com.radixdlt.engine.RadixEngineException;
+import com.radixdlt.environment.EventMetricsSampleInterval;
+import com.radixdlt.environment.ringbuffer.RingBufferEnvironmentModule;
 import com.radixdlt.environment.rx.RxEnvironmentModule;
 import com.radixdlt.keys.PersistedBFTKeyModule;
 import com.radixdlt.ledger.VerifiedTxnsAndProof;
@@ -219,12 +223,26 @@ public final class RadixNodeModule extends AbstractModule {
 
 		// Sync configuration
 		final long syncPatience = properties.get("sync.patience", 5000L);
-		bind(SyncConfig.class).toInstance(SyncConfig.of(syncPatience, 10, 3000L));
+		final int syncRequestWindow = properties.get("sync.request_window", 1);
+		bind(SyncConfig.class).toInstance(SyncConfig.of(syncPatience, 10, 3000L, 10, 50, syncRequestWindow));
 
 		// System (e.g. time, random)
 		install(new SystemModule());
 
-		install(new RxEnvironmentModule());
+		var eventBus = properties.get("environment.event_bus", "rx");
+		switch (eventBus) {
+			case "rx":
+				install(new RxEnvironmentModule());
+				break;
+			case "ring_buffer":
+				install(new RingBufferEnvironmentModule(properties.get("environment.ring_buffer.size", 8192)));
+				break;
+			default:
+				throw new IllegalStateException("Unknown event bus: " + eventBus);
+		}
+		OptionalBinder.newOptionalBinder(binder(), Key.get(Integer.class, EventMetricsSampleInterval.class))
+			.setBinding()
+			.toInstance(properties.get("environment.metrics.sample_interval", 0));
 
 		install(new EventLoggerModule());
 		install(new DispatcherModule());
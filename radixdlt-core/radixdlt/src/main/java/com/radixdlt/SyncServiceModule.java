@@ -67,10 +67,12 @@ package com.radixdlt;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.Singleton;
 import com.google.inject.multibindings.ProvidesIntoSet;
 import com.radixdlt.consensus.BFTConfiguration;
 import com.radixdlt.consensus.HashVerifier;
 import com.radixdlt.consensus.LedgerProof;
+import com.radixdlt.consensus.bft.BatchSignatureVerifier;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.crypto.Hasher;
@@ -88,6 +90,7 @@ import com.radixdlt.sync.LocalSyncService.VerifiedSyncResponseHandler;
 import com.radixdlt.sync.LocalSyncService.InvalidSyncResponseHandler;
 import com.radixdlt.sync.SyncConfig;
 import com.radixdlt.sync.SyncState;
+import com.radixdlt.sync.SyncVerificationExecutor;
 import com.radixdlt.sync.RemoteSyncService;
 import com.radixdlt.sync.LocalSyncService;
 import com.radixdlt.sync.messages.local.SyncCheckTrigger;
@@ -95,8 +98,11 @@ import com.radixdlt.sync.messages.remote.StatusRequest;
 import com.radixdlt.sync.messages.remote.SyncRequest;
 import com.radixdlt.sync.validation.RemoteSyncResponseSignaturesVerifier;
 import com.radixdlt.sync.validation.RemoteSyncResponseValidatorSetVerifier;
+import com.radixdlt.utils.ThreadFactories;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Module which manages synchronization of committed atoms across of nodes
@@ -187,8 +193,24 @@ public class SyncServiceModule extends AbstractModule {
 	}
 
 	@Provides
-	private RemoteSyncResponseSignaturesVerifier signaturesVerifier(Hasher hasher, HashVerifier hashVerifier) {
-		return new RemoteSyncResponseSignaturesVerifier(hasher, hashVerifier);
+	@Singleton
+	@SyncVerificationExecutor
+	private Executor syncVerificationExecutor() {
+		return Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(),
+			ThreadFactories.daemonThreads("Sync verification %d")
+		);
+	}
+
+	@Provides
+	@Singleton
+	private BatchSignatureVerifier batchSignatureVerifier(HashVerifier hashVerifier, @SyncVerificationExecutor Executor executor) {
+		return new BatchSignatureVerifier(hashVerifier, executor, Runtime.getRuntime().availableProcessors());
+	}
+
+	@Provides
+	private RemoteSyncResponseSignaturesVerifier signaturesVerifier(Hasher hasher, BatchSignatureVerifier batchSignatureVerifier) {
+		return new RemoteSyncResponseSignaturesVerifier(hasher, batchSignatureVerifier);
 	}
 
 	@ProvidesIntoSet
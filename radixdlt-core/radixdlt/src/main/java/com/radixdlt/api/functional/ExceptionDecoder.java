@@ -91,6 +91,7 @@ import com.radixdlt.constraintmachine.exceptions.VirtualParentStateDoesNotExist;
 import com.radixdlt.constraintmachine.exceptions.VirtualSubstateAlreadyDownException;
 import com.radixdlt.errors.ApiErrors;
 import com.radixdlt.mempool.MempoolFullException;
+import com.radixdlt.mempool.MempoolRetryableException;
 import com.radixdlt.utils.functional.Failure;
 
 import static com.fasterxml.jackson.databind.util.ClassUtil.getRootCause;
@@ -100,7 +101,7 @@ public final class ExceptionDecoder {
 	}
 
 	public static Failure decode(Throwable e) {
-		if (e instanceof MempoolFullException) {
+		if (e instanceof MempoolFullException || e instanceof MempoolRetryableException) {
 			return ApiErrors.UNABLE_TO_ADD_TO_MEMPOOL;
 		}
 
@@ -81,6 +81,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.google.inject.Inject;
+import com.radixdlt.counters.LabelledGauges;
+import com.radixdlt.counters.LatencyHistogram;
+import com.radixdlt.counters.LatencyHistograms;
+import com.radixdlt.counters.LatencyHistograms.HistogramKey;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.middleware2.InfoSupplier;
@@ -91,9 +95,13 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.util.AbstractCollection;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanServerConnection;
@@ -127,8 +135,13 @@ public class MetricsService {
 
 	private static final String COUNTER = "counter";
 	private static final String COUNTER_PREFIX = "info_counters_";
+	private static final String HISTOGRAM = "histogram";
+	private static final String GAUGE = "gauge";
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
 
 	private final SystemCounters systemCounters;
+	private final LatencyHistograms latencyHistograms;
+	private final LabelledGauges gauges;
 	private final InfoSupplier infoSupplier;
 	private final SystemConfigService systemConfigService;
 	private final AccountInfoService accountInfoService;
@@ -143,6 +156,8 @@ public class MetricsService {
 	public MetricsService(
 		@Endpoints Map<String, Boolean> endpointStatuses,
 		SystemCounters systemCounters,
+		LatencyHistograms latencyHistograms,
+		LabelledGauges gauges,
 		InfoSupplier infoSupplier,
 		SystemConfigService systemConfigService,
 		AccountInfoService accountInfoService,
@@ -154,6 +169,8 @@ public class MetricsService {
 	) {
 		this.endpointStatuses = endpointStatuses;
 		this.systemCounters = systemCounters;
+		this.latencyHistograms = latencyHistograms;
+		this.gauges = gauges;
 		this.infoSupplier = infoSupplier;
 		this.systemConfigService = systemConfigService;
 		this.accountInfoService = accountInfoService;
@@ -168,6 +185,8 @@ public class MetricsService {
 		var builder = new StringBuilder();
 
 		exportCounters(builder);
+		exportHistograms(builder);
+		exportGauges(builder);
 		exportSystemInfo(builder);
 
 		return builder.append('\n').toString();
@@ -287,6 +306,64 @@ public class MetricsService {
 		});
 	}
 
+	private void exportHistograms(StringBuilder builder) {
+		var byName = latencyHistograms.histograms().entrySet().stream()
+			.sorted(Comparator.comparing((Map.Entry<HistogramKey, LatencyHistogram> e) -> e.getKey().name())
+				.thenComparing(e -> e.getKey().labels().toString()))
+			.collect(Collectors.groupingBy(e -> e.getKey().name(), LinkedHashMap::new, Collectors.toList()));
+
+		byName.forEach((name, histograms) -> {
+			builder
+				.append("# HELP ").append(name).append('\n')
+				.append("# TYPE ").append(name).append(' ').append(HISTOGRAM).append('\n');
+			histograms.forEach(e -> appendHistogram(builder, name, e.getKey().labels(), e.getValue()));
+		});
+	}
+
+	private void exportGauges(StringBuilder builder) {
+		gauges.values().entrySet().stream()
+			.sorted(Map.Entry.comparingByKey())
+			.forEach(gauge -> {
+				var name = gauge.getKey();
+				builder
+					.append("# HELP ").append(name).append('\n')
+					.append("# TYPE ").append(name).append(' ').append(GAUGE).append('\n');
+				gauge.getValue().entrySet().stream()
+					.sorted(Comparator.comparing(e -> e.getKey().toString()))
+					.forEach(e -> builder.append(name).append('{').append(labels(e.getKey())).append("} ").append(e.getValue()).append('\n'));
+			});
+	}
+
+	private static String labels(Map<String, String> labels) {
+		return labels.entrySet().stream()
+			.sorted(Map.Entry.comparingByKey())
+			.map(label -> label.getKey() + "=\"" + label.getValue() + "\"")
+			.collect(Collectors.joining(","));
+	}
+
+	private static void appendHistogram(StringBuilder builder, String name, Map<String, String> labels, LatencyHistogram histogram) {
+		var labelPrefix = labels.entrySet().stream()
+			.map(label -> label.getKey() + "=\"" + label.getValue() + "\"")
+			.collect(Collectors.joining(","));
+		var bounds = LatencyHistogram.bucketBoundsNanos();
+		var counts = histogram.cumulativeCounts();
+
+		for (int i = 0; i < counts.length; i++) {
+			var le = i < bounds.length ? Double.toString(bounds[i] / NANOS_PER_SECOND) : "+Inf";
+			builder.append(name).append("_bucket{");
+			if (!labelPrefix.isEmpty()) {
+				builder.append(labelPrefix).append(',');
+			}
+			builder.append("le=\"").append(le).append("\"} ").append(counts[i]).append('\n');
+		}
+
+		var labelSuffix = labelPrefix.isEmpty() ? "" : "{" + labelPrefix + "}";
+		builder.append(name).append("_sum").append(labelSuffix).append(' ')
+			.append(histogram.sumNanos() / NANOS_PER_SECOND).append('\n');
+		builder.append(name).append("_count").append(labelSuffix).append(' ')
+			.append(counts[counts.length - 1]).append('\n');
+	}
+
 	private void generateCounterEntry(CounterType counterType, StringBuilder builder) {
 		var name = COUNTER_PREFIX + counterType.jsonPath().replace('.', '_');
 
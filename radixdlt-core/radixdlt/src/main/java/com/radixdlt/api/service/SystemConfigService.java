@@ -166,7 +166,12 @@ public class SystemConfigService {
 	static final List<CounterType> RADIX_ENGINE_COUNTERS = List.of(
 		CounterType.RADIX_ENGINE_INVALID_PROPOSED_COMMANDS,
 		CounterType.RADIX_ENGINE_USER_TRANSACTIONS,
-		CounterType.RADIX_ENGINE_SYSTEM_TRANSACTIONS
+		CounterType.RADIX_ENGINE_SYSTEM_TRANSACTIONS,
+		CounterType.RADIX_ENGINE_PREPARE_CACHE_HITS,
+		CounterType.RADIX_ENGINE_PREPARE_CACHE_MISSES,
+		CounterType.RADIX_ENGINE_PARSED_TXN_CACHE_HITS,
+		CounterType.RADIX_ENGINE_PARSED_TXN_CACHE_MISSES,
+		CounterType.RADIX_ENGINE_PARSED_TXN_CACHE_SIZE
 	);
 
 	@VisibleForTesting
@@ -181,11 +186,15 @@ public class SystemConfigService {
 
 	@VisibleForTesting
 	static final List<CounterType> NETWORKING_COUNTERS = List.of(
+		CounterType.MESSAGES_INBOUND_BACKLOG,
 		CounterType.MESSAGES_INBOUND_RECEIVED,
 		CounterType.MESSAGES_INBOUND_PROCESSED,
 		CounterType.MESSAGES_INBOUND_DISCARDED,
 		CounterType.MESSAGES_OUTBOUND_ABORTED,
+		CounterType.MESSAGES_OUTBOUND_DROPPED,
 		CounterType.MESSAGES_OUTBOUND_PENDING,
+		CounterType.MESSAGES_OUTBOUND_PEER_QUEUES,
+		CounterType.MESSAGES_OUTBOUND_PEER_PENDING_MAX,
 		CounterType.MESSAGES_OUTBOUND_PROCESSED,
 		CounterType.MESSAGES_OUTBOUND_SENT,
 		CounterType.NETWORKING_UDP_DROPPED_MESSAGES,
@@ -65,47 +65,73 @@
 package com.radixdlt.consensus;
 
 import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
 import com.radixdlt.crypto.Hasher;
+import com.radixdlt.utils.UInt256;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public final class ConsensusHasher {
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+
+	// Serialization buffer reused by hashes computed on the same thread
+	private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
 	private ConsensusHasher() {
 		throw new IllegalStateException();
 	}
 
 	public static HashCode toHash(HashCode opaque, LedgerHeader header, long nodeTimestamp, Hasher hasher) {
-		var raw = new ByteArrayOutputStream();
-		var outputStream = new DataOutputStream(raw);
-		try {
-			outputStream.writeInt(header != null ? 0 : 1); // 4 bytes (Version)
-			outputStream.write(opaque.asBytes()); // 32 bytes
-			if (header != null) {
-				outputStream.write(header.getAccumulatorState().getAccumulatorHash().asBytes()); // 32 bytes
-				outputStream.writeLong(header.getAccumulatorState().getStateVersion()); // 8 bytes
-				outputStream.writeLong(header.getEpoch()); // 8 bytes
-				outputStream.writeLong(header.getView().number()); // 8 bytes
-				outputStream.writeLong(header.timestamp()); // 8 bytes
-				if (header.getNextValidatorSet().isPresent()) {
-					var vset = header.getNextValidatorSet().get();
-					outputStream.writeInt(vset.getValidators().size()); // 4 bytes
-					for (var v : vset.getValidators().asList()) {
-						var key = v.getNode().getKey().getCompressedBytes();
-						outputStream.write(key);
-						var power = v.getPower();
-						outputStream.write(power.toByteArray());
-					}
-				} else {
-					outputStream.writeInt(0); // 4 bytes
+		var nextValidatorSet = header != null ? header.getNextValidatorSet().orElse(null) : null;
+		var buffer = buffer(serializedSize(opaque, header, nextValidatorSet));
+		buffer.putInt(header != null ? 0 : 1); // 4 bytes (Version)
+		putHash(buffer, opaque); // 32 bytes
+		if (header != null) {
+			putHash(buffer, header.getAccumulatorState().getAccumulatorHash()); // 32 bytes
+			buffer.putLong(header.getAccumulatorState().getStateVersion()); // 8 bytes
+			buffer.putLong(header.getEpoch()); // 8 bytes
+			buffer.putLong(header.getView().number()); // 8 bytes
+			buffer.putLong(header.timestamp()); // 8 bytes
+			if (nextValidatorSet != null) {
+				buffer.putInt(nextValidatorSet.getValidators().size()); // 4 bytes
+				for (var v : nextValidatorSet.getValidators().asList()) {
+					buffer.put(v.getNode().getKey().getCompressedBytes());
+					v.getPower().toByteArray(buffer.array(), buffer.position());
+					buffer.position(buffer.position() + UInt256.BYTES);
+				}
+			} else {
+				buffer.putInt(0); // 4 bytes
+			}
+		}
+		buffer.putLong(nodeTimestamp); // 8 bytes
+		return hasher.hashBytes(buffer.array(), 0, buffer.position());
+	}
+
+	private static int serializedSize(HashCode opaque, LedgerHeader header, BFTValidatorSet nextValidatorSet) {
+		var size = Integer.BYTES + opaque.bits() / Byte.SIZE + Long.BYTES;
+		if (header != null) {
+			size += header.getAccumulatorState().getAccumulatorHash().bits() / Byte.SIZE + 4 * Long.BYTES + Integer.BYTES;
+			if (nextValidatorSet != null) {
+				for (var v : nextValidatorSet.getValidators()) {
+					size += v.getNode().getKey().getCompressedBytes().length + UInt256.BYTES;
 				}
 			}
-			outputStream.writeLong(nodeTimestamp); // 8 bytes
-		} catch (IOException e) {
-			throw new IllegalStateException();
 		}
-		var toHash = raw.toByteArray();
-		return hasher.hashBytes(toHash);
+		return size;
+	}
+
+	private static ByteBuffer buffer(int size) {
+		var buffer = buffers.get();
+		if (buffer.capacity() < size) {
+			buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+			buffers.set(buffer);
+		}
+		buffer.clear();
+		return buffer;
+	}
+
+	private static void putHash(ByteBuffer buffer, HashCode hash) {
+		var written = hash.writeBytesTo(buffer.array(), buffer.position(), hash.bits() / Byte.SIZE);
+		buffer.position(buffer.position() + written);
 	}
-}
\ No newline at end of file
+}
@@ -79,6 +79,8 @@ import com.radixdlt.consensus.liveness.VoteTimeout;
 import com.radixdlt.crypto.Hasher;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
 import com.radixdlt.SecurityCritical;
 import com.radixdlt.SecurityCritical.SecurityKind;
@@ -114,7 +116,10 @@ public final class PendingVotes {
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(this.view, this.epoch, this.hash, this.isTimeout);
+			int result = Objects.hashCode(this.view);
+			result = 31 * result + Long.hashCode(this.epoch);
+			result = 31 * result + Objects.hashCode(this.hash);
+			return 31 * result + Boolean.hashCode(this.isTimeout);
 		}
 
 		@Override
@@ -130,8 +135,10 @@ public final class PendingVotes {
 		}
 	}
 
+	// Hashes of the vote data with pending votes, so that each distinct vote is only hashed once
+	private final BiMap<VoteData, HashCode> voteDataHashes = HashBiMap.create();
 	private final Map<HashCode, ValidationState> voteState = Maps.newHashMap();
-	private final Map<HashCode, ValidationState> timeoutVoteState = Maps.newHashMap();
+	private final Map<VoteTimeout, ValidationState> timeoutVoteState = Maps.newHashMap();
 	private final Map<BFTNode, PreviousVote> previousVotes = Maps.newHashMap();
 	private final Hasher hasher;
 
@@ -150,25 +157,33 @@ public final class PendingVotes {
 	 */
 	public VoteProcessingResult insertVote(Vote vote, BFTValidatorSet validatorSet) {
 		final BFTNode node = vote.getAuthor();
-		final VoteData voteData = vote.getVoteData();
-		final HashCode voteDataHash = this.hasher.hash(voteData);
 
 		if (!validatorSet.containsNode(node)) {
 			return VoteProcessingResult.rejected(VoteRejectedReason.INVALID_AUTHOR);
 		}
 
+		final HashCode voteDataHash = voteDataHash(vote.getVoteData());
+
 		if (!replacePreviousVote(node, vote, voteDataHash)) {
 			return VoteProcessingResult.rejected(VoteRejectedReason.DUPLICATE_VOTE);
 		}
 
-		return processVoteForQC(vote, validatorSet).<VoteProcessingResult>map(VoteProcessingResult::qcQuorum)
+		return processVoteForQC(vote, voteDataHash, validatorSet).<VoteProcessingResult>map(VoteProcessingResult::qcQuorum)
 			.or(() -> processVoteForTC(vote, validatorSet).map(VoteProcessingResult::tcQuorum))
 			.orElseGet(VoteProcessingResult::accepted);
 	}
 
-	private Optional<QuorumCertificate> processVoteForQC(Vote vote, BFTValidatorSet validatorSet) {
+	private HashCode voteDataHash(VoteData voteData) {
+		HashCode voteDataHash = this.voteDataHashes.get(voteData);
+		if (voteDataHash == null) {
+			voteDataHash = this.hasher.hash(voteData);
+			this.voteDataHashes.forcePut(voteData, voteDataHash);
+		}
+		return voteDataHash;
+	}
+
+	private Optional<QuorumCertificate> processVoteForQC(Vote vote, HashCode voteDataHash, BFTValidatorSet validatorSet) {
 		final VoteData voteData = vote.getVoteData();
-		final HashCode voteDataHash = this.hasher.hash(voteData);
 		final BFTNode node = vote.getAuthor();
 
 		final ValidationState validationState =
@@ -190,12 +205,12 @@ public final class PendingVotes {
 
 		final ECDSASignature timeoutSignature = vote.getTimeoutSignature().orElseThrow();
 
+		// Timeouts only consist of an epoch and a view, so are keyed directly rather than by hash
 		final VoteTimeout voteTimeout = VoteTimeout.of(vote);
-		final HashCode voteTimeoutHash = this.hasher.hash(voteTimeout);
 		final BFTNode node = vote.getAuthor();
 
 		final ValidationState validationState =
-			this.timeoutVoteState.computeIfAbsent(voteTimeoutHash, k -> validatorSet.newValidationState());
+			this.timeoutVoteState.computeIfAbsent(voteTimeout, k -> validatorSet.newValidationState());
 
 		final boolean signatureAdded = validationState.addSignature(node, vote.getTimestamp(), timeoutSignature);
 
@@ -234,16 +249,18 @@ public final class PendingVotes {
 				this.voteState.remove(previousVote.hash);
 			}
 		}
+		if (!this.voteState.containsKey(previousVote.hash) && !previousVote.hash.equals(voteHash)) {
+			this.voteDataHashes.inverse().remove(previousVote.hash);
+		}
 
 		if (previousVote.isTimeout) {
 			final var voteTimeout = new VoteTimeout(previousVote.view, previousVote.epoch);
-			final var voteTimeoutHash = this.hasher.hash(voteTimeout);
 
-			var timeoutValidationState = this.timeoutVoteState.get(voteTimeoutHash);
+			var timeoutValidationState = this.timeoutVoteState.get(voteTimeout);
 			if (timeoutValidationState != null) {
 				timeoutValidationState.removeSignature(author);
 				if (timeoutValidationState.isEmpty()) {
-					this.timeoutVoteState.remove(voteTimeoutHash);
+					this.timeoutVoteState.remove(voteTimeout);
 				}
 			}
 		}
@@ -273,6 +290,12 @@ public final class PendingVotes {
 		return this.timeoutVoteState.size();
 	}
 
+	@VisibleForTesting
+	// Greybox stuff for testing
+	int voteDataHashesSize() {
+		return this.voteDataHashes.size();
+	}
+
 	@VisibleForTesting
 	// Greybox stuff for testing
 	int previousVotesSize() {
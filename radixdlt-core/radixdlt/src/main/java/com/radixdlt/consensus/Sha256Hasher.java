@@ -100,4 +100,9 @@ public class Sha256Hasher implements Hasher {
 	public HashCode hashBytes(byte[] bytes) {
 		return HashUtils.sha256(bytes);
 	}
+
+	@Override
+	public HashCode hashBytes(byte[] bytes, int offset, int length) {
+		return HashUtils.sha256(bytes, offset, length);
+	}
 }
@@ -82,12 +82,22 @@ import java.util.stream.Stream;
  * as long as all validators sign.
  */
 public final class BFTValidatorSet {
+	// Number of longs used to represent a UInt256 power
+	static final int POWER_WORDS = 4;
+
 	private final ImmutableBiMap<BFTNode, BFTValidator> validators;
 
 	// Because we will base power on tokens and because tokens have a max limit
 	// of 2^256 this should never overflow
 	private final transient UInt256 totalPower;
 
+	// Position of each validator in the set, used by ValidationState to keep
+	// signatures and power in arrays rather than maps
+	private final transient ImmutableMap<BFTNode, Integer> indices;
+	private final transient BFTNode[] nodesByIndex;
+	// Power of each validator as POWER_WORDS longs, most significant first
+	private final transient long[] powerWords;
+
 	private BFTValidatorSet(Collection<BFTValidator> validators) {
 		this(validators.stream());
 	}
@@ -100,6 +110,19 @@ public final class BFTValidatorSet {
 			.map(BFTValidator::getPower)
 			.reduce(UInt256::add)
 			.orElse(UInt256.ZERO);
+
+		final int size = this.validators.size();
+		final var indicesBuilder = ImmutableMap.<BFTNode, Integer>builderWithExpectedSize(size);
+		this.nodesByIndex = new BFTNode[size];
+		this.powerWords = new long[size * POWER_WORDS];
+		int index = 0;
+		for (BFTValidator validator : this.validators.values()) {
+			indicesBuilder.put(validator.getNode(), index);
+			this.nodesByIndex[index] = validator.getNode();
+			toWords(validator.getPower(), this.powerWords, index * POWER_WORDS);
+			index += 1;
+		}
+		this.indices = indicesBuilder.build();
 	}
 
 	/**
@@ -163,6 +186,40 @@ public final class BFTValidatorSet {
 		return validators;
 	}
 
+	int size() {
+		return this.nodesByIndex.length;
+	}
+
+	/**
+	 * Returns the position of the specified node in this set.
+	 *
+	 * @param node the node to look up
+	 * @return the position of the node, or {@code -1} if the node is not a validator
+	 */
+	int indexOf(BFTNode node) {
+		final Integer index = this.indices.get(node);
+		return index == null ? -1 : index;
+	}
+
+	BFTNode nodeAt(int index) {
+		return this.nodesByIndex[index];
+	}
+
+	/**
+	 * Returns the power of all validators, {@link #POWER_WORDS} longs per validator
+	 * in the order of {@link #indexOf(BFTNode)}. The returned array must not be modified.
+	 */
+	long[] powerWords() {
+		return this.powerWords;
+	}
+
+	static void toWords(UInt256 value, long[] words, int offset) {
+		words[offset] = value.getHigh().getHigh();
+		words[offset + 1] = value.getHigh().getLow();
+		words[offset + 2] = value.getLow().getHigh();
+		words[offset + 3] = value.getLow().getLow();
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hashCode(this.validators);
@@ -0,0 +1,163 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.consensus.bft;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.SecurityCritical;
+import com.radixdlt.SecurityCritical.SecurityKind;
+import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.consensus.TimestampedECDSASignature;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Verifies sets of timestamped signatures in parallel.
+ * <p>
+ * Signatures are handed out one at a time to up to {@code parallelism} workers, the calling
+ * thread being one of them, so that verification stops on the first invalid signature.
+ */
+@SecurityCritical({ SecurityKind.SIG_VERIFY })
+public final class BatchSignatureVerifier {
+	private final HashVerifier hashVerifier;
+	private final Executor executor;
+	private final int parallelism;
+
+	public BatchSignatureVerifier(HashVerifier hashVerifier, Executor executor, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.hashVerifier = Objects.requireNonNull(hashVerifier);
+		this.executor = Objects.requireNonNull(executor);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Verifies that all of the specified signatures are valid.
+	 *
+	 * @param signatures the signatures to verify
+	 * @param hashFunction computes the hash signed by a signature, usually from its timestamp
+	 * @return {@code true} if all signatures are valid, {@code false} otherwise
+	 */
+	public boolean verifyAll(
+		TimestampedECDSASignatures signatures,
+		Function<TimestampedECDSASignature, HashCode> hashFunction
+	) {
+		var entries = ImmutableList.copyOf(signatures.getSignatures().entrySet());
+		if (entries.isEmpty()) {
+			return true;
+		}
+		return new Batch(entries, hashFunction).run();
+	}
+
+	/**
+	 * A single batch of signatures, shared between the workers verifying it.
+	 */
+	private final class Batch {
+		private final List<Map.Entry<BFTNode, TimestampedECDSASignature>> entries;
+		private final Function<TimestampedECDSASignature, HashCode> hashFunction;
+		private final AtomicInteger next = new AtomicInteger();
+		private final AtomicInteger verified = new AtomicInteger();
+		private final CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+
+		private Batch(List<Map.Entry<BFTNode, TimestampedECDSASignature>> entries, Function<TimestampedECDSASignature, HashCode> hashFunction) {
+			this.entries = entries;
+			this.hashFunction = Objects.requireNonNull(hashFunction);
+		}
+
+		private boolean run() {
+			var helpers = Math.min(parallelism, entries.size()) - 1;
+			for (int i = 0; i < helpers; i++) {
+				executor.execute(this::work);
+			}
+			work();
+			return outcome.join();
+		}
+
+		private void work() {
+			try {
+				int index;
+				while (!outcome.isDone() && (index = next.getAndIncrement()) < entries.size()) {
+					var entry = entries.get(index);
+					var signature = entry.getValue();
+					var hash = hashFunction.apply(signature);
+					if (!hashVerifier.verify(entry.getKey().getKey(), hash, signature.signature())) {
+						outcome.complete(false);
+					} else if (verified.incrementAndGet() == entries.size()) {
+						outcome.complete(true);
+					}
+				}
+			} catch (RuntimeException e) {
+				outcome.completeExceptionally(e);
+			}
+		}
+	}
+}
@@ -65,8 +65,8 @@
 package com.radixdlt.consensus.bft;
 
 import com.radixdlt.utils.UInt256;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Objects;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
@@ -78,14 +78,22 @@ import javax.annotation.concurrent.NotThreadSafe;
 /**
  * Keeps track of current validation state for a thing that
  * needs multiple correct signatures for a quorum.
+ * <p>
+ * Signatures are kept in arrays indexed by the signer's position in the
+ * validator set, and signed power is summed in primitive words, so that
+ * adding a signature does not allocate.
  */
 @NotThreadSafe
 public final class ValidationState {
+	private static final int POWER_WORDS = BFTValidatorSet.POWER_WORDS;
 
 	private final BFTValidatorSet validatorSet;
-	private final Map<BFTNode, TimestampedECDSASignature> signedNodes;
-	private transient UInt256 signedPower;
-	private final transient UInt256 threshold;
+	private final BitSet signedNodes;
+	private final long[] timestamps;
+	private final ECDSASignature[] signatures;
+	// Unsigned 256 bit integers, most significant word first
+	private final transient long[] signedPower;
+	private final transient long[] threshold;
 
 	/**
 	 * Construct empty validation state for given hash and set of validator keys.
@@ -98,9 +106,13 @@ public final class ValidationState {
 
 	private ValidationState(BFTValidatorSet validatorSet) {
 		this.validatorSet = Objects.requireNonNull(validatorSet);
-		this.signedNodes = new HashMap<>();
-		this.signedPower = UInt256.ZERO;
-		this.threshold = threshold(validatorSet.getTotalPower());
+		final int size = validatorSet.size();
+		this.signedNodes = new BitSet(size);
+		this.timestamps = new long[size];
+		this.signatures = new ECDSASignature[size];
+		this.signedPower = new long[POWER_WORDS];
+		this.threshold = new long[POWER_WORDS];
+		BFTValidatorSet.toWords(threshold(validatorSet.getTotalPower()), this.threshold, 0);
 	}
 
 	/**
@@ -109,11 +121,12 @@ public final class ValidationState {
 	 * @param node the node who's signature is to be removed
 	 */
 	public void removeSignature(BFTNode node) {
-		if (this.validatorSet.containsNode(node)) {
-			this.signedNodes.computeIfPresent(node, (k, v) -> {
-				this.signedPower = this.signedPower.subtract(this.validatorSet.getPower(node));
-				return null;
-			});
+		final int index = this.validatorSet.indexOf(node);
+		if (index >= 0 && this.signedNodes.get(index)) {
+			this.signedNodes.clear(index);
+			this.timestamps[index] = 0L;
+			this.signatures[index] = null;
+			subtract(this.signedPower, this.validatorSet.powerWords(), index * POWER_WORDS);
 		}
 	}
 
@@ -128,16 +141,15 @@ public final class ValidationState {
 	 * @return whether the key was added or not
 	 */
 	public boolean addSignature(BFTNode node, long timestamp, ECDSASignature signature) {
-		if (validatorSet.containsNode(node)
-			&& !this.signedNodes.containsKey(node)) {
-			this.signedNodes.computeIfAbsent(node, k -> {
-				UInt256 weight = this.validatorSet.getPower(node);
-				this.signedPower = this.signedPower.add(weight);
-				return TimestampedECDSASignature.from(timestamp, signature);
-			});
-			return true;
+		final int index = this.validatorSet.indexOf(node);
+		if (index < 0 || this.signedNodes.get(index)) {
+			return false;
 		}
-		return false;
+		this.signedNodes.set(index);
+		this.timestamps[index] = timestamp;
+		this.signatures[index] = signature;
+		add(this.signedPower, this.validatorSet.powerWords(), index * POWER_WORDS);
+		return true;
 	}
 
 	/**
@@ -154,7 +166,13 @@ public final class ValidationState {
 	 * @return {@code true} if we have enough valid signatures to form a quorum,
 	 */
 	public boolean complete() {
-		return signedPower.compareTo(threshold) >= 0;
+		for (int i = 0; i < POWER_WORDS; ++i) {
+			final int cmp = Long.compareUnsigned(this.signedPower[i], this.threshold[i]);
+			if (cmp != 0) {
+				return cmp > 0;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -163,7 +181,33 @@ public final class ValidationState {
 	 * @return an {@link ECDSASignatures} object for our current set of valid signatures
 	 */
 	public TimestampedECDSASignatures signatures() {
-		return new TimestampedECDSASignatures(ImmutableMap.copyOf(this.signedNodes));
+		final var builder = ImmutableMap.<BFTNode, TimestampedECDSASignature>builderWithExpectedSize(this.signedNodes.cardinality());
+		for (int i = this.signedNodes.nextSetBit(0); i >= 0; i = this.signedNodes.nextSetBit(i + 1)) {
+			builder.put(this.validatorSet.nodeAt(i), TimestampedECDSASignature.from(this.timestamps[i], this.signatures[i]));
+		}
+		return new TimestampedECDSASignatures(builder.build());
+	}
+
+	private static void add(long[] sum, long[] words, int offset) {
+		long carry = 0L;
+		for (int i = POWER_WORDS - 1; i >= 0; --i) {
+			final long word = words[offset + i];
+			final long result = sum[i] + word + carry;
+			// Unsigned overflow if the result is below an operand, or equal to it with a carry in
+			carry = (Long.compareUnsigned(result, word) < 0 || (carry != 0L && result == word)) ? 1L : 0L;
+			sum[i] = result;
+		}
+	}
+
+	private static void subtract(long[] difference, long[] words, int offset) {
+		long borrow = 0L;
+		for (int i = POWER_WORDS - 1; i >= 0; --i) {
+			final long word = words[offset + i];
+			final long result = difference[i] - word - borrow;
+			// Unsigned underflow if the minuend is below the subtrahend, or equal to it with a borrow in
+			borrow = (Long.compareUnsigned(difference[i], word) < 0 || (borrow != 0L && difference[i] == word)) ? 1L : 0L;
+			difference[i] = result;
+		}
 	}
 
 	@VisibleForTesting
@@ -180,7 +224,7 @@ public final class ValidationState {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(validatorSet, signedNodes);
+		return Objects.hash(validatorSet, signedNodes, Arrays.hashCode(timestamps), Arrays.hashCode(signatures));
 	}
 
 	@Override
@@ -191,7 +235,9 @@ public final class ValidationState {
 		if (obj instanceof ValidationState) {
 			ValidationState that = (ValidationState) obj;
 			return Objects.equals(this.validatorSet, that.validatorSet)
-				&& Objects.equals(this.signedNodes, that.signedNodes);
+				&& Objects.equals(this.signedNodes, that.signedNodes)
+				&& Arrays.equals(this.timestamps, that.timestamps)
+				&& Arrays.equals(this.signatures, that.signatures);
 		}
 		return false;
 	}
@@ -199,6 +245,6 @@ public final class ValidationState {
 	@Override
 	public String toString() {
 		return String.format("%s[validatorSet=%s, signedNodes=%s]",
-			getClass().getSimpleName(), validatorSet, signedNodes);
+			getClass().getSimpleName(), validatorSet, signatures().getSignatures());
 	}
 }
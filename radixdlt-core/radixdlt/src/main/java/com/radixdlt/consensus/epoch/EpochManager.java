@@ -106,12 +106,7 @@ import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.environment.RemoteEventProcessor;
 import com.radixdlt.ledger.LedgerUpdate;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -127,6 +122,9 @@ import org.apache.logging.log4j.Logger;
 @NotThreadSafe
 public final class EpochManager {
 	private static final Logger log = LogManager.getLogger();
+	// Enough for a proposal and a vote from each of a few hundred validators in the next epoch
+	private static final int MAX_QUEUED_CONSENSUS_EVENTS = 1024;
+
 	private final BFTNode self;
 	private final PacemakerFactory pacemakerFactory;
 	private final VertexStoreFactory vertexStoreFactory;
@@ -136,7 +134,7 @@ public final class EpochManager {
 	private final HashSigner signer;
 	private final PacemakerTimeoutCalculator timeoutCalculator;
 	private final SystemCounters counters;
-	private final Map<Long, List<ConsensusEvent>> queuedEvents;
+	private final QueuedConsensusEvents queuedEvents;
 	private final BFTFactory bftFactory;
 	private final PacemakerStateFactory pacemakerStateFactory;
 
@@ -213,7 +211,7 @@ public final class EpochManager {
 		this.counters = Objects.requireNonNull(counters);
 		this.pacemakerStateFactory = Objects.requireNonNull(pacemakerStateFactory);
 		this.persistentSafetyStateStore = Objects.requireNonNull(persistentSafetyStateStore);
-		this.queuedEvents = new HashMap<>();
+		this.queuedEvents = new QueuedConsensusEvents(MAX_QUEUED_CONSENSUS_EVENTS);
 	}
 
 	private void updateEpochState() {
@@ -330,12 +328,9 @@ public final class EpochManager {
 		this.bftEventProcessor.start();
 
 		// Execute any queued up consensus events
-		final List<ConsensusEvent> queuedEventsForEpoch = queuedEvents.getOrDefault(epochChange.getEpoch(), Collections.emptyList());
-		View highView = queuedEventsForEpoch.stream().map(ConsensusEvent::getView).max(Comparator.naturalOrder()).orElse(View.genesis());
-		queuedEventsForEpoch.stream().filter(e -> e.getView().equals(highView))
-			.forEach(this::processConsensusEventInternal);
-
-		queuedEvents.remove(epochChange.getEpoch());
+		final List<ConsensusEvent> queuedEventsForEpoch = queuedEvents.remove(epochChange.getEpoch());
+		counters.set(CounterType.EPOCH_MANAGER_QUEUED_CONSENSUS_EVENTS_SIZE, queuedEvents.size());
+		queuedEventsForEpoch.forEach(this::processConsensusEventInternal);
 	}
 
 	private void appendValidator(StringBuilder msg, BFTValidator v) {
@@ -361,9 +356,12 @@ public final class EpochManager {
 			);
 
 			// queue higher epoch events for later processing
-			// TODO: need to clear this by some rule (e.g. timeout or max size) or else memory leak attack possible
-			queuedEvents.computeIfAbsent(consensusEvent.getEpoch(), e -> new ArrayList<>()).add(consensusEvent);
-			counters.increment(CounterType.EPOCH_MANAGER_QUEUED_CONSENSUS_EVENTS);
+			if (queuedEvents.add(consensusEvent)) {
+				counters.increment(CounterType.EPOCH_MANAGER_QUEUED_CONSENSUS_EVENTS);
+			} else {
+				counters.increment(CounterType.EPOCH_MANAGER_DROPPED_CONSENSUS_EVENTS);
+			}
+			counters.set(CounterType.EPOCH_MANAGER_QUEUED_CONSENSUS_EVENTS_SIZE, queuedEvents.size());
 			return;
 		}
 
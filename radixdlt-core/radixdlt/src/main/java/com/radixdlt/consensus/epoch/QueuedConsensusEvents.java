@@ -0,0 +1,206 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.consensus.epoch;
+
+import com.radixdlt.consensus.ConsensusEvent;
+import com.radixdlt.consensus.Proposal;
+import com.radixdlt.consensus.Vote;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.View;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Consensus events received for epochs ahead of the current one, held until the epoch
+ * change which allows them to be processed.
+ * <p>
+ * Only the events of the highest view seen for an epoch are replayed on the epoch change,
+ * so events of lower views are discarded as soon as a higher view arrives, and at most one
+ * proposal and one vote is kept per author. As in {@link com.radixdlt.consensus.PendingVotes},
+ * a timeout vote replaces the regular vote of its author. The total number of events is bounded; when
+ * full, the events of the furthest epoch are evicted in favour of nearer ones.
+ */
+@NotThreadSafe
+final class QueuedConsensusEvents {
+	private final int maxSize;
+	private final TreeMap<Long, EpochEvents> epochs = new TreeMap<>();
+	private int size;
+
+	private static final class EpochEvents {
+		private View view;
+		private final Map<BFTNode, ConsensusEvent> proposals = new LinkedHashMap<>();
+		private final Map<BFTNode, ConsensusEvent> votes = new LinkedHashMap<>();
+
+		private EpochEvents(View view) {
+			this.view = view;
+		}
+
+		private Map<BFTNode, ConsensusEvent> eventsOfKind(ConsensusEvent event) {
+			return event instanceof Proposal ? proposals : votes;
+		}
+
+		private int size() {
+			return proposals.size() + votes.size();
+		}
+	}
+
+	QueuedConsensusEvents(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Queues a consensus event for later processing.
+	 *
+	 * @param event the higher epoch consensus event
+	 * @return {@code false} if the event was discarded, as it is superseded by or a duplicate
+	 * of a queued event, or the queue is full of events of nearer epochs
+	 */
+	boolean add(ConsensusEvent event) {
+		final long epoch = event.getEpoch();
+		final EpochEvents queued = epochs.get(epoch);
+		if (queued != null) {
+			final int cmp = event.getView().compareTo(queued.view);
+			if (cmp < 0) {
+				return false;
+			}
+			if (cmp == 0) {
+				final Map<BFTNode, ConsensusEvent> events = queued.eventsOfKind(event);
+				final ConsensusEvent previous = events.get(event.getAuthor());
+				if (previous != null) {
+					if (!isTimeoutVote(event) || isTimeoutVote(previous)) {
+						return false;
+					}
+					events.put(event.getAuthor(), event);
+					return true;
+				}
+			}
+			if (cmp > 0) {
+				size -= queued.size();
+				queued.proposals.clear();
+				queued.votes.clear();
+				queued.view = event.getView();
+			}
+		}
+
+		while (size >= maxSize && epochs.lastKey() > epoch) {
+			size -= epochs.pollLastEntry().getValue().size();
+		}
+		if (size >= maxSize) {
+			if (queued != null && queued.size() == 0) {
+				epochs.remove(epoch);
+			}
+			return false;
+		}
+
+		epochs.computeIfAbsent(epoch, e -> new EpochEvents(event.getView()))
+			.eventsOfKind(event)
+			.put(event.getAuthor(), event);
+		size++;
+		return true;
+	}
+
+	private static boolean isTimeoutVote(ConsensusEvent event) {
+		return event instanceof Vote && ((Vote) event).isTimeout();
+	}
+
+	/**
+	 * Removes the events queued for the given epoch, proposals first, along with any events
+	 * of earlier epochs, which can no longer be processed.
+	 *
+	 * @param epoch the epoch which has been entered
+	 * @return the events of the highest view queued for the epoch
+	 */
+	List<ConsensusEvent> remove(long epoch) {
+		final NavigableMap<Long, EpochEvents> removed = epochs.headMap(epoch, true);
+		for (EpochEvents e : removed.values()) {
+			size -= e.size();
+		}
+		final EpochEvents queued = removed.get(epoch);
+		removed.clear();
+
+		if (queued == null) {
+			return List.of();
+		}
+		final List<ConsensusEvent> events = new ArrayList<>(queued.size());
+		events.addAll(queued.proposals.values());
+		events.addAll(queued.votes.values());
+		return events;
+	}
+
+	/**
+	 * @return the number of events queued
+	 */
+	int size() {
+		return size;
+	}
+}
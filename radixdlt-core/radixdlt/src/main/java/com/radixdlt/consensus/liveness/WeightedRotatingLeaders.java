@@ -72,6 +72,7 @@ import com.radixdlt.utils.KeyComparator;
 import com.radixdlt.utils.UInt256;
 import com.radixdlt.utils.UInt256s;
 import com.radixdlt.utils.UInt384;
+import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -86,29 +87,147 @@ import java.util.Map.Entry;
  * previous view and thus computing the leader for an arbitrary view can
  * be quite expensive.
  *
- * We resolve this by keeping a cache of some given size of the previous
- * views closest to the highest view calculated.
+ * We resolve this by computing the leaders of an epoch up front into an
+ * array of validator indices, so that getting the proposer of a view is a
+ * lookup. With powers reduced by their greatest common divisor, the weights
+ * repeat every total power views once past the first such period. If that is
+ * short enough the first two periods are computed and cover all views,
+ * otherwise views up to the given last scheduled view are. Views beyond the
+ * schedule fall back to computing leaders one view after the other, keeping
+ * a cache of some given size of the previous views closest to the highest
+ * view calculated.
  *
- * This class stateful and is NOT thread-safe.
+ * Lookups in the schedule are thread-safe, the fallback is synchronized.
  */
 public final class WeightedRotatingLeaders implements ProposerElection {
 	private static final int DEFAULT_CACHE_SIZE = 10;
+	private static final long DEFAULT_SCHEDULED_VIEWS = 10_000;
+	// Bounds the schedule to 512 KiB
+	private static final int MAX_SCHEDULED_VIEWS = 1 << 17;
+	// Weights are kept within a few times the total power, which then fits in a long
+	private static final int MAX_LONG_TOTAL_POWER_BITS = 60;
 	private static final UInt384 POW_2_256 = UInt384.from(UInt256.MAX_VALUE).increment();
 
 	private final BFTValidatorSet validatorSet;
 	private final Comparator<Entry<BFTValidator, UInt384>> weightsComparator;
 	private final CachingNextLeaderComputer nextLeaderComputer;
+	// Validators sorted by key, as ties between weights go to the lowest key
+	private final BFTValidator[] validators;
+	private final int[] schedule;
+	// Number of views after which the schedule repeats, or zero if it doesn't
+	private final int period;
 
 	public WeightedRotatingLeaders(BFTValidatorSet validatorSet) {
 		this(validatorSet, DEFAULT_CACHE_SIZE);
 	}
 
 	public WeightedRotatingLeaders(BFTValidatorSet validatorSet, int cacheSize) {
+		this(validatorSet, View.of(DEFAULT_SCHEDULED_VIEWS), cacheSize);
+	}
+
+	public WeightedRotatingLeaders(BFTValidatorSet validatorSet, View lastScheduledView) {
+		this(validatorSet, lastScheduledView, DEFAULT_CACHE_SIZE);
+	}
+
+	public WeightedRotatingLeaders(BFTValidatorSet validatorSet, View lastScheduledView, int cacheSize) {
 		this.validatorSet = validatorSet;
 		this.weightsComparator = Comparator
 			.comparing(Entry<BFTValidator, UInt384>::getValue)
 			.thenComparing(v -> v.getKey().getNode().getKey(), KeyComparator.instance().reversed());
 		this.nextLeaderComputer = new CachingNextLeaderComputer(validatorSet, weightsComparator, cacheSize);
+
+		this.validators = validatorSet.getValidators().stream()
+			.sorted(Comparator.comparing(v -> v.getNode().getKey(), KeyComparator.instance()))
+			.toArray(BFTValidator[]::new);
+		final var powers = Arrays.stream(this.validators)
+			.map(v -> new BigInteger(1, v.getPower().toByteArray()))
+			.toArray(BigInteger[]::new);
+		// Only relative power matters
+		final var gcd = Arrays.stream(powers).reduce(BigInteger.ZERO, BigInteger::gcd);
+		for (int i = 0; i < powers.length; i++) {
+			powers[i] = powers[i].divide(gcd);
+		}
+		final var totalPower = Arrays.stream(powers).reduce(BigInteger.ZERO, BigInteger::add);
+
+		final var periodicSchedule = totalPower.compareTo(BigInteger.valueOf(MAX_SCHEDULED_VIEWS / 2)) <= 0
+			? new int[totalPower.intValueExact() * 2]
+			: null;
+		if (periodicSchedule != null && computeSchedule(powers, periodicSchedule, totalPower.intValueExact())) {
+			this.schedule = periodicSchedule;
+			this.period = totalPower.intValueExact();
+		} else {
+			this.schedule = new int[(int) Math.min(MAX_SCHEDULED_VIEWS - 1, lastScheduledView.number()) + 1];
+			this.period = 0;
+			computeSchedule(powers, this.schedule, 0);
+		}
+	}
+
+	private static boolean computeSchedule(BigInteger[] powers, int[] leaders, int period) {
+		final var totalPower = Arrays.stream(powers).reduce(BigInteger.ZERO, BigInteger::add);
+		return totalPower.bitLength() <= MAX_LONG_TOTAL_POWER_BITS
+			? computeSchedule(Arrays.stream(powers).mapToLong(BigInteger::longValueExact).toArray(), leaders, period)
+			: computeBigSchedule(powers, leaders, period);
+	}
+
+	/**
+	 * Computes the leaders of the first {@code leaders.length} views, as indices into the
+	 * validators, using the same weights as {@link CachingNextLeaderComputer} offset by 2^256.
+	 *
+	 * @return whether the weights after all views are the same as after {@code period} views
+	 */
+	private static boolean computeSchedule(long[] powers, int[] leaders, int period) {
+		final long totalPower = Arrays.stream(powers).sum();
+		final long[] weights = new long[powers.length];
+		long[] periodWeights = null;
+		for (int i = 0; i < powers.length; i++) {
+			weights[i] = -powers[i];
+		}
+		for (int view = 0; view < leaders.length; view++) {
+			if (view == period) {
+				periodWeights = weights.clone();
+			}
+			int heaviest = 0;
+			for (int i = 1; i < weights.length; i++) {
+				if (weights[i] > weights[heaviest]) {
+					heaviest = i;
+				}
+			}
+			leaders[view] = heaviest;
+			weights[heaviest] -= totalPower;
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] += powers[i];
+			}
+		}
+		return Arrays.equals(weights, periodWeights);
+	}
+
+	/**
+	 * As {@link #computeSchedule(long[], int[], int)}, for powers too large for longs.
+	 */
+	private static boolean computeBigSchedule(BigInteger[] powers, int[] leaders, int period) {
+		final BigInteger totalPower = Arrays.stream(powers).reduce(BigInteger.ZERO, BigInteger::add);
+		final BigInteger[] weights = new BigInteger[powers.length];
+		BigInteger[] periodWeights = null;
+		for (int i = 0; i < powers.length; i++) {
+			weights[i] = powers[i].negate();
+		}
+		for (int view = 0; view < leaders.length; view++) {
+			if (view == period) {
+				periodWeights = weights.clone();
+			}
+			int heaviest = 0;
+			for (int i = 1; i < weights.length; i++) {
+				if (weights[i].compareTo(weights[heaviest]) > 0) {
+					heaviest = i;
+				}
+			}
+			leaders[view] = heaviest;
+			weights[heaviest] = weights[heaviest].subtract(totalPower);
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = weights[i].add(powers[i]);
+			}
+		}
+		return Arrays.equals(weights, periodWeights);
 	}
 
 	private static class CachingNextLeaderComputer {
@@ -210,6 +329,17 @@ public final class WeightedRotatingLeaders implements ProposerElection {
 
 	@Override
 	public BFTNode getProposer(View view) {
+		final long number = view.number();
+		if (period > 0 && number >= schedule.length) {
+			return validators[schedule[(int) (period + (number - period) % period)]].getNode();
+		}
+		if (number < schedule.length) {
+			return validators[schedule[(int) number]].getNode();
+		}
+		return computeProposer(view);
+	}
+
+	private synchronized BFTNode computeProposer(View view) {
 		nextLeaderComputer.computeToView(view);
 
 		// validator will only be null if the view supplied is before the cache
@@ -227,6 +357,7 @@ public final class WeightedRotatingLeaders implements ProposerElection {
 
 	@Override
 	public String toString() {
-		return String.format("%s %s", this.getClass().getSimpleName(), this.nextLeaderComputer);
+		return String.format("%s views=%s period=%s %s", this.getClass().getSimpleName(), this.schedule.length,
+			this.period, this.nextLeaderComputer);
 	}
 }
\ No newline at end of file
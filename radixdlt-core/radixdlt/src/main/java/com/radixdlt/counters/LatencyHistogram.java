@@ -0,0 +1,161 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.counters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram of latencies with fixed buckets, suitable for
+ * export as a Prometheus histogram.
+ */
+public final class LatencyHistogram {
+	private static final long[] BUCKET_BOUNDS_NANOS = {
+		TimeUnit.MICROSECONDS.toNanos(100),
+		TimeUnit.MICROSECONDS.toNanos(250),
+		TimeUnit.MICROSECONDS.toNanos(500),
+		TimeUnit.MILLISECONDS.toNanos(1),
+		TimeUnit.MILLISECONDS.toNanos(2) + TimeUnit.MICROSECONDS.toNanos(500),
+		TimeUnit.MILLISECONDS.toNanos(5),
+		TimeUnit.MILLISECONDS.toNanos(10),
+		TimeUnit.MILLISECONDS.toNanos(25),
+		TimeUnit.MILLISECONDS.toNanos(50),
+		TimeUnit.MILLISECONDS.toNanos(100),
+		TimeUnit.MILLISECONDS.toNanos(250),
+		TimeUnit.MILLISECONDS.toNanos(500),
+		TimeUnit.SECONDS.toNanos(1),
+		TimeUnit.MILLISECONDS.toNanos(2500),
+		TimeUnit.SECONDS.toNanos(5),
+		TimeUnit.SECONDS.toNanos(10)
+	};
+
+	// One more than bounds, the last bucket counts everything above the largest bound
+	private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+	private final LongAdder sumNanos = new LongAdder();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos the latency in nanoseconds, negative values are recorded as zero
+	 */
+	public void record(long nanos) {
+		final var latency = Math.max(0L, nanos);
+		var bucket = 0;
+		while (bucket < BUCKET_BOUNDS_NANOS.length && latency > BUCKET_BOUNDS_NANOS[bucket]) {
+			bucket++;
+		}
+		buckets[bucket].increment();
+		sumNanos.add(latency);
+	}
+
+	/**
+	 * Returns the upper bounds of the buckets in nanoseconds, excluding the
+	 * implicit unbounded bucket.
+	 *
+	 * @return the upper bounds of the buckets
+	 */
+	public static long[] bucketBoundsNanos() {
+		return BUCKET_BOUNDS_NANOS.clone();
+	}
+
+	/**
+	 * Returns the cumulative number of latencies at or below each bucket bound.
+	 * The last element, one past the bucket bounds, is the total count.
+	 *
+	 * @return the cumulative bucket counts
+	 */
+	public long[] cumulativeCounts() {
+		final var counts = new long[buckets.length];
+		var total = 0L;
+		for (int i = 0; i < buckets.length; i++) {
+			total += buckets[i].sum();
+			counts[i] = total;
+		}
+		return counts;
+	}
+
+	public long count() {
+		var total = 0L;
+		for (var bucket : buckets) {
+			total += bucket.sum();
+		}
+		return total;
+	}
+
+	public long sumNanos() {
+		return sumNanos.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[count=%s, sumNanos=%s]", getClass().getSimpleName(), count(), sumNanos());
+	}
+}
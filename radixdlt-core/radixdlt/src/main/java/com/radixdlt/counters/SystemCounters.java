@@ -118,6 +118,14 @@ public interface SystemCounters {
 		COUNT_BDB_LEDGER_DELETES("count.bdb.ledger.deletes"),
 		COUNT_BDB_LEDGER_PROOFS_ADDED("count.bdb.ledger.proofs.added"),
 		COUNT_BDB_LEDGER_PROOFS_REMOVED("count.bdb.ledger.proofs.removed"),
+		/**
+		 * Number of fsyncs issued for ledger commits, either per commit or per commit group.
+		 */
+		COUNT_BDB_LEDGER_FSYNCS("count.bdb.ledger.fsyncs"),
+		/**
+		 * Number of ledger commits made durable by the most recent fsync.
+		 */
+		COUNT_BDB_LEDGER_GROUP_COMMIT_SIZE("count.bdb.ledger.group_commit_size"),
 
 		COUNT_BDB_ADDRESS_BOOK_TOTAL("count.bdb.address_book.total"),
 		COUNT_BDB_ADDRESS_BOOK_BYTES_READ("count.bdb.address_book.bytes.read"),
@@ -129,6 +137,7 @@ public interface SystemCounters {
 		COUNT_BDB_SAFETY_STATE_BYTES_WRITE("count.bdb.safety_state.bytes.write"),
 
 		COUNT_BDB_HEADER_BYTES_WRITE("count.bdb.header.bytes.write"),
+		COUNT_BDB_VERTEX_STORE_BYTES_WRITE("count.bdb.vertex_store.bytes.write"),
 
 		// API DB metrics
 		COUNT_APIDB_QUEUE_SIZE("count.apidb.queue.size"),
@@ -181,18 +190,56 @@ public interface SystemCounters {
 		ELAPSED_BDB_LEDGER_TOTAL("elapsed.bdb.ledger.total"),
 
 		ELAPSED_BDB_SAFETY_STATE("elapsed.bdb.safety_state"),
+		/**
+		 * Total time spent writing and syncing safety states to the safety state log, in microseconds.
+		 * Divide by {@link #COUNT_SAFETY_STATE_LOG_COMMITS} for the mean latency added to each vote.
+		 */
+		ELAPSED_SAFETY_STATE_LOG_COMMIT("elapsed.safety_state_log.commit"),
+		COUNT_SAFETY_STATE_LOG_COMMITS("count.safety_state_log.commits"),
 
 		PERSISTENCE_VERTEX_STORE_SAVES("persistence.vertex_store_saves"),
 		PERSISTENCE_SAFETY_STORE_SAVES("persistence.safety_store_saves"),
 
 		PERSISTENCE_ATOM_LOG_WRITE_BYTES("persistence.atom_log.write_bytes"),
 		PERSISTENCE_ATOM_LOG_WRITE_COMPRESSED("persistence.atom_log.write_compressed"),
+		/**
+		 * Substate and resource reads served from the substate cache.
+		 */
+		PERSISTENCE_SUBSTATE_CACHE_HITS("persistence.substate_cache.hits"),
+		/**
+		 * Substate and resource reads which had to go to the database.
+		 */
+		PERSISTENCE_SUBSTATE_CACHE_MISSES("persistence.substate_cache.misses"),
+		/**
+		 * Approximate number of bytes held by the substate cache.
+		 */
+		PERSISTENCE_SUBSTATE_CACHE_SIZE("persistence.substate_cache.size"),
 
 		EPOCH_MANAGER_QUEUED_CONSENSUS_EVENTS("epoch_manager.queued_consensus_events"),
+		/**
+		 * Higher epoch consensus events discarded as superseded, duplicate, or exceeding the queue size.
+		 */
+		EPOCH_MANAGER_DROPPED_CONSENSUS_EVENTS("epoch_manager.dropped_consensus_events"),
+		/**
+		 * Number of higher epoch consensus events currently queued for the next epoch changes.
+		 */
+		EPOCH_MANAGER_QUEUED_CONSENSUS_EVENTS_SIZE("epoch_manager.queued_consensus_events_size"),
 
 		STARTUP_TIME_MS("startup.time_ms"),
 
 		HASHED_BYTES("hashed.bytes"),
+		/**
+		 * Number of hashes computed.
+		 */
+		HASHED_COMPUTED("hashed.computed"),
+		/**
+		 * Number of object hashes served from the memoized hashes of immutable consensus objects.
+		 */
+		HASHED_MEMOIZED("hashed.memoized"),
+		/**
+		 * Number of bytes of DSON serialized in order to hash objects.
+		 */
+		HASHED_SERIALIZED_BYTES("hashed.serialized_bytes"),
 
 		LEDGER_STATE_VERSION("ledger.state_version"),
 		LEDGER_SYNC_COMMANDS_PROCESSED("ledger.sync_commands_processed"),
@@ -217,12 +264,29 @@ public interface SystemCounters {
 		RADIX_ENGINE_INVALID_PROPOSED_COMMANDS("radix_engine.invalid_proposed_commands"),
 		RADIX_ENGINE_USER_TRANSACTIONS("radix_engine.user_transactions"),
 		RADIX_ENGINE_SYSTEM_TRANSACTIONS("radix_engine.system_transactions"),
-
+		/** Number of vertices prepared on top of the already prepared branch of their parent. */
+		RADIX_ENGINE_PREPARE_CACHE_HITS("radix_engine.prepare_cache_hits"),
+		/** Number of vertices prepared by re-executing all uncommitted transactions of their ancestors. */
+		RADIX_ENGINE_PREPARE_CACHE_MISSES("radix_engine.prepare_cache_misses"),
+		/** Number of transactions whose parsed form and signer were found in the parsed transaction cache. */
+		RADIX_ENGINE_PARSED_TXN_CACHE_HITS("radix_engine.parsed_txn_cache_hits"),
+		/** Number of transactions which had to be parsed and signature checked. */
+		RADIX_ENGINE_PARSED_TXN_CACHE_MISSES("radix_engine.parsed_txn_cache_misses"),
+		RADIX_ENGINE_PARSED_TXN_CACHE_SIZE("radix_engine.parsed_txn_cache_size"),
+
+		/** Number of inbound messages waiting to be decoded. */
+		MESSAGES_INBOUND_BACKLOG("messages.inbound.backlog"),
 		MESSAGES_INBOUND_RECEIVED("messages.inbound.received"),
 		MESSAGES_INBOUND_PROCESSED("messages.inbound.processed"),
 		MESSAGES_INBOUND_DISCARDED("messages.inbound.discarded"),
 		MESSAGES_OUTBOUND_ABORTED("messages.outbound.aborted"),
+		/** Number of outbound messages dropped because the total or per-peer queue was full. */
+		MESSAGES_OUTBOUND_DROPPED("messages.outbound.dropped"),
 		MESSAGES_OUTBOUND_PENDING("messages.outbound.pending"),
+		/** Number of peers with an outbound message queue. */
+		MESSAGES_OUTBOUND_PEER_QUEUES("messages.outbound.peer_queues"),
+		/** Depth of the deepest per-peer outbound message queue. */
+		MESSAGES_OUTBOUND_PEER_PENDING_MAX("messages.outbound.peer_pending_max"),
 		MESSAGES_OUTBOUND_PROCESSED("messages.outbound.processed"),
 		MESSAGES_OUTBOUND_SENT("messages.outbound.sent"),
 
@@ -0,0 +1,194 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.environment;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
+import com.radixdlt.counters.LatencyHistogram;
+import com.radixdlt.counters.LatencyHistograms;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records, for a sample of the events processed by each runner, the time from dispatch
+ * until processing starts and the time taken by the processors. Both are kept in
+ * {@link LatencyHistograms} labelled with the runner and the event type.
+ * <p>
+ * With a sample interval of zero no timers are handed out, and runners process
+ * events exactly as without metrics.
+ */
+@Singleton
+public final class EventProcessingMetrics {
+	public static final String QUEUE_TIME = "runner_event_queue_time_seconds";
+	public static final String PROCESSING_TIME = "runner_event_processing_time_seconds";
+
+	private final LatencyHistograms histograms;
+	private final int sampleInterval;
+
+	@Inject
+	public EventProcessingMetrics(LatencyHistograms histograms, @EventMetricsSampleInterval int sampleInterval) {
+		if (sampleInterval < 0) {
+			throw new IllegalArgumentException("Sample interval must not be negative: " + sampleInterval);
+		}
+		this.histograms = Objects.requireNonNull(histograms);
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Returns the timer for events of a type processed by a runner, if sampling is enabled.
+	 *
+	 * @param runnerName the name of the runner, see {@link Runners}
+	 * @param eventName the name of the event type
+	 * @return the timer, or empty if sampling is disabled
+	 */
+	public Optional<Timer> timer(String runnerName, String eventName) {
+		if (sampleInterval == 0) {
+			return Optional.empty();
+		}
+		final var labels = Map.of("runner", runnerName, "event", eventName);
+		return Optional.of(new Timer(
+			sampleInterval,
+			histograms.histogram(QUEUE_TIME, labels),
+			histograms.histogram(PROCESSING_TIME, labels)
+		));
+	}
+
+	public static String eventName(Class<?> eventClass) {
+		return eventClass.getSimpleName();
+	}
+
+	public static String eventName(TypeLiteral<?> typeLiteral) {
+		// Strip the packages, e.g. Epoched<ScheduledLocalTimeout>
+		return typeLiteral.toString().replaceAll("[\\w$]+\\.", "");
+	}
+
+	public static String remoteEventName(Class<?> eventClass) {
+		return "RemoteEvent<" + eventName(eventClass) + ">";
+	}
+
+	/**
+	 * An event picked for timing when it was dispatched, together with the dispatch time.
+	 *
+	 * @param <T> the type of the event
+	 */
+	public static final class Sampled<T> {
+		private final T event;
+		private final long enqueuedNanos;
+
+		public Sampled(T event, long enqueuedNanos) {
+			this.event = event;
+			this.enqueuedNanos = enqueuedNanos;
+		}
+
+		public T event() {
+			return event;
+		}
+
+		public long enqueuedNanos() {
+			return enqueuedNanos;
+		}
+	}
+
+	/**
+	 * Timer for the events of one type processed by one runner.
+	 */
+	public static final class Timer {
+		private final int sampleInterval;
+		private final LatencyHistogram queueTime;
+		private final LatencyHistogram processingTime;
+
+		private Timer(int sampleInterval, LatencyHistogram queueTime, LatencyHistogram processingTime) {
+			this.sampleInterval = sampleInterval;
+			this.queueTime = queueTime;
+			this.processingTime = processingTime;
+		}
+
+		/**
+		 * Decides whether an event being dispatched is timed.
+		 */
+		public boolean sample() {
+			return sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+		}
+
+		/**
+		 * Records the queue time of a sampled event about to be processed.
+		 *
+		 * @return the start of processing, to be passed to {@link #finish(long)}
+		 */
+		public long start(Sampled<?> sampled) {
+			final var startNanos = System.nanoTime();
+			queueTime.record(startNanos - sampled.enqueuedNanos());
+			return startNanos;
+		}
+
+		public void finish(long startNanos) {
+			processingTime.record(System.nanoTime() - startNanos);
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.environment.ringbuffer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer single-consumer ring buffer of events together with the
+ * handler which processes them on the consuming thread.
+ * <p>
+ * Slots are allocated once and claimed by producers with a single CAS, so publishing
+ * an event neither allocates nor locks. Events published while the ring is full go to
+ * an overflow queue together with the ring position at that time, and are consumed
+ * once the ring has been consumed up to that position. Dispatching therefore never
+ * blocks or drops an event, and events of a single producer are consumed in the
+ * order they were published.
+ */
+final class EventRing {
+	private final int mask;
+	private final Object[] handlers;
+	private final Object[] events;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	private final ArrayDeque<Overflowed> overflow = new ArrayDeque<>(); // Guarded by itself
+	private final ArrayDeque<Overflowed> pendingOverflow = new ArrayDeque<>(); // Consumer only
+	private volatile boolean overflowed;
+
+	private volatile Thread consumer;
+	private volatile boolean waiting;
+
+	private static final class Overflowed {
+		private final long position;
+		private final Consumer<Object> handler;
+		private final Object event;
+
+		private Overflowed(long position, Consumer<Object> handler, Object event) {
+			this.position = position;
+			this.handler = handler;
+			this.event = event;
+		}
+	}
+
+	EventRing(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Ring buffer size must be a power of two: " + capacity);
+		}
+		this.mask = capacity - 1;
+		this.handlers = new Object[capacity];
+		this.events = new Object[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			this.sequences.set(i, i);
+		}
+	}
+
+	void attach(Thread consumer) {
+		this.consumer = consumer;
+	}
+
+	void publish(Consumer<Object> handler, Object event) {
+		if (overflowed || !offer(handler, event)) {
+			synchronized (overflow) {
+				// Everything claimed in the ring so far is consumed before this event
+				overflow.add(new Overflowed(tail.get(), handler, event));
+				overflowed = true;
+			}
+		}
+		if (waiting) {
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	private boolean offer(Object handler, Object event) {
+		long position;
+		int index;
+		while (true) {
+			position = tail.get();
+			index = (int) position & mask;
+			final long available = sequences.get(index) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+			} else if (available < 0) {
+				return false;
+			}
+		}
+		handlers[index] = handler;
+		events[index] = event;
+		sequences.set(index, position + 1);
+		return true;
+	}
+
+	/**
+	 * Processes up to {@code limit} events. Must only be called by the consuming thread.
+	 *
+	 * @return the number of events processed
+	 */
+	int drain(int limit) {
+		if (overflowed) {
+			synchronized (overflow) {
+				pendingOverflow.addAll(overflow);
+				overflow.clear();
+				overflowed = false;
+			}
+		}
+
+		int drained = 0;
+		while (drained < limit) {
+			final long position = head;
+			final var next = pendingOverflow.peek();
+			if (next != null && next.position <= position) {
+				pendingOverflow.poll();
+				next.handler.accept(next.event);
+				drained++;
+				continue;
+			}
+
+			final int index = (int) position & mask;
+			if (sequences.get(index) != position + 1) {
+				break;
+			}
+
+			@SuppressWarnings("unchecked")
+			final var handler = (Consumer<Object>) handlers[index];
+			final var event = events[index];
+			handlers[index] = null;
+			events[index] = null;
+			sequences.set(index, position + mask + 1);
+			head = position + 1;
+
+			handler.accept(event);
+			drained++;
+		}
+		return drained;
+	}
+
+	/**
+	 * Parks the consuming thread for at most the given time if there is nothing to drain.
+	 */
+	void await(long maxNanos) {
+		waiting = true;
+		if (isEmpty()) {
+			LockSupport.parkNanos(this, maxNanos);
+		}
+		waiting = false;
+	}
+
+	void wakeUp() {
+		LockSupport.unpark(consumer);
+	}
+
+	boolean isEmpty() {
+		return sequences.get((int) head & mask) != head + 1 && pendingOverflow.isEmpty() && !overflowed;
+	}
+}
@@ -0,0 +1,267 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.environment.ringbuffer;
+
+import com.google.inject.TypeLiteral;
+import com.radixdlt.environment.Environment;
+import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.environment.EventProcessingMetrics;
+import com.radixdlt.environment.EventProcessingMetrics.Sampled;
+import com.radixdlt.environment.EventProcessor;
+import com.radixdlt.environment.RemoteEventDispatcher;
+import com.radixdlt.environment.ScheduledEventDispatcher;
+import com.radixdlt.environment.rx.RxRemoteDispatcher;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Environment which distributes events from dispatchers to processors through
+ * one preallocated {@link EventRing} per runner. A dispatched event is published
+ * once into the ring of every runner with processors for it, and the runner's
+ * thread drains its ring in batches.
+ */
+public final class RingBufferEnvironment implements Environment {
+	private static final int MAX_EARLY_EVENTS = 5;
+
+	private final Map<Object, Route> routes;
+	private final Map<String, EventRing> rings = new ConcurrentHashMap<>();
+	private final int ringSize;
+	private final EventProcessingMetrics metrics;
+	private final ScheduledExecutorService executorService;
+	private final Map<Class<?>, RxRemoteDispatcher<?>> remoteDispatchers;
+
+	public RingBufferEnvironment(
+		Set<TypeLiteral<?>> localEventTypeLiterals,
+		Set<Class<?>> localEventClasses,
+		int ringSize,
+		EventProcessingMetrics metrics,
+		ScheduledExecutorService executorService,
+		Set<RxRemoteDispatcher<?>> remoteDispatchers
+	) {
+		final var localRoutes = new HashMap<Object, Route>();
+		localEventTypeLiterals.forEach(t -> localRoutes.put(t, new Route()));
+		localEventClasses.forEach(c -> localRoutes.put(c, new Route()));
+		this.routes = Map.copyOf(localRoutes);
+		this.ringSize = ringSize;
+		this.metrics = Objects.requireNonNull(metrics);
+		this.executorService = Objects.requireNonNull(executorService);
+		this.remoteDispatchers = remoteDispatchers.stream()
+			.collect(Collectors.toMap(RxRemoteDispatcher::eventClass, d -> d));
+	}
+
+	/**
+	 * Processors of a single runner for one event type. Each dispatched event takes one
+	 * slot in the runner's ring, however many processors the runner has for it.
+	 */
+	private static final class Target implements Consumer<Object> {
+		private final EventRing ring;
+		private final EventProcessor<Object>[] processors;
+		private final EventProcessingMetrics.Timer timer;
+		private final Consumer<Object> sampledHandler = this::acceptSampled;
+
+		private Target(EventRing ring, EventProcessor<Object>[] processors, EventProcessingMetrics.Timer timer) {
+			this.ring = ring;
+			this.processors = processors;
+			this.timer = timer;
+		}
+
+		void publish(Object event) {
+			if (timer != null && timer.sample()) {
+				ring.publish(sampledHandler, new Sampled<>(event, System.nanoTime()));
+			} else {
+				ring.publish(this, event);
+			}
+		}
+
+		@Override
+		public void accept(Object event) {
+			for (var processor : processors) {
+				processor.process(event);
+			}
+		}
+
+		private void acceptSampled(Object event) {
+			final var sampled = (Sampled<?>) event;
+			final var start = timer.start(sampled);
+			accept(sampled.event());
+			timer.finish(start);
+		}
+	}
+
+	private static final class Route {
+		private volatile Target[] targets = new Target[0];
+		// Events dispatched before any runner subscribed, replayed on subscription like the
+		// replay subjects of the Rx environment. Guarded by this.
+		private final ArrayDeque<Object> earlyEvents = new ArrayDeque<>();
+
+		void dispatch(Object event) {
+			final var current = this.targets;
+			if (current.length == 0) {
+				dispatchEarly(event);
+				return;
+			}
+			for (var target : current) {
+				target.publish(event);
+			}
+		}
+
+		private synchronized void dispatchEarly(Object event) {
+			if (this.targets.length > 0) {
+				dispatch(event);
+				return;
+			}
+			if (earlyEvents.size() == MAX_EARLY_EVENTS) {
+				earlyEvents.poll();
+			}
+			earlyEvents.add(event);
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized void subscribe(EventRing ring, EventProcessingMetrics.Timer timer, EventProcessor<?> processor) {
+			final var newProcessor = (EventProcessor<Object>) processor;
+			final var current = this.targets;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i].ring == ring) {
+					final var processors = Arrays.copyOf(current[i].processors, current[i].processors.length + 1);
+					processors[processors.length - 1] = newProcessor;
+					final var newTargets = current.clone();
+					newTargets[i] = new Target(ring, processors, current[i].timer);
+					this.targets = newTargets;
+					return;
+				}
+			}
+
+			final var newTargets = Arrays.copyOf(current, current.length + 1);
+			final var target = new Target(ring, new EventProcessor[] {newProcessor}, timer);
+			newTargets[current.length] = target;
+			this.targets = newTargets;
+			earlyEvents.forEach(event -> ring.publish(target, event));
+		}
+	}
+
+	EventRing ring(String runnerName) {
+		return rings.computeIfAbsent(runnerName, n -> new EventRing(ringSize));
+	}
+
+	EventProcessingMetrics metrics() {
+		return metrics;
+	}
+
+	<T> void subscribe(String runnerName, Object eventKey, EventProcessor<T> processor) {
+		final var route = routes.get(eventKey);
+		if (route == null) {
+			throw new IllegalStateException(eventKey + " not registered as local event.");
+		}
+		final var eventName = eventKey instanceof TypeLiteral
+			? EventProcessingMetrics.eventName((TypeLiteral<?>) eventKey)
+			: EventProcessingMetrics.eventName((Class<?>) eventKey);
+		route.subscribe(ring(runnerName), metrics.timer(runnerName, eventName).orElse(null), processor);
+	}
+
+	@Override
+	public <T> EventDispatcher<T> getDispatcher(Class<T> eventClass) {
+		final var route = routes.get(eventClass);
+		return route == null ? e -> { } : route::dispatch;
+	}
+
+	@Override
+	public <T> ScheduledEventDispatcher<T> getScheduledDispatcher(Class<T> eventClass) {
+		return scheduledDispatcher(routes.get(eventClass));
+	}
+
+	@Override
+	public <T> ScheduledEventDispatcher<T> getScheduledDispatcher(TypeLiteral<T> typeLiteral) {
+		return scheduledDispatcher(routes.get(typeLiteral));
+	}
+
+	private <T> ScheduledEventDispatcher<T> scheduledDispatcher(Route route) {
+		return (e, millis) -> {
+			if (route != null) {
+				executorService.schedule(() -> route.dispatch(e), millis, TimeUnit.MILLISECONDS);
+			}
+		};
+	}
+
+	@Override
+	public <T> RemoteEventDispatcher<T> getRemoteDispatcher(Class<T> eventClass) {
+		if (!remoteDispatchers.containsKey(eventClass)) {
+			throw new IllegalStateException("No dispatcher for " + eventClass);
+		}
+
+		@SuppressWarnings("unchecked")
+		final RemoteEventDispatcher<T> dispatcher = (RemoteEventDispatcher<T>) remoteDispatchers.get(eventClass).dispatcher();
+		return dispatcher;
+	}
+}
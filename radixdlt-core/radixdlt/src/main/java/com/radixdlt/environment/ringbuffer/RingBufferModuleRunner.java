@@ -0,0 +1,378 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.environment.ringbuffer;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.ModuleRunner;
+import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.environment.EventProcessingMetrics;
+import com.radixdlt.environment.EventProcessingMetrics.Sampled;
+import com.radixdlt.environment.EventProcessor;
+import com.radixdlt.environment.RemoteEventProcessor;
+import com.radixdlt.environment.StartProcessor;
+import com.radixdlt.environment.rx.RemoteEvent;
+import com.radixdlt.utils.ThreadFactories;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the processors of a module on a single thread which drains the runner's
+ * {@link EventRing} in batches. Remote events are moved from the network into
+ * the ring as they arrive.
+ */
+public final class RingBufferModuleRunner implements ModuleRunner {
+	private static final Logger logger = LogManager.getLogger();
+	private static final int BATCH_SIZE = 256;
+	private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int RATE_LIMIT_BUFFER_SIZE = 100;
+
+	private final String threadName;
+	private final EventRing ring;
+	private final ScheduledExecutorService executorService;
+	private final Object startLock = new Object();
+	private Thread thread;
+	private CompositeDisposable compositeDisposable;
+	private volatile boolean running;
+
+	private final Set<StartProcessor> startProcessors;
+	private final List<RemoteSubscription<?>> remoteSubscriptions;
+	private final ImmutableList<Consumer<ScheduledExecutorService>> onStart;
+
+	private static final class RemoteSubscription<T> {
+		private final Flowable<RemoteEvent<T>> events;
+		private final EventProcessor<RemoteEvent<T>> processor;
+		private final EventProcessingMetrics.Timer timer;
+
+		private RemoteSubscription(
+			Flowable<RemoteEvent<T>> events,
+			EventProcessor<RemoteEvent<T>> processor,
+			EventProcessingMetrics.Timer timer
+		) {
+			this.events = events;
+			this.processor = processor;
+			this.timer = timer;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Disposable subscribe(EventRing ring) {
+			final Consumer<Object> handler = e -> processor.process((RemoteEvent<T>) e);
+			if (timer == null) {
+				return events.subscribe(e -> ring.publish(handler, e), RingBufferModuleRunner::exit);
+			}
+
+			final Consumer<Object> sampledHandler = e -> {
+				final var sampled = (Sampled<RemoteEvent<T>>) e;
+				final var start = timer.start(sampled);
+				processor.process(sampled.event());
+				timer.finish(start);
+			};
+			return events.subscribe(
+				e -> {
+					if (timer.sample()) {
+						ring.publish(sampledHandler, new Sampled<>(e, System.nanoTime()));
+					} else {
+						ring.publish(handler, e);
+					}
+				},
+				RingBufferModuleRunner::exit
+			);
+		}
+	}
+
+	/**
+	 * Delays each event by a fixed time after the previous one was processed, buffering
+	 * a limited number of events and dropping the latest beyond that, as the rate limited
+	 * Rx subscriptions do. Only touched by the runner thread.
+	 */
+	private static final class RateLimitedProcessor<T> implements EventProcessor<T> {
+		private final EventProcessor<T> processor;
+		private final long delayMs;
+		private final EventRing ring;
+		private final ScheduledExecutorService executorService;
+		private final ArrayDeque<T> pending = new ArrayDeque<>();
+		private final Consumer<Object> next = ignored -> processNext();
+		private boolean scheduled;
+
+		private RateLimitedProcessor(
+			EventProcessor<T> processor,
+			long delayMs,
+			EventRing ring,
+			ScheduledExecutorService executorService
+		) {
+			this.processor = processor;
+			this.delayMs = delayMs;
+			this.ring = ring;
+			this.executorService = executorService;
+		}
+
+		@Override
+		public void process(T event) {
+			if (pending.size() < RATE_LIMIT_BUFFER_SIZE) {
+				pending.add(event);
+			}
+			if (!scheduled) {
+				scheduled = true;
+				scheduleNext();
+			}
+		}
+
+		private void scheduleNext() {
+			executorService.schedule(() -> ring.publish(next, null), delayMs, TimeUnit.MILLISECONDS);
+		}
+
+		private void processNext() {
+			processor.process(pending.poll());
+			if (pending.isEmpty()) {
+				scheduled = false;
+			} else {
+				scheduleNext();
+			}
+		}
+	}
+
+	private RingBufferModuleRunner(
+		String threadName,
+		EventRing ring,
+		ScheduledExecutorService executorService,
+		Set<StartProcessor> startProcessors,
+		List<RemoteSubscription<?>> remoteSubscriptions,
+		ImmutableList<Consumer<ScheduledExecutorService>> onStart
+	) {
+		this.threadName = threadName;
+		this.ring = ring;
+		this.executorService = executorService;
+		this.startProcessors = startProcessors;
+		this.remoteSubscriptions = remoteSubscriptions;
+		this.onStart = onStart;
+	}
+
+	public static class Builder {
+		private final RingBufferEnvironment environment;
+		private final String runnerName;
+		private final EventRing ring;
+		private final ScheduledExecutorService executorService;
+		private HashSet<StartProcessor> startProcessors = new HashSet<>();
+		private ImmutableList.Builder<RemoteSubscription<?>> remoteSubscriptionsBuilder = ImmutableList.builder();
+		private ImmutableList.Builder<Consumer<ScheduledExecutorService>> onStartBuilder = new ImmutableList.Builder<>();
+
+		private Builder(RingBufferEnvironment environment, String runnerName) {
+			this.environment = environment;
+			this.runnerName = runnerName;
+			this.ring = environment.ring(runnerName);
+			this.executorService = Executors.newSingleThreadScheduledExecutor(ThreadFactories.daemonThreads(runnerName + " scheduler"));
+		}
+
+		public Builder add(StartProcessor startProcessor) {
+			startProcessors.add(startProcessor);
+			return this;
+		}
+
+		/**
+		 * Subscribes a processor to a local event class or type literal.
+		 */
+		public <T> Builder add(Object eventKey, EventProcessor<T> p, long rateLimitDelayMs) {
+			environment.subscribe(runnerName, eventKey, rateLimited(p, rateLimitDelayMs));
+			return this;
+		}
+
+		public <T> Builder add(Flowable<RemoteEvent<T>> o, RemoteEventProcessor<T> p, String eventName, long rateLimitDelayMs) {
+			final EventProcessor<RemoteEvent<T>> processor = p::process;
+			final var timer = environment.metrics().timer(runnerName, eventName).orElse(null);
+			remoteSubscriptionsBuilder.add(new RemoteSubscription<>(o, rateLimited(processor, rateLimitDelayMs), timer));
+			return this;
+		}
+
+		private <T> EventProcessor<T> rateLimited(EventProcessor<T> p, long rateLimitDelayMs) {
+			return rateLimitDelayMs > 0 ? new RateLimitedProcessor<>(p, rateLimitDelayMs, ring, executorService) : p;
+		}
+
+		public <T> Builder scheduleWithFixedDelay(
+			EventDispatcher<T> eventDispatcher,
+			Supplier<T> eventSupplier,
+			Duration initialDelay,
+			Duration interval
+		) {
+			this.onStartBuilder.add(executor ->
+				executor.scheduleWithFixedDelay(
+					() -> eventDispatcher.dispatch(eventSupplier.get()),
+					initialDelay.toMillis(),
+					interval.toMillis(),
+					TimeUnit.MILLISECONDS
+				)
+			);
+			return this;
+		}
+
+		public RingBufferModuleRunner build(String threadName) {
+			return new RingBufferModuleRunner(
+				threadName,
+				ring,
+				executorService,
+				Set.copyOf(startProcessors),
+				remoteSubscriptionsBuilder.build(),
+				onStartBuilder.build()
+			);
+		}
+	}
+
+	/**
+	 * Creates a builder for the runner with the given name. Processors added to the builder
+	 * receive events as soon as they are added; the events queue up in the runner's ring
+	 * until the runner is started.
+	 */
+	public static Builder builder(RingBufferEnvironment environment, String runnerName) {
+		return new Builder(environment, runnerName);
+	}
+
+	@Override
+	public void start() {
+		synchronized (this.startLock) {
+			if (this.thread != null) {
+				return;
+			}
+
+			logger.info("Starting Runner: {}", this.threadName);
+
+			this.running = true;
+			this.thread = ThreadFactories.daemonThreads(this.threadName).newThread(this::run);
+			this.ring.attach(this.thread);
+			this.thread.start();
+
+			this.compositeDisposable = new CompositeDisposable();
+			this.remoteSubscriptions.forEach(s -> this.compositeDisposable.add(s.subscribe(this.ring)));
+			this.onStart.forEach(f -> f.accept(this.executorService));
+		}
+	}
+
+	private void run() {
+		try {
+			startProcessors.forEach(StartProcessor::start);
+			while (running) {
+				if (ring.drain(BATCH_SIZE) == 0) {
+					ring.await(PARK_NANOS);
+				}
+			}
+		} catch (Throwable e) {
+			exit(e);
+		}
+	}
+
+	private static void exit(Throwable e) {
+		// TODO: Implement better error handling especially against Byzantine nodes.
+		// TODO: Exit process for now.
+		e.printStackTrace();
+		try {
+			Thread.sleep(1000);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		System.exit(-1);
+	}
+
+	@Override
+	public void stop() {
+		synchronized (this.startLock) {
+			if (this.compositeDisposable != null) {
+				this.compositeDisposable.dispose();
+				this.compositeDisposable = null;
+				this.running = false;
+				this.ring.wakeUp();
+
+				this.shutdownAndAwaitTermination();
+			}
+		}
+	}
+
+	private void shutdownAndAwaitTermination() {
+		this.executorService.shutdown(); // Disable new tasks from being submitted
+		try {
+			this.thread.join(TimeUnit.SECONDS.toMillis(2));
+			if (!this.executorService.awaitTermination(2, TimeUnit.SECONDS)) {
+				this.executorService.shutdownNow(); // Cancel currently executing tasks
+			}
+			if (this.thread.isAlive()) {
+				System.err.println("Runner " + this.threadName + " did not terminate");
+			}
+		} catch (InterruptedException ie) {
+			this.executorService.shutdownNow();
+			// Preserve interrupt status
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -67,6 +67,8 @@ package com.radixdlt.environment.rx;
 import com.google.common.collect.ImmutableList;
 import com.radixdlt.ModuleRunner;
 import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.environment.EventProcessingMetrics;
+import com.radixdlt.environment.EventProcessingMetrics.Sampled;
 import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.RemoteEventProcessor;
 import com.radixdlt.environment.StartProcessor;
@@ -109,20 +111,42 @@ public final class ModuleRunnerImpl implements ModuleRunner {
 	private static class Subscription<T> {
 		final Observable<T> o;
 		final EventProcessor<T> p;
+		final EventProcessingMetrics.Timer timer;
 
-		Subscription(Observable<T> o, EventProcessor<T> p) {
+		Subscription(Observable<T> o, EventProcessor<T> p, EventProcessingMetrics.Timer timer) {
 			this.o = o;
 			this.p = p;
+			this.timer = timer;
 		}
 
 		Disposable subscribe(Scheduler s) {
-			return o.observeOn(s).subscribe(p::process, e -> {
-				// TODO: Implement better error handling especially against Byzantine nodes.
-				// TODO: Exit process for now.
-				e.printStackTrace();
-				Thread.sleep(1000);
-				System.exit(-1);
-			});
+			if (timer == null) {
+				return o.observeOn(s).subscribe(p::process, Subscription::onError);
+			}
+
+			return o.<Object>map(e -> timer.sample() ? new Sampled<>(e, System.nanoTime()) : e)
+				.observeOn(s)
+				.subscribe(this::process, Subscription::onError);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void process(Object e) {
+			if (e instanceof Sampled) {
+				final var sampled = (Sampled<T>) e;
+				final var start = timer.start(sampled);
+				p.process(sampled.event());
+				timer.finish(start);
+			} else {
+				p.process((T) e);
+			}
+		}
+
+		private static void onError(Throwable e) throws InterruptedException {
+			// TODO: Implement better error handling especially against Byzantine nodes.
+			// TODO: Exit process for now.
+			e.printStackTrace();
+			Thread.sleep(1000);
+			System.exit(-1);
 		}
 	}
 
@@ -141,30 +165,60 @@ public final class ModuleRunnerImpl implements ModuleRunner {
 	}
 
 	public static class Builder {
+		private final EventProcessingMetrics metrics;
+		private final String runnerName;
 		private HashSet<StartProcessor> startProcessors = new HashSet<>();
 		private ImmutableList.Builder<Subscription<?>> subscriptionsBuilder = ImmutableList.builder();
 		private ImmutableList.Builder<Consumer<ScheduledExecutorService>> onStartBuilder = new ImmutableList.Builder<>();
 
+		private Builder(EventProcessingMetrics metrics, String runnerName) {
+			this.metrics = metrics;
+			this.runnerName = runnerName;
+		}
+
 		public Builder add(StartProcessor startProcessor) {
 			startProcessors.add(startProcessor);
 			return this;
 		}
 
 		public <T> Builder add(Observable<T> o, EventProcessor<T> p) {
-			subscriptionsBuilder.add(new Subscription<>(o, p));
+			return add(o, p, null);
+		}
+
+		/**
+		 * Adds a processor of the given observable, timed under the given event name
+		 * if the builder was created with metrics.
+		 */
+		public <T> Builder add(Observable<T> o, EventProcessor<T> p, String eventName) {
+			subscriptionsBuilder.add(new Subscription<>(o, p, timer(eventName)));
 			return this;
 		}
 
 		public <T> Builder add(Flowable<T> o, EventProcessor<T> p) {
-			subscriptionsBuilder.add(new Subscription<>(o.toObservable(), p));
+			return add(o, p, null);
+		}
+
+		public <T> Builder add(Flowable<T> o, EventProcessor<T> p, String eventName) {
+			subscriptionsBuilder.add(new Subscription<>(o.toObservable(), p, timer(eventName)));
 			return this;
 		}
 
 		public <T> Builder add(Flowable<RemoteEvent<T>> o, RemoteEventProcessor<T> p) {
-			subscriptionsBuilder.add(new Subscription<>(o.toObservable(), p::process));
+			return add(o, p, null);
+		}
+
+		public <T> Builder add(Flowable<RemoteEvent<T>> o, RemoteEventProcessor<T> p, String eventName) {
+			subscriptionsBuilder.add(new Subscription<>(o.toObservable(), p::process, timer(eventName)));
 			return this;
 		}
 
+		private EventProcessingMetrics.Timer timer(String eventName) {
+			if (metrics == null || eventName == null) {
+				return null;
+			}
+			return metrics.timer(runnerName, eventName).orElse(null);
+		}
+
 		public <T> Builder scheduleWithFixedDelay(
 			EventDispatcher<T> eventDispatcher,
 			Supplier<T> eventSupplier,
@@ -197,7 +251,14 @@ public final class ModuleRunnerImpl implements ModuleRunner {
 	}
 
 	public static Builder builder() {
-		return new Builder();
+		return new Builder(null, null);
+	}
+
+	/**
+	 * Creates a builder for a runner whose processors are timed with the given metrics.
+	 */
+	public static Builder builder(EventProcessingMetrics metrics, String runnerName) {
+		return new Builder(metrics, runnerName);
 	}
 
 
@@ -65,10 +65,12 @@
 package com.radixdlt.environment.rx;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
+import com.google.inject.multibindings.OptionalBinder;
 import com.google.inject.multibindings.ProvidesIntoMap;
 import com.google.inject.multibindings.StringMapKey;
 import com.radixdlt.ModuleRunner;
@@ -78,6 +80,8 @@ import com.radixdlt.consensus.epoch.Epoched;
 import com.radixdlt.consensus.liveness.ScheduledLocalTimeout;
 import com.radixdlt.environment.Environment;
 import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.environment.EventMetricsSampleInterval;
+import com.radixdlt.environment.EventProcessingMetrics;
 import com.radixdlt.environment.EventProcessorOnRunner;
 import com.radixdlt.environment.LocalEvents;
 import com.radixdlt.environment.RemoteEventProcessorOnRunner;
@@ -117,6 +121,9 @@ public final class RxEnvironmentModule extends AbstractModule {
 		Multibinder.newSetBinder(binder(), new TypeLiteral<EventProcessorOnRunner<?>>() { });
 		Multibinder.newSetBinder(binder(), new TypeLiteral<RemoteEventProcessorOnRunner<?>>() { });
 		Multibinder.newSetBinder(binder(), new TypeLiteral<ScheduledEventProducerOnRunner<?>>() { });
+		OptionalBinder.newOptionalBinder(binder(), Key.get(Integer.class, EventMetricsSampleInterval.class))
+			.setDefault()
+			.toInstance(0);
 	}
 
 	@Provides
@@ -139,6 +146,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner consensusRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment,
 		Set<RemoteEventProcessorOnRunner<?>> remoteProcessors,
@@ -147,7 +155,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 		Set<StartProcessorOnRunner> startProcessors
 	) {
 		final var runnerName = Runners.CONSENSUS;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		addRemoteProcessorsOnRunner(remoteProcessors, rxRemoteEnvironment, runnerName, builder);
 		addScheduledEventProducersOnRunner(scheduledEventProducers, runnerName, builder);
@@ -160,11 +168,12 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner systemInfoRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment
 	) {
 		final var runnerName = Runners.SYSTEM_INFO;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		return builder.build("SystemInfo " + name);
 	}
@@ -174,11 +183,12 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner chaosRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment
 	) {
 		final var runnerName = Runners.CHAOS;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		return builder.build("ChaosRunner " + name);
 	}
@@ -188,6 +198,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner mempoolRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment,
 		Set<RemoteEventProcessorOnRunner<?>> remoteProcessors,
@@ -195,7 +206,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 		Set<ScheduledEventProducerOnRunner<?>> scheduledEventProducers
 	) {
 		final var runnerName = Runners.MEMPOOL;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		addRemoteProcessorsOnRunner(remoteProcessors, rxRemoteEnvironment, runnerName, builder);
 		addScheduledEventProducersOnRunner(scheduledEventProducers, runnerName, builder);
@@ -207,11 +218,12 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner applicationRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment
 	) {
 		final var runnerName = Runners.APPLICATION;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		return builder.build("ApplicationRunner " + name);
 	}
@@ -221,6 +233,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner syncRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment,
 		Set<RemoteEventProcessorOnRunner<?>> remoteProcessors,
@@ -229,7 +242,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 	) {
 
 		final var runnerName = Runners.SYNC;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		addRemoteProcessorsOnRunner(remoteProcessors, rxRemoteEnvironment, runnerName, builder);
 		addScheduledEventProducersOnRunner(scheduledEventProducers, runnerName, builder);
@@ -241,6 +254,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 	@Singleton
 	public ModuleRunner p2pNetworkRunner(
 		@Self String name,
+		EventProcessingMetrics metrics,
 		Set<EventProcessorOnRunner<?>> processors,
 		RxEnvironment rxEnvironment,
 		Set<RemoteEventProcessorOnRunner<?>> remoteProcessors,
@@ -248,7 +262,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 		Set<ScheduledEventProducerOnRunner<?>> scheduledEventProducers
 	) {
 		final var runnerName = Runners.P2P_NETWORK;
-		final var builder = ModuleRunnerImpl.builder();
+		final var builder = ModuleRunnerImpl.builder(metrics, runnerName);
 		addProcessorsOnRunner(processors, rxEnvironment, runnerName, builder);
 		addRemoteProcessorsOnRunner(remoteProcessors, rxRemoteEnvironment, runnerName, builder);
 		addScheduledEventProducersOnRunner(scheduledEventProducers, runnerName, builder);
@@ -270,7 +284,7 @@ public final class RxEnvironmentModule extends AbstractModule {
 			events = rxEnvironment.remoteEvents(eventClass);
 		}
 
-		processor.getProcessor(eventClass).ifPresent(p -> builder.add(events, p));
+		processor.getProcessor(eventClass).ifPresent(p -> builder.add(events, p, EventProcessingMetrics.remoteEventName(eventClass)));
 	}
 
 	private static <T> void addToBuilder(
@@ -284,10 +298,10 @@ public final class RxEnvironmentModule extends AbstractModule {
 				.toFlowable(BackpressureStrategy.DROP)
 				.onBackpressureBuffer(100, null, BackpressureOverflowStrategy.DROP_LATEST)
 				.concatMap(e -> Flowable.timer(processor.getRateLimitDelayMs(), TimeUnit.MILLISECONDS).map(l -> e));
-			processor.getProcessor(typeLiteral).ifPresent(p -> builder.add(events, p));
+			processor.getProcessor(typeLiteral).ifPresent(p -> builder.add(events, p, EventProcessingMetrics.eventName(typeLiteral)));
 		} else {
 			final Observable<T> events = rxEnvironment.getObservable(typeLiteral);
-			processor.getProcessor(typeLiteral).ifPresent(p -> builder.add(events, p));
+			processor.getProcessor(typeLiteral).ifPresent(p -> builder.add(events, p, EventProcessingMetrics.eventName(typeLiteral)));
 		}
 	}
 
@@ -302,10 +316,10 @@ public final class RxEnvironmentModule extends AbstractModule {
 				.toFlowable(BackpressureStrategy.DROP)
 				.onBackpressureBuffer(100, null, BackpressureOverflowStrategy.DROP_LATEST)
 				.concatMap(e -> Flowable.timer(processor.getRateLimitDelayMs(), TimeUnit.MILLISECONDS).map(l -> e));
-			processor.getProcessor(eventClass).ifPresent(p -> builder.add(events, p));
+			processor.getProcessor(eventClass).ifPresent(p -> builder.add(events, p, EventProcessingMetrics.eventName(eventClass)));
 		} else {
 			final Observable<T> events = rxEnvironment.getObservable(eventClass);
-			processor.getProcessor(eventClass).ifPresent(p -> builder.add(events, p));
+			processor.getProcessor(eventClass).ifPresent(p -> builder.add(events, p, EventProcessingMetrics.eventName(eventClass)));
 		}
 	}
 
@@ -170,20 +170,14 @@ public final class StateComputerLedger implements Ledger, NextTxnsGenerator {
 		this.currentLedgerHeader = initialLedgerState;
 	}
 
+	// Mempool admission only reads committed state and is safe to run alongside commits,
+	// so it doesn't take the ledger lock and can't hold up consensus
 	public RemoteEventProcessor<MempoolAdd> mempoolAddRemoteEventProcessor() {
-		return (node, mempoolAdd) -> {
-			synchronized (lock) {
-				stateComputer.addToMempool(mempoolAdd, node);
-			}
-		};
+		return (node, mempoolAdd) -> stateComputer.addToMempool(mempoolAdd, node);
 	}
 
 	public EventProcessor<MempoolAdd> mempoolAddEventProcessor() {
-		return mempoolAdd -> {
-			synchronized (lock) {
-				stateComputer.addToMempool(mempoolAdd, null);
-			}
-		};
+		return mempoolAdd -> stateComputer.addToMempool(mempoolAdd, null);
 	}
 
 	@Override
@@ -144,11 +144,10 @@ public final class MempoolRelayer {
 			.collect(Collectors.toList());
 		peers.removeAll(ignorePeers);
 		Collections.shuffle(peers);
-		peers.stream()
-			.limit(maxPeers)
-			.forEach(peer -> {
-				counters.add(CounterType.MEMPOOL_RELAYER_SENT_COUNT, txns.size());
-				this.remoteEventDispatcher.dispatch(peer, mempoolAddMsg);
-			});
+		final var receivers = peers.subList(0, Math.min(maxPeers, peers.size()));
+		if (!receivers.isEmpty()) {
+			counters.add(CounterType.MEMPOOL_RELAYER_SENT_COUNT, (long) txns.size() * receivers.size());
+			this.remoteEventDispatcher.dispatch(receivers, mempoolAddMsg);
+		}
 	}
 }
@@ -66,6 +66,7 @@ package com.radixdlt.middleware2.network;
 
 import org.radix.network.messaging.Message;
 
+import com.google.common.collect.Streams;
 import com.google.inject.Inject;
 import com.radixdlt.consensus.Proposal;
 import com.radixdlt.consensus.Vote;
@@ -77,6 +78,7 @@ import com.radixdlt.network.messaging.MessageFromPeer;
 import com.radixdlt.network.p2p.NodeId;
 
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
@@ -122,24 +124,41 @@ public final class MessageCentralBFTNetwork {
 	}
 
 	public RemoteEventDispatcher<Proposal> proposalDispatcher() {
-		return this::sendProposal;
-	}
+		return new RemoteEventDispatcher<>() {
+			@Override
+			public void dispatch(BFTNode receiver, Proposal proposal) {
+				send(new ConsensusEventMessage(proposal), receiver);
+			}
 
-	private void sendProposal(BFTNode receiver, Proposal proposal) {
-		ConsensusEventMessage message = new ConsensusEventMessage(proposal);
-		send(message, receiver);
+			@Override
+			public void dispatch(Iterable<BFTNode> receivers, Proposal proposal) {
+				multicast(new ConsensusEventMessage(proposal), receivers);
+			}
+		};
 	}
 
 	public RemoteEventDispatcher<Vote> voteDispatcher() {
-		return this::sendVote;
-	}
+		return new RemoteEventDispatcher<>() {
+			@Override
+			public void dispatch(BFTNode receiver, Vote vote) {
+				send(new ConsensusEventMessage(vote), receiver);
+			}
 
-	private void sendVote(BFTNode receiver, Vote vote) {
-		ConsensusEventMessage message = new ConsensusEventMessage(vote);
-		send(message, receiver);
+			@Override
+			public void dispatch(Iterable<BFTNode> receivers, Vote vote) {
+				multicast(new ConsensusEventMessage(vote), receivers);
+			}
+		};
 	}
 
 	private void send(Message message, BFTNode recipient) {
 		this.messageCentral.send(NodeId.fromPublicKey(recipient.getKey()), message);
 	}
+
+	private void multicast(Message message, Iterable<BFTNode> recipients) {
+		final var nodeIds = Streams.stream(recipients)
+			.map(recipient -> NodeId.fromPublicKey(recipient.getKey()))
+			.collect(Collectors.toList());
+		this.messageCentral.multicast(nodeIds, message);
+	}
 }
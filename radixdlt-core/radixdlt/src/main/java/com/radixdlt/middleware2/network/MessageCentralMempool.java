@@ -66,6 +66,7 @@ package com.radixdlt.middleware2.network;
 
 import org.radix.network.messaging.Message;
 
+import com.google.common.collect.Streams;
 import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.environment.rx.RemoteEvent;
@@ -74,6 +75,7 @@ import com.radixdlt.network.messaging.MessageCentral;
 import com.radixdlt.network.p2p.NodeId;
 
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Flowable;
@@ -91,9 +93,16 @@ public final class MessageCentralMempool {
 	}
 
 	public RemoteEventDispatcher<MempoolAdd> mempoolAddRemoteEventDispatcher() {
-		return (receiver, msg) -> {
-			MempoolAddMessage message = new MempoolAddMessage(msg.getTxns());
-			this.send(message, receiver);
+		return new RemoteEventDispatcher<>() {
+			@Override
+			public void dispatch(BFTNode receiver, MempoolAdd msg) {
+				send(new MempoolAddMessage(msg.getTxns()), receiver);
+			}
+
+			@Override
+			public void dispatch(Iterable<BFTNode> receivers, MempoolAdd msg) {
+				multicast(new MempoolAddMessage(msg.getTxns()), receivers);
+			}
 		};
 	}
 
@@ -101,6 +110,13 @@ public final class MessageCentralMempool {
 		this.messageCentral.send(NodeId.fromPublicKey(recipient.getKey()), message);
 	}
 
+	private void multicast(Message message, Iterable<BFTNode> recipients) {
+		final var nodeIds = Streams.stream(recipients)
+			.map(recipient -> NodeId.fromPublicKey(recipient.getKey()))
+			.collect(Collectors.toList());
+		this.messageCentral.multicast(nodeIds, message);
+	}
+
 	public Flowable<RemoteEvent<MempoolAdd>> mempoolComands() {
 		return messageCentral
 			.messagesOf(MempoolAddMessage.class)
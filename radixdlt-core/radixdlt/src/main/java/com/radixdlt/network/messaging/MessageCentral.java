@@ -65,6 +65,7 @@
 package com.radixdlt.network.messaging;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import com.radixdlt.network.p2p.NodeId;
 import io.reactivex.rxjava3.core.Observable;
@@ -85,6 +86,18 @@ public interface MessageCentral {
 	 */
 	void send(NodeId receiver, Message message);
 
+	/**
+	 * Sends a single message to several nodes.
+	 * Implementations may serialize the message once and share the resulting
+	 * bytes between all receivers, so the message must not be modified afterwards.
+	 *
+	 * @param receivers The nodes to send the message to
+	 * @param message The message to send
+	 */
+	default void multicast(Collection<NodeId> receivers, Message message) {
+		receivers.forEach(receiver -> send(receiver, message));
+	}
+
 	/**
 	 * Returns a Flowable of inbound peer messages of specified type.
 	 * @param messageType the message type
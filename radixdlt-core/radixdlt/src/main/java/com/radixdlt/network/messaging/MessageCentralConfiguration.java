@@ -80,6 +80,15 @@ public interface MessageCentralConfiguration {
 	 */
 	int messagingInboundQueueMax(int defaultValue);
 
+	/**
+	 * Retrieves the maximum queue depth for inbound messages from a single peer
+	 * before further incoming messages from that peer will be dropped.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The maximum per-peer queue depth
+	 */
+	int messagingInboundPeerQueueMax(int defaultValue);
+
 	/**
 	 * Retrieves the maximum queue depth for outbound messages before
 	 * further outgoing messages will be dropped.
@@ -89,6 +98,24 @@ public interface MessageCentralConfiguration {
 	 */
 	int messagingOutboundQueueMax(int defaultValue);
 
+	/**
+	 * Retrieves the maximum queue depth for outbound messages to a single peer
+	 * before further outgoing messages to that peer will be dropped.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The maximum per-peer queue depth
+	 */
+	int messagingOutboundPeerQueueMax(int defaultValue);
+
+	/**
+	 * Retrieves the number of threads used to serialize and dispatch outbound messages.
+	 * Messages to the same peer are always dispatched in order by one thread at a time.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The number of outbound processing threads
+	 */
+	int messagingOutboundThreads(int defaultValue);
+
 	/**
 	 * Retrieves the maximum time-to-live for inbound and outbound messages in milliseconds.
 	 * If messages are not processed and dispatched within this time, they will be
@@ -112,11 +139,26 @@ public interface MessageCentralConfiguration {
 				return properties.get("messaging.inbound.queue_max", defaultValue);
 			}
 
+			@Override
+			public int messagingInboundPeerQueueMax(int defaultValue) {
+				return properties.get("messaging.inbound.peer_queue_max", defaultValue);
+			}
+
 			@Override
 			public int messagingOutboundQueueMax(int defaultValue) {
 				return properties.get("messaging.outbound.queue_max", defaultValue);
 			}
 
+			@Override
+			public int messagingOutboundPeerQueueMax(int defaultValue) {
+				return properties.get("messaging.outbound.peer_queue_max", defaultValue);
+			}
+
+			@Override
+			public int messagingOutboundThreads(int defaultValue) {
+				return properties.get("messaging.outbound.threads", defaultValue);
+			}
+
 			@Override
 			public long messagingTimeToLive(long defaultValue) {
 				return properties.get("messaging.time_to_live", defaultValue);
@@ -64,8 +64,19 @@
 
 package com.radixdlt.network.messaging;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.inject.Provider;
 import com.radixdlt.network.p2p.NodeId;
@@ -77,18 +88,28 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.radix.network.messaging.Message;
-import org.radix.utils.SimpleThreadPool;
 
 import com.google.common.util.concurrent.RateLimiter;
 import com.google.inject.Inject;
+import com.radixdlt.counters.LatencyHistogram;
+import com.radixdlt.counters.LabelledGauges;
+import com.radixdlt.counters.LatencyHistograms;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.utils.ThreadFactories;
 import com.radixdlt.utils.TimeSupplier;
+import com.radixdlt.network.messaging.TrafficClass.DropPolicy;
 import com.radixdlt.serialization.Serialization;
 
 final class MessageCentralImpl implements MessageCentral {
 	private static final Logger log = LogManager.getLogger();
 
+	// Maximum number of messages dispatched to one peer before other peers get a turn
+	private static final int OUTBOUND_DRAIN_BATCH_SIZE = 32;
+	private static final TrafficClass[] TRAFFIC_CLASSES = TrafficClass.values();
+	private static final String OUTBOUND_QUEUE_LATENCY = "messages_outbound_queue_latency_seconds";
+	private static final String OUTBOUND_PEER_QUEUE_DEPTH = "messages_outbound_peer_queue_depth";
+
 	// Dependencies
 	private final SystemCounters counters;
 
@@ -104,9 +125,21 @@ final class MessageCentralImpl implements MessageCentral {
 
 	private final Observable<MessageFromPeer<Message>> peerMessages;
 
+	// Inbound message handling
+	private final ConcurrentHashMap<NodeId, Integer> inboundPeerPending = new ConcurrentHashMap<>();
+	private final AtomicInteger inboundPending = new AtomicInteger();
+	private final int inboundQueueMax;
+	private final int inboundPeerQueueMax;
+
 	// Outbound message handling
-	private final SimpleBlockingQueue<OutboundMessageEvent> outboundQueue;
-	private final SimpleThreadPool<OutboundMessageEvent> outboundThreadPool;
+	private final EventQueueFactory<OutboundMessageEvent> outboundEventQueueFactory;
+	private final ConcurrentHashMap<NodeId, OutboundPeerQueue> outboundQueues = new ConcurrentHashMap<>();
+	private final AtomicInteger outboundPending = new AtomicInteger();
+	private final AtomicInteger[] outboundClassPending = new AtomicInteger[TRAFFIC_CLASSES.length];
+	private final int[] outboundClassBudget = new int[TRAFFIC_CLASSES.length];
+	private final int[] outboundPeerClassBudget = new int[TRAFFIC_CLASSES.length];
+	private final LatencyHistogram[] outboundQueueLatency = new LatencyHistogram[TRAFFIC_CLASSES.length];
+	private final ExecutorService outboundExecutor;
 
 	@Inject
 	MessageCentralImpl(
@@ -116,13 +149,24 @@ final class MessageCentralImpl implements MessageCentral {
 		TimeSupplier timeSource,
 		EventQueueFactory<OutboundMessageEvent> outboundEventQueueFactory,
 		SystemCounters counters,
+		LatencyHistograms latencyHistograms,
+		LabelledGauges gauges,
 		Provider<PeerControl> peerControl
 	) {
 		this.counters = Objects.requireNonNull(counters);
-		this.outboundQueue = outboundEventQueueFactory.createEventQueue(
-			config.messagingOutboundQueueMax(16384),
-			OutboundMessageEvent.comparator()
-		);
+		this.outboundEventQueueFactory = Objects.requireNonNull(outboundEventQueueFactory);
+		final var outboundQueueMax = config.messagingOutboundQueueMax(16384);
+		final var outboundPeerQueueMax = config.messagingOutboundPeerQueueMax(4096);
+		for (var trafficClass : TRAFFIC_CLASSES) {
+			final var i = trafficClass.ordinal();
+			this.outboundClassPending[i] = new AtomicInteger();
+			this.outboundClassBudget[i] = trafficClass.budget(outboundQueueMax);
+			this.outboundPeerClassBudget[i] = trafficClass.budget(outboundPeerQueueMax);
+			this.outboundQueueLatency[i] = latencyHistograms.histogram(OUTBOUND_QUEUE_LATENCY, Map.of("class", trafficClass.label()));
+		}
+		gauges.register(OUTBOUND_PEER_QUEUE_DEPTH, this::outboundPeerQueueDepths);
+		this.inboundQueueMax = config.messagingInboundQueueMax(8192);
+		this.inboundPeerQueueMax = config.messagingInboundPeerQueueMax(2048);
 
 		Objects.requireNonNull(timeSource);
 		Objects.requireNonNull(serialization);
@@ -143,25 +187,66 @@ final class MessageCentralImpl implements MessageCentral {
 			peerControl
 		);
 
-		// Start outbound processing thread
-		this.outboundThreadPool = new SimpleThreadPool<>(
-			"Outbound message processing",
-			1, // Ensure messages sent in-order
-			outboundQueue::take,
-			this::outboundMessageProcessor,
-			log
+		// Outbound messages are serialized and dispatched in parallel for different peers
+		final var outboundThreads = config.messagingOutboundThreads(Runtime.getRuntime().availableProcessors());
+		this.outboundExecutor = Executors.newFixedThreadPool(
+			Math.max(1, outboundThreads),
+			ThreadFactories.daemonThreads("Outbound message processing %d")
 		);
-		this.outboundThreadPool.start();
 
+		// Inbound messages are decoded in parallel, partitioned by peer to keep each peer's messages in order
+		final var inboundPartitions = Runtime.getRuntime().availableProcessors();
 		this.peerMessages = peerManager.messages()
-			.observeOn(Schedulers.computation())
-			.map(this::processInboundMessage)
+			.filter(this::admitInboundMessage)
+			.groupBy(inboundMessage -> Math.floorMod(inboundMessage.source().hashCode(), inboundPartitions))
+			.flatMap(partition -> partition
+				.observeOn(Schedulers.computation())
+				.map(this::decodeInboundMessage)
+			)
 			.filter(Optional::isPresent)
 			.map(Optional::get)
 			.publish()
 			.autoConnect();
 	}
 
+	private boolean admitInboundMessage(InboundMessage inboundMessage) {
+		final var source = inboundMessage.source();
+		if (this.inboundPending.incrementAndGet() > this.inboundQueueMax) {
+			this.inboundPending.decrementAndGet();
+			inboundMessageDropped(source, "inbound queue full");
+			return false;
+		}
+
+		final var peerPending = this.inboundPeerPending.merge(source, 1, Integer::sum);
+		if (peerPending > this.inboundPeerQueueMax) {
+			releaseInboundMessage(source);
+			inboundMessageDropped(source, "inbound queue for peer full");
+			return false;
+		}
+
+		this.counters.set(CounterType.MESSAGES_INBOUND_BACKLOG, this.inboundPending.get());
+		return true;
+	}
+
+	private void releaseInboundMessage(NodeId source) {
+		this.inboundPeerPending.computeIfPresent(source, (nodeId, pending) -> pending <= 1 ? null : pending - 1);
+		this.counters.set(CounterType.MESSAGES_INBOUND_BACKLOG, this.inboundPending.decrementAndGet());
+	}
+
+	private void inboundMessageDropped(NodeId source, String reason) {
+		this.counters.increment(CounterType.MESSAGES_INBOUND_DISCARDED);
+		final var logLevel = discardedInboundMessagesLogRateLimiter.tryAcquire() ? Level.INFO : Level.TRACE;
+		log.log(logLevel, "Dropping inbound message from {} because of {}", source, reason);
+	}
+
+	private Optional<MessageFromPeer<Message>> decodeInboundMessage(InboundMessage inboundMessage) {
+		try {
+			return processInboundMessage(inboundMessage);
+		} finally {
+			releaseInboundMessage(inboundMessage.source());
+		}
+	}
+
 	private Optional<MessageFromPeer<Message>> processInboundMessage(InboundMessage inboundMessage) {
 		try {
 			return this.messagePreprocessor.process(inboundMessage).fold(
@@ -195,19 +280,228 @@ final class MessageCentralImpl implements MessageCentral {
 
 	@Override
 	public void close() {
-		this.outboundThreadPool.stop();
+		this.outboundExecutor.shutdownNow();
+		try {
+			if (!this.outboundExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				log.error("Outbound message processing did not exit before timeout");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	@Override
 	public void send(NodeId receiver, Message message) {
-		final var event = new OutboundMessageEvent(receiver, message, System.nanoTime() - timeBase);
-		if (!outboundQueue.offer(event) && outboundLogRateLimiter.tryAcquire()) {
-			log.error("Outbound message to {} dropped", receiver);
+		enqueue(new OutboundMessageEvent(receiver, message, System.nanoTime() - timeBase));
+	}
+
+	@Override
+	public void multicast(Collection<NodeId> receivers, Message message) {
+		if (receivers.isEmpty()) {
+			return;
+		}
+		// Serialized and compressed once by the first receiver's queue, then shared by all
+		final var sharedBytes = new SharedMessageBytes(receivers.size());
+		final var nanoTimeDiff = System.nanoTime() - timeBase;
+		for (var receiver : receivers) {
+			enqueue(new OutboundMessageEvent(receiver, message, nanoTimeDiff, sharedBytes));
+		}
+	}
+
+	private void enqueue(OutboundMessageEvent event) {
+		final var dropped = new AtomicReference<OutboundMessageEvent>();
+		// Offering while holding the map entry guarantees that a queue is never removed with messages in it
+		final var peerQueue = this.outboundQueues.compute(event.receiver(), (nodeId, existing) -> {
+			final var queue = existing == null ? new OutboundPeerQueue(nodeId) : existing;
+			dropped.set(queue.offer(event));
+			return queue;
+		});
+
+		final var droppedEvent = dropped.get();
+		if (droppedEvent != event) {
+			peerQueue.schedule();
+		}
+		if (droppedEvent != null) {
+			outboundMessageDropped(droppedEvent);
+		}
+	}
+
+	private void outboundMessageDropped(OutboundMessageEvent event) {
+		event.releaseSharedBytes();
+		this.counters.increment(CounterType.MESSAGES_OUTBOUND_DROPPED);
+		if (outboundLogRateLimiter.tryAcquire()) {
+			log.error("Outbound {} message to {} dropped", event.trafficClass().label(), event.receiver());
+		}
+	}
+
+	private void updateOutboundCounters() {
+		var peerPendingMax = 0;
+		for (var peerQueue : this.outboundQueues.values()) {
+			peerPendingMax = Math.max(peerPendingMax, peerQueue.size());
 		}
+		this.counters.set(CounterType.MESSAGES_OUTBOUND_PENDING, this.outboundPending.get());
+		this.counters.set(CounterType.MESSAGES_OUTBOUND_PEER_QUEUES, this.outboundQueues.size());
+		this.counters.set(CounterType.MESSAGES_OUTBOUND_PEER_PENDING_MAX, peerPendingMax);
 	}
 
-	private void outboundMessageProcessor(OutboundMessageEvent outbound) {
-		this.counters.set(CounterType.MESSAGES_OUTBOUND_PENDING, outboundQueue.size());
-		messageDispatcher.send(outbound);
+	private Map<Map<String, String>, Long> outboundPeerQueueDepths() {
+		final var depths = new HashMap<Map<String, String>, Long>();
+		this.outboundQueues.forEach((nodeId, peerQueue) -> {
+			final var peer = nodeId.getPublicKey().toHex();
+			for (var trafficClass : TRAFFIC_CLASSES) {
+				depths.put(Map.of("peer", peer, "class", trafficClass.label()), (long) peerQueue.size(trafficClass.ordinal()));
+			}
+		});
+		return depths;
+	}
+
+	/**
+	 * Outbound messages to a single peer, queued by traffic class. At most one thread
+	 * drains a queue at any time, so messages to the same peer are dispatched in order
+	 * within each traffic class, while the queues of different peers are serialized and
+	 * dispatched in parallel.
+	 */
+	private final class OutboundPeerQueue {
+		private final NodeId receiver;
+		private final SimpleBlockingQueue<OutboundMessageEvent>[] queues;
+		private final AtomicInteger[] classSizes = new AtomicInteger[TRAFFIC_CLASSES.length];
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+		@SuppressWarnings("unchecked")
+		private OutboundPeerQueue(NodeId receiver) {
+			this.receiver = receiver;
+			this.queues = new SimpleBlockingQueue[TRAFFIC_CLASSES.length];
+			for (var trafficClass : TRAFFIC_CLASSES) {
+				final var i = trafficClass.ordinal();
+				this.queues[i] = outboundEventQueueFactory.createEventQueue(
+					Math.max(1, outboundPeerClassBudget[i]),
+					OutboundMessageEvent.comparator()
+				);
+				this.classSizes[i] = new AtomicInteger();
+			}
+		}
+
+		/**
+		 * Queues the specified event, applying its traffic class's budgets and drop policy.
+		 *
+		 * @return {@code null} if the event was queued, the event itself if it was
+		 *     dropped, or an older event which was dropped to make room for it
+		 */
+		private OutboundMessageEvent offer(OutboundMessageEvent event) {
+			final var trafficClass = event.trafficClass();
+			final var i = trafficClass.ordinal();
+
+			OutboundMessageEvent evicted = null;
+			if (outboundClassPending[i].get() >= outboundClassBudget[i] || this.classSizes[i].get() >= outboundPeerClassBudget[i]) {
+				if (trafficClass.dropPolicy() != DropPolicy.DROP_OLDEST) {
+					return event;
+				}
+				evicted = evict(i, event);
+				if (evicted == null) {
+					return event;
+				}
+			}
+
+			if (!this.queues[i].offer(event)) {
+				if (evicted != null) {
+					outboundMessageDropped(evicted);
+				}
+				return event;
+			}
+			this.classSizes[i].incrementAndGet();
+			this.size.incrementAndGet();
+			outboundClassPending[i].incrementAndGet();
+			outboundPending.incrementAndGet();
+			return evicted;
+		}
+
+		private OutboundMessageEvent poll(int trafficClass) {
+			if (this.classSizes[trafficClass].get() == 0) {
+				return null;
+			}
+			return removed(trafficClass, this.queues[trafficClass].poll());
+		}
+
+		private OutboundMessageEvent evict(int trafficClass, OutboundMessageEvent event) {
+			if (this.classSizes[trafficClass].get() == 0) {
+				return null;
+			}
+			return removed(trafficClass, this.queues[trafficClass].poll(queued -> TrafficClass.replaces(event.message(), queued.message())));
+		}
+
+		private OutboundMessageEvent removed(int trafficClass, OutboundMessageEvent event) {
+			if (event != null) {
+				this.classSizes[trafficClass].decrementAndGet();
+				this.size.decrementAndGet();
+				outboundClassPending[trafficClass].decrementAndGet();
+				outboundPending.decrementAndGet();
+			}
+			return event;
+		}
+
+		private int size() {
+			return this.size.get();
+		}
+
+		private int size(int trafficClass) {
+			return this.classSizes[trafficClass].get();
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					outboundExecutor.execute(this::drain);
+				} catch (RejectedExecutionException e) {
+					// Shutting down
+					this.scheduled.set(false);
+				}
+			}
+		}
+
+		private void drain() {
+			try {
+				// Weighted round robin over the traffic classes, so bulk traffic can't hold up consensus
+				var dispatched = 0;
+				var dispatchedInRound = -1;
+				while (dispatched < OUTBOUND_DRAIN_BATCH_SIZE && dispatchedInRound != 0) {
+					dispatchedInRound = 0;
+					for (var trafficClass : TRAFFIC_CLASSES) {
+						for (int n = 0; n < trafficClass.weight() && dispatched < OUTBOUND_DRAIN_BATCH_SIZE; n++) {
+							final var event = poll(trafficClass.ordinal());
+							if (event == null) {
+								break;
+							}
+							dispatch(event);
+							dispatchedInRound++;
+							dispatched++;
+						}
+					}
+				}
+				updateOutboundCounters();
+			} finally {
+				this.scheduled.set(false);
+			}
+
+			if (size() > 0) {
+				// Requeue behind other peers rather than draining everything at once
+				schedule();
+			} else {
+				outboundQueues.computeIfPresent(
+					this.receiver,
+					(nodeId, existing) -> existing == this && existing.size() == 0 && !existing.scheduled.get() ? null : existing
+				);
+			}
+		}
+
+		private void dispatch(OutboundMessageEvent event) {
+			final var queueLatency = System.nanoTime() - timeBase - event.nanoTimeDiff();
+			outboundQueueLatency[event.trafficClass().ordinal()].record(queueLatency);
+			try {
+				messageDispatcher.send(event);
+			} catch (Exception e) {
+				log.error("While processing outbound message to {}", this.receiver, e);
+			}
+		}
 	}
 }
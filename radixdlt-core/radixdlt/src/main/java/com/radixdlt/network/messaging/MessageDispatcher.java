@@ -123,10 +123,11 @@ class MessageDispatcher {
 			String msg = String.format("TTL for %s message to %s has expired", message.getClass().getSimpleName(), receiver);
 			log.warn(msg);
 			this.counters.increment(CounterType.MESSAGES_OUTBOUND_ABORTED);
+			outboundMessage.releaseSharedBytes();
 			return CompletableFuture.completedFuture(MESSAGE_EXPIRED.result());
 		}
 
-		final var bytes = serialize(message);
+		final var bytes = serialize(outboundMessage);
 
 		return peerManager.findOrCreateChannel(outboundMessage.receiver())
 			.thenApply(channel -> send(channel, bytes))
@@ -153,6 +154,19 @@ class MessageDispatcher {
 		return result;
 	}
 
+	private byte[] serialize(OutboundMessageEvent outboundMessage) {
+		final var sharedBytes = outboundMessage.sharedBytes();
+		if (sharedBytes.isEmpty()) {
+			return serialize(outboundMessage.message());
+		}
+
+		try {
+			return sharedBytes.get().get(() -> serialize(outboundMessage.message()));
+		} finally {
+			outboundMessage.releaseSharedBytes();
+		}
+	}
+
 	private byte[] serialize(Message out) {
 		try {
 			byte[] uncompressed = serialization.toDson(out, Output.WIRE);
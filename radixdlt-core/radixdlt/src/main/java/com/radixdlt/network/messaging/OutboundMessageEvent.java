@@ -67,6 +67,7 @@ package com.radixdlt.network.messaging;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import com.radixdlt.network.p2p.NodeId;
 import org.radix.network.messages.PeerPingMessage;
@@ -97,15 +98,23 @@ public final class OutboundMessageEvent {
 	}
 
 	private final int priority;
+	private final TrafficClass trafficClass;
 	private final long nanoTimeDiff;
 	private final NodeId receiver;
 	private final Message message;
+	private final SharedMessageBytes sharedBytes;
 
 	OutboundMessageEvent(NodeId receiver, Message message, long nanoTimeDiff) {
+		this(receiver, message, nanoTimeDiff, null);
+	}
+
+	OutboundMessageEvent(NodeId receiver, Message message, long nanoTimeDiff, SharedMessageBytes sharedBytes) {
 		this.priority = MESSAGE_PRIORITIES.getOrDefault(message.getClass(), DEFAULT_PRIORITY);
+		this.trafficClass = TrafficClass.of(message);
 		this.nanoTimeDiff = nanoTimeDiff;
 		this.receiver = receiver;
 		this.message = message;
+		this.sharedBytes = sharedBytes;
 	}
 
 	/**
@@ -117,6 +126,15 @@ public final class OutboundMessageEvent {
 		return priority;
 	}
 
+	/**
+	 * Returns the traffic class of the message.
+	 *
+	 * @return the traffic class of the message
+	 */
+	TrafficClass trafficClass() {
+		return trafficClass;
+	}
+
 	/**
 	 * Returns the time this event was created as a number of nanoseconds
 	 * since some arbitrary baseline.
@@ -145,6 +163,26 @@ public final class OutboundMessageEvent {
 		return message;
 	}
 
+	/**
+	 * Returns the wire bytes shared with other receivers of the same message,
+	 * if the message was multicast.
+	 *
+	 * @return the shared wire bytes, if any
+	 */
+	Optional<SharedMessageBytes> sharedBytes() {
+		return Optional.ofNullable(sharedBytes);
+	}
+
+	/**
+	 * Releases this event's reference to shared wire bytes, if any.
+	 * Must be called once the event has been dispatched or dropped.
+	 */
+	void releaseSharedBytes() {
+		if (sharedBytes != null) {
+			sharedBytes.release();
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(this.priority, this.nanoTimeDiff, this.receiver, this.message);
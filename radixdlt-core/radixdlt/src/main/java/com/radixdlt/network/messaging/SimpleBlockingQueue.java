@@ -64,6 +64,8 @@
 
 package com.radixdlt.network.messaging;
 
+import java.util.function.Predicate;
+
 /**
  * A simple queue.
  *
@@ -79,6 +81,23 @@ interface SimpleBlockingQueue<T> {
      */
 	T take() throws InterruptedException;
 
+    /**
+     * Retrieves and removes the head of this queue, or returns {@code null}
+     * if this queue is empty.
+     *
+     * @return the head of this queue, or {@code null} if this queue is empty
+     */
+	T poll();
+
+    /**
+     * Retrieves and removes the first element of this queue in queue order which
+     * matches the specified filter, or returns {@code null} if there is none.
+     *
+     * @param filter the elements which may be removed
+     * @return the first matching element, or {@code null} if there is none
+     */
+	T poll(Predicate<? super T> filter);
+
     /**
      * Inserts the specified element into this queue if it is possible to do
      * so immediately without violating capacity restrictions, returning
@@ -68,6 +68,7 @@ import java.util.Comparator;
 import java.util.Objects;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Implementation of a {@link SimpleBlockingQueue} that provides
@@ -117,6 +118,28 @@ class SimplePriorityBlockingQueue<T> implements SimpleBlockingQueue<T> {
 		return this.queue.take().getEntry();
 	}
 
+	@Override
+	public T poll() {
+		final var head = this.queue.poll();
+		return head == null ? null : head.getEntry();
+	}
+
+	@Override
+	public T poll(Predicate<? super T> filter) {
+		for (;;) {
+			final var first = this.queue.stream()
+				.filter(e -> filter.test(e.getEntry()))
+				.min(this.queue.comparator());
+			if (first.isEmpty()) {
+				return null;
+			}
+			// Retry if another thread took it in the meantime
+			if (this.queue.remove(first.get())) {
+				return first.get().getEntry();
+			}
+		}
+	}
+
 	@Override
 	public boolean offer(T item) {
 		return this.queue.offer(new SimpleEntry<>(Objects.requireNonNull(item)));
@@ -0,0 +1,214 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.radixdlt.middleware2.network.ConsensusEventMessage;
+import com.radixdlt.middleware2.network.GetVerticesErrorResponseMessage;
+import com.radixdlt.middleware2.network.GetVerticesRequestMessage;
+import com.radixdlt.middleware2.network.GetVerticesResponseMessage;
+import com.radixdlt.middleware2.network.LedgerStatusUpdateMessage;
+import com.radixdlt.middleware2.network.MempoolAddMessage;
+import com.radixdlt.middleware2.network.StatusRequestMessage;
+import com.radixdlt.middleware2.network.StatusResponseMessage;
+import com.radixdlt.middleware2.network.SyncRequestMessage;
+import com.radixdlt.middleware2.network.SyncResponseMessage;
+import org.radix.network.messages.GetPeersMessage;
+import org.radix.network.messages.PeerPingMessage;
+import org.radix.network.messages.PeerPongMessage;
+import org.radix.network.messages.PeersResponseMessage;
+import org.radix.network.messaging.Message;
+
+/**
+ * Classes of outbound traffic.
+ * <p>
+ * Each class gets its own share of the outbound queue budgets, so that a flood
+ * of messages of one class can not cause messages of another class to be dropped.
+ * Queues are drained by weighted round robin over the classes, and each class has
+ * a policy deciding which message is dropped once its budget is used up.
+ */
+enum TrafficClass {
+	CONSENSUS("consensus", 8, 25, DropPolicy.DROP_OLDEST),
+	BFT_SYNC("bft_sync", 4, 20, DropPolicy.DROP_NEWEST),
+	LEDGER_SYNC("ledger_sync", 2, 20, DropPolicy.DROP_NEWEST),
+	MEMPOOL("mempool", 1, 25, DropPolicy.DROP_NEWEST),
+	DISCOVERY("discovery", 1, 10, DropPolicy.DROP_OLDEST);
+
+	/**
+	 * What to drop when a message is sent while its traffic class is over budget.
+	 */
+	enum DropPolicy {
+		/** Drop the message being sent. */
+		DROP_NEWEST,
+		/**
+		 * Drop the oldest queued message of the same kind to the same peer, if any, to make room.
+		 * Messages of another kind, such as a proposal queued before a flood of votes, are kept.
+		 */
+		DROP_OLDEST
+	}
+
+	private static final Map<Class<?>, TrafficClass> MESSAGE_CLASSES = ImmutableMap.<Class<?>, TrafficClass>builder()
+		.put(ConsensusEventMessage.class, CONSENSUS)
+		.put(GetVerticesRequestMessage.class, BFT_SYNC)
+		.put(GetVerticesResponseMessage.class, BFT_SYNC)
+		.put(GetVerticesErrorResponseMessage.class, BFT_SYNC)
+		.put(StatusRequestMessage.class, LEDGER_SYNC)
+		.put(StatusResponseMessage.class, LEDGER_SYNC)
+		.put(SyncRequestMessage.class, LEDGER_SYNC)
+		.put(SyncResponseMessage.class, LEDGER_SYNC)
+		.put(LedgerStatusUpdateMessage.class, LEDGER_SYNC)
+		.put(MempoolAddMessage.class, MEMPOOL)
+		.put(GetPeersMessage.class, DISCOVERY)
+		.put(PeersResponseMessage.class, DISCOVERY)
+		.put(PeerPingMessage.class, DISCOVERY)
+		.put(PeerPongMessage.class, DISCOVERY)
+		.build();
+
+	private final String label;
+	private final int weight;
+	private final int budgetPercent;
+	private final DropPolicy dropPolicy;
+
+	TrafficClass(String label, int weight, int budgetPercent, DropPolicy dropPolicy) {
+		this.label = label;
+		this.weight = weight;
+		this.budgetPercent = budgetPercent;
+		this.dropPolicy = dropPolicy;
+	}
+
+	/**
+	 * Returns the traffic class of the specified message.
+	 * Messages of unknown types are treated like mempool gossip.
+	 *
+	 * @param message the message to classify
+	 * @return the traffic class of the message
+	 */
+	static TrafficClass of(Message message) {
+		final var trafficClass = MESSAGE_CLASSES.get(message.getClass());
+		if (trafficClass != null) {
+			return trafficClass;
+		}
+		return MESSAGE_CLASSES.entrySet().stream()
+			.filter(e -> e.getKey().isInstance(message))
+			.map(Map.Entry::getValue)
+			.findFirst()
+			.orElse(MEMPOOL);
+	}
+
+	/**
+	 * Returns the label of this class in exported metrics.
+	 *
+	 * @return the metrics label
+	 */
+	String label() {
+		return label;
+	}
+
+	/**
+	 * Returns the maximum number of messages of this class dispatched to a peer
+	 * per round of the weighted round robin.
+	 *
+	 * @return the scheduling weight
+	 */
+	int weight() {
+		return weight;
+	}
+
+	/**
+	 * Returns this class's share of the specified queue size.
+	 *
+	 * @param queueMax the total queue size shared by all classes
+	 * @return the number of queued messages allowed for this class
+	 */
+	int budget(int queueMax) {
+		return (int) ((long) queueMax * budgetPercent / 100);
+	}
+
+	/**
+	 * Returns whether the specified queued message may be dropped to make room for
+	 * the specified message under {@link DropPolicy#DROP_OLDEST}, which is the case
+	 * if both are of the same kind, such as two votes or two proposals.
+	 *
+	 * @param message the message being sent
+	 * @param queued the queued message
+	 * @return {@code true} if the queued message may be dropped
+	 */
+	static boolean replaces(Message message, Message queued) {
+		return kind(message) == kind(queued);
+	}
+
+	private static Class<?> kind(Message message) {
+		if (message instanceof ConsensusEventMessage) {
+			return ((ConsensusEventMessage) message).getConsensusMessage().getClass();
+		}
+		return message.getClass();
+	}
+
+	DropPolicy dropPolicy() {
+		return dropPolicy;
+	}
+}
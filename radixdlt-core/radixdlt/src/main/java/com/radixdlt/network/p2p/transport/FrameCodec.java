@@ -66,6 +66,8 @@ package com.radixdlt.network.p2p.transport;
 
 import com.radixdlt.network.p2p.transport.handshake.Secrets;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import org.bouncycastle.crypto.StreamCipher;
 import org.bouncycastle.crypto.digests.KeccakDigest;
 import org.bouncycastle.crypto.engines.AESEngine;
@@ -73,27 +75,31 @@ import org.bouncycastle.crypto.modes.SICBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Optional;
 
 /**
  * Low-level codec for encrypted communication.
+ * <p>
+ * Frames are encrypted, decrypted and MACed in place in {@link ByteBuf}s, using
+ * scratch buffers owned by the codec, so encoding and decoding a frame does not
+ * allocate. Buffers backed by an array are processed directly, other buffers are
+ * processed in chunks through a scratch array. Not thread safe, callers must
+ * synchronize access.
  */
 public final class FrameCodec {
 	private static final int HEADER_SIZE = 32;
 	private static final int MAC_SIZE = 16;
+	private static final int BLOCK_SIZE = 16;
+	private static final int CHUNK_SIZE = 8192;
 
 	private final StreamCipher enc;
 	private final StreamCipher dec;
-	private final KeccakDigest egressMac;
-	private final KeccakDigest ingressMac;
-	private final byte[] mac;
+	private final MacState egress;
+	private final MacState ingress;
 
 	public FrameCodec(Secrets secrets) {
-		this.mac = secrets.getMac();
-
 		final var encCipher = new AESEngine();
 		enc = new SICBlockCipher(encCipher);
 		enc.init(true, new ParametersWithIV(new KeyParameter(secrets.getAes()), new byte[encCipher.getBlockSize()]));
@@ -102,81 +108,127 @@ public final class FrameCodec {
 		dec = new SICBlockCipher(decCipher);
 		dec.init(false, new ParametersWithIV(new KeyParameter(secrets.getAes()), new byte[decCipher.getBlockSize()]));
 
-		egressMac = secrets.getEgressMac();
-		ingressMac = secrets.getIngressMac();
+		egress = new MacState(secrets.getEgressMac(), secrets.getMac());
+		ingress = new MacState(secrets.getIngressMac(), secrets.getMac());
+	}
+
+	/**
+	 * Returns the size of the encoded frame for a payload of the specified length.
+	 *
+	 * @param payloadLength the length of the payload
+	 * @return the size of the encoded frame
+	 */
+	public static int frameSize(int payloadLength) {
+		return HEADER_SIZE + payloadLength + paddingSize(payloadLength) + MAC_SIZE;
 	}
 
 	public void writeFrame(byte[] frame, OutputStream out) throws IOException {
-		final var headBuffer = new byte[32];
+		final var buf = encodeFrame(frame, Unpooled.buffer(frameSize(frame.length)));
+		out.write(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+	}
+
+	/**
+	 * Encodes the specified payload into a new frame allocated from the specified allocator.
+	 * Heap buffers are used, so the payload can be encrypted in place in the backing array.
+	 *
+	 * @param frame the payload to encode
+	 * @param allocator the allocator for the frame buffer
+	 * @return the encoded frame, which the caller must release
+	 */
+	public ByteBuf encodeFrame(byte[] frame, ByteBufAllocator allocator) {
+		final var frameSize = frameSize(frame.length);
+		final var out = allocator.heapBuffer(frameSize, frameSize);
+		try {
+			return encodeFrame(frame, out);
+		} catch (RuntimeException e) {
+			out.release();
+			throw e;
+		}
+	}
+
+	private ByteBuf encodeFrame(byte[] frame, ByteBuf out) {
+		final var headBuffer = egress.head;
 		headBuffer[0] = (byte) (frame.length >> 16);
 		headBuffer[1] = (byte) (frame.length >> 8);
 		headBuffer[2] = (byte) (frame.length);
-
-		enc.processBytes(headBuffer, 0, 16, headBuffer, 0);
-		final var headBufferMacResult = updateEgressMac(egressMac, headBuffer);
-		out.write(headBuffer, 0, 16);
-		out.write(headBufferMacResult, 0, 16);
-
-		final var buff = new byte[256];
-		final var payloadStream = new ByteArrayInputStream(frame);
-		while (true) {
-			final var n = payloadStream.read(buff);
-			if (n <= 0) {
-				break;
-			}
-			enc.processBytes(buff, 0, n, buff, 0);
-			egressMac.update(buff, 0, n);
-			out.write(buff, 0, n);
-		}
-		final var paddingSize = 16 - (frame.length % 16);
-		final var padding = new byte[16];
-		if (paddingSize < 16) {
-			enc.processBytes(padding, 0, paddingSize, buff, 0);
-			egressMac.update(buff, 0, paddingSize);
-			out.write(buff, 0, paddingSize);
+		for (int i = 3; i < HEADER_SIZE; i++) {
+			headBuffer[i] = 0;
 		}
 
-		final var macBuffer = new byte[egressMac.getDigestSize()];
-		doSum(egressMac, macBuffer);
-		final var egressMacResult = updateEgressMac(egressMac, macBuffer);
-		out.write(egressMacResult, 0, 16);
+		enc.processBytes(headBuffer, 0, BLOCK_SIZE, headBuffer, 0);
+		updateMac(egress, headBuffer);
+		out.writeBytes(headBuffer, 0, BLOCK_SIZE);
+		out.writeBytes(egress.result, 0, MAC_SIZE);
+
+		final var bodyIndex = out.writerIndex();
+		final var bodySize = frame.length + paddingSize(frame.length);
+		out.writeBytes(frame);
+		out.writeZero(bodySize - frame.length);
+		processInPlace(out, bodyIndex, bodySize, enc, egress, true);
+
+		egress.sum(egress.seed);
+		updateMac(egress, egress.seed);
+		out.writeBytes(egress.result, 0, MAC_SIZE);
+		return out;
 	}
 
 	public Optional<byte[]> tryReadSingleFrame(ByteBuf input) throws IOException {
-		if (input.readableBytes() < HEADER_SIZE) {
+		final var maybeBody = tryDecodeFrame(input);
+		if (maybeBody.isEmpty()) {
 			return Optional.empty();
 		}
 
-		final var totalBodySize = readHeader(input);
+		final var body = maybeBody.get();
+		try {
+			final var bodyBuffer = new byte[body.readableBytes()];
+			body.readBytes(bodyBuffer);
+			return Optional.of(bodyBuffer);
+		} finally {
+			body.release();
+		}
+	}
 
-		if (input.readableBytes() < HEADER_SIZE + totalBodySize) {
+	/**
+	 * Decrypts a single frame in place and returns a retained slice of the
+	 * input containing the frame's payload. The reader index of the input is
+	 * moved past the frame.
+	 *
+	 * @param input the buffer to read the frame from
+	 * @return the payload of the frame, which the caller must release,
+	 *     or empty if the input doesn't contain a complete frame
+	 * @throws IOException if the frame's MAC doesn't match
+	 */
+	public Optional<ByteBuf> tryDecodeFrame(ByteBuf input) throws IOException {
+		if (input.readableBytes() < HEADER_SIZE) {
 			return Optional.empty();
 		}
 
-		final var paddingSize = totalBodySize % 16 == 0 ? 0 : 16 - (totalBodySize % 16);
-		final var payloadBuffer = new byte[totalBodySize + paddingSize + MAC_SIZE];
-		input.getBytes(HEADER_SIZE, payloadBuffer, 0, payloadBuffer.length);
+		final var frameIndex = input.readerIndex();
+		final var totalBodySize = readHeader(input, frameIndex);
+		final var frameSize = totalBodySize + paddingSize(totalBodySize);
 
-		final var frameSize = payloadBuffer.length - MAC_SIZE;
-		ingressMac.update(payloadBuffer, 0, frameSize);
-		dec.processBytes(payloadBuffer, 0, frameSize, payloadBuffer, 0);
+		if (input.readableBytes() < HEADER_SIZE + frameSize + MAC_SIZE) {
+			return Optional.empty();
+		}
 
-		final var macBuffer = new byte[ingressMac.getDigestSize()];
-		doSum(ingressMac, macBuffer);
-		updateIngressMac(ingressMac, macBuffer, payloadBuffer, frameSize);
+		final var bodyIndex = frameIndex + HEADER_SIZE;
+		processInPlace(input, bodyIndex, frameSize, dec, ingress, false);
 
-		final var bodyBuffer = new byte[totalBodySize];
-		System.arraycopy(payloadBuffer, 0, bodyBuffer, 0, totalBodySize);
+		ingress.sum(ingress.seed);
+		updateMac(ingress, ingress.seed);
+		verifyMac(ingress, input, bodyIndex + frameSize);
 
-		return Optional.of(bodyBuffer);
+		input.readerIndex(bodyIndex + frameSize + MAC_SIZE);
+		return Optional.of(input.retainedSlice(bodyIndex, totalBodySize));
 	}
 
-	private int readHeader(ByteBuf input) throws IOException {
-		final var headBuffer = new byte[32];
-		input.getBytes(0, headBuffer, 0, headBuffer.length);
+	private int readHeader(ByteBuf input, int frameIndex) throws IOException {
+		final var headBuffer = ingress.head;
+		input.getBytes(frameIndex, headBuffer, 0, HEADER_SIZE);
 
-		updateIngressMac(ingressMac, headBuffer, headBuffer, 16);
-		dec.processBytes(headBuffer, 0, 16, headBuffer, 0);
+		updateMac(ingress, headBuffer);
+		verifyMac(ingress, headBuffer, BLOCK_SIZE);
+		dec.processBytes(headBuffer, 0, BLOCK_SIZE, headBuffer, 0);
 
 		int totalBodySize = headBuffer[0] & 0xFF;
 		totalBodySize = (totalBodySize << 8) + (headBuffer[1] & 0xFF);
@@ -185,40 +237,113 @@ public final class FrameCodec {
 		return totalBodySize;
 	}
 
-	private void updateIngressMac(KeccakDigest mac, byte[] seed, byte[] out, int outOffset) throws IOException {
-		final var result = updateMac(mac, seed);
+	private static int paddingSize(int length) {
+		return length % BLOCK_SIZE == 0 ? 0 : BLOCK_SIZE - (length % BLOCK_SIZE);
+	}
+
+	private static void processInPlace(ByteBuf buf, int index, int length, StreamCipher cipher, MacState mac, boolean encrypt) {
+		if (buf.hasArray()) {
+			process(buf.array(), buf.arrayOffset() + index, length, cipher, mac, encrypt);
+		} else {
+			final var chunk = mac.chunk;
+			for (int offset = 0; offset < length; offset += chunk.length) {
+				final var n = Math.min(chunk.length, length - offset);
+				buf.getBytes(index + offset, chunk, 0, n);
+				process(chunk, 0, n, cipher, mac, encrypt);
+				buf.setBytes(index + offset, chunk, 0, n);
+			}
+		}
+	}
 
+	private static void process(byte[] bytes, int offset, int length, StreamCipher cipher, MacState mac, boolean encrypt) {
+		// The MAC is always computed over the cipher text
+		if (encrypt) {
+			cipher.processBytes(bytes, offset, length, bytes, offset);
+			mac.digest.update(bytes, offset, length);
+		} else {
+			mac.digest.update(bytes, offset, length);
+			cipher.processBytes(bytes, offset, length, bytes, offset);
+		}
+	}
+
+	private static void verifyMac(MacState mac, byte[] expected, int offset) throws IOException {
 		for (int i = 0; i < MAC_SIZE; i++) {
-			if (out[i + outOffset] != result[i]) {
+			if (expected[i + offset] != mac.result[i]) {
 				throw new IOException("MAC mismatch");
 			}
 		}
 	}
 
-	private byte[] updateEgressMac(KeccakDigest mac, byte[] seed) {
-		return updateMac(mac, seed);
+	private static void verifyMac(MacState mac, ByteBuf expected, int index) throws IOException {
+		for (int i = 0; i < MAC_SIZE; i++) {
+			if (expected.getByte(index + i) != mac.result[i]) {
+				throw new IOException("MAC mismatch");
+			}
+		}
 	}
 
-	private byte[] updateMac(KeccakDigest mac, byte[] seed) {
-		final var aesBlock = new byte[mac.getDigestSize()];
-		doSum(mac, aesBlock);
-		makeMacCipher().processBlock(aesBlock, 0, aesBlock, 0);
+	/**
+	 * Updates the MAC with the specified seed, leaving the new MAC value in {@code mac.result}.
+	 */
+	private static void updateMac(MacState mac, byte[] seed) {
+		final var aesBlock = mac.block;
+		mac.sum(aesBlock);
+		mac.cipher.processBlock(aesBlock, 0, aesBlock, 0);
 		for (int i = 0; i < MAC_SIZE; i++) {
 			aesBlock[i] ^= seed[i];
 		}
-		mac.update(aesBlock, 0, MAC_SIZE);
-		final var result = new byte[mac.getDigestSize()];
-		doSum(mac, result);
-		return result;
+		mac.digest.update(aesBlock, 0, MAC_SIZE);
+		mac.sum(mac.result);
 	}
 
-	private AESEngine makeMacCipher() {
-		final var aesEngine = new AESEngine();
-		aesEngine.init(true, new KeyParameter(mac));
-		return aesEngine;
+	/**
+	 * MAC digest of one direction along with the scratch buffers used to update it.
+	 */
+	private static final class MacState {
+		private final CopyableKeccakDigest digest;
+		private final CopyableKeccakDigest sumDigest;
+		private final AESEngine cipher;
+		private final byte[] head = new byte[HEADER_SIZE];
+		private final byte[] block;
+		private final byte[] seed;
+		private final byte[] result;
+		private final byte[] chunk = new byte[CHUNK_SIZE];
+
+		private MacState(KeccakDigest digest, byte[] macKey) {
+			this.digest = new CopyableKeccakDigest(digest);
+			this.sumDigest = new CopyableKeccakDigest(digest);
+			this.cipher = new AESEngine();
+			this.cipher.init(true, new KeyParameter(macKey));
+			this.block = new byte[digest.getDigestSize()];
+			this.seed = new byte[digest.getDigestSize()];
+			this.result = new byte[digest.getDigestSize()];
+		}
+
+		/**
+		 * Writes the current digest value to the specified array without finishing the digest.
+		 */
+		private void sum(byte[] out) {
+			sumDigest.copyFrom(digest);
+			sumDigest.doFinal(out, 0);
+		}
 	}
 
-	private void doSum(KeccakDigest mac, byte[] out) {
-		new KeccakDigest(mac).doFinal(out, 0);
+	/**
+	 * A {@link KeccakDigest} whose state can be copied into an existing instance,
+	 * rather than allocating a new digest each time an intermediate value is needed.
+	 */
+	private static final class CopyableKeccakDigest extends KeccakDigest {
+		private CopyableKeccakDigest(KeccakDigest source) {
+			super(source);
+		}
+
+		private void copyFrom(CopyableKeccakDigest source) {
+			System.arraycopy(source.state, 0, this.state, 0, source.state.length);
+			System.arraycopy(source.dataQueue, 0, this.dataQueue, 0, source.dataQueue.length);
+			this.rate = source.rate;
+			this.bitsInQueue = source.bitsInQueue;
+			this.fixedOutputLength = source.fixedOutputLength;
+			this.squeezing = source.squeezing;
+		}
 	}
 }
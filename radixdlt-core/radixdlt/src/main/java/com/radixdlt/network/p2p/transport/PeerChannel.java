@@ -86,7 +86,6 @@ import com.radixdlt.serialization.Serialization;
 import com.radixdlt.utils.RateCalculator;
 import com.radixdlt.utils.functional.Result;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
@@ -290,18 +289,11 @@ public final class PeerChannel extends SimpleChannelInboundHandler<ByteBuf> {
 			if (this.state != ChannelState.ACTIVE) {
 				return IO_ERROR.result();
 			} else {
-				try {
-					// we don't need to release the buffer manually as this is done by Netty (in writeAndFlush)
-					final var buf = PooledByteBufAllocator.DEFAULT.buffer(data.length);
-					try (var out = new ByteBufOutputStream(buf)) {
-						this.frameCodec.writeFrame(data, out);
-					}
-					this.write(buf);
-					this.outMessagesStats.tick();
-					return Result.ok(new Object());
-				} catch (IOException e) {
-					return IO_ERROR.result();
-				}
+				// we don't need to release the buffer manually as this is done by Netty (in writeAndFlush)
+				final var buf = this.frameCodec.encodeFrame(data, PooledByteBufAllocator.DEFAULT);
+				this.write(buf);
+				this.outMessagesStats.tick();
+				return Result.ok(new Object());
 			}
 		}
 	}
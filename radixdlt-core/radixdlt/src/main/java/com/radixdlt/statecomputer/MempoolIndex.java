@@ -0,0 +1,218 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.statecomputer;
+
+import com.radixdlt.atom.SubstateId;
+import com.radixdlt.constraintmachine.REProcessedTxn;
+import com.radixdlt.constraintmachine.REStateUpdate;
+import com.radixdlt.identifiers.AID;
+import com.radixdlt.utils.UInt256;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Index of mempool transactions ordered by fee paid per byte, together with a conflict
+ * graph from substates to the transactions which depend on them.
+ * Proposals are built by walking the fee ordering and skipping transactions which
+ * depend on a substate already shut down, so nothing needs to be copied or re-sorted.
+ */
+final class MempoolIndex {
+	private static final class IndexedTxn implements Comparable<IndexedTxn> {
+		private final REProcessedTxn txn;
+		private final UInt256 feePerByte;
+		private final Set<SubstateId> dependencies;
+		private final List<SubstateId> shutDowns;
+
+		private IndexedTxn(REProcessedTxn txn) {
+			this.txn = txn;
+			this.feePerByte = txn.getFeePaid().divide(UInt256.from(Math.max(1, txn.getTxn().getPayload().length)));
+			this.dependencies = txn.substateDependencies().collect(Collectors.toSet());
+			this.shutDowns = txn.stateUpdates()
+				.filter(REStateUpdate::isShutDown)
+				.map(REStateUpdate::getId)
+				.collect(Collectors.toList());
+		}
+
+		private AID txnId() {
+			return txn.getTxnId();
+		}
+
+		// Highest fee per byte first, ties broken by transaction id to keep the order total
+		@Override
+		public int compareTo(IndexedTxn o) {
+			int cmp = o.feePerByte.compareTo(this.feePerByte);
+			return cmp != 0 ? cmp : this.txnId().compareTo(o.txnId());
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof IndexedTxn && this.txnId().equals(((IndexedTxn) o).txnId());
+		}
+
+		@Override
+		public int hashCode() {
+			return txnId().hashCode();
+		}
+	}
+
+	private final Map<AID, IndexedTxn> txns = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListSet<IndexedTxn> byFee = new ConcurrentSkipListSet<>();
+	private final Map<SubstateId, Set<AID>> substateIndex = new ConcurrentHashMap<>();
+
+	boolean contains(AID txnId) {
+		return txns.containsKey(txnId);
+	}
+
+	int size() {
+		return txns.size();
+	}
+
+	synchronized boolean add(REProcessedTxn txn) {
+		var indexed = new IndexedTxn(txn);
+		if (txns.putIfAbsent(indexed.txnId(), indexed) != null) {
+			return false;
+		}
+		byFee.add(indexed);
+		for (var substateId : indexed.dependencies) {
+			substateIndex.computeIfAbsent(substateId, id -> new HashSet<>()).add(indexed.txnId());
+		}
+		return true;
+	}
+
+	synchronized boolean remove(AID txnId) {
+		var indexed = txns.remove(txnId);
+		if (indexed == null) {
+			return false;
+		}
+		byFee.remove(indexed);
+		for (var substateId : indexed.dependencies) {
+			var dependents = substateIndex.get(substateId);
+			if (dependents != null) {
+				dependents.remove(txnId);
+				if (dependents.isEmpty()) {
+					substateIndex.remove(substateId);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all transactions which depend on any of the given substates.
+	 *
+	 * @param substateIds substates which have been shut down
+	 * @return the removed transactions
+	 */
+	synchronized List<REProcessedTxn> removeDependents(Iterable<SubstateId> substateIds) {
+		var removed = new ArrayList<REProcessedTxn>();
+		for (var substateId : substateIds) {
+			var dependents = substateIndex.get(substateId);
+			if (dependents == null) {
+				continue;
+			}
+			for (var txnId : List.copyOf(dependents)) {
+				var indexed = txns.get(txnId);
+				if (indexed != null && remove(txnId)) {
+					removed.add(indexed.txn);
+				}
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Selects up to count transactions with the highest fees per byte which neither conflict
+	 * with each other nor depend on any of the already shut down substates.
+	 *
+	 * @param count maximum number of transactions to select
+	 * @param shutDown substates shut down by transactions already prepared
+	 * @return the selected transactions in fee order
+	 */
+	List<REProcessedTxn> select(int count, Set<SubstateId> shutDown) {
+		var consumed = new HashSet<>(shutDown);
+		var selected = new ArrayList<REProcessedTxn>();
+		var it = byFee.iterator();
+		while (selected.size() < count && it.hasNext()) {
+			var next = it.next();
+			if (next.dependencies.stream().anyMatch(consumed::contains)) {
+				continue;
+			}
+			consumed.addAll(next.shutDowns);
+			selected.add(next.txn);
+		}
+		return selected;
+	}
+
+	Set<SubstateId> dependedOnSubstates() {
+		return new HashSet<>(substateIndex.keySet());
+	}
+}
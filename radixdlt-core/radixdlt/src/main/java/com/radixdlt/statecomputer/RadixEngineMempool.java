@@ -64,7 +64,6 @@
 
 package com.radixdlt.statecomputer;
 
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.radixdlt.atom.SubstateId;
@@ -81,30 +80,35 @@ import com.radixdlt.mempool.MempoolMetadata;
 import com.radixdlt.mempool.MempoolDuplicateException;
 import com.radixdlt.mempool.MempoolFullException;
 import com.radixdlt.mempool.MempoolRejectedException;
+import com.radixdlt.mempool.MempoolRetryableException;
+import com.radixdlt.store.StoreReadException;
 import com.radixdlt.utils.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * A mempool which uses internal radix engine to be more efficient.
+ * Transactions are admitted concurrently against committed state, commits exclude
+ * admissions so a transaction checked against stale state is removed by the commit
+ * which invalidated it.
  */
 @Singleton
 public final class RadixEngineMempool implements Mempool<REProcessedTxn> {
 	private static final Logger logger = LogManager.getLogger();
 
 	private final ConcurrentHashMap<AID, Pair<REProcessedTxn, MempoolMetadata>> data = new ConcurrentHashMap<>();
-	private final Map<SubstateId, Set<AID>> substateIndex = new ConcurrentHashMap<>();
+	private final MempoolIndex index = new MempoolIndex();
+	private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
 	private final RadixEngine<LedgerAndBFTProof> radixEngine;
 	private final int maxSize;
 
@@ -132,22 +136,30 @@ public final class RadixEngineMempool implements Mempool<REProcessedTxn> {
 			throw new MempoolDuplicateException(String.format("Mempool already has command %s", txn.getId()));
 		}
 
-		final RadixEngineResult result;
+		commitLock.readLock().lock();
 		try {
-			RadixEngine.RadixEngineBranch<LedgerAndBFTProof> checker = radixEngine.transientBranch();
-			result = checker.execute(List.of(txn));
-		} catch (RadixEngineException e) {
-			// TODO: allow missing dependency atoms to live for a certain amount of time
-			throw new MempoolRejectedException(e);
+			final RadixEngineResult result;
+			try {
+				result = radixEngine.executeDetached(List.of(txn));
+			} catch (RadixEngineException e) {
+				// TODO: allow missing dependency atoms to live for a certain amount of time
+				throw new MempoolRejectedException(e);
+			} catch (StoreReadException e) {
+				// Committed state is read without the ledger lock so reads may conflict with a concurrent commit
+				throw new MempoolRetryableException(
+					String.format("Unable to check command %s against committed state, retry later", txn.getId()), e
+				);
+			}
+
+			var mempoolTxn = MempoolMetadata.create(System.currentTimeMillis());
+			var data = Pair.of(result.getProcessedTxn(), mempoolTxn);
+			if (this.data.putIfAbsent(txn.getId(), data) != null) {
+				throw new MempoolDuplicateException(String.format("Mempool already has command %s", txn.getId()));
+			}
+			this.index.add(result.getProcessedTxn());
 		} finally {
-			radixEngine.deleteBranches();
+			commitLock.readLock().unlock();
 		}
-
-		var mempoolTxn = MempoolMetadata.create(System.currentTimeMillis());
-		var data = Pair.of(result.getProcessedTxn(), mempoolTxn);
-		this.data.put(txn.getId(), data);
-		result.getProcessedTxn().substateDependencies()
-			.forEach(substateId -> substateIndex.merge(substateId, Set.of(txn.getId()), Sets::union));
 	}
 
 	@Override
@@ -157,27 +169,27 @@ public final class RadixEngineMempool implements Mempool<REProcessedTxn> {
 			.map(p -> p.getTxn().getId())
 			.collect(Collectors.toSet());
 
-		transactions.stream()
+		final var shutDown = transactions.stream()
 			.flatMap(REProcessedTxn::stateUpdates)
 			.filter(REStateUpdate::isShutDown)
-			.forEach(instruction -> {
-				var substateId = instruction.getId();
-				Set<AID> txnIds = substateIndex.remove(substateId);
-				if (txnIds == null) {
-					return;
-				}
+			.map(REStateUpdate::getId)
+			.collect(Collectors.toList());
 
-				for (var txnId : txnIds) {
-					var toRemove = data.remove(txnId);
-					// TODO: Cleanup
-					if (toRemove != null && !committedIds.contains(toRemove.getFirst().getTxn().getId())) {
-						removed.add(toRemove.getFirst().getTxn());
-					}
+		commitLock.writeLock().lock();
+		try {
+			for (var toRemove : index.removeDependents(shutDown)) {
+				data.remove(toRemove.getTxnId());
+				if (!committedIds.contains(toRemove.getTxnId())) {
+					removed.add(toRemove.getTxn());
 				}
-			});
+			}
+		} finally {
+			commitLock.writeLock().unlock();
+		}
 
 		if (!removed.isEmpty()) {
 			logger.debug("Evicting {} txns from mempool", removed.size());
+			radixEngine.getParsedTxnCache().evict(removed.stream().map(Txn::getId).collect(Collectors.toList()));
 		}
 
 		return removed;
@@ -185,35 +197,19 @@ public final class RadixEngineMempool implements Mempool<REProcessedTxn> {
 
 	@Override
 	public List<Txn> getTxns(int count, List<REProcessedTxn> prepared) {
-		// TODO: Order by highest fees paid
-		var copy = new TreeSet<>(data.keySet());
-		prepared.stream()
+		var shutDown = prepared.stream()
 			.flatMap(REProcessedTxn::stateUpdates)
 			.filter(REStateUpdate::isShutDown)
-			.flatMap(i -> substateIndex.getOrDefault(i.getId(), Set.of()).stream())
-			.distinct()
-			.forEach(copy::remove);
-
-		var txns = new ArrayList<Txn>();
-
-		for (int i = 0; i < count && !copy.isEmpty(); i++) {
-			var txId = copy.first();
-			copy.remove(txId);
-			var txnData = data.get(txId);
-			txnData.getFirst().stateUpdates()
-				.filter(REStateUpdate::isShutDown)
-				.flatMap(inst -> substateIndex.getOrDefault(inst.getId(), Set.of()).stream())
-				.distinct()
-				.forEach(copy::remove);
-
-			txns.add(txnData.getFirst().getTxn());
-		}
+			.map(REStateUpdate::getId)
+			.collect(Collectors.toSet());
 
-		return txns;
+		return index.select(count, shutDown).stream()
+			.map(REProcessedTxn::getTxn)
+			.collect(Collectors.toList());
 	}
 
 	public Set<SubstateId> getShuttingDownSubstates() {
-		return new HashSet<>(substateIndex.keySet());
+		return index.dependedOnSubstates();
 	}
 
 	@Override
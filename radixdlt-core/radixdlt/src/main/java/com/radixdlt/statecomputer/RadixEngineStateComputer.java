@@ -67,6 +67,7 @@ package com.radixdlt.statecomputer;
 import com.google.common.collect.ImmutableClassToInstanceMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
 import com.google.inject.Inject;
 import com.radixdlt.application.system.NextValidatorSetEvent;
 import com.radixdlt.atom.TxBuilderException;
@@ -99,6 +100,7 @@ import com.radixdlt.engine.RadixEngine.RadixEngineBranch;
 import com.radixdlt.engine.RadixEngineException;
 import com.radixdlt.engine.RadixEngineResult;
 import com.radixdlt.environment.EventDispatcher;
+import com.radixdlt.identifiers.AID;
 import com.radixdlt.ledger.ByzantineQuorumException;
 import com.radixdlt.ledger.CommittedBadTxnException;
 import com.radixdlt.ledger.LedgerUpdate;
@@ -116,7 +118,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -128,6 +134,9 @@ import java.util.stream.Collectors;
  */
 public final class RadixEngineStateComputer implements StateComputer {
 	private static final Logger log = LogManager.getLogger();
+	private static final int PARALLEL_ADMISSION_THRESHOLD = 4;
+	// Prepared branches kept while views time out or fork without a commit, lowest views are dropped first
+	private static final int MAX_PREPARED_BRANCHES = 64;
 
 	private final RadixEngineMempool mempool;
 	private final RadixEngine<LedgerAndBFTProof> radixEngine;
@@ -139,6 +148,8 @@ public final class RadixEngineStateComputer implements StateComputer {
 	private final SystemCounters systemCounters;
 	private final Hasher hasher;
 	private final Forks forks;
+	// Branches of prepared vertices which have not been committed yet, keyed by vertex id
+	private final Map<HashCode, PreparedBranch> preparedBranches = new HashMap<>();
 
 	private ProposerElection proposerElection;
 	private View epochCeilingView;
@@ -204,27 +215,58 @@ public final class RadixEngineStateComputer implements StateComputer {
 		}
 	}
 
+	private static final class PreparedBranch {
+		private final RadixEngineBranch<LedgerAndBFTProof> branch;
+		private final View view;
+		private final List<AID> txnIds;
+
+		private PreparedBranch(RadixEngineBranch<LedgerAndBFTProof> branch, View view, List<AID> txnIds) {
+			this.branch = branch;
+			this.view = view;
+			this.txnIds = txnIds;
+		}
+	}
+
+	private static List<AID> txnIds(List<PreparedTxn> txns) {
+		return txns.stream().map(t -> t.txn().getId()).collect(Collectors.toList());
+	}
+
 	@Override
 	public void addToMempool(MempoolAdd mempoolAdd, @Nullable BFTNode origin) {
-		mempoolAdd.getTxns().forEach(txn -> {
-			try {
-				mempool.add(txn);
-				systemCounters.set(SystemCounters.CounterType.MEMPOOL_COUNT, mempool.getCount());
-			} catch (MempoolDuplicateException e) {
-				// Idempotent commands
-				log.trace("Mempool duplicate txn: {} origin: {}", txn, origin);
-				return;
-			} catch (MempoolRejectedException e) {
-				var failure = MempoolAddFailure.create(txn, e, origin);
-				mempoolAddFailureEventDispatcher.dispatch(failure);
-				mempoolAdd.onFailure(e); // Required for blocking web apis
-				return;
+		var txns = mempoolAdd.getTxns();
+		// Admission only reads committed state so larger batches are checked in parallel
+		var txnStream = txns.size() < PARALLEL_ADMISSION_THRESHOLD ? txns.stream() : txns.parallelStream();
+		var rejections = txnStream.map(this::tryAddToMempool).collect(Collectors.toList());
+		systemCounters.set(SystemCounters.CounterType.MEMPOOL_COUNT, mempool.getCount());
+
+		for (int i = 0; i < txns.size(); i++) {
+			var txn = txns.get(i);
+			var rejection = rejections.get(i);
+			if (rejection.isPresent()) {
+				if (rejection.get() instanceof MempoolDuplicateException) {
+					// Idempotent commands
+					log.trace("Mempool duplicate txn: {} origin: {}", txn, origin);
+				} else {
+					var failure = MempoolAddFailure.create(txn, rejection.get(), origin);
+					mempoolAddFailureEventDispatcher.dispatch(failure);
+					mempoolAdd.onFailure(rejection.get()); // Required for blocking web apis
+				}
+				continue;
 			}
 
 			var success = MempoolAddSuccess.create(txn, origin);
 			mempoolAdd.onSuccess(success); // Required for blocking web apis
 			mempoolAddSuccessEventDispatcher.dispatch(success);
-		});
+		}
+	}
+
+	private Optional<MempoolRejectedException> tryAddToMempool(Txn txn) {
+		try {
+			mempool.add(txn);
+			return Optional.empty();
+		} catch (MempoolRejectedException e) {
+			return Optional.of(e);
+		}
 	}
 
 	@Override
@@ -318,9 +360,20 @@ public final class RadixEngineStateComputer implements StateComputer {
 		}
 	}
 
-	@Override
-	public StateComputerResult prepare(List<PreparedTxn> previous, VerifiedVertex vertex, long timestamp) {
-		var next = vertex.getTxns();
+	private RadixEngineBranch<LedgerAndBFTProof> branchFor(List<PreparedTxn> previous, VerifiedVertex vertex) {
+		if (previous.isEmpty()) {
+			return this.radixEngine.transientBranch();
+		}
+
+		// Build on top of the parent's branch if it has already been prepared on the current committed state.
+		// Branches get deleted whenever the committed state changes so a deleted branch is stale.
+		var parentBranch = preparedBranches.get(vertex.getParentId());
+		if (parentBranch != null && !parentBranch.branch.isDeleted() && parentBranch.txnIds.equals(txnIds(previous))) {
+			systemCounters.increment(SystemCounters.CounterType.RADIX_ENGINE_PREPARE_CACHE_HITS);
+			return this.radixEngine.transientBranch(parentBranch.branch);
+		}
+
+		systemCounters.increment(SystemCounters.CounterType.RADIX_ENGINE_PREPARE_CACHE_MISSES);
 		var transientBranch = this.radixEngine.transientBranch();
 		for (PreparedTxn command : previous) {
 			// TODO: fix this cast with generics. Currently the fix would become a bit too messy
@@ -335,6 +388,28 @@ public final class RadixEngineStateComputer implements StateComputer {
 					+ radixEngineCommand.processed.getTxn().getId(), e);
 			}
 		}
+		return transientBranch;
+	}
+
+	private void prunePreparedBranches() {
+		while (this.preparedBranches.size() > MAX_PREPARED_BRANCHES) {
+			var lowest = this.preparedBranches.entrySet().stream()
+				.min(Map.Entry.comparingByValue(Comparator.comparing((PreparedBranch b) -> b.view)))
+				.orElseThrow();
+			this.preparedBranches.remove(lowest.getKey());
+			this.radixEngine.deleteBranch(lowest.getValue().branch);
+		}
+	}
+
+	private void invalidatePreparedBranches() {
+		this.preparedBranches.clear();
+		this.radixEngine.deleteBranches();
+	}
+
+	@Override
+	public StateComputerResult prepare(List<PreparedTxn> previous, VerifiedVertex vertex, long timestamp) {
+		var next = vertex.getTxns();
+		var transientBranch = branchFor(previous, vertex);
 
 		var systemTxn = this.executeSystemUpdate(transientBranch, vertex, timestamp);
 		final ImmutableList.Builder<PreparedTxn> successBuilder = ImmutableList.builder();
@@ -352,9 +427,17 @@ public final class RadixEngineStateComputer implements StateComputer {
 		if (nextValidatorSet.isEmpty()) {
 			this.executeUserCommands(vertex.getProposer(), transientBranch, next, successBuilder, exceptionBuilder);
 		}
-		this.radixEngine.deleteBranches();
 
-		return new StateComputerResult(successBuilder.build(), exceptionBuilder.build(), nextValidatorSet.orElse(null));
+		var successful = successBuilder.build();
+		var txnIds = new ArrayList<>(txnIds(previous));
+		txnIds.addAll(txnIds(successful));
+		var replaced = this.preparedBranches.put(vertex.getId(), new PreparedBranch(transientBranch, vertex.getView(), txnIds));
+		if (replaced != null) {
+			this.radixEngine.deleteBranch(replaced.branch);
+		}
+		prunePreparedBranches();
+
+		return new StateComputerResult(successful, exceptionBuilder.build(), nextValidatorSet.orElse(null));
 	}
 
 	private List<REProcessedTxn> commitInternal(
@@ -363,6 +446,9 @@ public final class RadixEngineStateComputer implements StateComputer {
 		var proof = verifiedTxnsAndProof.getProof();
 		var ledgerAndBFTProof = LedgerAndBFTProof.create(proof, vertexStoreState);
 
+		// Prepared branches are built on top of the current committed state
+		invalidatePreparedBranches();
+
 		final RadixEngineResult result;
 		try {
 			result = this.radixEngine.execute(
@@ -401,6 +487,13 @@ public final class RadixEngineStateComputer implements StateComputer {
 			}
 		});
 
+		// Committed transactions will not be parsed again
+		var parsedTxnCache = this.radixEngine.getParsedTxnCache();
+		parsedTxnCache.evict(verifiedTxnsAndProof.getTxns().stream().map(Txn::getId).collect(Collectors.toList()));
+		systemCounters.set(SystemCounters.CounterType.RADIX_ENGINE_PARSED_TXN_CACHE_HITS, parsedTxnCache.hits());
+		systemCounters.set(SystemCounters.CounterType.RADIX_ENGINE_PARSED_TXN_CACHE_MISSES, parsedTxnCache.misses());
+		systemCounters.set(SystemCounters.CounterType.RADIX_ENGINE_PARSED_TXN_CACHE_SIZE, parsedTxnCache.size());
+
 		return result.getProcessedTxns();
 	}
 
@@ -436,7 +529,7 @@ public final class RadixEngineStateComputer implements StateComputer {
 					Optional.empty(),
 					hasher
 				);
-			var proposerElection = new WeightedRotatingLeaders(validatorSet);
+			var proposerElection = new WeightedRotatingLeaders(validatorSet, epochCeilingView);
 			var bftConfiguration = new BFTConfiguration(proposerElection, validatorSet, initialState);
 			return new EpochChange(header, bftConfiguration);
 		});
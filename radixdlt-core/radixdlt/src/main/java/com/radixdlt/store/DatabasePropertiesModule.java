@@ -65,8 +65,12 @@
 package com.radixdlt.store;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
+import com.google.inject.multibindings.OptionalBinder;
 import com.radixdlt.properties.RuntimeProperties;
+import com.sleepycat.je.Durability;
 
 /**
  * Manages conversion of runtime properties to guice type properties
@@ -77,6 +81,44 @@ public final class DatabasePropertiesModule extends AbstractModule {
     private final long maxCacheSizeLimit = (long) (maxMemory * 0.25);
     private final long defaultCacheSize = (long) (maxMemory * 0.125);
 
+    private static class StoreConfigFromProperties implements Provider<StoreConfig> {
+        @Inject
+        private RuntimeProperties properties;
+
+        @Override
+        public StoreConfig get() {
+            return new StoreConfig(
+                1000,
+                durability(properties.get("db.ledger.bft_commit.durability", "sync")),
+                durability(properties.get("db.ledger.sync_commit.durability", "sync")),
+                properties.get("db.ledger.sync_commit.group_max_batches", 32),
+                properties.get("db.ledger.sync_commit.group_max_delay_ms", 1000L),
+                properties.get("db.ledger.log.block_compression", false),
+                properties.get("db.substate_cache.size", 32L * 1024 * 1024)
+            );
+        }
+
+        private static Durability durability(String value) {
+            switch (value) {
+                case "sync":
+                    return Durability.COMMIT_SYNC;
+                case "write_no_sync":
+                    return Durability.COMMIT_WRITE_NO_SYNC;
+                case "no_sync":
+                    return Durability.COMMIT_NO_SYNC;
+                default:
+                    throw new IllegalArgumentException("Unknown commit durability: " + value);
+            }
+        }
+    }
+
+    @Override
+    protected void configure() {
+        OptionalBinder.newOptionalBinder(binder(), StoreConfig.class)
+            .setBinding()
+            .toProvider(StoreConfigFromProperties.class);
+    }
+
     @Provides
     @DatabaseLocation
     String databaseLocation(RuntimeProperties properties) {
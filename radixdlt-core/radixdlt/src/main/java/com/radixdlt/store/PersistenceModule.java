@@ -67,6 +67,7 @@ package com.radixdlt.store;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.multibindings.OptionalBinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 import com.radixdlt.consensus.bft.BFTHighQCUpdate;
 import com.radixdlt.consensus.bft.BFTInsertUpdate;
@@ -77,6 +78,7 @@ import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.ProcessOnDispatch;
 import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
+import com.radixdlt.store.berkeley.FileSafetyStateStore;
 import com.radixdlt.store.berkeley.SerializedVertexStoreState;
 import com.radixdlt.store.berkeley.BerkeleySafetyStateStore;
 
@@ -91,9 +93,13 @@ public class PersistenceModule extends AbstractModule {
 		// TODO: should be singletons?
 		bind(ResourceStore.class).to(BerkeleyLedgerEntryStore.class).in(Scopes.SINGLETON);
 		bind(PersistentVertexStore.class).to(BerkeleyLedgerEntryStore.class);
-		bind(PersistentSafetyStateStore.class).to(BerkeleySafetyStateStore.class);
+		bind(PersistentSafetyStateStore.class).to(FileSafetyStateStore.class);
+		bind(FileSafetyStateStore.class).in(Scopes.SINGLETON);
 		bind(BerkeleySafetyStateStore.class).in(Scopes.SINGLETON);
 		bind(DatabaseEnvironment.class).in(Scopes.SINGLETON);
+		OptionalBinder.newOptionalBinder(binder(), StoreConfig.class)
+			.setDefault()
+			.toInstance(new StoreConfig(1000));
 	}
 
 	@Provides
@@ -101,11 +107,6 @@ public class PersistenceModule extends AbstractModule {
 		return store.loadLastVertexStoreState();
 	}
 
-	@Provides
-	StoreConfig storeConfig() {
-		return new StoreConfig(1000);
-	}
-
 	@ProvidesIntoSet
 	@ProcessOnDispatch
 	public EventProcessor<BFTHighQCUpdate> persistQC(
@@ -64,19 +64,102 @@
 
 package com.radixdlt.store;
 
+import com.sleepycat.je.Durability;
+
+import java.util.Objects;
+
 /**
  * Specifies high level configuration options for persistent storage
  */
 public final class StoreConfig {
+	private static final int DEFAULT_GROUP_COMMIT_MAX_BATCHES = 32;
+	private static final long DEFAULT_GROUP_COMMIT_MAX_DELAY_MS = 1000L;
+	private static final long DEFAULT_SUBSTATE_CACHE_SIZE = 32L * 1024 * 1024;
+
 	private final int minimumProofBlockSize;
+	private final Durability bftCommitDurability;
+	private final Durability syncCommitDurability;
+	private final int syncGroupCommitMaxBatches;
+	private final long syncGroupCommitMaxDelayMs;
+	private final boolean ledgerLogBlockCompressed;
+	private final long substateCacheSize;
+
 	public StoreConfig(int minimumProofBlockSize) {
+		this(
+			minimumProofBlockSize,
+			Durability.COMMIT_SYNC,
+			Durability.COMMIT_SYNC,
+			DEFAULT_GROUP_COMMIT_MAX_BATCHES,
+			DEFAULT_GROUP_COMMIT_MAX_DELAY_MS,
+			false,
+			DEFAULT_SUBSTATE_CACHE_SIZE
+		);
+	}
+
+	/**
+	 * Creates a store configuration with separate commit durabilities for ledger updates
+	 * coming from BFT and from ledger sync. Non synced commits are grouped and made durable
+	 * with a single fsync once either {@code syncGroupCommitMaxBatches} commits are pending
+	 * or the oldest pending commit is older than {@code syncGroupCommitMaxDelayMs}.
+	 * If {@code ledgerLogBlockCompressed} is set, a new ledger transaction log is created
+	 * in block compressed format. Up to {@code substateCacheSize} bytes of substates are cached
+	 * on the heap, a size of 0 disables the cache.
+	 */
+	public StoreConfig(
+		int minimumProofBlockSize,
+		Durability bftCommitDurability,
+		Durability syncCommitDurability,
+		int syncGroupCommitMaxBatches,
+		long syncGroupCommitMaxDelayMs,
+		boolean ledgerLogBlockCompressed,
+		long substateCacheSize
+	) {
 		if (minimumProofBlockSize < 1) {
 			throw new IllegalArgumentException("Proof block size must be >= 1.");
 		}
+		if (syncGroupCommitMaxBatches < 1) {
+			throw new IllegalArgumentException("Group commit max batches must be >= 1.");
+		}
+		if (syncGroupCommitMaxDelayMs < 0) {
+			throw new IllegalArgumentException("Group commit max delay must be >= 0.");
+		}
+		if (substateCacheSize < 0) {
+			throw new IllegalArgumentException("Substate cache size must be >= 0.");
+		}
 		this.minimumProofBlockSize = minimumProofBlockSize;
+		this.bftCommitDurability = Objects.requireNonNull(bftCommitDurability);
+		this.syncCommitDurability = Objects.requireNonNull(syncCommitDurability);
+		this.syncGroupCommitMaxBatches = syncGroupCommitMaxBatches;
+		this.syncGroupCommitMaxDelayMs = syncGroupCommitMaxDelayMs;
+		this.ledgerLogBlockCompressed = ledgerLogBlockCompressed;
+		this.substateCacheSize = substateCacheSize;
 	}
 
 	public int getMinimumProofBlockSize() {
 		return minimumProofBlockSize;
 	}
+
+	public Durability getBftCommitDurability() {
+		return bftCommitDurability;
+	}
+
+	public Durability getSyncCommitDurability() {
+		return syncCommitDurability;
+	}
+
+	public int getSyncGroupCommitMaxBatches() {
+		return syncGroupCommitMaxBatches;
+	}
+
+	public long getSyncGroupCommitMaxDelayMs() {
+		return syncGroupCommitMaxDelayMs;
+	}
+
+	public boolean isLedgerLogBlockCompressed() {
+		return ledgerLogBlockCompressed;
+	}
+
+	public long getSubstateCacheSize() {
+		return substateCacheSize;
+	}
 }
@@ -109,13 +109,16 @@ import com.radixdlt.statecomputer.LedgerAndBFTProof;
 import com.radixdlt.store.DatabaseEnvironment;
 import com.radixdlt.store.EngineStore;
 import com.radixdlt.store.StoreConfig;
+import com.radixdlt.store.StoreReadException;
 import com.radixdlt.store.berkeley.atom.AppendLog;
 import com.radixdlt.sync.CommittedReader;
 import com.radixdlt.utils.Longs;
+import com.radixdlt.utils.ThreadFactories;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.SecondaryConfig;
 import com.sleepycat.je.SecondaryCursor;
@@ -126,14 +129,19 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -164,8 +172,11 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 
 	// Metadata databases
 	private static final String VERTEX_STORE_DB_NAME = "radix.vertex_store";
+	private static final String VERTEX_STORE_JOURNAL_DB_NAME = "radix.vertex_store_journal";
 	private static final String TXN_DB_NAME = "radix.txn_db";
-	private Database vertexStoreDatabase; // Write/Delete
+	private Database vertexStoreDatabase; // Read/Delete, replaced by the journal
+	private Database vertexStoreJournalDatabase; // Append/Delete
+	private VertexStoreJournal vertexStoreJournal;
 	private Database proofDatabase; // Write/Delete
 	private SecondaryDatabase epochProofDatabase;
 
@@ -178,6 +189,13 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 
 	private final Set<BerkeleyAdditionalStore> additionalStores;
 
+	// Committed substates, updated with the changes of a transaction once it is committed
+	private final SubstateCache substateCache;
+	private final Map<Transaction, Map<ByteBuffer, Optional<byte[]>>> pendingCacheUpdates = new ConcurrentHashMap<>();
+
+	// Commits which were not synced to disk yet, see commit(Transaction, LedgerAndBFTProof)
+	private final GroupCommit groupCommit;
+
 	@Inject
 	public BerkeleyLedgerEntryStore(
 		Serialization serialization,
@@ -191,11 +209,23 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		this.systemCounters = Objects.requireNonNull(systemCounters);
 		this.storeConfig = storeConfig;
 		this.additionalStores = additionalStores;
+		this.substateCache = new SubstateCache(storeConfig.getSubstateCacheSize(), systemCounters);
+		this.groupCommit = new GroupCommit(
+			storeConfig.getSyncGroupCommitMaxBatches(),
+			storeConfig.getSyncGroupCommitMaxDelayMs(),
+			this::flushTxnLog,
+			() -> dbEnv.getEnvironment().flushLog(true),
+			systemCounters,
+			Executors.newSingleThreadScheduledExecutor(ThreadFactories.daemonThreads("LedgerGroupCommit")),
+			System::currentTimeMillis
+		);
 
 		this.open();
 	}
 
 	public void close() {
+		groupCommit.close();
+
 		safeClose(txnDatabase);
 		safeClose(resourceDatabase);
 		safeClose(mapDatabase);
@@ -207,6 +237,7 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		safeClose(proofDatabase);
 
 		safeClose(vertexStoreDatabase);
+		safeClose(vertexStoreJournalDatabase);
 
 		additionalStores.forEach(BerkeleyAdditionalStore::close);
 
@@ -226,61 +257,129 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 	@Override
 	public <R> R transaction(TransactionEngineStoreConsumer<LedgerAndBFTProof, R> consumer) throws RadixEngineException {
 		var dbTxn = createTransaction();
+		var storedMetadata = new AtomicReference<LedgerAndBFTProof>();
+		var cacheUpdates = new HashMap<ByteBuffer, Optional<byte[]>>();
+		pendingCacheUpdates.put(dbTxn, cacheUpdates);
 		try {
-			var result = consumer.start(new EngineStoreInTransaction<>() {
-				@Override
-				public void storeTxn(REProcessedTxn txn) {
-					BerkeleyLedgerEntryStore.this.storeTxn(dbTxn, txn);
-				}
+			var result = consumer.start(new StoreInTransaction(dbTxn, storedMetadata));
+			commit(dbTxn, storedMetadata.get());
+			substateCache.apply(cacheUpdates);
+			return result;
+		} catch (Exception e) {
+			dbTxn.abort();
+			if (storedMetadata.get() != null && storedMetadata.get().vertexStoreState().isPresent()) {
+				vertexStoreJournal.invalidate();
+			}
+			throw e;
+		} finally {
+			pendingCacheUpdates.remove(dbTxn);
+		}
+	}
 
-				@Override
-				public void storeMetadata(LedgerAndBFTProof metadata) {
-					BerkeleyLedgerEntryStore.this.storeMetadata(dbTxn, metadata);
-				}
+	/**
+	 * Reads committed state without beginning a database transaction, so readers neither
+	 * hold locks nor write to the log. Reads are not isolated from commits running concurrently
+	 * and may fail on conflicts with them.
+	 */
+	@Override
+	public <R> R readOnlyTransaction(TransactionEngineStoreConsumer<LedgerAndBFTProof, R> consumer) throws RadixEngineException {
+		try {
+			return consumer.start(new StoreInTransaction(null, null));
+		} catch (DatabaseException | BerkeleyStoreException e) {
+			throw new StoreReadException("Unable to read committed state", e);
+		}
+	}
 
-				@Override
-				public ByteBuffer verifyVirtualSubstate(SubstateId substateId)
-					throws VirtualSubstateAlreadyDownException, VirtualParentStateDoesNotExist {
-					var parent = substateId.getVirtualParent().orElseThrow();
+	private final class StoreInTransaction implements EngineStoreInTransaction<LedgerAndBFTProof> {
+		private final Transaction dbTxn;
+		private final AtomicReference<LedgerAndBFTProof> storedMetadata;
 
-					var parentState = BerkeleyLedgerEntryStore.this.loadSubstate(dbTxn, parent);
-					if (parentState.isEmpty()) {
-						throw new VirtualParentStateDoesNotExist(parent);
-					}
+		private StoreInTransaction(Transaction dbTxn, AtomicReference<LedgerAndBFTProof> storedMetadata) {
+			this.dbTxn = dbTxn;
+			this.storedMetadata = storedMetadata;
+		}
 
-					var buf = parentState.get();
-					if (buf.get() != SubstateTypeId.VIRTUAL_PARENT.id()) {
-						throw new VirtualParentStateDoesNotExist(parent);
-					}
-					buf.position(buf.position() - 1);
+		private void assertWritable() {
+			if (dbTxn == null) {
+				throw new IllegalStateException("Store opened read only");
+			}
+		}
 
-					if (BerkeleyLedgerEntryStore.this.isVirtualDown(dbTxn, substateId)) {
-						throw new VirtualSubstateAlreadyDownException(substateId);
-					}
+		@Override
+		public void storeTxn(REProcessedTxn txn) {
+			assertWritable();
+			BerkeleyLedgerEntryStore.this.storeTxn(dbTxn, txn);
+		}
 
-					return buf;
-				}
+		@Override
+		public void storeMetadata(LedgerAndBFTProof metadata) {
+			assertWritable();
+			BerkeleyLedgerEntryStore.this.storeMetadata(dbTxn, metadata);
+			storedMetadata.set(metadata);
+		}
 
-				@Override
-				public Optional<ByteBuffer> loadSubstate(SubstateId substateId) {
-					return BerkeleyLedgerEntryStore.this.loadSubstate(dbTxn, substateId);
-				}
+		@Override
+		public ByteBuffer verifyVirtualSubstate(SubstateId substateId)
+			throws VirtualSubstateAlreadyDownException, VirtualParentStateDoesNotExist {
+			var parent = substateId.getVirtualParent().orElseThrow();
 
-				@Override
-				public CloseableCursor<RawSubstateBytes> openIndexedCursor(SubstateIndex<?> index) {
-					return BerkeleyLedgerEntryStore.this.openIndexedCursor(dbTxn, index);
-				}
+			var parentState = BerkeleyLedgerEntryStore.this.loadSubstate(dbTxn, parent);
+			if (parentState.isEmpty()) {
+				throw new VirtualParentStateDoesNotExist(parent);
+			}
 
-				@Override
-				public Optional<ByteBuffer> loadResource(REAddr addr) {
-					return BerkeleyLedgerEntryStore.this.loadAddr(dbTxn, addr);
-				}
-			});
+			var buf = parentState.get();
+			if (buf.get() != SubstateTypeId.VIRTUAL_PARENT.id()) {
+				throw new VirtualParentStateDoesNotExist(parent);
+			}
+			buf.position(buf.position() - 1);
+
+			if (BerkeleyLedgerEntryStore.this.isVirtualDown(dbTxn, substateId)) {
+				throw new VirtualSubstateAlreadyDownException(substateId);
+			}
+
+			return buf;
+		}
+
+		@Override
+		public Optional<ByteBuffer> loadSubstate(SubstateId substateId) {
+			return BerkeleyLedgerEntryStore.this.loadSubstate(dbTxn, substateId);
+		}
+
+		@Override
+		public CloseableCursor<RawSubstateBytes> openIndexedCursor(SubstateIndex<?> index) {
+			return BerkeleyLedgerEntryStore.this.openIndexedCursor(dbTxn, index);
+		}
+
+		@Override
+		public Optional<ByteBuffer> loadResource(REAddr addr) {
+			return BerkeleyLedgerEntryStore.this.loadAddr(dbTxn, addr);
+		}
+	}
+
+	/**
+	 * Commits a ledger transaction with the durability configured for its source.
+	 * BFT commits carry a vertex store state, commits coming from ledger sync don't.
+	 * Commits which are not synced are grouped and made durable by a single fsync
+	 * once the group is full or too old, or with the next synced commit.
+	 */
+	private void commit(Transaction dbTxn, LedgerAndBFTProof metadata) {
+		if (metadata == null) {
 			dbTxn.commit();
-			return result;
-		} catch (Exception e) {
-			dbTxn.abort();
-			throw e;
+			return;
+		}
+
+		var durability = metadata.vertexStoreState().isPresent()
+			? storeConfig.getBftCommitDurability()
+			: storeConfig.getSyncCommitDurability();
+		groupCommit.commit(durability, dbTxn::commit);
+	}
+
+	private void flushTxnLog() {
+		try {
+			txnLog.flush();
+		} catch (IOException e) {
+			throw new BerkeleyStoreException("Unable to flush transaction log", e);
 		}
 	}
 
@@ -387,24 +486,31 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 	}
 
 	public Optional<SerializedVertexStoreState> loadLastVertexStoreState() {
-		return withTime(() -> {
-			try (var cursor = vertexStoreDatabase.openCursor(null, null)) {
-				var pKey = entry();
-				var value = entry();
-				var status = cursor.getLast(pKey, value, DEFAULT);
+		return withTime(
+			() -> vertexStoreJournal.load().or(this::loadLegacyVertexStoreState),
+			CounterType.ELAPSED_BDB_LEDGER_LAST_VERTEX,
+			CounterType.COUNT_BDB_LEDGER_LAST_VERTEX
+		);
+	}
 
-				if (status == SUCCESS) {
-					addBytesRead(value, pKey);
-					try {
-						return Optional.of(serialization.fromDson(value.getData(), SerializedVertexStoreState.class));
-					} catch (DeserializeException e) {
-						throw new IllegalStateException(e);
-					}
-				} else {
-					return Optional.empty();
+	// State saved as a single row by versions before the vertex store journal
+	private Optional<SerializedVertexStoreState> loadLegacyVertexStoreState() {
+		try (var cursor = vertexStoreDatabase.openCursor(null, null)) {
+			var pKey = entry();
+			var value = entry();
+			var status = cursor.getLast(pKey, value, DEFAULT);
+
+			if (status == SUCCESS) {
+				addBytesRead(value, pKey);
+				try {
+					return Optional.of(serialization.fromDson(value.getData(), SerializedVertexStoreState.class));
+				} catch (DeserializeException e) {
+					throw new IllegalStateException(e);
 				}
+			} else {
+				return Optional.empty();
 			}
-		}, CounterType.ELAPSED_BDB_LEDGER_LAST_VERTEX, CounterType.COUNT_BDB_LEDGER_LAST_VERTEX);
+		}
 	}
 
 	@Override
@@ -412,7 +518,12 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		withTime(() -> {
 			var transaction = beginTransaction();
 			doSave(transaction, vertexStoreState);
-			transaction.commit();
+			try {
+				transaction.commit();
+			} catch (Exception e) {
+				vertexStoreJournal.invalidate();
+				fail("Commit of vertex store state failed", e);
+			}
 		}, CounterType.ELAPSED_BDB_LEDGER_SAVE, CounterType.COUNT_BDB_LEDGER_SAVE);
 	}
 
@@ -522,9 +633,15 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 
 			proofDatabase = env.openDatabase(null, PROOF_DB_NAME, primaryConfig);
 			vertexStoreDatabase = env.openDatabase(null, VERTEX_STORE_DB_NAME, pendingConfig);
+			vertexStoreJournalDatabase = env.openDatabase(null, VERTEX_STORE_JOURNAL_DB_NAME, pendingConfig);
+			vertexStoreJournal = new VertexStoreJournal(vertexStoreJournalDatabase, serialization, systemCounters);
 			epochProofDatabase = env.openSecondaryDatabase(null, EPOCH_PROOF_DB_NAME, proofDatabase, buildEpochProofConfig());
 
-			txnLog = AppendLog.openCompressed(new File(env.getHome(), LEDGER_NAME).getAbsolutePath(), systemCounters);
+			txnLog = AppendLog.openLedger(
+				new File(env.getHome(), LEDGER_NAME).getAbsolutePath(),
+				systemCounters,
+				storeConfig.isLedgerLogBlockCompressed()
+			);
 		} catch (Exception e) {
 			throw new BerkeleyStoreException("Error while opening databases", e);
 		}
@@ -611,24 +728,18 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 	}
 
 	private void doSave(com.sleepycat.je.Transaction transaction, VerifiedVertexStoreState vertexStoreState) {
-		var rootId = vertexStoreState.getRoot().getId();
-		var vertexKey = entry(rootId.asBytes());
-		var vertexEntry = serializeAll(vertexStoreState.toSerialized());
-
-		try (var cursor = vertexStoreDatabase.openCursor(transaction, null)) {
-			var status = cursor.getLast(null, null, DEFAULT);
-			if (status == SUCCESS) {
-				cursor.delete();
+		try {
+			if (vertexStoreJournal.save(transaction, vertexStoreState)) {
+				// First save to the journal, so any state saved in the single row format can go
+				try (var cursor = vertexStoreDatabase.openCursor(transaction, null)) {
+					while (cursor.getNext(null, null, DEFAULT) == SUCCESS) {
+						cursor.delete();
+					}
+				}
 			}
-
-			this.putNoOverwriteOrElseThrow(
-				cursor,
-				vertexKey,
-				vertexEntry,
-				"Store of root vertex with ID " + rootId
-			);
 		} catch (Exception e) {
 			transaction.abort();
+			vertexStoreJournal.invalidate();
 			fail("Commit of atom failed", e);
 		}
 	}
@@ -742,11 +853,13 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		byte[] particleKey = substateId.asBytes();
 		var value = new DatabaseEntry(bytes.array(), bytes.position(), bytes.remaining());
 		substatesDatabase.putNoOverwrite(txn, entry(particleKey), value);
+		updateCache(txn, SubstateCache.substateKey(substateId), Optional.of(copyOf(bytes)));
 	}
 
 	private void downVirtualSubstate(com.sleepycat.je.Transaction txn, SubstateId substateId) {
 		var particleKey = substateId.asBytes();
 		substatesDatabase.putNoOverwrite(txn, entry(particleKey), downEntry());
+		updateCache(txn, SubstateCache.substateKey(substateId), Optional.of(new byte[0]));
 	}
 
 	private void downSubstate(com.sleepycat.je.Transaction txn, SubstateId substateId) {
@@ -754,6 +867,36 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		if (status != SUCCESS) {
 			throw new IllegalStateException("Downing particle does not exist " + substateId);
 		}
+		updateCache(txn, SubstateCache.substateKey(substateId), Optional.empty());
+	}
+
+	private void updateCache(Transaction dbTxn, ByteBuffer key, Optional<byte[]> value) {
+		var updates = pendingCacheUpdates.get(dbTxn);
+		if (updates != null) {
+			updates.put(key, value);
+		} else {
+			// Not written through transaction(), value can't be cached before commit
+			substateCache.clear();
+		}
+	}
+
+	private Optional<byte[]> getCached(Transaction dbTxn, ByteBuffer key, Supplier<Optional<byte[]>> loader) {
+		var updates = dbTxn == null ? null : pendingCacheUpdates.get(dbTxn);
+		if (updates != null && updates.containsKey(key)) {
+			// Written in this transaction, but not committed yet
+			return updates.get(key);
+		}
+		return substateCache.get(key, loader);
+	}
+
+	private static byte[] copyOf(ByteBuffer bytes) {
+		return Arrays.copyOfRange(bytes.array(), bytes.position(), bytes.position() + bytes.remaining());
+	}
+
+	private Optional<byte[]> read(Transaction dbTxn, Database database, DatabaseEntry key) {
+		var value = entry();
+		var status = database.get(dbTxn, key, value, DEFAULT);
+		return status == SUCCESS ? Optional.of(value.getData()) : Optional.empty();
 	}
 
 	private DatabaseEntry downEntry() {
@@ -800,6 +943,7 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 				var buf2 = stateUpdate.getStateBuf();
 				var value = new DatabaseEntry(buf2.array(), buf2.position(), buf2.remaining());
 				resourceDatabase.putNoOverwrite(txn, new DatabaseEntry(addr.getBytes()), value);
+				updateCache(txn, SubstateCache.resourceKey(addr), Optional.of(copyOf(buf2)));
 			}
 
 			// TODO: The following is not required for verification. Only useful for construction
@@ -931,10 +1075,6 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		return serialization.toDson(instance, Output.PERSIST);
 	}
 
-	private <T> DatabaseEntry serializeAll(T instance) {
-		return entry(serialization.toDson(instance, Output.ALL));
-	}
-
 	@Override
 	public VerifiedTxnsAndProof getNextCommittedTxns(DtoLedgerProof start) {
 
@@ -988,35 +1128,22 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 	}
 
 	private Optional<ByteBuffer> loadAddr(Transaction dbTxn, REAddr addr) {
-		var buf = ByteBuffer.allocate(128);
-		buf.put(addr.getBytes());
-		var pos = buf.position();
-		var key = new DatabaseEntry(buf.array(), 0, pos);
-		var value = entry();
-		var status = resourceDatabase.get(dbTxn, key, value, DEFAULT);
-		if (status != SUCCESS) {
-			return Optional.empty();
-		}
-
-		return entryToSubstate(value);
+		var key = entry(addr.getBytes());
+		return getCached(dbTxn, SubstateCache.resourceKey(addr), () -> read(dbTxn, resourceDatabase, key))
+			.flatMap(data -> entryToSubstate(entry(data)));
 	}
 
 	private boolean isVirtualDown(Transaction dbTxn, SubstateId substateId) {
-		var key = entry(substateId.asBytes());
-		var value = entry();
-		var status = substatesDatabase.get(dbTxn, key, value, DEFAULT);
-		return status == SUCCESS;
+		return loadSubstateEntry(dbTxn, substateId).isPresent();
 	}
 
 	private Optional<ByteBuffer> loadSubstate(Transaction dbTxn, SubstateId substateId) {
-		var key = entry(substateId.asBytes());
-		var value = entry();
-		var status = substatesDatabase.get(dbTxn, key, value, DEFAULT);
-		if (status != SUCCESS) {
-			return Optional.empty();
-		}
+		return loadSubstateEntry(dbTxn, substateId).flatMap(data -> entryToSubstate(entry(data)));
+	}
 
-		return entryToSubstate(value);
+	private Optional<byte[]> loadSubstateEntry(Transaction dbTxn, SubstateId substateId) {
+		var key = entry(substateId.asBytes());
+		return getCached(dbTxn, SubstateCache.substateKey(substateId), () -> read(dbTxn, substatesDatabase, key));
 	}
 
 	@Override
@@ -1119,15 +1246,6 @@ public final class BerkeleyLedgerEntryStore implements EngineStore<LedgerAndBFTP
 		}
 	}
 
-	private void putNoOverwriteOrElseThrow(
-		Cursor cursor,
-		DatabaseEntry key,
-		DatabaseEntry value,
-		String errorMessage
-	) {
-		this.putNoOverwriteOrElseThrow(cursor, key, value, errorMessage, null);
-	}
-
 	private void putNoOverwriteOrElseThrow(
 		Cursor cursor,
 		DatabaseEntry key,
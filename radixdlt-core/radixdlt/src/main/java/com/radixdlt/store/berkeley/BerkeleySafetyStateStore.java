@@ -83,6 +83,7 @@ import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Durability;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
@@ -97,12 +98,16 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public final class BerkeleySafetyStateStore implements PersistentSafetyStateStore {
 	private static final String SAFETY_STORE_NAME = "safety_store";
+	// Set once the safety state is persisted by the FileSafetyStateStore log instead
+	private static final String LOG_MARKER_NAME = "safety_store_log_marker";
+	private static final byte[] LOG_MARKER_KEY = {0};
 	private static final Logger logger = LogManager.getLogger();
 	private static final long UPPER_THRESHOLD = 1000;
 	private static final long LOWER_THRESHOLD = 10;
 
 	private final DatabaseEnvironment dbEnv;
 	private final Database safetyStore;
+	private final Database logMarker;
 	private final SystemCounters systemCounters;
 	private final AtomicLong cleanupCounter = new AtomicLong();
 	private final Serialization serialization;
@@ -116,7 +121,8 @@ public final class BerkeleySafetyStateStore implements PersistentSafetyStateStor
 		this.dbEnv = Objects.requireNonNull(dbEnv, "dbEnv is required");
 		this.serialization = Objects.requireNonNull(serialization);
 
-		this.safetyStore = this.open();
+		this.safetyStore = this.open(SAFETY_STORE_NAME);
+		this.logMarker = this.open(LOG_MARKER_NAME);
 		this.systemCounters = Objects.requireNonNull(systemCounters);
 
 		if (Boolean.valueOf(System.getProperty("db.check_integrity", "true"))) {
@@ -134,7 +140,7 @@ public final class BerkeleySafetyStateStore implements PersistentSafetyStateStor
 		throw new BerkeleyStoreException(message, cause);
 	}
 
-	private Database open() {
+	private Database open(String name) {
 		DatabaseConfig primaryConfig = new DatabaseConfig();
 		primaryConfig.setAllowCreate(true);
 		primaryConfig.setTransactional(true);
@@ -144,7 +150,7 @@ public final class BerkeleySafetyStateStore implements PersistentSafetyStateStor
 			// resource is not changed here, the resource is just accessed.
 			@SuppressWarnings("resource")
 			Environment env = this.dbEnv.getEnvironment();
-			return env.openDatabase(null, SAFETY_STORE_NAME, primaryConfig);
+			return env.openDatabase(null, name, primaryConfig);
 		} catch (Exception e) {
 			throw new BerkeleyStoreException("Error while opening database", e);
 		}
@@ -155,6 +161,35 @@ public final class BerkeleySafetyStateStore implements PersistentSafetyStateStor
 		if (this.safetyStore != null) {
 			this.safetyStore.close();
 		}
+		if (this.logMarker != null) {
+			this.logMarker.close();
+		}
+	}
+
+	/**
+	 * @return whether the safety state has been moved to the {@link FileSafetyStateStore} log,
+	 * so that this store no longer holds the latest state
+	 */
+	boolean isReplacedByLog() {
+		final var value = new DatabaseEntry();
+		return this.logMarker.get(null, new DatabaseEntry(LOG_MARKER_KEY), value, LockMode.DEFAULT) == OperationStatus.SUCCESS;
+	}
+
+	/**
+	 * Durably records that the safety state has been moved to the {@link FileSafetyStateStore} log.
+	 */
+	void markReplacedByLog() {
+		final var transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+		try {
+			final var status = this.logMarker.put(transaction, new DatabaseEntry(LOG_MARKER_KEY), new DatabaseEntry(new byte[] {1}));
+			if (status != OperationStatus.SUCCESS) {
+				fail("Database returned status " + status + " for put operation");
+			}
+			transaction.commit(Durability.COMMIT_SYNC);
+		} catch (Exception e) {
+			transaction.abort();
+			fail("Error while marking safety state as moved to the log", e);
+		}
 	}
 
 	@Override
@@ -0,0 +1,316 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.inject.Inject;
+import com.radixdlt.consensus.safety.PersistentSafetyStateStore;
+import com.radixdlt.consensus.safety.SafetyState;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.serialization.DeserializeException;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.DatabaseLocation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Store which persists the safety state in a small write-ahead log of its own, so that
+ * making a vote durable does not wait for fsyncs of the shared ledger database.
+ * <p>
+ * The log is a preallocated file of two fixed-size slots. Each commit writes a record
+ * with a sequence number and checksum into the slot of its sequence number and then
+ * syncs the data only, so a torn write can only damage the slot being written while
+ * the other one still holds the previous state. On recovery the valid record with
+ * the highest sequence number wins. Until the first commit the state is read from
+ * the {@link BerkeleySafetyStateStore} used before.
+ * <p>
+ * The first commit marks the state in the {@link BerkeleySafetyStateStore} as replaced.
+ * From then on a missing log, or one without a valid record, fails the store, as
+ * falling back to the stale state could let the node vote twice in a view.
+ */
+public final class FileSafetyStateStore implements PersistentSafetyStateStore {
+	static final String FILE_NAME = "safety_state.wal";
+	static final int SLOT_SIZE = 512 * 1024;
+	static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+	private static final Logger logger = LogManager.getLogger();
+	private static final int MAGIC = 0x52535357;
+	private static final int SLOTS = 2;
+
+	private final BerkeleySafetyStateStore legacyStore;
+	private final Serialization serialization;
+	private final SystemCounters systemCounters;
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(SLOT_SIZE);
+	private final CRC32 crc = new CRC32();
+
+	private SafetyState lastState;
+	private long nextSequence;
+	private boolean replacedLegacyStore;
+
+	@Inject
+	public FileSafetyStateStore(
+		@DatabaseLocation String databaseLocation,
+		BerkeleySafetyStateStore legacyStore,
+		Serialization serialization,
+		SystemCounters systemCounters
+	) {
+		this.legacyStore = Objects.requireNonNull(legacyStore);
+		this.serialization = Objects.requireNonNull(serialization);
+		this.systemCounters = Objects.requireNonNull(systemCounters);
+
+		this.replacedLegacyStore = legacyStore.isReplacedByLog();
+
+		final var path = Path.of(databaseLocation, FILE_NAME);
+		try {
+			final var exists = Files.exists(path);
+			if (!exists && this.replacedLegacyStore) {
+				throw new BerkeleyStoreException("Safety state log " + path + " is missing");
+			}
+			this.channel = FileChannel.open(path, EnumSet.of(READ, WRITE, CREATE));
+			preallocate();
+			if (!exists) {
+				syncDirectory(path.getParent());
+			}
+			recover();
+		} catch (IOException e) {
+			throw new BerkeleyStoreException("Error while opening safety state log", e);
+		}
+	}
+
+	private void preallocate() throws IOException {
+		final long fileSize = (long) SLOTS * SLOT_SIZE;
+		if (channel.size() >= fileSize) {
+			return;
+		}
+
+		// The file size never changes afterwards, so syncing data only is enough for a commit
+		final var zeros = ByteBuffer.allocate(SLOT_SIZE);
+		long position = channel.size();
+		while (position < fileSize) {
+			zeros.clear().limit((int) Math.min(SLOT_SIZE, fileSize - position));
+			position += channel.write(zeros, position);
+		}
+		channel.force(true);
+	}
+
+	// A new file only survives a crash once its directory entry is durable as well
+	private static void syncDirectory(Path directory) throws IOException {
+		try (var channel = FileChannel.open(directory, READ)) {
+			channel.force(true);
+		}
+	}
+
+	private void recover() throws IOException {
+		long lastSequence = -1;
+		for (int slot = 0; slot < SLOTS; slot++) {
+			final var record = readSlot(slot);
+			if (record.isPresent() && record.get().sequence > lastSequence) {
+				lastSequence = record.get().sequence;
+				this.lastState = record.get().state;
+			}
+		}
+		if (lastSequence < 0 && this.replacedLegacyStore) {
+			throw new BerkeleyStoreException("Safety state log holds no valid record");
+		}
+		this.nextSequence = lastSequence + 1;
+	}
+
+	private Optional<Record> readSlot(int slot) throws IOException {
+		buffer.clear();
+		final long slotOffset = (long) slot * SLOT_SIZE;
+		int read = 0;
+		while (read >= 0 && buffer.hasRemaining()) {
+			read = channel.read(buffer, slotOffset + buffer.position());
+		}
+		buffer.flip();
+
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			return Optional.empty();
+		}
+		final long sequence = buffer.getLong();
+		final int length = buffer.getInt();
+		final int checksum = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			return Optional.empty();
+		}
+
+		final var payload = new byte[length];
+		buffer.get(payload);
+		if (checksum != checksum(sequence, payload)) {
+			logger.warn("Ignoring torn safety state record {} in slot {}", sequence, slot);
+			return Optional.empty();
+		}
+
+		try {
+			return Optional.of(new Record(sequence, serialization.fromDson(payload, SafetyState.class)));
+		} catch (DeserializeException e) {
+			logger.error("Failed to deserialize safety state record {} in slot {}", sequence, slot, e);
+			return Optional.empty();
+		}
+	}
+
+	private int checksum(long sequence, byte[] payload) {
+		crc.reset();
+		for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+			crc.update((int) (sequence >>> shift));
+		}
+		crc.update(payload.length >>> 24);
+		crc.update(payload.length >>> 16);
+		crc.update(payload.length >>> 8);
+		crc.update(payload.length);
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	@Override
+	public synchronized void commitState(SafetyState safetyState) {
+		this.systemCounters.increment(CounterType.PERSISTENCE_SAFETY_STORE_SAVES);
+
+		final var start = System.nanoTime();
+		final byte[] payload = serialization.toDson(safetyState, DsonOutput.Output.PERSIST);
+		if (payload.length > SLOT_SIZE - HEADER_SIZE) {
+			throw new BerkeleyStoreException(
+				String.format("Safety state of %s bytes does not fit into a log slot: %s", payload.length, safetyState)
+			);
+		}
+
+		final long sequence = this.nextSequence;
+		buffer.clear()
+			.putInt(MAGIC)
+			.putLong(sequence)
+			.putInt(payload.length)
+			.putInt(checksum(sequence, payload))
+			.put(payload)
+			.flip();
+
+		try {
+			final long slotOffset = (sequence % SLOTS) * SLOT_SIZE;
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, slotOffset + buffer.position());
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			logger.error("Error while storing safety state for {}", safetyState, e);
+			throw new BerkeleyStoreException("Error while storing safety state for " + safetyState, e);
+		}
+
+		if (!this.replacedLegacyStore) {
+			this.legacyStore.markReplacedByLog();
+			this.replacedLegacyStore = true;
+		}
+
+		this.nextSequence = sequence + 1;
+		this.lastState = safetyState;
+		addTime(start);
+	}
+
+	@Override
+	public synchronized Optional<SafetyState> get() {
+		return this.lastState != null ? Optional.of(this.lastState) : this.legacyStore.get();
+	}
+
+	@Override
+	public synchronized void close() {
+		try {
+			this.channel.close();
+		} catch (IOException e) {
+			logger.error("Error while closing safety state log", e);
+		}
+		this.legacyStore.close();
+	}
+
+	private void addTime(long start) {
+		final var elapsed = (System.nanoTime() - start + 500L) / 1000L;
+		this.systemCounters.add(CounterType.ELAPSED_SAFETY_STATE_LOG_COMMIT, elapsed);
+		this.systemCounters.increment(CounterType.COUNT_SAFETY_STATE_LOG_COMMITS);
+	}
+
+	private static final class Record {
+		private final long sequence;
+		private final SafetyState state;
+
+		private Record(long sequence, SafetyState state) {
+			this.sequence = sequence;
+			this.state = state;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.store.berkeley;
+
+import com.radixdlt.atom.SubstateId;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.identifiers.REAddr;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of committed substate and resource database values. A cached value is
+ * either the bytes stored in the database or the knowledge that a key does not exist.
+ * Values are kept on the heap, so evicted values are reclaimed by regular garbage collection.
+ * Reads return copies, so callers can never modify cached values.
+ * <p>
+ * Values are only updated through {@link #apply(Map)} once the writing transaction committed.
+ * Values loaded by readers are only inserted if no commit was applied while they were loaded,
+ * so a reader can never overwrite a newer value with one it read before a commit.
+ */
+final class SubstateCache {
+	private static final byte SUBSTATE_KEY = 0;
+	private static final byte RESOURCE_KEY = 1;
+	private static final int ENTRY_OVERHEAD = 64;
+
+	private final long maxSize;
+	private final SystemCounters counters;
+	private final LinkedHashMap<ByteBuffer, Optional<byte[]>> entries = new LinkedHashMap<>(1024, 0.75f, true);
+	private long size;
+	private long version;
+
+	SubstateCache(long maxSize, SystemCounters counters) {
+		this.maxSize = maxSize;
+		this.counters = counters;
+	}
+
+	static ByteBuffer substateKey(SubstateId substateId) {
+		return key(SUBSTATE_KEY, substateId.asBytes());
+	}
+
+	static ByteBuffer resourceKey(REAddr addr) {
+		return key(RESOURCE_KEY, addr.getBytes());
+	}
+
+	private static ByteBuffer key(byte type, byte[] bytes) {
+		return ByteBuffer.allocate(1 + bytes.length).put(type).put(bytes).flip();
+	}
+
+	/**
+	 * Returns the database value of the given key, using the loader on a cache miss.
+	 *
+	 * @param key cache key
+	 * @param loader loads the committed value from the database, empty if the key does not exist
+	 * @return copy of the value or empty if the key does not exist
+	 */
+	Optional<byte[]> get(ByteBuffer key, Supplier<Optional<byte[]>> loader) {
+		if (maxSize <= 0) {
+			return loader.get();
+		}
+
+		final long loadVersion;
+		synchronized (this) {
+			var cached = entries.get(key);
+			if (cached != null) {
+				counters.increment(CounterType.PERSISTENCE_SUBSTATE_CACHE_HITS);
+				return cached.map(byte[]::clone);
+			}
+			loadVersion = version;
+		}
+
+		counters.increment(CounterType.PERSISTENCE_SUBSTATE_CACHE_MISSES);
+		var value = loader.get();
+
+		synchronized (this) {
+			if (version == loadVersion && !entries.containsKey(key)) {
+				put(key, value.map(byte[]::clone));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Applies committed updates. An empty value marks a key which no longer exists.
+	 */
+	synchronized void apply(Map<ByteBuffer, Optional<byte[]>> updates) {
+		if (maxSize <= 0) {
+			return;
+		}
+
+		updates.forEach(this::put);
+		version++;
+	}
+
+	synchronized void clear() {
+		entries.clear();
+		size = 0;
+		counters.set(CounterType.PERSISTENCE_SUBSTATE_CACHE_SIZE, size);
+	}
+
+	private void put(ByteBuffer key, Optional<byte[]> value) {
+		var previous = entries.put(key, value);
+		if (previous != null) {
+			size -= entrySize(key, previous);
+		}
+		size += entrySize(key, value);
+
+		var iterator = entries.entrySet().iterator();
+		while (size > maxSize && iterator.hasNext()) {
+			var eldest = iterator.next();
+			size -= entrySize(eldest.getKey(), eldest.getValue());
+			iterator.remove();
+		}
+		counters.set(CounterType.PERSISTENCE_SUBSTATE_CACHE_SIZE, size);
+	}
+
+	private static long entrySize(ByteBuffer key, Optional<byte[]> value) {
+		return ENTRY_OVERHEAD + key.capacity() + value.map(bytes -> bytes.length).orElse(0);
+	}
+}
@@ -0,0 +1,257 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.UnverifiedVertex;
+import com.radixdlt.consensus.bft.VerifiedVertex;
+import com.radixdlt.consensus.bft.VerifiedVertexStoreState;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.serialization.DeserializeException;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.utils.Longs;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Transaction;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.sleepycat.je.LockMode.DEFAULT;
+import static com.sleepycat.je.OperationStatus.SUCCESS;
+
+/**
+ * Append only journal of the vertex store state.
+ * <p>
+ * Each vertex is written once, when it is first saved, and the root and highest
+ * certificates are written whenever they change. Records of vertices which are
+ * pruned from the vertex store, and superseded root records, are deleted, so the
+ * journal holds the records of the current state only. The state is recovered
+ * by replaying the records in the order they were written, which is also an
+ * order in which parents come before their children.
+ * <p>
+ * Saves update the in memory index of the records before their transaction is
+ * committed. If that transaction is aborted, the index has to be invalidated,
+ * so that the next save replays the committed records first.
+ */
+final class VertexStoreJournal {
+	private final Database database;
+	private final Serialization serialization;
+	private final SystemCounters counters;
+
+	// Index of the journal, guarded by this
+	private boolean replayed = false;
+	private long nextSequence = 0L;
+	// Sequence numbers of the records of the current vertices, including the root
+	private final Map<HashCode, Long> vertexRecords = new HashMap<>();
+	private long stateRecord = -1L;
+	private VertexStoreJournalEntry state;
+
+	VertexStoreJournal(Database database, Serialization serialization, SystemCounters counters) {
+		this.database = Objects.requireNonNull(database);
+		this.serialization = Objects.requireNonNull(serialization);
+		this.counters = Objects.requireNonNull(counters);
+	}
+
+	/**
+	 * Replays the journal.
+	 *
+	 * @return the saved vertex store state, or empty if no state was saved
+	 */
+	synchronized Optional<SerializedVertexStoreState> load() {
+		var vertices = replay(null);
+		if (this.state == null) {
+			return Optional.empty();
+		}
+
+		var root = vertices.remove(this.state.getRootId());
+		if (root == null) {
+			throw new IllegalStateException("Vertex store journal is missing root vertex " + this.state.getRootId());
+		}
+		return Optional.of(new SerializedVertexStoreState(
+			this.state.getHighQC(),
+			root,
+			ImmutableList.copyOf(vertices.values()),
+			this.state.getHighestTC().orElse(null)
+		));
+	}
+
+	/**
+	 * Appends the changes from the last saved state to the given state.
+	 *
+	 * @param transaction the transaction to write in
+	 * @param vertexStoreState the state to save
+	 * @return whether the journal was empty before this save
+	 */
+	synchronized boolean save(Transaction transaction, VerifiedVertexStoreState vertexStoreState) {
+		if (!this.replayed) {
+			replay(transaction);
+		}
+		final var wasEmpty = this.state == null;
+
+		final var root = vertexStoreState.getRoot();
+		final var vertexIds = new HashSet<HashCode>();
+		appendIfAbsent(transaction, root, vertexIds);
+		vertexStoreState.getVertices().forEach(v -> appendIfAbsent(transaction, v, vertexIds));
+
+		if (this.vertexRecords.size() > vertexIds.size()) {
+			final var pruned = this.vertexRecords.entrySet().iterator();
+			while (pruned.hasNext()) {
+				final var record = pruned.next();
+				if (!vertexIds.contains(record.getKey())) {
+					delete(transaction, record.getValue());
+					pruned.remove();
+				}
+			}
+		}
+
+		final var highestTC = vertexStoreState.getHighestTC();
+		if (this.state == null
+			|| !this.state.getRootId().equals(root.getId())
+			|| !this.state.getHighQC().equals(vertexStoreState.getHighQC())
+			|| !this.state.getHighestTC().equals(highestTC)) {
+			if (this.stateRecord >= 0) {
+				delete(transaction, this.stateRecord);
+			}
+			this.state = VertexStoreJournalEntry.state(root.getId(), vertexStoreState.getHighQC(), highestTC);
+			this.stateRecord = append(transaction, this.state);
+		}
+		return wasEmpty;
+	}
+
+	/**
+	 * Discards the in memory index after a transaction which saved to the journal was
+	 * aborted. The next save replays the journal within its own transaction.
+	 */
+	synchronized void invalidate() {
+		this.replayed = false;
+	}
+
+	private void appendIfAbsent(Transaction transaction, VerifiedVertex vertex, HashSet<HashCode> vertexIds) {
+		vertexIds.add(vertex.getId());
+		if (!this.vertexRecords.containsKey(vertex.getId())) {
+			final var sequence = append(transaction, VertexStoreJournalEntry.vertex(vertex.getId(), vertex.toSerializable()));
+			this.vertexRecords.put(vertex.getId(), sequence);
+		}
+	}
+
+	private long append(Transaction transaction, VertexStoreJournalEntry entry) {
+		final var sequence = this.nextSequence++;
+		final var key = new DatabaseEntry(Longs.toByteArray(sequence));
+		final var value = new DatabaseEntry(this.serialization.toDson(entry, Output.ALL));
+		if (this.database.putNoOverwrite(transaction, key, value) != SUCCESS) {
+			throw new BerkeleyStoreException("Vertex store journal record " + sequence + " already exists");
+		}
+		final long amount = (long) key.getSize() + (long) value.getSize();
+		this.counters.add(CounterType.COUNT_BDB_LEDGER_BYTES_WRITE, amount);
+		this.counters.add(CounterType.COUNT_BDB_VERTEX_STORE_BYTES_WRITE, amount);
+		return sequence;
+	}
+
+	private void delete(Transaction transaction, long sequence) {
+		this.database.delete(transaction, new DatabaseEntry(Longs.toByteArray(sequence)));
+	}
+
+	private LinkedHashMap<HashCode, UnverifiedVertex> replay(Transaction transaction) {
+		final var vertices = new LinkedHashMap<HashCode, UnverifiedVertex>();
+		this.vertexRecords.clear();
+		this.state = null;
+		this.stateRecord = -1L;
+		this.nextSequence = 0L;
+
+		try (var cursor = this.database.openCursor(transaction, null)) {
+			final var key = new DatabaseEntry();
+			final var value = new DatabaseEntry();
+			while (cursor.getNext(key, value, DEFAULT) == SUCCESS) {
+				final var sequence = Longs.fromByteArray(key.getData());
+				final VertexStoreJournalEntry entry;
+				try {
+					entry = this.serialization.fromDson(value.getData(), VertexStoreJournalEntry.class);
+				} catch (DeserializeException e) {
+					throw new IllegalStateException("Unable to read vertex store journal record " + sequence, e);
+				}
+				this.counters.add(CounterType.COUNT_BDB_LEDGER_BYTES_READ, (long) key.getSize() + (long) value.getSize());
+
+				if (entry.isVertex()) {
+					vertices.put(entry.getVertexId(), entry.getVertex());
+					this.vertexRecords.put(entry.getVertexId(), sequence);
+				} else {
+					this.state = entry;
+					this.stateRecord = sequence;
+				}
+				this.nextSequence = sequence + 1;
+			}
+		}
+
+		this.replayed = true;
+		return vertices;
+	}
+}
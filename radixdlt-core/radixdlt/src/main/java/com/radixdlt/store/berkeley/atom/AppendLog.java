@@ -68,6 +68,9 @@ import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.utils.Pair;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.function.BiConsumer;
 
 /**
@@ -88,7 +91,43 @@ public interface AppendLog {
 	 * @throws IOException
 	 */
 	static AppendLog openCompressed(String path, SystemCounters counters) throws IOException {
-		return CompressedAppendLog.open(openSimple(path), counters);
+		return CompressedAppendLog.open(openMapped(path), counters);
+	}
+
+	/**
+	 * Open ledger transaction log. Existing logs are opened in the format they were created with,
+	 * a new log is created block compressed if requested. There are no transactions to train a
+	 * dictionary on when a log is created, so new block compressed logs compress each block
+	 * without a preset dictionary. Only {@link LedgerLogMigration} creates logs with a dictionary.
+	 *
+	 * @param path log file path
+	 * @param counters system counters to use
+	 * @param blockCompressed whether to create a new log as block compressed log
+	 *
+	 * @return append log
+	 *
+	 * @throws IOException
+	 */
+	static AppendLog openLedger(String path, SystemCounters counters, boolean blockCompressed) throws IOException {
+		var file = Path.of(path);
+		var isNew = !Files.exists(file) || Files.size(file) == 0;
+		if (BlockCompressedAppendLog.isBlockCompressed(path) || (blockCompressed && isNew)) {
+			return BlockCompressedAppendLog.open(path, counters, BlockCompressedAppendLog.NO_DICTIONARY);
+		}
+		return openCompressed(path, counters);
+	}
+
+	/**
+	 * Open R/W append log which serves reads from memory mapped file segments.
+	 *
+	 * @param path log file path
+	 *
+	 * @return append log
+	 *
+	 * @throws IOException
+	 */
+	static AppendLog openMapped(String path) throws IOException {
+		return MappedAppendLog.open(path);
 	}
 
 	/**
@@ -145,6 +184,18 @@ public interface AppendLog {
 	 */
 	Pair<byte[], Integer> readChunk(long offset) throws IOException;
 
+	/**
+	 * Read chunk at specified position into a read-only buffer. Implementations may return
+	 * a view of their internal storage instead of a copy.
+	 *
+	 * @param offset offset to read from
+	 *
+	 * @return read-only buffer positioned at the start of the chunk data.
+	 */
+	default ByteBuffer readBuffer(long offset) throws IOException {
+		return ByteBuffer.wrap(read(offset)).asReadOnlyBuffer();
+	}
+
 	/**
 	 * Force flushing data to disk.
 	 */
@@ -0,0 +1,736 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.store.berkeley.atom;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.utils.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.radixdlt.counters.SystemCounters.CounterType.PERSISTENCE_ATOM_LOG_WRITE_BYTES;
+import static com.radixdlt.counters.SystemCounters.CounterType.PERSISTENCE_ATOM_LOG_WRITE_COMPRESSED;
+import static java.nio.ByteBuffer.allocate;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log which compresses runs of consecutive chunks as blocks, using DEFLATE with
+ * an optional preset dictionary stored in the file header. Chunks are addressed by logical
+ * offsets which advance by the logical length of each chunk, so offsets kept by callers stay
+ * valid regardless of block boundaries. File format:
+ * <pre>
+ *     [magic (32-bit)] [dictionary length (32-bit)] [dictionary bytes]
+ *     [compressed length (32-bit)] [first offset (64-bit)] [end offset (64-bit)] [raw length (32-bit)] [block]
+ *     ...
+ * </pre>
+ * An uncompressed block is a sequence of {@code [logical length (32-bit)] [data length (32-bit)] [data]}
+ * records. Records of the block which is being filled are kept in memory and in a tail file next
+ * to the log, so they survive restarts before the block is sealed.
+ */
+public final class BlockCompressedAppendLog implements AppendLog {
+	private static final Logger logger = LogManager.getLogger();
+
+	static final int MAGIC = 0xB10CB10C;
+	static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+	static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+	static final byte[] NO_DICTIONARY = new byte[0];
+	static final String TAIL_SUFFIX = ".tail";
+
+	private static final int FILE_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+	private static final int BLOCK_HEADER_SIZE = Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+	private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+	private static final int TAIL_RECORD_HEADER_SIZE = Long.BYTES + RECORD_HEADER_SIZE;
+	private static final int BLOCK_CACHE_SIZE = 32;
+
+	private final FileChannel channel;
+	private final FileChannel tailChannel;
+	private final byte[] dictionary;
+	private final int blockSize;
+	private final SystemCounters counters;
+	private final Deflater deflater = new Deflater();
+	private final BlockIndex index = new BlockIndex();
+	private final Map<Long, Block> blockCache = new LinkedHashMap<>(BLOCK_CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Block> eldest) {
+			return size() > BLOCK_CACHE_SIZE;
+		}
+	};
+
+	private Block openBlock;
+	private long fileSize;
+	private long tailSize;
+	private long end;
+
+	private BlockCompressedAppendLog(
+		FileChannel channel,
+		FileChannel tailChannel,
+		byte[] dictionary,
+		int blockSize,
+		SystemCounters counters
+	) {
+		this.channel = channel;
+		this.tailChannel = tailChannel;
+		this.dictionary = dictionary;
+		this.blockSize = blockSize;
+		this.counters = counters;
+	}
+
+	static BlockCompressedAppendLog open(String path, SystemCounters counters, byte[] dictionary) throws IOException {
+		return open(path, counters, dictionary, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Open block compressed log. The dictionary is only used if a new log is created,
+	 * existing logs always use the dictionary they were created with.
+	 */
+	static BlockCompressedAppendLog open(
+		String path,
+		SystemCounters counters,
+		byte[] dictionary,
+		int blockSize
+	) throws IOException {
+		if (dictionary.length > MAX_DICTIONARY_SIZE) {
+			throw new IllegalArgumentException("Dictionary must not exceed " + MAX_DICTIONARY_SIZE + " bytes");
+		}
+
+		var channel = FileChannel.open(Path.of(path), EnumSet.of(READ, WRITE, CREATE));
+		var tailChannel = FileChannel.open(Path.of(path + TAIL_SUFFIX), EnumSet.of(READ, WRITE, CREATE));
+		try {
+			if (channel.size() == 0 && dictionary.length == 0) {
+				logger.info("Creating block compressed log {} without a preset dictionary", path);
+			}
+			var storedDictionary = channel.size() == 0 ? writeHeader(channel, dictionary) : readHeader(channel);
+			var log = new BlockCompressedAppendLog(channel, tailChannel, storedDictionary, blockSize, counters);
+			log.recover();
+			return log;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			tailChannel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks whether the file at given path is a block compressed log.
+	 */
+	static boolean isBlockCompressed(String path) throws IOException {
+		var file = Path.of(path);
+		if (!Files.exists(file) || Files.size(file) < Integer.BYTES) {
+			return false;
+		}
+
+		try (var channel = FileChannel.open(file, READ)) {
+			return readFully(channel, allocate(Integer.BYTES), 0).getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Builds a preset dictionary from sample chunks. DEFLATE prefers matches close to the end of
+	 * the dictionary, so samples are appended in the given order and only the last bytes are kept.
+	 */
+	static byte[] trainDictionary(List<byte[]> samples) {
+		var out = new ByteArrayOutputStream();
+		samples.forEach(out::writeBytes);
+		var bytes = out.toByteArray();
+		return bytes.length <= MAX_DICTIONARY_SIZE
+			? bytes
+			: Arrays.copyOfRange(bytes, bytes.length - MAX_DICTIONARY_SIZE, bytes.length);
+	}
+
+	@Override
+	public long write(byte[] data, long expectedOffset) throws IOException {
+		var logicalLength = Integer.BYTES + data.length;
+		write(data, expectedOffset, logicalLength);
+		return logicalLength;
+	}
+
+	/**
+	 * Write next chunk with an explicit logical length, which is used to preserve
+	 * offsets of logs migrated from another format.
+	 */
+	void write(byte[] data, long expectedOffset, int logicalLength) throws IOException {
+		synchronized (channel) {
+			if (end > expectedOffset) {
+				logger.warn("Expected position to be " + expectedOffset + " but is " + end
+					+ ". Resetting position to " + expectedOffset);
+				truncateInternal(expectedOffset);
+			}
+			if (end != expectedOffset) {
+				throw new IOException("Expected position to be " + expectedOffset + " but is " + end
+					+ ". Cannot recover as there is missing data.");
+			}
+
+			appendTail(expectedOffset, logicalLength, ByteBuffer.wrap(data));
+			openBlock.add(expectedOffset, logicalLength, ByteBuffer.wrap(data));
+			end = openBlock.end();
+			counters.add(PERSISTENCE_ATOM_LOG_WRITE_BYTES, data.length);
+
+			if (openBlock.rawLength() >= blockSize) {
+				seal();
+			}
+		}
+	}
+
+	@Override
+	public Pair<byte[], Integer> readChunk(long offset) throws IOException {
+		var record = readRecord(offset);
+		var data = new byte[record.getFirst().remaining()];
+		record.getFirst().get(data);
+		return Pair.of(data, record.getSecond() - Integer.BYTES);
+	}
+
+	@Override
+	public ByteBuffer readBuffer(long offset) throws IOException {
+		return readRecord(offset).getFirst();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (channel) {
+			tailChannel.force(true);
+			channel.force(true);
+		}
+	}
+
+	@Override
+	public long position() {
+		synchronized (channel) {
+			return end;
+		}
+	}
+
+	@Override
+	public void truncate(long position) {
+		try {
+			synchronized (channel) {
+				truncateInternal(position);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to truncate log", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			synchronized (channel) {
+				deflater.end();
+				tailChannel.close();
+				channel.close();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Error while closing log", e);
+		}
+	}
+
+	@Override
+	public void forEach(BiConsumer<byte[], Long> chunkConsumer) {
+		var offset = 0L;
+		var end = false;
+
+		while (!end) {
+			try {
+				var chunk = readChunk(offset);
+				chunkConsumer.accept(chunk.getFirst(), offset);
+				offset += chunk.getSecond() + Integer.BYTES;
+			} catch (IOException exception) {
+				end = true;
+			}
+		}
+	}
+
+	private Pair<ByteBuffer, Integer> readRecord(long offset) throws IOException {
+		if (offset < 0) {
+			throw new IOException("Invalid offset " + offset);
+		}
+
+		while (true) {
+			var position = index.find(offset);
+			if (position >= 0) {
+				var block = sealedBlock(position);
+				if (offset < block.end()) {
+					return block.record(offset);
+				}
+			}
+
+			synchronized (channel) {
+				if (offset >= openBlock.first()) {
+					return openBlock.copyOfRecord(offset);
+				}
+			}
+			// Block was sealed in the meantime, look it up again
+		}
+	}
+
+	private Block sealedBlock(long position) throws IOException {
+		synchronized (blockCache) {
+			var cached = blockCache.get(position);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		var block = readBlock(position);
+		synchronized (blockCache) {
+			blockCache.put(position, block);
+		}
+		return block;
+	}
+
+	private Block readBlock(long position) throws IOException {
+		var header = readFully(channel, allocate(BLOCK_HEADER_SIZE), position);
+		var compressedLength = header.getInt(0);
+		var first = header.getLong(Integer.BYTES);
+		var blockEnd = header.getLong(Integer.BYTES + Long.BYTES);
+		var rawLength = header.getInt(Integer.BYTES + Long.BYTES + Long.BYTES);
+		var compressed = readFully(channel, allocate(compressedLength), position + BLOCK_HEADER_SIZE).array();
+
+		return Block.decode(inflate(compressed, rawLength), first, blockEnd);
+	}
+
+	private void seal() throws IOException {
+		var compressed = deflate(openBlock.raw(), openBlock.rawLength());
+		var buffer = allocate(BLOCK_HEADER_SIZE + compressed.length)
+			.putInt(compressed.length)
+			.putLong(openBlock.first())
+			.putLong(openBlock.end())
+			.putInt(openBlock.rawLength())
+			.put(compressed)
+			.flip();
+		writeFully(channel, buffer, fileSize);
+		// Block must be on disk before its records are dropped from the tail
+		channel.force(false);
+
+		index.add(openBlock.first(), fileSize);
+		synchronized (blockCache) {
+			blockCache.put(fileSize, openBlock);
+		}
+		fileSize += buffer.limit();
+		counters.add(PERSISTENCE_ATOM_LOG_WRITE_COMPRESSED, buffer.limit());
+
+		tailChannel.truncate(0);
+		tailSize = 0;
+		openBlock = new Block(end);
+	}
+
+	private void truncateInternal(long offset) throws IOException {
+		if (offset >= end) {
+			return;
+		}
+
+		if (offset < openBlock.first()) {
+			var position = index.find(Math.max(0, offset));
+			var block = readBlock(position);
+			channel.truncate(position);
+			fileSize = position;
+			index.truncate(position);
+			synchronized (blockCache) {
+				blockCache.clear();
+			}
+			openBlock = block;
+		}
+
+		openBlock.truncate(offset);
+		end = openBlock.end();
+		rewriteTail();
+	}
+
+	private void recover() throws IOException {
+		var position = (long) FILE_HEADER_SIZE + dictionary.length;
+		var size = channel.size();
+		var header = allocate(BLOCK_HEADER_SIZE);
+
+		end = 0;
+		while (position + BLOCK_HEADER_SIZE <= size) {
+			readFully(channel, header.clear(), position);
+			var compressedLength = header.getInt(0);
+			var first = header.getLong(Integer.BYTES);
+			if (compressedLength < 0 || position + BLOCK_HEADER_SIZE + compressedLength > size || first != end) {
+				break;
+			}
+
+			index.add(first, position);
+			end = header.getLong(Integer.BYTES + Long.BYTES);
+			position += BLOCK_HEADER_SIZE + compressedLength;
+		}
+
+		if (position != size) {
+			logger.warn("Truncating incomplete block at " + position + " of log with size " + size);
+			channel.truncate(position);
+		}
+		fileSize = position;
+		openBlock = new Block(end);
+
+		recoverTail();
+	}
+
+	private void recoverTail() throws IOException {
+		var position = 0L;
+		var size = tailChannel.size();
+		var header = allocate(TAIL_RECORD_HEADER_SIZE);
+
+		while (position + TAIL_RECORD_HEADER_SIZE <= size) {
+			readFully(tailChannel, header.clear(), position);
+			var offset = header.getLong(0);
+			var logicalLength = header.getInt(Long.BYTES);
+			var dataLength = header.getInt(Long.BYTES + Integer.BYTES);
+			if (dataLength < 0 || position + TAIL_RECORD_HEADER_SIZE + dataLength > size || offset > end) {
+				break;
+			}
+
+			// Records before the end of the last block were already sealed
+			if (offset == end) {
+				var data = readFully(tailChannel, allocate(dataLength), position + TAIL_RECORD_HEADER_SIZE).flip();
+				openBlock.add(offset, logicalLength, data);
+				end = openBlock.end();
+			}
+			position += TAIL_RECORD_HEADER_SIZE + dataLength;
+		}
+
+		rewriteTail();
+	}
+
+	private void rewriteTail() throws IOException {
+		tailChannel.truncate(0);
+		tailSize = 0;
+		for (int i = 0; i < openBlock.count(); i++) {
+			appendTail(openBlock.offset(i), openBlock.logicalLength(i), openBlock.data(i));
+		}
+	}
+
+	private void appendTail(long offset, int logicalLength, ByteBuffer data) throws IOException {
+		var buffer = allocate(TAIL_RECORD_HEADER_SIZE + data.remaining())
+			.putLong(offset)
+			.putInt(logicalLength)
+			.putInt(data.remaining())
+			.put(data.duplicate())
+			.flip();
+		writeFully(tailChannel, buffer, tailSize);
+		tailSize += buffer.limit();
+	}
+
+	private byte[] deflate(byte[] raw, int length) {
+		deflater.reset();
+		if (dictionary.length > 0) {
+			deflater.setDictionary(dictionary);
+		}
+		deflater.setInput(raw, 0, length);
+		deflater.finish();
+
+		var out = new ByteArrayOutputStream(length / 2 + 64);
+		var buffer = new byte[8192];
+		while (!deflater.finished()) {
+			var len = deflater.deflate(buffer);
+			out.write(buffer, 0, len);
+		}
+		return out.toByteArray();
+	}
+
+	private byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+		var inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			var raw = new byte[rawLength];
+			var position = 0;
+			while (position < rawLength) {
+				var len = inflater.inflate(raw, position, rawLength - position);
+				if (len == 0) {
+					if (inflater.needsDictionary()) {
+						inflater.setDictionary(dictionary);
+					} else if (inflater.finished() || inflater.needsInput()) {
+						break;
+					}
+				}
+				position += len;
+			}
+
+			if (position != rawLength) {
+				throw new IOException("Corrupted block, inflated " + position + " of " + rawLength + " bytes");
+			}
+			return raw;
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupted block", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static byte[] writeHeader(FileChannel channel, byte[] dictionary) throws IOException {
+		var buffer = allocate(FILE_HEADER_SIZE + dictionary.length)
+			.putInt(MAGIC)
+			.putInt(dictionary.length)
+			.put(dictionary)
+			.flip();
+		writeFully(channel, buffer, 0);
+		channel.force(true);
+		return dictionary.clone();
+	}
+
+	private static byte[] readHeader(FileChannel channel) throws IOException {
+		var header = readFully(channel, allocate(FILE_HEADER_SIZE), 0);
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("Not a block compressed log");
+		}
+
+		var dictionaryLength = header.getInt(Integer.BYTES);
+		if (dictionaryLength < 0 || dictionaryLength > MAX_DICTIONARY_SIZE) {
+			throw new IOException("Invalid dictionary length " + dictionaryLength);
+		}
+		return readFully(channel, allocate(dictionaryLength), FILE_HEADER_SIZE).array();
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+		while (buffer.hasRemaining()) {
+			var len = channel.read(buffer, offset + buffer.position());
+			if (len < 0) {
+				throw new IOException("Got less bytes than requested: " + buffer.position() + " vs " + buffer.capacity()
+					+ " at " + offset + ", size " + channel.size());
+			}
+		}
+		return buffer;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+		var start = buffer.position();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, offset + buffer.position() - start);
+		}
+	}
+
+	/**
+	 * Physical positions of sealed blocks, ordered by the logical offset of their first record.
+	 */
+	private static final class BlockIndex {
+		private long[] firstOffsets = new long[1024];
+		private long[] positions = new long[1024];
+		private int count;
+
+		synchronized void add(long firstOffset, long position) {
+			if (count == firstOffsets.length) {
+				firstOffsets = Arrays.copyOf(firstOffsets, count * 2);
+				positions = Arrays.copyOf(positions, count * 2);
+			}
+			firstOffsets[count] = firstOffset;
+			positions[count] = position;
+			count++;
+		}
+
+		synchronized long find(long offset) {
+			var i = Arrays.binarySearch(firstOffsets, 0, count, offset);
+			if (i >= 0) {
+				return positions[i];
+			}
+
+			var insertionPoint = -i - 1;
+			return insertionPoint == 0 ? -1 : positions[insertionPoint - 1];
+		}
+
+		synchronized void truncate(long position) {
+			while (count > 0 && positions[count - 1] >= position) {
+				count--;
+			}
+		}
+	}
+
+	/**
+	 * Uncompressed block with an index of its records. Sealed blocks are never modified.
+	 */
+	private static final class Block {
+		private final long first;
+		private byte[] raw;
+		private int rawLength;
+		private long[] offsets = new long[64];
+		private int[] positions = new int[64];
+		private int count;
+		private long end;
+
+		private Block(long first) {
+			this(first, new byte[DEFAULT_BLOCK_SIZE / 4], 0);
+		}
+
+		private Block(long first, byte[] raw, int rawLength) {
+			this.first = first;
+			this.raw = raw;
+			this.rawLength = rawLength;
+			this.end = first;
+		}
+
+		static Block decode(byte[] raw, long first, long end) throws IOException {
+			var block = new Block(first, raw, raw.length);
+			var buffer = ByteBuffer.wrap(raw);
+			var position = 0;
+			var offset = first;
+			while (position + RECORD_HEADER_SIZE <= raw.length) {
+				block.indexRecord(offset, position);
+				offset += buffer.getInt(position);
+				position += RECORD_HEADER_SIZE + buffer.getInt(position + Integer.BYTES);
+			}
+
+			if (position != raw.length || offset != end) {
+				throw new IOException("Corrupted block at offset " + first);
+			}
+			block.end = end;
+			return block;
+		}
+
+		long first() {
+			return first;
+		}
+
+		long end() {
+			return end;
+		}
+
+		byte[] raw() {
+			return raw;
+		}
+
+		int rawLength() {
+			return rawLength;
+		}
+
+		int count() {
+			return count;
+		}
+
+		long offset(int i) {
+			return offsets[i];
+		}
+
+		int logicalLength(int i) {
+			return ByteBuffer.wrap(raw).getInt(positions[i]);
+		}
+
+		ByteBuffer data(int i) {
+			var dataLength = ByteBuffer.wrap(raw).getInt(positions[i] + Integer.BYTES);
+			return ByteBuffer.wrap(raw, positions[i] + RECORD_HEADER_SIZE, dataLength).slice().asReadOnlyBuffer();
+		}
+
+		void add(long offset, int logicalLength, ByteBuffer data) {
+			var recordLength = RECORD_HEADER_SIZE + data.remaining();
+			if (rawLength + recordLength > raw.length) {
+				raw = Arrays.copyOf(raw, Math.max(raw.length * 2, rawLength + recordLength));
+			}
+
+			ByteBuffer.wrap(raw, rawLength, recordLength)
+				.putInt(logicalLength)
+				.putInt(data.remaining())
+				.put(data.duplicate());
+			indexRecord(offset, rawLength);
+			rawLength += recordLength;
+			end = offset + logicalLength;
+		}
+
+		Pair<ByteBuffer, Integer> record(long offset) throws IOException {
+			var i = Arrays.binarySearch(offsets, 0, count, offset);
+			if (i < 0) {
+				throw new IOException("No chunk at offset " + offset);
+			}
+			return Pair.of(data(i), logicalLength(i));
+		}
+
+		Pair<ByteBuffer, Integer> copyOfRecord(long offset) throws IOException {
+			var record = record(offset);
+			var copy = allocate(record.getFirst().remaining()).put(record.getFirst()).flip();
+			return Pair.of(copy.asReadOnlyBuffer(), record.getSecond());
+		}
+
+		void truncate(long offset) {
+			var i = Arrays.binarySearch(offsets, 0, count, offset);
+			var keep = i >= 0 ? i : -i - 1;
+			if (keep < count) {
+				rawLength = positions[keep];
+				count = keep;
+				end = count == 0 ? first : offsets[count - 1] + logicalLength(count - 1);
+			}
+		}
+
+		private void indexRecord(long offset, int position) {
+			if (count == offsets.length) {
+				offsets = Arrays.copyOf(offsets, count * 2);
+				positions = Arrays.copyOf(positions, count * 2);
+			}
+			offsets[count] = offset;
+			positions[count] = position;
+			count++;
+		}
+	}
+}
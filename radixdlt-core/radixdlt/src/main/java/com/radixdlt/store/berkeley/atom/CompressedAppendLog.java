@@ -109,8 +109,9 @@ public class CompressedAppendLog implements AppendLog {
 
 	@Override
 	public Pair<byte[], Integer> readChunk(final long offset) throws IOException {
-		var result = delegate.readChunk(offset);
-		return Pair.of(Compress.uncompress(result.getFirst()), result.getSecond());
+		var chunk = delegate.readBuffer(offset);
+		var length = chunk.remaining();
+		return Pair.of(Compress.uncompress(chunk), length);
 	}
 
 	@Override
@@ -0,0 +1,211 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.store.berkeley.atom;
+
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.utils.Compress;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Command line utility which converts the ledger transaction log of a stopped node from the per
+ * transaction Snappy format into the block compressed format. The dictionary is trained on a
+ * sample of existing transactions, offsets of all transactions are preserved so the ledger
+ * databases stay valid. The original log is kept next to the new one with a {@code .bak} suffix.
+ */
+public final class LedgerLogMigration {
+	private static final String LEDGER_NAME = "radix.ledger";
+	private static final int DICTIONARY_SAMPLES = 256;
+
+	private final Options options;
+
+	private LedgerLogMigration() {
+		options = new Options()
+			.addOption("h", "help", false, "Show usage information (this message)")
+			.addOption("d", "db-location", true, "Database directory of the node");
+	}
+
+	public static void main(String[] args) throws IOException {
+		System.exit(new LedgerLogMigration().run(args));
+	}
+
+	private int run(String[] args) throws IOException {
+		final String dbLocation;
+		try {
+			var commandLine = new DefaultParser().parse(options, args);
+			dbLocation = commandLine.getOptionValue("d");
+			if (commandLine.hasOption("h") || dbLocation == null) {
+				usage();
+				return 0;
+			}
+		} catch (ParseException e) {
+			System.out.println("ERROR: " + e.getMessage());
+			usage();
+			return 1;
+		}
+
+		var source = Path.of(dbLocation, LEDGER_NAME);
+		if (!Files.exists(source)) {
+			System.out.println("ERROR: No ledger log found at " + source);
+			return 1;
+		}
+		if (BlockCompressedAppendLog.isBlockCompressed(source.toString())) {
+			System.out.println("Ledger log " + source + " is already block compressed");
+			return 0;
+		}
+
+		migrate(source);
+		return 0;
+	}
+
+	private void usage() {
+		new HelpFormatter().printHelp(LedgerLogMigration.class.getSimpleName(), options, true);
+	}
+
+	private static void migrate(Path source) throws IOException {
+		var target = Path.of(source + ".migrating");
+		var targetTail = Path.of(target + BlockCompressedAppendLog.TAIL_SUFFIX);
+		Files.deleteIfExists(target);
+		Files.deleteIfExists(targetTail);
+
+		var start = System.currentTimeMillis();
+		var sourceLog = AppendLog.openSimple(source.toString());
+		var count = new long[1];
+		try {
+			var dictionary = BlockCompressedAppendLog.trainDictionary(sample(sourceLog));
+			var targetLog = BlockCompressedAppendLog.open(target.toString(), new SystemCountersImpl(), dictionary);
+			try {
+				sourceLog.forEach((chunk, offset) -> {
+					try {
+						// Logical length of the chunk in the old format keeps offsets stored in the ledger databases valid
+						targetLog.write(Compress.uncompress(chunk), offset, Integer.BYTES + chunk.length);
+						count[0]++;
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				targetLog.flush();
+			} finally {
+				targetLog.close();
+			}
+		} finally {
+			sourceLog.close();
+		}
+
+		var sourceSize = Files.size(source);
+		var targetSize = Files.size(target) + Files.size(targetTail);
+		Files.move(source, Path.of(source + ".bak"), StandardCopyOption.ATOMIC_MOVE);
+		Files.move(targetTail, Path.of(source + BlockCompressedAppendLog.TAIL_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+		Files.move(target, source, StandardCopyOption.ATOMIC_MOVE);
+
+		System.out.printf(
+			"Migrated %d transactions in %d ms, size %d -> %d bytes (%.1f%%)%n",
+			count[0],
+			System.currentTimeMillis() - start,
+			sourceSize,
+			targetSize,
+			sourceSize == 0 ? 100.0 : targetSize * 100.0 / sourceSize
+		);
+	}
+
+	private static List<byte[]> sample(AppendLog log) {
+		// Reservoir sampling over the whole log
+		var random = new Random(0);
+		var samples = new ArrayList<byte[]>();
+		var seen = new long[1];
+		log.forEach((chunk, offset) -> {
+			seen[0]++;
+			if (samples.size() < DICTIONARY_SAMPLES) {
+				samples.add(chunk);
+			} else {
+				var i = (long) (random.nextDouble() * seen[0]);
+				if (i < DICTIONARY_SAMPLES) {
+					samples.set((int) i, chunk);
+				}
+			}
+		});
+
+		var result = new ArrayList<byte[]>(samples.size());
+		for (var chunk : samples) {
+			try {
+				result.add(Compress.uncompress(chunk));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return result;
+	}
+}
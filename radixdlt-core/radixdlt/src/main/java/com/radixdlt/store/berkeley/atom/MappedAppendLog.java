@@ -0,0 +1,290 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.store.berkeley.atom;
+
+import com.radixdlt.utils.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import static java.nio.ByteBuffer.allocate;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log with the same file format as {@link SimpleAppendLog}, which serves reads
+ * from read-only memory mapped segments of the file. Readers don't take the writer lock
+ * and get read-only slices of the mapping instead of freshly allocated copies.
+ * <p>
+ * Segments are mapped lazily and only cover data which has already been written. The
+ * last, partially written segment is remapped once enough new data has been appended,
+ * reads of the remaining tail are served by positional reads of the file channel.
+ */
+public class MappedAppendLog implements AppendLog {
+	private static final Logger logger = LogManager.getLogger();
+	static final int DEFAULT_SEGMENT_SIZE = 1 << 28;
+
+	private final FileChannel channel;
+	private final int segmentSize;
+	private final int remapThreshold;
+	private final ByteBuffer sizeBufferW;
+	private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+	private volatile long size;
+
+	private MappedAppendLog(final FileChannel channel, int segmentSize) throws IOException {
+		this.channel = channel;
+		this.segmentSize = segmentSize;
+		this.remapThreshold = Math.max(1, segmentSize / 16);
+		this.sizeBufferW = allocate(Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+		this.size = channel.size();
+	}
+
+	static AppendLog open(String path) throws IOException {
+		return open(path, DEFAULT_SEGMENT_SIZE);
+	}
+
+	static AppendLog open(String path, int segmentSize) throws IOException {
+		if (segmentSize < Integer.BYTES) {
+			throw new IllegalArgumentException("Segment size must be >= " + Integer.BYTES);
+		}
+
+		var channel = FileChannel.open(Path.of(path), EnumSet.of(READ, WRITE, CREATE));
+
+		channel.position(channel.size());
+		return new MappedAppendLog(channel, segmentSize);
+	}
+
+	@Override
+	public long write(byte[] data, long expectedOffset) throws IOException {
+		synchronized (channel) {
+			var position = channel.position();
+			if (position > expectedOffset) {
+				logger.warn("Expected position to be " + expectedOffset + " but is " + position
+					+ ". Resetting position to " + expectedOffset);
+				channel.position(expectedOffset);
+			} else if (position < expectedOffset) {
+				throw new IOException("Expected position to be " + expectedOffset + " but is " + position
+					+ ". Cannot recover as there is missing data.");
+			}
+
+			sizeBufferW.clear().putInt(data.length).clear();
+			checkedWrite(Integer.BYTES, sizeBufferW);
+			checkedWrite(data.length, ByteBuffer.wrap(data));
+			size = Math.max(size, channel.position());
+			return (long) Integer.BYTES + data.length;
+		}
+	}
+
+	@Override
+	public Pair<byte[], Integer> readChunk(long offset) throws IOException {
+		var chunk = readBuffer(offset);
+		var data = new byte[chunk.remaining()];
+		chunk.get(data);
+		return Pair.of(data, data.length);
+	}
+
+	@Override
+	public ByteBuffer readBuffer(long offset) throws IOException {
+		var length = view(offset, Integer.BYTES).getInt(0);
+		if (length < 0) {
+			throw new IOException("Invalid chunk length " + length + " at " + offset);
+		}
+		return view(offset + Integer.BYTES, length);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (channel) {
+			channel.force(true);
+		}
+	}
+
+	@Override
+	public long position() {
+		try {
+			synchronized (channel) {
+				return channel.position();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to obtain current position in log", e);
+		}
+	}
+
+	@Override
+	public void truncate(long position) {
+		try {
+			synchronized (channel) {
+				channel.truncate(position);
+				size = channel.size();
+				segments.clear();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to truncate log", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			synchronized (channel) {
+				channel.close();
+				segments.clear();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Error while closing log", e);
+		}
+	}
+
+	@Override
+	public void forEach(BiConsumer<byte[], Long> chunkConsumer) {
+		var offset = 0L;
+		var end = false;
+
+		while (!end) {
+			try {
+				var chunk = readChunk(offset);
+				chunkConsumer.accept(chunk.getFirst(), offset);
+				offset += chunk.getSecond() + Integer.BYTES;
+			} catch (IOException exception) {
+				end = true;
+			}
+		}
+	}
+
+	private ByteBuffer view(long offset, int length) throws IOException {
+		var currentSize = size;
+		if (offset < 0 || offset + length > currentSize) {
+			throw new IOException("Got less bytes than requested: " + length + " at " + offset + ", size " + currentSize);
+		}
+
+		var mapped = mappedView(offset, length, currentSize);
+		return mapped != null ? mapped : positionalRead(offset, length);
+	}
+
+	private ByteBuffer mappedView(long offset, int length, long currentSize) throws IOException {
+		var index = offset / segmentSize;
+		var segmentOffset = (int) (offset % segmentSize);
+		var segmentEnd = (long) segmentOffset + length;
+		if (segmentEnd > segmentSize) {
+			// Chunk spans two segments
+			return null;
+		}
+
+		var segment = segments.get(index);
+		if (segment == null || segment.capacity() < segmentEnd) {
+			var segmentStart = index * segmentSize;
+			var available = Math.min(segmentSize, currentSize - segmentStart);
+			var mapped = segment == null ? 0 : segment.capacity();
+			if (available < segmentSize && available - mapped < remapThreshold) {
+				return null;
+			}
+			segment = mapSegment(index, segmentStart, (int) available);
+		}
+
+		return segment.slice(segmentOffset, length);
+	}
+
+	private MappedByteBuffer mapSegment(long index, long segmentStart, int length) throws IOException {
+		synchronized (segments) {
+			var segment = segments.get(index);
+			if (segment == null || segment.capacity() < length) {
+				segment = channel.map(READ_ONLY, segmentStart, length);
+				segments.put(index, segment);
+			}
+			return segment;
+		}
+	}
+
+	private ByteBuffer positionalRead(long offset, int length) throws IOException {
+		var buffer = allocate(length);
+		while (buffer.hasRemaining()) {
+			var len = channel.read(buffer, offset + buffer.position());
+			if (len < 0) {
+				throw new IOException("Got less bytes than requested: " + buffer.position() + " vs " + length
+					+ " at " + offset + ", size " + channel.size());
+			}
+		}
+		return buffer.flip().asReadOnlyBuffer();
+	}
+
+	private void checkedWrite(int length, ByteBuffer buffer) throws IOException {
+		int len = channel.write(buffer);
+
+		if (len != length) {
+			throw new IOException("Written less bytes than requested: " + len + " vs " + length);
+		}
+	}
+}
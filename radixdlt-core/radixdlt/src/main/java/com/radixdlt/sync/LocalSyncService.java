@@ -64,6 +64,7 @@
 
 package com.radixdlt.sync;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -88,6 +89,9 @@ import java.util.Map;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -140,6 +144,7 @@ public final class LocalSyncService {
 	private final RemoteSyncResponseValidatorSetVerifier validatorSetVerifier;
 	private final RemoteSyncResponseSignaturesVerifier signaturesVerifier;
 	private final LedgerAccumulatorVerifier accumulatorVerifier;
+	private final Executor verificationExecutor;
 	private final VerifiedSyncResponseHandler verifiedSyncResponseHandler;
 	private final InvalidSyncResponseHandler invalidSyncResponseHandler;
 
@@ -161,6 +166,7 @@ public final class LocalSyncService {
 		RemoteSyncResponseValidatorSetVerifier validatorSetVerifier,
 		RemoteSyncResponseSignaturesVerifier signaturesVerifier,
 		LedgerAccumulatorVerifier accumulatorVerifier,
+		@SyncVerificationExecutor Executor verificationExecutor,
 		VerifiedSyncResponseHandler verifiedSyncResponseHandler,
 		InvalidSyncResponseHandler invalidSyncResponseHandler,
 		SyncState initialState
@@ -177,6 +183,7 @@ public final class LocalSyncService {
 		this.validatorSetVerifier = Objects.requireNonNull(validatorSetVerifier);
 		this.signaturesVerifier = Objects.requireNonNull(signaturesVerifier);
 		this.accumulatorVerifier = Objects.requireNonNull(accumulatorVerifier);
+		this.verificationExecutor = Objects.requireNonNull(verificationExecutor);
 		this.verifiedSyncResponseHandler = Objects.requireNonNull(verifiedSyncResponseHandler);
 		this.invalidSyncResponseHandler = Objects.requireNonNull(invalidSyncResponseHandler);
 
@@ -359,6 +366,18 @@ public final class LocalSyncService {
 			return currentState; // we're already waiting for a response from peer
 		}
 
+		if (!currentState.getVerifiedHeaders().isEmpty()) {
+			final var uncommitted = currentState.getVerifiedHeaders().size();
+			final var syncHeaderAtTarget = accComparator.compare(
+				currentState.getSyncHeader().getAccumulatorState(),
+				currentState.getTargetHeader().getAccumulatorState()
+			) >= 0;
+			// the window counts uncommitted batches and the request about to be sent
+			if (syncHeaderAtTarget || uncommitted >= this.syncConfig.syncRequestWindow()) {
+				return currentState; // the sync window is full, wait for the ledger to commit
+			}
+		}
+
 		final var candidatePeerResult = currentState.fetchNextCandidatePeer();
 		final var stateWithUpdatedQueue = candidatePeerResult.getFirst();
 		final var maybePeerToUse = candidatePeerResult.getSecond();
@@ -374,10 +393,10 @@ public final class LocalSyncService {
 	private SyncState sendSyncRequest(SyncingState currentState, BFTNode peer) {
 		log.trace("LocalSync: Sending sync request to {}", peer);
 
-		final var currentHeader = currentState.getCurrentHeader();
+		final var syncHeader = currentState.getSyncHeader();
 
 		final var requestId = requestIdCounter.incrementAndGet();
-		this.syncRequestDispatcher.dispatch(peer, SyncRequest.create(currentHeader.toDto()));
+		this.syncRequestDispatcher.dispatch(peer, SyncRequest.create(syncHeader.toDto()));
 		this.syncRequestTimeoutDispatcher.dispatch(
 			SyncRequestTimeout.create(peer, requestId),
 			this.syncConfig.syncRequestTimeout()
@@ -425,29 +444,59 @@ public final class LocalSyncService {
 				1000L
 			);
 			this.verifiedSyncResponseHandler.handleVerifiedSyncResponse(syncResponse);
-			return currentState.clearPendingRequest();
+			return this.pipelineNextRequestIfPossible(currentState.clearPendingRequest(), syncResponse);
+		}
+	}
+
+	/**
+	 * Requests the batch following a verified response right away, rather than waiting for the
+	 * ledger to commit it first, as long as the sync window allows for it. The ledger processes
+	 * verified responses in the order they were handed over so they're still committed in order.
+	 * Responses ending an epoch are not built upon as the next batch is verified by the next epoch.
+	 */
+	private SyncState pipelineNextRequestIfPossible(SyncingState currentState, SyncResponse syncResponse) {
+		if (this.syncConfig.syncRequestWindow() <= 1) {
+			return currentState;
+		}
+
+		final var txnsAndProof = syncResponse.getTxnsAndProof();
+		final var extendsSyncHeader = txnsAndProof.getHead().getLedgerHeader().getAccumulatorState()
+			.equals(currentState.getSyncHeader().getAccumulatorState());
+		if (!extendsSyncHeader || txnsAndProof.getTail().getLedgerHeader().isEndOfEpoch()) {
+			return currentState;
 		}
+
+		final var tail = txnsAndProof.getTail();
+		final var verifiedHeader = new LedgerProof(tail.getOpaque(), tail.getLedgerHeader(), tail.getSignatures());
+		return this.processSync(currentState.withVerifiedHeader(verifiedHeader));
 	}
 
 	private boolean verifyResponse(SyncResponse syncResponse) {
 		final var commandsAndProof = syncResponse.getTxnsAndProof();
 		final var start = commandsAndProof.getHead().getLedgerHeader().getAccumulatorState();
 		final var end = commandsAndProof.getTail().getLedgerHeader().getAccumulatorState();
-		final var hashes = commandsAndProof.getTxns().stream()
-			.map(txn -> txn.getId().asHashCode())
-			.collect(ImmutableList.toImmutableList());
 
 		if (!this.validatorSetVerifier.verifyValidatorSet(syncResponse)) {
 			log.warn("Invalid validator set");
 			return false;
 		}
 
+		// The accumulator is verified alongside the signatures as both are expensive for large responses
+		final var accumulatorValid = CompletableFuture.supplyAsync(() -> {
+			final var hashes = commandsAndProof.getTxns().stream()
+				.map(txn -> txn.getId().asHashCode())
+				.collect(ImmutableList.toImmutableList());
+			return this.accumulatorVerifier.verify(start, hashes, end);
+		}, this.verificationExecutor);
+
 		if (!this.signaturesVerifier.verifyResponseSignatures(syncResponse)) {
 			log.warn("Invalid signatures");
+			// Not needed anymore, skipped if it didn't start yet
+			accumulatorValid.cancel(false);
 			return false;
 		}
 
-		if (!this.accumulatorVerifier.verify(start, hashes, end)) {
+		if (!join(accumulatorValid)) {
 			log.warn("Invalid accumulator");
 			return false;
 		}
@@ -455,6 +504,16 @@ public final class LocalSyncService {
 		return true;
 	}
 
+	private static boolean join(CompletableFuture<Boolean> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			// Propagate verifier failures as if the check had run on this thread
+			Throwables.throwIfUnchecked(e.getCause());
+			throw e;
+		}
+	}
+
 	private SyncState processSyncRequestTimeout(SyncingState currentState, SyncRequestTimeout syncRequestTimeout) {
 		final var timeoutMatchesRequest = currentState.getPendingRequest().stream()
 			.anyMatch(pr -> pr.getRequestId() == syncRequestTimeout.getRequestId()
@@ -478,7 +537,8 @@ public final class LocalSyncService {
 		if (event.stateVersion() != currentState.getCurrentHeader().getStateVersion()) {
 			return currentState; // obsolete timeout event; ignore
 		} else {
-			return this.processSync(currentState);
+			// the ledger didn't make progress, so don't build upon responses it hasn't committed
+			return this.processSync(currentState.clearVerifiedHeaders());
 		}
 	}
 
@@ -490,7 +550,12 @@ public final class LocalSyncService {
 		) > 0;
 
 		if (isNewerState) {
-			final var newState = currentState.withCurrentHeader(updatedHeader);
+			var newState = currentState.withCurrentHeader(updatedHeader);
+			if (newState instanceof SyncingState) {
+				newState = ((SyncingState) newState).removeVerifiedHeaders(h ->
+					accComparator.compare(h.getAccumulatorState(), updatedHeader.getAccumulatorState()) <= 0
+				);
+			}
 			return this.updateSyncTargetDiffCounter(newState);
 		} else {
 			return currentState;
@@ -81,6 +81,21 @@ public interface SyncConfig {
 		int ledgerStatusUpdateMaxPeersToNotify,
 		double maxLedgerUpdatesRate
 	) {
+		return of(requestTimeout, syncCheckMaxPeers, syncCheckInterval, ledgerStatusUpdateMaxPeersToNotify, maxLedgerUpdatesRate, 1);
+	}
+
+	static SyncConfig of(
+		long requestTimeout,
+		int syncCheckMaxPeers,
+		long syncCheckInterval,
+		int ledgerStatusUpdateMaxPeersToNotify,
+		double maxLedgerUpdatesRate,
+		int syncRequestWindow
+	) {
+		if (syncRequestWindow < 1) {
+			throw new IllegalArgumentException("syncRequestWindow must be positive: " + syncRequestWindow);
+		}
+
 		return new SyncConfig() {
 			@Override
 			public long syncCheckReceiveStatusTimeout() {
@@ -112,6 +127,11 @@ public interface SyncConfig {
 				return maxLedgerUpdatesRate;
 			}
 
+			@Override
+			public int syncRequestWindow() {
+				return syncRequestWindow;
+			}
+
 			@Override
 			public JSONObject asJson() {
 				return new JSONObject()
@@ -119,7 +139,8 @@ public interface SyncConfig {
 					.put("syncCheckMaxPeers", syncCheckMaxPeers)
 					.put("requestTimeout", requestTimeout)
 					.put("ledgerStatusUpdateMaxPeersToNotify", ledgerStatusUpdateMaxPeersToNotify)
-					.put("maxLedgerUpdatesRate", maxLedgerUpdatesRate);
+					.put("maxLedgerUpdatesRate", maxLedgerUpdatesRate)
+					.put("syncRequestWindow", syncRequestWindow);
 			}
 		};
 	}
@@ -154,6 +175,13 @@ public interface SyncConfig {
 	 */
 	double maxLedgerUpdatesRate();
 
+	/**
+	 * Maximum number of sync batches between the network and the ledger, i.e. the
+	 * request in flight plus verified responses waiting to be committed.
+	 * With 1 the next batch is only requested once the previous one is committed.
+	 */
+	int syncRequestWindow();
+
 	/**
 	 * Represent configuration as JSON
 	 */
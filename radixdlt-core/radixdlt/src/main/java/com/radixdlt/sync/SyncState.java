@@ -75,6 +75,7 @@ import com.radixdlt.utils.Pair;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Predicates.equalTo;
 import static com.google.common.base.Predicates.not;
@@ -279,25 +280,29 @@ public interface SyncState {
 		private final ImmutableList<BFTNode> candidatePeersQueue;
 		private final LedgerProof targetHeader;
 		private final Optional<PendingRequest> pendingRequest;
+		// Headers of verified responses handed to the ledger but not committed yet, in order
+		private final ImmutableList<LedgerProof> verifiedHeaders;
 
 		public static SyncingState init(
 			LedgerProof currentHeader,
 			ImmutableList<BFTNode> candidatePeersQueue,
 			LedgerProof targetHeader
 		) {
-			return new SyncingState(currentHeader, candidatePeersQueue, targetHeader, Optional.empty());
+			return new SyncingState(currentHeader, candidatePeersQueue, targetHeader, Optional.empty(), ImmutableList.of());
 		}
 
 		private SyncingState(
 			LedgerProof currentHeader,
 			ImmutableList<BFTNode> candidatePeersQueue,
 			LedgerProof targetHeader,
-			Optional<PendingRequest> pendingRequest
+			Optional<PendingRequest> pendingRequest,
+			ImmutableList<LedgerProof> verifiedHeaders
 		) {
 			this.currentHeader = currentHeader;
 			this.candidatePeersQueue = candidatePeersQueue;
 			this.targetHeader = targetHeader;
 			this.pendingRequest = pendingRequest;
+			this.verifiedHeaders = verifiedHeaders;
 		}
 
 		public SyncingState withPendingRequest(BFTNode peer, long requestId) {
@@ -305,12 +310,49 @@ public interface SyncState {
 				currentHeader,
 				candidatePeersQueue,
 				targetHeader,
-				Optional.of(PendingRequest.create(peer, requestId))
+				Optional.of(PendingRequest.create(peer, requestId)),
+				verifiedHeaders
 			);
 		}
 
 		public SyncingState clearPendingRequest() {
-			return new SyncingState(currentHeader, candidatePeersQueue, targetHeader, Optional.empty());
+			return new SyncingState(currentHeader, candidatePeersQueue, targetHeader, Optional.empty(), verifiedHeaders);
+		}
+
+		public SyncingState withVerifiedHeader(LedgerProof verifiedHeader) {
+			return new SyncingState(
+				currentHeader,
+				candidatePeersQueue,
+				targetHeader,
+				pendingRequest,
+				new ImmutableList.Builder<LedgerProof>().addAll(verifiedHeaders).add(verifiedHeader).build()
+			);
+		}
+
+		public SyncingState removeVerifiedHeaders(Predicate<LedgerProof> predicate) {
+			return new SyncingState(
+				currentHeader,
+				candidatePeersQueue,
+				targetHeader,
+				pendingRequest,
+				ImmutableList.copyOf(Collections2.filter(verifiedHeaders, not(predicate::test)))
+			);
+		}
+
+		public SyncingState clearVerifiedHeaders() {
+			return new SyncingState(currentHeader, candidatePeersQueue, targetHeader, pendingRequest, ImmutableList.of());
+		}
+
+		public ImmutableList<LedgerProof> getVerifiedHeaders() {
+			return verifiedHeaders;
+		}
+
+		/**
+		 * The header to request the next batch from, which is the last verified but
+		 * uncommitted header or the current header if there is none.
+		 */
+		public LedgerProof getSyncHeader() {
+			return verifiedHeaders.isEmpty() ? currentHeader : verifiedHeaders.get(verifiedHeaders.size() - 1);
 		}
 
 		public SyncingState removeCandidate(BFTNode peer) {
@@ -318,12 +360,13 @@ public interface SyncState {
 				currentHeader,
 				ImmutableList.copyOf(Collections2.filter(candidatePeersQueue, not(equalTo(peer)))),
 				targetHeader,
-				pendingRequest
+				pendingRequest,
+				verifiedHeaders
 			);
 		}
 
 		public SyncingState withTargetHeader(LedgerProof newTargetHeader) {
-			return new SyncingState(currentHeader, candidatePeersQueue, newTargetHeader, pendingRequest);
+			return new SyncingState(currentHeader, candidatePeersQueue, newTargetHeader, pendingRequest, verifiedHeaders);
 		}
 
 		public Pair<SyncingState, Optional<BFTNode>> fetchNextCandidatePeer() {
@@ -337,7 +380,8 @@ public interface SyncState {
 						.add(peerToUse.get())
 						.build(),
 					targetHeader,
-					pendingRequest
+					pendingRequest,
+					verifiedHeaders
 				);
 
 				return Pair.of(newState, peerToUse);
@@ -354,7 +398,8 @@ public interface SyncState {
 					.addAll(Collections2.filter(candidatePeersQueue, not(peers::contains)))
 					.build(),
 				targetHeader,
-				pendingRequest
+				pendingRequest,
+				verifiedHeaders
 			);
 		}
 
@@ -392,7 +437,7 @@ public interface SyncState {
 
 		@Override
 		public SyncingState withCurrentHeader(LedgerProof newCurrentHeader) {
-			return new SyncingState(newCurrentHeader, candidatePeersQueue, targetHeader, pendingRequest);
+			return new SyncingState(newCurrentHeader, candidatePeersQueue, targetHeader, pendingRequest, verifiedHeaders);
 		}
 
 		@Override
@@ -413,12 +458,13 @@ public interface SyncState {
 			return Objects.equals(currentHeader, that.currentHeader)
 				&& Objects.equals(candidatePeersQueue, that.candidatePeersQueue)
 				&& Objects.equals(targetHeader, that.targetHeader)
-				&& Objects.equals(pendingRequest, that.pendingRequest);
+				&& Objects.equals(pendingRequest, that.pendingRequest)
+				&& Objects.equals(verifiedHeaders, that.verifiedHeaders);
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(currentHeader, candidatePeersQueue, targetHeader, pendingRequest);
+			return Objects.hash(currentHeader, candidatePeersQueue, targetHeader, pendingRequest, verifiedHeaders);
 		}
 	}
 }
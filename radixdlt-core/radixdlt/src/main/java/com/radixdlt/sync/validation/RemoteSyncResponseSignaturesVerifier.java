@@ -65,14 +65,11 @@
 package com.radixdlt.sync.validation;
 
 import com.google.inject.Inject;
-import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.consensus.bft.BatchSignatureVerifier;
 import com.radixdlt.crypto.Hasher;
-import com.radixdlt.consensus.TimestampedECDSASignature;
 import com.radixdlt.consensus.ConsensusHasher;
-import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.sync.messages.remote.SyncResponse;
 
-import java.util.Map.Entry;
 import java.util.Objects;
 
 /**
@@ -81,12 +78,12 @@ import java.util.Objects;
 public final class RemoteSyncResponseSignaturesVerifier {
 
 	private final Hasher hasher;
-	private final HashVerifier hashVerifier;
+	private final BatchSignatureVerifier batchSignatureVerifier;
 
 	@Inject
-	public RemoteSyncResponseSignaturesVerifier(Hasher hasher, HashVerifier hashVerifier) {
+	public RemoteSyncResponseSignaturesVerifier(Hasher hasher, BatchSignatureVerifier batchSignatureVerifier) {
 		this.hasher = Objects.requireNonNull(hasher);
-		this.hashVerifier = Objects.requireNonNull(hashVerifier);
+		this.batchSignatureVerifier = Objects.requireNonNull(batchSignatureVerifier);
 	}
 
 	public boolean verifyResponseSignatures(SyncResponse syncResponse) {
@@ -95,17 +92,12 @@ public final class RemoteSyncResponseSignaturesVerifier {
 
 		var opaque = endHeader.getOpaque();
 		var header = endHeader.getLedgerHeader();
-		var signatures = endHeader.getSignatures().getSignatures();
-		for (Entry<BFTNode, TimestampedECDSASignature> nodeAndSignature : signatures.entrySet()) {
-			var node = nodeAndSignature.getKey();
-			var signature = nodeAndSignature.getValue();
-			final var voteDataHash = ConsensusHasher.toHash(opaque, header, signature.timestamp(), hasher);
-			if (!hashVerifier.verify(node.getKey(), voteDataHash, signature.signature())) {
-				return false;
-			}
-		}
-
-		return true;
+		// The proof is stored and served to other nodes with all of its signatures, so all of them
+		// need to be valid rather than just a quorum. Verification stops at the first invalid one.
+		return batchSignatureVerifier.verifyAll(
+			endHeader.getSignatures(),
+			signature -> ConsensusHasher.toHash(opaque, header, signature.timestamp(), hasher)
+		);
 	}
 
 }
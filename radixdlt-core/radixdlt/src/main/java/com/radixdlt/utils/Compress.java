@@ -71,6 +71,8 @@ import org.xerial.snappy.SnappyFramedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Common utility methods for compression/decompression.
@@ -113,4 +115,53 @@ public class Compress {
 			return os.toByteArray();
 		}
 	}
+
+	/**
+	 * Decompresses remaining bytes of the input buffer into output byte array.
+	 * Position of the input buffer is not changed.
+	 *
+	 * @param input source data to decompress
+	 * @return decompressed output.
+	 *
+	 * @throws IOException
+	 */
+	public static byte[] uncompress(ByteBuffer input) throws IOException {
+		try (var is = new SnappyFramedInputStream(new ByteBufferInputStream(input.duplicate()));
+			 var os = new ByteArrayOutputStream(input.remaining() * 2)) {
+			is.transferTo(os);
+			os.flush();
+			return os.toByteArray();
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			var count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
 }
@@ -0,0 +1,129 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.consensus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.radixdlt.DefaultSerialization;
+import com.radixdlt.consensus.bft.View;
+import com.radixdlt.consensus.liveness.VoteTimeout;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.ledger.AccumulatorState;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoizingHasherTest {
+	private SystemCounters counters;
+	private MemoizingHasher hasher;
+
+	@Before
+	public void setup() {
+		this.counters = new SystemCountersImpl();
+		this.hasher = new MemoizingHasher(DefaultSerialization.getInstance(), counters);
+	}
+
+	@Test
+	public void when_hashing_the_same_immutable_object__then_it_is_hashed_once() {
+		var voteTimeout = new VoteTimeout(View.of(1), 2L);
+
+		var hash = hasher.hash(voteTimeout);
+
+		assertThat(hasher.hash(voteTimeout)).isEqualTo(hash);
+		assertThat(hash).isEqualTo(Sha256Hasher.withDefaultSerialization().hash(voteTimeout));
+		assertThat(counters.get(CounterType.HASHED_COMPUTED)).isEqualTo(1);
+		assertThat(counters.get(CounterType.HASHED_MEMOIZED)).isEqualTo(1);
+		assertThat(counters.get(CounterType.HASHED_SERIALIZED_BYTES)).isPositive();
+		assertThat(counters.get(CounterType.HASHED_BYTES)).isEqualTo(counters.get(CounterType.HASHED_SERIALIZED_BYTES));
+	}
+
+	@Test
+	public void when_hashing_an_equal_instance__then_it_is_hashed_again() {
+		var hash = hasher.hash(new VoteTimeout(View.of(1), 2L));
+
+		assertThat(hasher.hash(new VoteTimeout(View.of(1), 2L))).isEqualTo(hash);
+		assertThat(counters.get(CounterType.HASHED_COMPUTED)).isEqualTo(2);
+		assertThat(counters.get(CounterType.HASHED_MEMOIZED)).isZero();
+	}
+
+	@Test
+	public void when_hashing_other_objects__then_they_are_not_memoized() {
+		var accumulatorState = new AccumulatorState(1L, HashUtils.zero256());
+
+		assertThat(hasher.hash(accumulatorState)).isEqualTo(hasher.hash(accumulatorState));
+		assertThat(counters.get(CounterType.HASHED_COMPUTED)).isEqualTo(2);
+		assertThat(counters.get(CounterType.HASHED_MEMOIZED)).isZero();
+	}
+
+	@Test
+	public void when_hashing_a_range_of_bytes__then_only_the_range_is_hashed() {
+		var bytes = new byte[] {1, 2, 3, 4, 5};
+
+		assertThat(hasher.hashBytes(bytes, 1, 3)).isEqualTo(hasher.hashBytes(new byte[] {2, 3, 4}));
+		assertThat(counters.get(CounterType.HASHED_BYTES)).isEqualTo(6);
+	}
+}
@@ -93,6 +93,9 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class PendingVotesTest {
@@ -303,6 +306,41 @@ public class PendingVotesTest {
 					   instanceof ViewVotingResult.FormedTC);
 	}
 
+	@Test
+	public void when_voting_for_the_same_vote_data__then_vote_data_is_hashed_once() {
+		final var countingHasher = spy(this.hasher);
+		final var pendingVotes = new PendingVotes(countingHasher);
+		final var vote1 = makeSignedVoteFor(mock(BFTNode.class), View.genesis(), HashUtils.random256());
+		final var vote2 = mock(Vote.class);
+		final var voteData = vote1.getVoteData();
+		when(vote2.getVoteData()).thenReturn(voteData);
+		when(vote2.getTimestamp()).thenReturn(123456L);
+		when(vote2.getSignature()).thenReturn(ECDSASignature.zeroSignature());
+		when(vote2.getAuthor()).thenReturn(mock(BFTNode.class));
+		when(vote2.getView()).thenReturn(View.genesis());
+
+		BFTValidatorSet validatorSet = BFTValidatorSet.from(
+			Arrays.asList(
+				BFTValidator.from(vote1.getAuthor(), UInt256.ONE),
+				BFTValidator.from(vote2.getAuthor(), UInt256.ONE),
+				BFTValidator.from(mock(BFTNode.class), UInt256.ONE)
+			)
+		);
+
+		assertEquals(VoteProcessingResult.accepted(), pendingVotes.insertVote(vote1, validatorSet));
+		assertEquals(VoteProcessingResult.accepted(), pendingVotes.insertVote(vote2, validatorSet));
+		assertEquals(1, pendingVotes.voteDataHashesSize());
+		verify(countingHasher, times(1)).hash(voteData);
+
+		// Moving both votes on prunes the hash of the old vote data
+		final var vote3 = makeSignedVoteFor(vote1.getAuthor(), View.of(1), HashUtils.random256());
+		final var vote4 = makeSignedVoteFor(vote2.getAuthor(), View.of(1), HashUtils.random256());
+		pendingVotes.insertVote(vote3, validatorSet);
+		pendingVotes.insertVote(vote4, validatorSet);
+		assertEquals(2, pendingVotes.voteStateSize());
+		assertEquals(2, pendingVotes.voteDataHashesSize());
+	}
+
 	private Vote makeSignedVoteFor(BFTNode author, View parentView, HashCode vertexId) {
 		Vote vote = makeVoteWithoutSignatureFor(author, parentView, vertexId);
 		when(vote.getSignature()).thenReturn(ECDSASignature.zeroSignature());
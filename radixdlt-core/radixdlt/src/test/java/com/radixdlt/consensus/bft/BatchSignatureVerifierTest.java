@@ -0,0 +1,159 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.consensus.bft;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.consensus.TimestampedECDSASignature;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
+import com.radixdlt.crypto.ECDSASignature;
+import com.radixdlt.crypto.ECPublicKey;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchSignatureVerifierTest {
+	private static final Function<TimestampedECDSASignature, HashCode> HASH = s -> HashCode.fromLong(s.timestamp());
+
+	private final AtomicInteger verifications = new AtomicInteger();
+	private Set<ECPublicKey> invalidKeys = Set.of();
+	private final HashVerifier hashVerifier = (key, hash, signature) -> {
+		verifications.incrementAndGet();
+		return !invalidKeys.contains(key);
+	};
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		this.executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void when_all_signatures_are_valid__then_verify_all_succeeds() {
+		var nodes = nodes(10);
+		var verifier = new BatchSignatureVerifier(hashVerifier, executor, 4);
+
+		assertThat(verifier.verifyAll(signatures(nodes), HASH)).isTrue();
+		assertThat(verifications).hasValue(10);
+	}
+
+	@Test
+	public void when_a_signature_is_invalid__then_verify_all_fails() {
+		var nodes = nodes(10);
+		invalidKeys = Set.of(nodes.get(7).getKey());
+		var verifier = new BatchSignatureVerifier(hashVerifier, executor, 4);
+
+		assertThat(verifier.verifyAll(signatures(nodes), HASH)).isFalse();
+	}
+
+	@Test
+	public void when_a_signature_is_invalid__then_sequential_verify_all_stops_there() {
+		var nodes = nodes(10);
+		var signatures = signatures(nodes);
+		var first = signatures.getSignatures().keySet().iterator().next();
+		invalidKeys = Set.of(first.getKey());
+		var verifier = new BatchSignatureVerifier(hashVerifier, Runnable::run, 1);
+
+		assertThat(verifier.verifyAll(signatures, HASH)).isFalse();
+		assertThat(verifications).hasValue(1);
+	}
+
+	@Test
+	public void when_empty__then_verify_all_succeeds() {
+		var verifier = new BatchSignatureVerifier(hashVerifier, executor, 4);
+
+		assertThat(verifier.verifyAll(new TimestampedECDSASignatures(), HASH)).isTrue();
+		assertThat(verifications).hasValue(0);
+	}
+
+	private static List<BFTNode> nodes(int count) {
+		return IntStream.range(0, count)
+			.mapToObj(i -> BFTNode.random())
+			.collect(Collectors.toList());
+	}
+
+	private static TimestampedECDSASignatures signatures(List<BFTNode> nodes) {
+		var signatures = nodes.stream().collect(ImmutableMap.toImmutableMap(
+			n -> n,
+			n -> TimestampedECDSASignature.from(1L, ECDSASignature.zeroSignature())
+		));
+		return new TimestampedECDSASignatures(signatures);
+	}
+}
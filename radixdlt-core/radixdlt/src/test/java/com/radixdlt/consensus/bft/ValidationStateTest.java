@@ -67,10 +67,14 @@ package com.radixdlt.consensus.bft;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.radixdlt.crypto.ECDSASignature;
+import com.radixdlt.utils.UInt128;
 import com.radixdlt.utils.UInt256;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
 
@@ -110,4 +114,31 @@ public class ValidationStateTest {
 		assertEquals(UInt256.from(67), ValidationState.threshold(UInt256.from(100)));
 		assertEquals(UInt256.from(667), ValidationState.threshold(UInt256.from(1000)));
 	}
+
+	@Test
+	public void when_powers_do_not_fit_in_a_long__then_quorum_is_computed_on_full_power() {
+		// 2^193 - 1, so that sums and differences carry across all words
+		final var power = UInt256.from(UInt128.from(1L, -1L), UInt128.MAX_VALUE);
+		final var nodes = ImmutableList.of(BFTNode.random(), BFTNode.random(), BFTNode.random(), BFTNode.random());
+		final var validatorSet = BFTValidatorSet.from(nodes.stream().map(node -> BFTValidator.from(node, power)));
+		final var validationState = validatorSet.newValidationState();
+		final var signature = ECDSASignature.zeroSignature();
+
+		assertTrue(validationState.addSignature(nodes.get(0), 1L, signature));
+		assertTrue(validationState.addSignature(nodes.get(1), 2L, signature));
+		assertFalse(validationState.addSignature(nodes.get(1), 2L, signature));
+		assertFalse(validationState.complete());
+
+		assertTrue(validationState.addSignature(nodes.get(2), 3L, signature));
+		assertTrue(validationState.complete());
+		assertThat(validationState.signatures().getSignatures()).containsOnlyKeys(nodes.get(0), nodes.get(1), nodes.get(2));
+
+		validationState.removeSignature(nodes.get(0));
+		assertFalse(validationState.complete());
+
+		assertFalse(validationState.addSignature(BFTNode.random(), 4L, signature));
+		assertTrue(validationState.addSignature(nodes.get(3), 5L, signature));
+		assertTrue(validationState.complete());
+		assertEquals(3, validationState.signatures().count());
+	}
 }
@@ -0,0 +1,167 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.consensus.epoch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.radixdlt.consensus.ConsensusEvent;
+import com.radixdlt.consensus.Proposal;
+import com.radixdlt.consensus.Vote;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.View;
+import org.junit.Test;
+
+public class QueuedConsensusEventsTest {
+	private final BFTNode author1 = BFTNode.random();
+	private final BFTNode author2 = BFTNode.random();
+
+	private static <T extends ConsensusEvent> T event(Class<T> type, long epoch, long view, BFTNode author) {
+		T event = mock(type);
+		when(event.getEpoch()).thenReturn(epoch);
+		when(event.getView()).thenReturn(View.of(view));
+		when(event.getAuthor()).thenReturn(author);
+		return event;
+	}
+
+	@Test
+	public void higher_view_supersedes_queued_events() {
+		var queue = new QueuedConsensusEvents(10);
+		var oldVote = event(Vote.class, 2, 3, author1);
+		var newVote = event(Vote.class, 2, 4, author2);
+
+		assertThat(queue.add(oldVote)).isTrue();
+		assertThat(queue.add(newVote)).isTrue();
+		assertThat(queue.add(event(Vote.class, 2, 3, author2))).isFalse();
+
+		assertThat(queue.size()).isEqualTo(1);
+		assertThat(queue.remove(2)).containsExactly(newVote);
+		assertThat(queue.size()).isZero();
+	}
+
+	@Test
+	public void keeps_one_proposal_and_one_vote_per_author() {
+		var queue = new QueuedConsensusEvents(10);
+		var vote = event(Vote.class, 2, 4, author1);
+		var proposal = event(Proposal.class, 2, 4, author1);
+
+		assertThat(queue.add(vote)).isTrue();
+		assertThat(queue.add(proposal)).isTrue();
+		assertThat(queue.add(event(Vote.class, 2, 4, author1))).isFalse();
+		assertThat(queue.add(event(Proposal.class, 2, 4, author1))).isFalse();
+
+		assertThat(queue.remove(2)).containsExactly(proposal, vote);
+	}
+
+	@Test
+	public void timeout_vote_replaces_vote_of_same_author() {
+		var queue = new QueuedConsensusEvents(10);
+		var vote = event(Vote.class, 2, 4, author1);
+		var timeoutVote = event(Vote.class, 2, 4, author1);
+		when(timeoutVote.isTimeout()).thenReturn(true);
+		var otherVote = event(Vote.class, 2, 4, author2);
+
+		assertThat(queue.add(vote)).isTrue();
+		assertThat(queue.add(otherVote)).isTrue();
+		assertThat(queue.add(timeoutVote)).isTrue();
+		assertThat(queue.add(vote)).isFalse();
+		var duplicateTimeoutVote = event(Vote.class, 2, 4, author1);
+		when(duplicateTimeoutVote.isTimeout()).thenReturn(true);
+		assertThat(queue.add(duplicateTimeoutVote)).isFalse();
+
+		assertThat(queue.size()).isEqualTo(2);
+		assertThat(queue.remove(2)).containsExactly(timeoutVote, otherVote);
+	}
+
+	@Test
+	public void remove_discards_earlier_epochs_and_keeps_later_ones() {
+		var queue = new QueuedConsensusEvents(10);
+		var later = event(Vote.class, 4, 1, author1);
+		queue.add(event(Vote.class, 2, 1, author1));
+		queue.add(event(Vote.class, 3, 1, author1));
+		queue.add(later);
+
+		assertThat(queue.remove(3)).hasSize(1);
+		assertThat(queue.size()).isEqualTo(1);
+		assertThat(queue.remove(4)).containsExactly(later);
+	}
+
+	@Test
+	public void full_queue_evicts_furthest_epoch_first() {
+		var queue = new QueuedConsensusEvents(2);
+		var next = event(Vote.class, 2, 1, author1);
+		assertThat(queue.add(event(Vote.class, 5, 1, author1))).isTrue();
+		assertThat(queue.add(event(Vote.class, 5, 1, author2))).isTrue();
+
+		assertThat(queue.add(next)).isTrue();
+		assertThat(queue.add(event(Vote.class, 2, 1, author2))).isTrue();
+		assertThat(queue.add(event(Vote.class, 6, 1, author1))).isFalse();
+
+		assertThat(queue.size()).isEqualTo(2);
+		assertThat(queue.remove(2)).hasSize(2).contains(next);
+		assertThat(queue.remove(5)).isEmpty();
+	}
+}
@@ -79,8 +79,10 @@ import com.radixdlt.crypto.ECKeyPair;
 import com.radixdlt.utils.KeyComparator;
 import com.radixdlt.utils.UInt256;
 
+import java.math.BigInteger;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.Random;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -189,4 +191,38 @@ public class WeightedRotatingLeadersTest {
 		assertThat(proposerCounts).isEqualTo(expected);
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void when_views_are_past_the_schedule__then_leaders_match_the_schedule() {
+		final var random = new Random(12345L);
+		// Small powers for long arithmetic, large ones for big integers
+		for (int bits : new int[] {20, 200}) {
+			final var validatorSet = BFTValidatorSet.from(
+				Stream.generate(() -> BFTValidator.from(BFTNode.random(), UInt256.from(new BigInteger(bits, random).add(BigInteger.ONE).toByteArray())))
+					.limit(20)
+			);
+			final var shortSchedule = new WeightedRotatingLeaders(validatorSet, View.of(100));
+			final var longSchedule = new WeightedRotatingLeaders(validatorSet, View.of(2_000));
+
+			for (View view = View.genesis(); view.number() <= 2_000; view = view.next()) {
+				assertThat(shortSchedule.getProposer(view)).isEqualTo(longSchedule.getProposer(view));
+			}
+		}
+	}
+
+	@Test
+	public void when_leaders_repeat__then_views_past_the_last_scheduled_view_are_looked_up() {
+		final var validatorSet = BFTValidatorSet.from(
+			IntStream.rangeClosed(1, 4).mapToObj(p -> BFTValidator.from(BFTNode.random(), UInt256.from(p * 1_000_000L)))
+		);
+		final var leaders = new WeightedRotatingLeaders(validatorSet, View.of(5));
+
+		Map<BFTNode, Long> proposerCounts = Stream.iterate(View.of(1_000_000), View::next)
+			.limit(10)
+			.map(leaders::getProposer)
+			.collect(groupingBy(p -> p, counting()));
+
+		assertThat(proposerCounts).isEqualTo(validatorSet.getValidators().stream()
+			.collect(toMap(BFTValidator::getNode, v -> v.getPower().getLow().getLow() / 1_000_000L)));
+		assertThat(leaders.getProposer(View.of(1_000_003))).isEqualTo(leaders.getProposer(View.of(13)));
+	}
+}
@@ -85,6 +85,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -103,6 +104,7 @@ public class SafetyRulesTest {
 		Hasher hasher = mock(Hasher.class);
 		when(hasher.hash(any())).thenReturn(HashUtils.random256());
 		when(hasher.hashBytes(any())).thenReturn(HashUtils.random256());
+		when(hasher.hashBytes(any(), anyInt(), anyInt())).thenReturn(HashUtils.random256());
 		HashSigner hashSigner = mock(HashSigner.class);
 		when(hashSigner.sign(any(HashCode.class))).thenReturn(ECDSASignature.zeroSignature());
 		this.safetyRules = new SafetyRules(mock(BFTNode.class), safetyState, mock(PersistentSafetyStateStore.class), hasher, hashSigner);
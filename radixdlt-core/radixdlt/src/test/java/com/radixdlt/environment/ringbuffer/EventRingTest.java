@@ -0,0 +1,191 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.environment.ringbuffer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventRingTest {
+	@Test
+	public void when_size_is_not_a_power_of_two__then_ring_is_rejected() {
+		assertThatThrownBy(() -> new EventRing(1000)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void when_events_published__then_drained_in_order_in_batches() {
+		final var ring = new EventRing(8);
+		final List<Object> processed = new ArrayList<>();
+		final Consumer<Object> handler = processed::add;
+
+		for (int i = 0; i < 6; i++) {
+			ring.publish(handler, i);
+		}
+
+		assertThat(ring.drain(4)).isEqualTo(4);
+		assertThat(ring.drain(4)).isEqualTo(2);
+		assertThat(ring.drain(4)).isZero();
+		assertThat(ring.isEmpty()).isTrue();
+		assertThat(processed).containsExactly(0, 1, 2, 3, 4, 5);
+	}
+
+	@Test
+	public void when_ring_is_full__then_overflowed_events_are_processed_in_order() {
+		final var ring = new EventRing(4);
+		final List<Object> processed = new ArrayList<>();
+		final Consumer<Object> handler = processed::add;
+
+		for (int i = 0; i < 10; i++) {
+			ring.publish(handler, i);
+		}
+		ring.drain(3);
+		for (int i = 10; i < 20; i++) {
+			ring.publish(handler, i);
+		}
+		drainAll(ring);
+
+		assertThat(processed).containsExactlyElementsOf(range(0, 20));
+	}
+
+	@Test
+	public void when_processing_publishes_to_the_same_ring__then_events_are_not_lost() {
+		final var ring = new EventRing(2);
+		final List<Object> processed = new ArrayList<>();
+		final var handler = new AtomicReference<Consumer<Object>>();
+		handler.set(e -> {
+			processed.add(e);
+			final int next = (Integer) e + 1;
+			if (next < 10) {
+				ring.publish(handler.get(), next);
+				ring.publish(handler.get(), next + 100);
+			}
+		});
+
+		ring.publish(handler.get(), 0);
+		drainAll(ring);
+
+		assertThat(processed).hasSize(19);
+		assertThat(processed.stream().filter(e -> (Integer) e < 100)).containsExactlyElementsOf(range(0, 10));
+	}
+
+	@Test
+	public void when_published_concurrently__then_order_of_each_producer_is_preserved() throws InterruptedException {
+		final var ring = new EventRing(16);
+		final int producers = 4;
+		final int eventsPerProducer = 100_000;
+		final int[] lastSeen = new int[producers];
+		final List<String> errors = new ArrayList<>();
+		final Consumer<Object> handler = e -> {
+			final int[] producerAndSequence = (int[]) e;
+			if (lastSeen[producerAndSequence[0]] + 1 != producerAndSequence[1]) {
+				errors.add(producerAndSequence[0] + ":" + producerAndSequence[1]);
+			}
+			lastSeen[producerAndSequence[0]] = producerAndSequence[1];
+		};
+
+		final var threads = new ArrayList<Thread>();
+		for (int p = 0; p < producers; p++) {
+			final int producer = p;
+			threads.add(new Thread(() -> {
+				for (int i = 1; i <= eventsPerProducer; i++) {
+					ring.publish(handler, new int[] {producer, i});
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+
+		long drained = 0;
+		while (drained < (long) producers * eventsPerProducer) {
+			drained += ring.drain(64);
+		}
+		for (var thread : threads) {
+			thread.join();
+		}
+
+		assertThat(errors).isEmpty();
+		assertThat(lastSeen).containsOnly(eventsPerProducer);
+	}
+
+	private static void drainAll(EventRing ring) {
+		int drained;
+		do {
+			drained = ring.drain(16);
+		} while (drained > 0);
+	}
+
+	private static List<Object> range(int from, int to) {
+		final List<Object> range = new ArrayList<>();
+		for (int i = from; i < to; i++) {
+			range.add(i);
+		}
+		return range;
+	}
+}
@@ -0,0 +1,296 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.environment.ringbuffer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.Multibinder;
+import com.radixdlt.ModuleRunner;
+import com.radixdlt.consensus.bft.Self;
+import com.radixdlt.environment.Environment;
+import com.radixdlt.environment.EventProcessorOnRunner;
+import com.radixdlt.environment.LocalEvents;
+import com.radixdlt.environment.Runners;
+import com.radixdlt.environment.StartProcessorOnRunner;
+import com.radixdlt.environment.rx.RemoteEvent;
+import com.radixdlt.environment.rx.RxRemoteEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RingBufferEnvironmentModuleTest {
+	private static final int RING_SIZE = 4;
+	private static final long TIMEOUT_MS = 5000;
+
+	private static final class Ping {
+		private final int n;
+
+		private Ping(int n) {
+			this.n = n;
+		}
+
+		@Override
+		public String toString() {
+			return "Ping " + n;
+		}
+	}
+
+	private final BlockingQueue<Object> consensus = new LinkedBlockingQueue<>();
+	private final BlockingQueue<Object> consensusSecond = new LinkedBlockingQueue<>();
+	private final BlockingQueue<Object> mempool = new LinkedBlockingQueue<>();
+	private final BlockingQueue<Object> started = new LinkedBlockingQueue<>();
+	private Injector injector;
+	private Map<String, ModuleRunner> runners;
+
+	private Injector createInjector(long mempoolRateLimitMs) {
+		return Guice.createInjector(
+			new RingBufferEnvironmentModule(RING_SIZE),
+			new AbstractModule() {
+				@Override
+				protected void configure() {
+					bind(String.class).annotatedWith(Self.class).toInstance("test");
+					bind(RxRemoteEnvironment.class).toInstance(new RxRemoteEnvironment() {
+						@Override
+						public <T> Flowable<RemoteEvent<T>> remoteEvents(Class<T> remoteEventClass) {
+							return Flowable.never();
+						}
+					});
+					Multibinder.newSetBinder(binder(), new TypeLiteral<Class<?>>() { }, LocalEvents.class)
+						.addBinding().toInstance(Ping.class);
+					final var processors = Multibinder.newSetBinder(binder(), new TypeLiteral<EventProcessorOnRunner<?>>() { });
+					processors.addBinding().toInstance(new EventProcessorOnRunner<>(Runners.CONSENSUS, Ping.class, consensus::add));
+					processors.addBinding().toInstance(new EventProcessorOnRunner<>(Runners.CONSENSUS, Ping.class, consensusSecond::add));
+					processors.addBinding().toInstance(
+						new EventProcessorOnRunner<>(Runners.MEMPOOL, Ping.class, mempool::add, mempoolRateLimitMs)
+					);
+					Multibinder.newSetBinder(binder(), StartProcessorOnRunner.class)
+						.addBinding().toInstance(new StartProcessorOnRunner(Runners.CONSENSUS, () -> started.add(Thread.currentThread())));
+				}
+			}
+		);
+	}
+
+	private void createRunners() {
+		this.runners = injector.getInstance(Key.get(new TypeLiteral<Map<String, ModuleRunner>>() { }));
+	}
+
+	private void dispatch(int from, int to) {
+		final var dispatcher = injector.getInstance(Environment.class).getDispatcher(Ping.class);
+		for (int i = from; i < to; i++) {
+			dispatcher.dispatch(new Ping(i));
+		}
+	}
+
+	@After
+	public void teardown() {
+		if (runners != null) {
+			runners.values().forEach(ModuleRunner::stop);
+		}
+	}
+
+	@Test
+	public void when_event_dispatched__then_processed_by_every_processor_on_every_runner() throws InterruptedException {
+		// Arrange
+		injector = createInjector(0);
+		createRunners();
+		runners.values().forEach(ModuleRunner::start);
+
+		// Act
+		dispatch(0, 3);
+
+		// Assert
+		assertThat(numbers(take(consensus, 3))).containsExactly(0, 1, 2);
+		assertThat(numbers(take(consensusSecond, 3))).containsExactly(0, 1, 2);
+		assertThat(numbers(take(mempool, 3))).containsExactly(0, 1, 2);
+	}
+
+	@Test
+	public void when_runner_started__then_start_processor_and_queued_events_run_on_runner_thread() throws InterruptedException {
+		// Arrange
+		injector = createInjector(0);
+		createRunners();
+		dispatch(0, 1);
+
+		// Act
+		runners.get(Runners.CONSENSUS).start();
+
+		// Assert
+		final var startThread = (Thread) started.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		assertThat(startThread).isNotNull();
+		assertThat(startThread.getName()).startsWith("BFT test");
+		assertThat(numbers(take(consensus, 1))).containsExactly(0);
+		assertThat(mempool).isEmpty();
+	}
+
+	@Test
+	public void when_events_dispatched_before_runners_exist__then_latest_five_are_replayed() throws InterruptedException {
+		// Arrange
+		injector = createInjector(0);
+		dispatch(0, 7);
+
+		// Act
+		createRunners();
+		runners.values().forEach(ModuleRunner::start);
+		dispatch(7, 8);
+
+		// Assert
+		assertThat(numbers(take(consensus, 6))).containsExactly(2, 3, 4, 5, 6, 7);
+		assertThat(numbers(take(mempool, 6))).containsExactly(2, 3, 4, 5, 6, 7);
+	}
+
+	@Test
+	public void when_ring_overflows_before_start__then_all_events_are_processed_in_order() throws InterruptedException {
+		// Arrange
+		injector = createInjector(0);
+		createRunners();
+		dispatch(0, RING_SIZE * 10);
+
+		// Act
+		runners.values().forEach(ModuleRunner::start);
+		dispatch(RING_SIZE * 10, RING_SIZE * 20);
+
+		// Assert
+		assertThat(numbers(take(consensus, RING_SIZE * 20))).containsExactlyElementsOf(range(0, RING_SIZE * 20));
+		assertThat(numbers(take(consensusSecond, RING_SIZE * 20))).containsExactlyElementsOf(range(0, RING_SIZE * 20));
+		assertThat(numbers(take(mempool, RING_SIZE * 20))).containsExactlyElementsOf(range(0, RING_SIZE * 20));
+	}
+
+	@Test
+	public void when_processor_is_rate_limited__then_events_are_delayed_and_excess_is_dropped() throws InterruptedException {
+		// Arrange
+		injector = createInjector(2);
+		createRunners();
+		dispatch(0, 150);
+
+		// Act
+		final long start = System.nanoTime();
+		runners.values().forEach(ModuleRunner::start);
+		final var processed = numbers(take(mempool, 100));
+		final long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// Assert
+		assertThat(processed).containsExactlyElementsOf(range(0, 100));
+		assertThat(elapsedMs).isGreaterThanOrEqualTo(100 * 2);
+		assertThat(mempool.poll(100, TimeUnit.MILLISECONDS)).isNull();
+		assertThat(numbers(take(consensus, 150))).containsExactlyElementsOf(range(0, 150));
+	}
+
+	@Test
+	public void when_runner_stopped__then_no_more_events_are_processed() throws InterruptedException {
+		// Arrange
+		injector = createInjector(0);
+		createRunners();
+		runners.values().forEach(ModuleRunner::start);
+		dispatch(0, 1);
+		take(consensus, 1);
+
+		// Act
+		runners.get(Runners.CONSENSUS).stop();
+		dispatch(1, 2);
+
+		// Assert
+		assertThat(numbers(take(mempool, 2))).containsExactly(0, 1);
+		assertThat(consensus.poll(100, TimeUnit.MILLISECONDS)).isNull();
+		runners.get(Runners.CONSENSUS).stop();
+	}
+
+	private static List<Object> take(BlockingQueue<Object> queue, int count) throws InterruptedException {
+		final var taken = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final var next = queue.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			assertThat(next).as("event %s of %s", i, count).isNotNull();
+			taken.add(next);
+		}
+		return taken;
+	}
+
+	private static List<Integer> numbers(List<Object> events) {
+		final var numbers = new ArrayList<Integer>();
+		events.forEach(e -> numbers.add(((Ping) e).n));
+		return numbers;
+	}
+
+	private static List<Integer> range(int from, int to) {
+		final var range = new ArrayList<Integer>();
+		for (int i = from; i < to; i++) {
+			range.add(i);
+		}
+		return range;
+	}
+}
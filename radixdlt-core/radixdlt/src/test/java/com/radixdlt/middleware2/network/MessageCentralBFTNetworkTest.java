@@ -76,6 +76,7 @@ import com.radixdlt.consensus.Vote;
 import com.radixdlt.network.messaging.MessageCentralMockProvider;
 
 import com.radixdlt.network.p2p.NodeId;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -99,4 +100,18 @@ public class MessageCentralBFTNetworkTest {
 		network.voteDispatcher().dispatch(leader, vote);
 		verify(messageCentral, times(1)).send(eq(NodeId.fromPublicKey(leaderPk)), any(ConsensusEventMessage.class));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_send_vote_to_several_nodes__then_message_central_should_multicast_vote_message() {
+		Vote vote = mock(Vote.class);
+		ECPublicKey pk1 = ECKeyPair.generateNew().getPublicKey();
+		ECPublicKey pk2 = ECKeyPair.generateNew().getPublicKey();
+
+		network.voteDispatcher().dispatch(List.of(BFTNode.create(pk1), BFTNode.create(pk2)), vote);
+		verify(messageCentral, times(1)).multicast(
+			eq(List.of(NodeId.fromPublicKey(pk1), NodeId.fromPublicKey(pk2))),
+			any(ConsensusEventMessage.class)
+		);
+		verify(messageCentral, times(2)).send(any(), any(ConsensusEventMessage.class));
+	}
+}
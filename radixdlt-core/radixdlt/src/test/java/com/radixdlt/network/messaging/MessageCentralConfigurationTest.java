@@ -82,13 +82,19 @@ public class MessageCentralConfigurationTest {
         RuntimeProperties properties = mock(RuntimeProperties.class);
 
         when(properties.get(eq("messaging.inbound.queue_max"), anyInt())).thenReturn(100);
+        when(properties.get(eq("messaging.inbound.peer_queue_max"), anyInt())).thenReturn(101);
         when(properties.get(eq("messaging.outbound.queue_max"), anyInt())).thenReturn(102);
+        when(properties.get(eq("messaging.outbound.peer_queue_max"), anyInt())).thenReturn(103);
+        when(properties.get(eq("messaging.outbound.threads"), anyInt())).thenReturn(5);
         when(properties.get(eq("messaging.time_to_live"), anyLong())).thenReturn(104L);
 
         MessageCentralConfiguration config = MessageCentralConfiguration.fromRuntimeProperties(properties);
 
         assertEquals(100, config.messagingInboundQueueMax(-1));
+        assertEquals(101, config.messagingInboundPeerQueueMax(-1));
         assertEquals(102, config.messagingOutboundQueueMax(-1));
+        assertEquals(103, config.messagingOutboundPeerQueueMax(-1));
+        assertEquals(5, config.messagingOutboundThreads(-1));
         assertEquals(104, config.messagingTimeToLive(-1));
     }
 }
\ No newline at end of file
@@ -1,11 +1,20 @@
 package com.radixdlt.network.messaging;
 
 import com.google.inject.Provider;
+import com.radixdlt.consensus.ConsensusEvent;
+import com.radixdlt.consensus.Proposal;
+import com.radixdlt.consensus.Vote;
+import com.radixdlt.counters.LabelledGauges;
+import com.radixdlt.counters.LatencyHistograms;
 import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.crypto.ECKeyPair;
 import com.radixdlt.middleware2.network.ConsensusEventMessage;
+import com.radixdlt.middleware2.network.MempoolAddMessage;
 import com.radixdlt.network.p2p.NodeId;
 import com.radixdlt.network.p2p.PeerControl;
 import com.radixdlt.network.p2p.PeerManager;
+import com.radixdlt.network.p2p.transport.PeerChannel;
+import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.utils.Compress;
 import com.radixdlt.utils.TimeSupplier;
@@ -13,14 +22,29 @@ import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.observers.TestObserver;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.radix.network.messaging.Message;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -54,6 +78,8 @@ public class MessageCentralImplTest {
     public void when_messagesOf_is_called__then_underlying_pipeline_should_run_on_rxjava_computation_pool() throws Exception {
         // given
         when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(1);
+        when(messageCentralConfig.messagingInboundQueueMax(anyInt())).thenReturn(1);
+        when(messageCentralConfig.messagingInboundPeerQueueMax(anyInt())).thenReturn(1);
 
         when(serialization.fromDson(any(byte[].class), eq(Message.class)))
             .thenReturn(mock(ConsensusEventMessage.class));
@@ -67,9 +93,6 @@ public class MessageCentralImplTest {
         });
         when(peerManager.messages()).thenReturn(inboundMessages);
 
-        when(outboundEventQueueFactory.createEventQueue(anyInt(), any(Comparator.class)))
-            .thenReturn(new SimplePriorityBlockingQueue<>(1, OutboundMessageEvent.comparator()));
-
         MessageCentralImpl messageCentral = new MessageCentralImpl(
             messageCentralConfig,
             serialization,
@@ -77,6 +100,8 @@ public class MessageCentralImplTest {
             timeSupplier,
             outboundEventQueueFactory,
             systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
             peerControl
         );
 
@@ -93,4 +118,347 @@ public class MessageCentralImplTest {
         //then
         observer.assertValue(v -> v.startsWith("RxComputationThreadPool"));
     }
+
+    @Test
+    public void when_sending_to_a_peer__then_messages_are_dispatched_in_order() throws Exception {
+        // given
+        when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(16);
+        when(messageCentralConfig.messagingOutboundPeerQueueMax(anyInt())).thenReturn(16);
+        when(messageCentralConfig.messagingOutboundThreads(anyInt())).thenReturn(4);
+        when(peerManager.messages()).thenReturn(Observable.never());
+        when(outboundEventQueueFactory.createEventQueue(anyInt(), any(Comparator.class)))
+            .thenAnswer(invocation -> new SimplePriorityBlockingQueue<>(1, OutboundMessageEvent.comparator()));
+        when(serialization.toDson(any(), eq(Output.WIRE))).thenReturn(new byte[] {0});
+
+        final var receiver = mock(NodeId.class);
+        final var channel = mock(PeerChannel.class);
+        when(peerManager.findOrCreateChannel(receiver)).thenReturn(CompletableFuture.completedFuture(channel));
+
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
+            peerControl
+        );
+
+        final var first = mock(ConsensusEventMessage.class);
+        final var second = mock(ConsensusEventMessage.class);
+        final var third = mock(ConsensusEventMessage.class);
+
+        // when
+        messageCentral.send(receiver, first);
+        messageCentral.send(receiver, second);
+        messageCentral.send(receiver, third);
+
+        // then
+        verify(channel, timeout(5000).times(3)).send(any());
+        messageCentral.close();
+
+        InOrder inOrder = inOrder(serialization);
+        inOrder.verify(serialization).toDson(first, Output.WIRE);
+        inOrder.verify(serialization).toDson(second, Output.WIRE);
+        inOrder.verify(serialization).toDson(third, Output.WIRE);
+    }
+
+    @Test
+    public void when_outbound_queue_is_full__then_message_is_dropped() {
+        // given
+        when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(0);
+        when(messageCentralConfig.messagingOutboundThreads(anyInt())).thenReturn(1);
+        when(peerManager.messages()).thenReturn(Observable.never());
+
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
+            peerControl
+        );
+
+        // when
+        messageCentral.send(mock(NodeId.class), mock(ConsensusEventMessage.class));
+        messageCentral.close();
+
+        // then
+        verify(systemCounters).increment(SystemCounters.CounterType.MESSAGES_OUTBOUND_DROPPED);
+        verify(peerManager, never()).findOrCreateChannel(any());
+    }
+
+    @Test
+    public void when_multicasting__then_message_is_serialized_once_for_all_receivers() throws Exception {
+        // given
+        when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(16);
+        when(messageCentralConfig.messagingOutboundPeerQueueMax(anyInt())).thenReturn(16);
+        when(messageCentralConfig.messagingOutboundThreads(anyInt())).thenReturn(4);
+        when(peerManager.messages()).thenReturn(Observable.never());
+        when(outboundEventQueueFactory.createEventQueue(anyInt(), any(Comparator.class)))
+            .thenAnswer(invocation -> new SimplePriorityBlockingQueue<>(1, OutboundMessageEvent.comparator()));
+        when(serialization.toDson(any(), eq(Output.WIRE))).thenReturn(new byte[] {0});
+
+        final var channel = mock(PeerChannel.class);
+        when(peerManager.findOrCreateChannel(any())).thenReturn(CompletableFuture.completedFuture(channel));
+
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
+            peerControl
+        );
+
+        final var message = mock(ConsensusEventMessage.class);
+        final var receivers = List.of(mock(NodeId.class), mock(NodeId.class), mock(NodeId.class));
+
+        // when
+        messageCentral.multicast(receivers, message);
+
+        // then
+        verify(channel, timeout(5000).times(3)).send(any());
+        messageCentral.close();
+        verify(serialization, times(1)).toDson(message, Output.WIRE);
+    }
+
+    @Test
+    public void when_receiving_from_several_peers__then_each_peers_messages_are_delivered_in_order() throws Exception {
+        // given
+        when(messageCentralConfig.messagingInboundQueueMax(anyInt())).thenReturn(64);
+        when(messageCentralConfig.messagingInboundPeerQueueMax(anyInt())).thenReturn(32);
+
+        final var messages = new ArrayList<ConsensusEventMessage>();
+        for (int i = 0; i < 20; i++) {
+            messages.add(mock(ConsensusEventMessage.class));
+        }
+        when(serialization.fromDson(any(byte[].class), eq(Message.class)))
+            .thenAnswer(invocation -> messages.get(((byte[]) invocation.getArgument(0))[0]));
+
+        final var peer1 = NodeId.fromPublicKey(ECKeyPair.generateNew().getPublicKey());
+        final var peer2 = NodeId.fromPublicKey(ECKeyPair.generateNew().getPublicKey());
+        final var inboundMessages = new ArrayList<InboundMessage>();
+        for (int i = 0; i < messages.size(); i++) {
+            inboundMessages.add(InboundMessage.of(i % 2 == 0 ? peer1 : peer2, Compress.compress(new byte[] {(byte) i})));
+        }
+        when(peerManager.messages()).thenReturn(Observable.fromIterable(inboundMessages));
+
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
+            peerControl
+        );
+
+        final var observer = TestObserver.<MessageFromPeer<ConsensusEventMessage>>create();
+
+        // when
+        messageCentral.messagesOf(ConsensusEventMessage.class).subscribe(observer);
+        observer.await();
+        messageCentral.close();
+
+        // then
+        observer.assertValueCount(messages.size());
+        for (var peer : List.of(peer1, peer2)) {
+            final var expected = new ArrayList<Message>();
+            for (int i = 0; i < messages.size(); i++) {
+                if (inboundMessages.get(i).source().equals(peer)) {
+                    expected.add(messages.get(i));
+                }
+            }
+            final var received = observer.values().stream()
+                .filter(m -> m.getSource().equals(peer))
+                .map(MessageFromPeer::getMessage)
+                .collect(Collectors.toList());
+            assertEquals(expected, received);
+        }
+    }
+
+    @Test
+    public void when_mempool_messages_flood_a_peer__then_consensus_messages_are_queued_and_sent_first() throws Exception {
+        // given
+        when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(100);
+        when(messageCentralConfig.messagingOutboundPeerQueueMax(anyInt())).thenReturn(100);
+        when(messageCentralConfig.messagingOutboundThreads(anyInt())).thenReturn(1);
+        when(peerManager.messages()).thenReturn(Observable.never());
+        when(outboundEventQueueFactory.createEventQueue(anyInt(), any(Comparator.class)))
+            .thenAnswer(invocation -> new SimplePriorityBlockingQueue<>(1, OutboundMessageEvent.comparator()));
+
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        when(serialization.toDson(any(), eq(Output.WIRE))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new byte[] {0};
+        });
+
+        final var receiver = mock(NodeId.class);
+        final var channel = mock(PeerChannel.class);
+        when(peerManager.findOrCreateChannel(receiver)).thenReturn(CompletableFuture.completedFuture(channel));
+
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
+            peerControl
+        );
+
+        // when
+        messageCentral.send(receiver, mock(MempoolAddMessage.class));
+        started.await();
+        // 25% of the queue is budgeted for mempool messages
+        for (int i = 0; i < 30; i++) {
+            messageCentral.send(receiver, mock(MempoolAddMessage.class));
+        }
+        final var vote = mock(ConsensusEventMessage.class);
+        messageCentral.send(receiver, vote);
+        release.countDown();
+
+        // then
+        verify(channel, timeout(5000).times(27)).send(any());
+        messageCentral.close();
+        verify(systemCounters, times(5)).increment(SystemCounters.CounterType.MESSAGES_OUTBOUND_DROPPED);
+
+        final var serialized = ArgumentCaptor.forClass(Object.class);
+        verify(serialization, times(27)).toDson(serialized.capture(), eq(Output.WIRE));
+        assertEquals(vote, serialized.getAllValues().get(1));
+    }
+
+    @Test
+    public void when_votes_flood_a_peer__then_older_votes_are_dropped_but_queued_proposal_is_kept() throws Exception {
+        // given
+        when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(100);
+        when(messageCentralConfig.messagingOutboundPeerQueueMax(anyInt())).thenReturn(100);
+        when(messageCentralConfig.messagingOutboundThreads(anyInt())).thenReturn(1);
+        when(peerManager.messages()).thenReturn(Observable.never());
+        when(outboundEventQueueFactory.createEventQueue(anyInt(), any(Comparator.class)))
+            .thenAnswer(invocation -> new SimplePriorityBlockingQueue<>(1, OutboundMessageEvent.comparator()));
+
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        when(serialization.toDson(any(), eq(Output.WIRE))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new byte[] {0};
+        });
+
+        final var receiver = mock(NodeId.class);
+        final var channel = mock(PeerChannel.class);
+        when(peerManager.findOrCreateChannel(receiver)).thenReturn(CompletableFuture.completedFuture(channel));
+
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            new LabelledGauges(),
+            peerControl
+        );
+
+        // when
+        messageCentral.send(receiver, mock(MempoolAddMessage.class));
+        started.await();
+        final var proposal = consensusMessage(mock(Proposal.class));
+        messageCentral.send(receiver, proposal);
+        // 25% of the queue is budgeted for consensus messages
+        final var votes = new ArrayList<ConsensusEventMessage>();
+        for (int i = 0; i < 30; i++) {
+            final var vote = consensusMessage(mock(Vote.class));
+            votes.add(vote);
+            messageCentral.send(receiver, vote);
+        }
+        release.countDown();
+
+        // then
+        verify(channel, timeout(5000).times(26)).send(any());
+        messageCentral.close();
+        verify(systemCounters, times(6)).increment(SystemCounters.CounterType.MESSAGES_OUTBOUND_DROPPED);
+
+        final var serialized = ArgumentCaptor.forClass(Object.class);
+        verify(serialization, times(26)).toDson(serialized.capture(), eq(Output.WIRE));
+        assertEquals(proposal, serialized.getAllValues().get(1));
+        assertEquals(votes.subList(6, 30), serialized.getAllValues().subList(2, 26));
+    }
+
+    @Test
+    public void when_messages_are_queued_for_a_peer__then_queue_depth_is_exported_per_traffic_class() throws Exception {
+        // given
+        when(messageCentralConfig.messagingOutboundQueueMax(anyInt())).thenReturn(100);
+        when(messageCentralConfig.messagingOutboundPeerQueueMax(anyInt())).thenReturn(100);
+        when(messageCentralConfig.messagingOutboundThreads(anyInt())).thenReturn(1);
+        when(peerManager.messages()).thenReturn(Observable.never());
+        when(outboundEventQueueFactory.createEventQueue(anyInt(), any(Comparator.class)))
+            .thenAnswer(invocation -> new SimplePriorityBlockingQueue<>(1, OutboundMessageEvent.comparator()));
+
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        when(serialization.toDson(any(), eq(Output.WIRE))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new byte[] {0};
+        });
+
+        final var receiver = NodeId.fromPublicKey(ECKeyPair.generateNew().getPublicKey());
+        final var channel = mock(PeerChannel.class);
+        when(peerManager.findOrCreateChannel(receiver)).thenReturn(CompletableFuture.completedFuture(channel));
+
+        final var gauges = new LabelledGauges();
+        final var messageCentral = new MessageCentralImpl(
+            messageCentralConfig,
+            serialization,
+            peerManager,
+            timeSupplier,
+            outboundEventQueueFactory,
+            systemCounters,
+            new LatencyHistograms(),
+            gauges,
+            peerControl
+        );
+
+        // when
+        messageCentral.send(receiver, mock(MempoolAddMessage.class));
+        started.await();
+        for (int i = 0; i < 3; i++) {
+            messageCentral.send(receiver, mock(MempoolAddMessage.class));
+        }
+        messageCentral.send(receiver, mock(ConsensusEventMessage.class));
+        final var depths = gauges.values().get("messages_outbound_peer_queue_depth");
+        release.countDown();
+
+        // then
+        final var peer = receiver.getPublicKey().toHex();
+        assertEquals(Long.valueOf(3), depths.get(Map.of("peer", peer, "class", "mempool")));
+        assertEquals(Long.valueOf(1), depths.get(Map.of("peer", peer, "class", "consensus")));
+        assertEquals(Long.valueOf(0), depths.get(Map.of("peer", peer, "class", "ledger_sync")));
+        verify(channel, timeout(5000).times(5)).send(any());
+        messageCentral.close();
+    }
+
+    private static ConsensusEventMessage consensusMessage(ConsensusEvent event) {
+        final var message = mock(ConsensusEventMessage.class);
+        when(message.getConsensusMessage()).thenReturn(event);
+        return message;
+    }
 }
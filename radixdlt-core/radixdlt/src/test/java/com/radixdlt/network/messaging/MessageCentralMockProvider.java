@@ -69,6 +69,7 @@ import org.radix.network.messaging.Message;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 
 public class MessageCentralMockProvider {
@@ -85,6 +86,8 @@ public class MessageCentralMockProvider {
 			return null;
 		}).when(messageCentral).send(any(), any());
 
+		doCallRealMethod().when(messageCentral).multicast(any(), any());
+
 		doAnswer(invocation ->
 			messageProcessor
 				.filter(p -> ((Class<?>) invocation.getArgument(0)).isInstance(p.getMessage()))
@@ -102,6 +102,22 @@ public class SimplePriorityBlockingQueueTest {
 		}
 	}
 
+	@Test
+	public void testFilteredPoll() {
+		SimplePriorityBlockingQueue<TestObject> test = new SimplePriorityBlockingQueue<>(100, TestObject::compareTo);
+
+		for (int i = 0; i < 10; ++i) {
+			assertTrue(test.offer(new TestObject(i)));
+		}
+
+		assertEquals(3, test.poll(o -> o.i % 3 == 0 && o.i > 0).i);
+		assertEquals(6, test.poll(o -> o.i % 3 == 0 && o.i > 0).i);
+		assertNull(test.poll(o -> o.i > 9));
+		assertEquals(8, test.size());
+		assertEquals(0, test.poll().i);
+		assertEquals(1, test.poll().i);
+	}
+
 	@Test
 	public void sensibleToString() {
 		SimplePriorityBlockingQueue<Long> test = new SimplePriorityBlockingQueue<>(100, Long::compare);
@@ -73,11 +73,15 @@ import com.radixdlt.network.p2p.transport.handshake.Secrets;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.utils.Pair;
 import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import org.junit.Test;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.security.SecureRandom;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public final class FrameCodecTest {
 	private final Serialization serialization = DefaultSerialization.getInstance();
@@ -111,6 +115,50 @@ public final class FrameCodecTest {
 		}
 	}
 
+	@Test
+	public void test_frame_codec_encode_decode_in_direct_buffers() throws Exception {
+		final var secrets = agreeSecrets(ECKeyPair.generateNew(), ECKeyPair.generateNew());
+
+		final var frameCodec1 = new FrameCodec(secrets.getFirst());
+		final var frameCodec2 = new FrameCodec(secrets.getSecond());
+
+		for (int i = 0; i < 100; i++) {
+			final var message = new byte[secureRandom.nextInt(1024 * 40)];
+			secureRandom.nextBytes(message);
+
+			final var frame = frameCodec1.encodeFrame(message, UnpooledByteBufAllocator.DEFAULT);
+			assertEquals(FrameCodec.frameSize(message.length), frame.readableBytes());
+
+			final var direct = Unpooled.directBuffer(frame.readableBytes());
+			direct.writeBytes(frame);
+			frame.release();
+
+			final var body = frameCodec2.tryDecodeFrame(direct).orElseThrow();
+			assertEquals(Unpooled.wrappedBuffer(message), body);
+			assertEquals(0, direct.readableBytes());
+			body.release();
+			direct.release();
+		}
+	}
+
+	@Test
+	public void test_frame_codec_rejects_tampered_frame() throws Exception {
+		final var secrets = agreeSecrets(ECKeyPair.generateNew(), ECKeyPair.generateNew());
+
+		final var frameCodec1 = new FrameCodec(secrets.getFirst());
+		final var frameCodec2 = new FrameCodec(secrets.getSecond());
+
+		final var message = new byte[100];
+		secureRandom.nextBytes(message);
+		final var baos = new ByteArrayOutputStream();
+		frameCodec1.writeFrame(message, baos);
+		final var frame = baos.toByteArray();
+		frame[40] ^= 0x01;
+
+		assertThatThrownBy(() -> frameCodec2.tryReadSingleFrame(Unpooled.wrappedBuffer(frame)))
+			.isInstanceOf(IOException.class);
+	}
+
 	private Pair<Secrets, Secrets> agreeSecrets(ECKeyPair nodeKey1, ECKeyPair nodeKey2) throws Exception {
 		final var handshaker1 = new AuthHandshaker(serialization, secureRandom, ECKeyOps.fromKeyPair(nodeKey1), (byte) 0x01);
 		final var handshaker2 = new AuthHandshaker(serialization, secureRandom, ECKeyOps.fromKeyPair(nodeKey2), (byte) 0x01);
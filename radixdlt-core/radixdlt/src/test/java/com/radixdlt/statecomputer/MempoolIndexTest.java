@@ -0,0 +1,183 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.statecomputer;
+
+import com.radixdlt.atom.SubstateId;
+import com.radixdlt.atom.Txn;
+import com.radixdlt.constraintmachine.REProcessedTxn;
+import com.radixdlt.constraintmachine.REStateUpdate;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.identifiers.AID;
+import com.radixdlt.utils.UInt256;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MempoolIndexTest {
+	private final MempoolIndex index = new MempoolIndex();
+
+	private static SubstateId substate(int index) {
+		return SubstateId.ofSubstate(AID.from(HashUtils.random256().asBytes()), index);
+	}
+
+	private static REProcessedTxn txn(int fee, int size, SubstateId... downs) {
+		var txn = Txn.create(HashUtils.random256().asBytes());
+		var processed = mock(REProcessedTxn.class);
+		var payload = mock(Txn.class);
+		when(payload.getPayload()).thenReturn(new byte[size]);
+		when(processed.getTxn()).thenReturn(payload);
+		when(processed.getTxnId()).thenReturn(txn.getId());
+		when(processed.getFeePaid()).thenReturn(UInt256.from(fee));
+		when(processed.substateDependencies()).thenAnswer(i -> Set.of(downs).stream());
+		var updates = Stream.of(downs).map(id -> {
+			var update = mock(REStateUpdate.class);
+			when(update.getId()).thenReturn(id);
+			when(update.isShutDown()).thenReturn(true);
+			return update;
+		}).collect(Collectors.toList());
+		when(processed.stateUpdates()).thenAnswer(i -> updates.stream());
+		return processed;
+	}
+
+	private static List<AID> ids(List<REProcessedTxn> txns) {
+		return txns.stream().map(REProcessedTxn::getTxnId).collect(Collectors.toList());
+	}
+
+	@Test
+	public void select_orders_by_fee_per_byte() {
+		// Arrange
+		var cheap = txn(100, 10, substate(0));
+		var expensive = txn(100, 5, substate(1));
+		var medium = txn(150, 10, substate(2));
+		index.add(cheap);
+		index.add(expensive);
+		index.add(medium);
+
+		// Act
+		var selected = index.select(2, Set.of());
+
+		// Assert
+		assertThat(ids(selected)).containsExactly(expensive.getTxnId(), medium.getTxnId());
+	}
+
+	@Test
+	public void select_skips_conflicting_and_already_shut_down() {
+		// Arrange
+		var s0 = substate(0);
+		var s1 = substate(1);
+		var best = txn(300, 1, s0);
+		var conflictsWithBest = txn(200, 1, s0);
+		var conflictsWithPrepared = txn(150, 1, s1);
+		var other = txn(100, 1, substate(2));
+		List.of(best, conflictsWithBest, conflictsWithPrepared, other).forEach(index::add);
+
+		// Act
+		var selected = index.select(10, Set.of(s1));
+
+		// Assert
+		assertThat(ids(selected)).containsExactly(best.getTxnId(), other.getTxnId());
+	}
+
+	@Test
+	public void remove_dependents_cleans_up_conflict_graph() {
+		// Arrange
+		var s0 = substate(0);
+		var s1 = substate(1);
+		var first = txn(100, 1, s0, s1);
+		var second = txn(100, 1, s0);
+		var unrelated = txn(100, 1, substate(2));
+		List.of(first, second, unrelated).forEach(index::add);
+
+		// Act
+		var removed = index.removeDependents(List.of(s0));
+
+		// Assert
+		assertThat(removed).containsExactlyInAnyOrder(first, second);
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.dependedOnSubstates()).doesNotContain(s0, s1);
+		assertThat(ids(index.select(10, Set.of()))).containsExactly(unrelated.getTxnId());
+	}
+
+	@Test
+	public void duplicate_add_is_ignored() {
+		// Arrange
+		var txn = txn(100, 1, substate(0));
+		index.add(txn);
+
+		// Act
+		var added = index.add(txn);
+
+		// Assert
+		assertThat(added).isFalse();
+		assertThat(index.size()).isEqualTo(1);
+	}
+}
@@ -75,6 +75,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Module;
+import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.radixdlt.DefaultSerialization;
 import com.radixdlt.application.system.NextValidatorSetEvent;
@@ -96,6 +97,7 @@ import com.radixdlt.consensus.TimestampedECDSASignatures;
 import com.radixdlt.consensus.LedgerProof;
 import com.radixdlt.consensus.Sha256Hasher;
 import com.radixdlt.consensus.UnverifiedVertex;
+import com.radixdlt.consensus.VoteData;
 import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.consensus.bft.BFTValidator;
 import com.radixdlt.consensus.bft.BFTValidatorSet;
@@ -108,6 +110,7 @@ import com.radixdlt.constraintmachine.exceptions.ConstraintMachineException;
 import com.radixdlt.constraintmachine.exceptions.InvalidPermissionException;
 import com.radixdlt.constraintmachine.PermissionLevel;
 import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.counters.SystemCountersImpl;
 import com.radixdlt.crypto.ECKeyPair;
 import com.radixdlt.crypto.HashUtils;
@@ -170,6 +173,9 @@ public class RadixEngineStateComputerTest {
 	@Inject
 	private ProposerElection proposerElection;
 
+	@Inject
+	private SystemCounters systemCounters;
+
 	private Serialization serialization = DefaultSerialization.getInstance();
 	private InMemoryEngineStore<LedgerAndBFTProof> engineStore;
 	private ImmutableList<ECKeyPair> registeredNodes = ImmutableList.of(
@@ -219,7 +225,7 @@ public class RadixEngineStateComputerTest {
 				bind(new TypeLiteral<EventDispatcher<LedgerUpdate>>() { })
 					.toInstance(TypedMocks.rmock(EventDispatcher.class));
 
-				bind(SystemCounters.class).to(SystemCountersImpl.class);
+				bind(SystemCounters.class).to(SystemCountersImpl.class).in(Scopes.SINGLETON);
 			}
 		};
 	}
@@ -288,6 +294,14 @@ public class RadixEngineStateComputerTest {
 		return systemUpdateTxn(nextView, nextEpoch);
 	}
 
+	private VerifiedVertex vertexWithParent(HashCode parentId, View parentView, View view) {
+		var ledgerHeader = LedgerHeader.create(1, parentView, new AccumulatorState(0, HashUtils.zero256()), 0);
+		var parentHeader = new BFTHeader(parentView, parentId, ledgerHeader);
+		var qc = new QuorumCertificate(new VoteData(parentHeader, parentHeader, null), new TimestampedECDSASignatures());
+		var unverified = UnverifiedVertex.create(qc, view, List.of(), proposerElection.getProposer(view));
+		return new VerifiedVertex(unverified, hasher.hash(unverified));
+	}
+
 	private Txn registerCommand(ECKeyPair keyPair) throws TxBuilderException {
 		return radixEngine.construct(new RegisterValidator(keyPair.getPublicKey()))
 			.signAndBuild(keyPair::sign);
@@ -357,6 +371,76 @@ public class RadixEngineStateComputerTest {
 		});
 	}
 
+	@Test
+	public void preparing_child_of_prepared_vertex_should_not_reexecute_parent() {
+		// Arrange
+		var parent = vertexWithParent(HashUtils.random256(), View.genesis(), View.of(1));
+		var parentResult = sut.prepare(List.of(), parent, 0);
+		var child = vertexWithParent(parent.getId(), View.of(1), View.of(2));
+
+		// Act
+		var result = sut.prepare(parentResult.getSuccessfulCommands(), child, 0);
+
+		// Assert
+		assertThat(result.getSuccessfulCommands()).hasSize(1);
+		assertThat(result.getFailedCommands()).isEmpty();
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_HITS)).isEqualTo(1);
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_MISSES)).isZero();
+	}
+
+	@Test
+	public void preparing_child_of_unknown_vertex_should_reexecute_previous() {
+		// Arrange
+		var parent = vertexWithParent(HashUtils.random256(), View.genesis(), View.of(1));
+		var parentResult = sut.prepare(List.of(), parent, 0);
+		var child = vertexWithParent(HashUtils.random256(), View.of(1), View.of(2));
+
+		// Act
+		var result = sut.prepare(parentResult.getSuccessfulCommands(), child, 0);
+
+		// Assert
+		assertThat(result.getSuccessfulCommands()).hasSize(1);
+		assertThat(result.getFailedCommands()).isEmpty();
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_HITS)).isZero();
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_MISSES)).isEqualTo(1);
+	}
+
+	@Test
+	public void preparing_child_with_different_previous_txns_should_reexecute_previous() {
+		// Arrange
+		var parent = vertexWithParent(HashUtils.random256(), View.genesis(), View.of(1));
+		sut.prepare(List.of(), parent, 0);
+		var fork = vertexWithParent(HashUtils.random256(), View.genesis(), View.of(1));
+		var forkResult = sut.prepare(List.of(), fork, 1);
+		var child = vertexWithParent(parent.getId(), View.of(1), View.of(2));
+
+		// Act
+		var result = sut.prepare(forkResult.getSuccessfulCommands(), child, 1);
+
+		// Assert
+		assertThat(result.getFailedCommands()).isEmpty();
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_HITS)).isZero();
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_MISSES)).isEqualTo(1);
+	}
+
+	@Test
+	public void prepared_branches_of_lowest_views_should_be_pruned() {
+		// Arrange
+		var parent = vertexWithParent(HashUtils.random256(), View.genesis(), View.of(1));
+		var parentResult = sut.prepare(List.of(), parent, 0);
+		for (int i = 0; i < 64; i++) {
+			sut.prepare(List.of(), vertexWithParent(HashUtils.random256(), View.genesis(), View.of(2)), i);
+		}
+		var child = vertexWithParent(parent.getId(), View.of(1), View.of(2));
+
+		// Act
+		sut.prepare(parentResult.getSuccessfulCommands(), child, 0);
+
+		// Assert
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_HITS)).isZero();
+		assertThat(systemCounters.get(CounterType.RADIX_ENGINE_PREPARE_CACHE_MISSES)).isEqualTo(1);
+	}
+
 	@Test
 	public void preparing_system_update_from_vertex_should_fail() throws TxBuilderException {
 		// Arrange
@@ -0,0 +1,216 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.radixdlt.DefaultSerialization;
+import com.radixdlt.consensus.safety.SafetyState;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static com.radixdlt.utils.SerializerTestDataGenerator.randomView;
+import static com.radixdlt.utils.SerializerTestDataGenerator.randomVote;
+
+public class FileSafetyStateStoreTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BerkeleySafetyStateStore legacyStore;
+	private SystemCounters counters;
+	private FileSafetyStateStore store;
+
+	@Before
+	public void setUp() {
+		this.legacyStore = mock(BerkeleySafetyStateStore.class);
+		this.counters = new SystemCountersImpl();
+		this.store = open();
+	}
+
+	@After
+	public void tearDown() {
+		this.store.close();
+	}
+
+	private FileSafetyStateStore open() {
+		return new FileSafetyStateStore(
+			folder.getRoot().getAbsolutePath(), legacyStore, DefaultSerialization.getInstance(), counters
+		);
+	}
+
+	private FileSafetyStateStore reopen() {
+		this.store.close();
+		this.store = open();
+		return this.store;
+	}
+
+	@Test
+	public void when_nothing_committed__then_state_is_read_from_legacy_store() {
+		final var legacyState = new SafetyState(randomView(), Optional.of(randomVote()));
+		when(legacyStore.get()).thenReturn(Optional.of(legacyState));
+
+		assertThat(store.get()).contains(legacyState);
+		assertThat(new File(folder.getRoot(), FileSafetyStateStore.FILE_NAME))
+			.hasSize(2L * FileSafetyStateStore.SLOT_SIZE);
+	}
+
+	@Test
+	public void when_states_committed_and_reopened__then_last_state_is_recovered() {
+		final var state1 = new SafetyState(randomView(), Optional.of(randomVote()));
+		final var state2 = new SafetyState(randomView(), Optional.of(randomVote()));
+		final var state3 = new SafetyState(randomView(), Optional.of(randomVote()));
+
+		store.commitState(state1);
+		store.commitState(state2);
+		store.commitState(state3);
+
+		assertThat(store.get()).contains(state3);
+		assertThat(reopen().get()).contains(state3);
+		assertThat(counters.get(CounterType.COUNT_SAFETY_STATE_LOG_COMMITS)).isEqualTo(3);
+
+		final var state4 = new SafetyState(randomView(), Optional.of(randomVote()));
+		store.commitState(state4);
+		assertThat(reopen().get()).contains(state4);
+	}
+
+	@Test
+	public void when_last_record_is_torn__then_previous_state_is_recovered() throws IOException {
+		final var state1 = new SafetyState(randomView(), Optional.of(randomVote()));
+		final var state2 = new SafetyState(randomView(), Optional.of(randomVote()));
+		store.commitState(state1);
+		store.commitState(state2);
+		store.close();
+
+		// The second record went into the second slot; damage its payload
+		try (var file = new RandomAccessFile(new File(folder.getRoot(), FileSafetyStateStore.FILE_NAME), "rw")) {
+			file.seek(FileSafetyStateStore.SLOT_SIZE + FileSafetyStateStore.HEADER_SIZE + 8L);
+			file.write(new byte[64]);
+		}
+
+		assertThat(reopen().get()).contains(state1);
+	}
+
+	@Test
+	public void when_first_state_committed__then_legacy_store_is_marked_as_replaced() {
+		store.commitState(new SafetyState(randomView(), Optional.of(randomVote())));
+		store.commitState(new SafetyState(randomView(), Optional.of(randomVote())));
+
+		verify(legacyStore, times(1)).markReplacedByLog();
+	}
+
+	@Test
+	public void when_log_is_missing_after_replacing_legacy_store__then_opening_fails() {
+		store.commitState(new SafetyState(randomView(), Optional.of(randomVote())));
+		store.close();
+		assertThat(new File(folder.getRoot(), FileSafetyStateStore.FILE_NAME).delete()).isTrue();
+		when(legacyStore.isReplacedByLog()).thenReturn(true);
+
+		assertThatThrownBy(this::open).isInstanceOf(BerkeleyStoreException.class);
+		verify(legacyStore, never()).get();
+	}
+
+	@Test
+	public void when_both_slots_are_corrupt_after_replacing_legacy_store__then_opening_fails() throws IOException {
+		store.commitState(new SafetyState(randomView(), Optional.of(randomVote())));
+		store.commitState(new SafetyState(randomView(), Optional.of(randomVote())));
+		store.close();
+		when(legacyStore.isReplacedByLog()).thenReturn(true);
+
+		try (var file = new RandomAccessFile(new File(folder.getRoot(), FileSafetyStateStore.FILE_NAME), "rw")) {
+			for (int slot = 0; slot < 2; slot++) {
+				file.seek((long) slot * FileSafetyStateStore.SLOT_SIZE + FileSafetyStateStore.HEADER_SIZE + 8L);
+				file.write(new byte[64]);
+			}
+		}
+
+		assertThatThrownBy(this::open).isInstanceOf(BerkeleyStoreException.class);
+		verify(legacyStore, never()).get();
+	}
+
+	@Test
+	public void when_closed__then_legacy_store_is_closed() {
+		store.close();
+
+		verify(legacyStore).close();
+	}
+}
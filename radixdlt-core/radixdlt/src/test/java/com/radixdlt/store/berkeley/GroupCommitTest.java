@@ -0,0 +1,212 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.sleepycat.je.Durability;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GroupCommitTest {
+	private static final Durability NO_SYNC = Durability.COMMIT_NO_SYNC;
+	private static final Durability SYNC = Durability.COMMIT_SYNC;
+
+	private final SystemCounters counters = new SystemCountersImpl();
+	private final AtomicLong now = new AtomicLong();
+	private Runnable flushTxnLog;
+	private Runnable flushLog;
+	private ScheduledExecutorService scheduler;
+	private ScheduledFuture<?> scheduledFlush;
+	private Consumer<Durability> dbCommit;
+	private GroupCommit groupCommit;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		flushTxnLog = mock(Runnable.class);
+		flushLog = mock(Runnable.class);
+		scheduler = mock(ScheduledExecutorService.class);
+		scheduledFlush = mock(ScheduledFuture.class);
+		doReturn(scheduledFlush).when(scheduler).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+		dbCommit = mock(Consumer.class);
+		groupCommit = new GroupCommit(3, 1000L, flushTxnLog, flushLog, counters, scheduler, now::get);
+	}
+
+	@Test
+	public void full_group_should_be_flushed() {
+		// Act
+		groupCommit.commit(NO_SYNC, dbCommit);
+		groupCommit.commit(NO_SYNC, dbCommit);
+		verify(flushLog, never()).run();
+		groupCommit.commit(NO_SYNC, dbCommit);
+
+		// Assert
+		verify(dbCommit, times(3)).accept(NO_SYNC);
+		verify(flushTxnLog).run();
+		verify(flushLog).run();
+		verify(scheduledFlush).cancel(false);
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_FSYNCS)).isEqualTo(1);
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_GROUP_COMMIT_SIZE)).isEqualTo(3);
+	}
+
+	@Test
+	public void group_should_be_flushed_after_delay_without_further_commits() {
+		// Arrange
+		groupCommit.commit(NO_SYNC, dbCommit);
+		var scheduled = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(scheduled.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+		verify(flushLog, never()).run();
+
+		// Act
+		now.addAndGet(1000L);
+		scheduled.getValue().run();
+
+		// Assert
+		verify(flushTxnLog).run();
+		verify(flushLog).run();
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_GROUP_COMMIT_SIZE)).isEqualTo(1);
+	}
+
+	@Test
+	public void old_group_should_be_flushed_on_next_commit() {
+		// Arrange
+		groupCommit.commit(NO_SYNC, dbCommit);
+
+		// Act
+		now.addAndGet(1000L);
+		groupCommit.commit(NO_SYNC, dbCommit);
+
+		// Assert
+		verify(flushLog).run();
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_GROUP_COMMIT_SIZE)).isEqualTo(2);
+	}
+
+	@Test
+	public void synced_commit_should_cover_pending_group() {
+		// Arrange
+		groupCommit.commit(NO_SYNC, dbCommit);
+		groupCommit.commit(NO_SYNC, dbCommit);
+
+		// Act
+		groupCommit.commit(SYNC, dbCommit);
+
+		// Assert
+		InOrder inOrder = inOrder(flushTxnLog, dbCommit);
+		inOrder.verify(flushTxnLog).run();
+		inOrder.verify(dbCommit).accept(SYNC);
+		verify(flushLog, never()).run();
+		verify(scheduledFlush).cancel(false);
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_FSYNCS)).isEqualTo(1);
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_GROUP_COMMIT_SIZE)).isEqualTo(3);
+
+		// Next group is timed from its own first commit
+		groupCommit.commit(NO_SYNC, dbCommit);
+		verify(scheduler, times(2)).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void close_should_flush_pending_group() {
+		// Arrange
+		groupCommit.commit(NO_SYNC, dbCommit);
+
+		// Act
+		groupCommit.close();
+
+		// Assert
+		verify(flushLog).run();
+		verify(scheduler).shutdownNow();
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_GROUP_COMMIT_SIZE)).isEqualTo(1);
+	}
+
+	@Test
+	public void flush_without_pending_group_should_not_fsync() {
+		// Act
+		groupCommit.flush();
+
+		// Assert
+		verify(flushLog, never()).run();
+		assertThat(counters.get(CounterType.COUNT_BDB_LEDGER_FSYNCS)).isZero();
+	}
+}
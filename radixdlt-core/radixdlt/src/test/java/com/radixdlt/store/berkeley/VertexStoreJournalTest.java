@@ -0,0 +1,220 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.DefaultSerialization;
+import com.radixdlt.consensus.HighQC;
+import com.radixdlt.consensus.LedgerHeader;
+import com.radixdlt.consensus.QuorumCertificate;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.consensus.UnverifiedVertex;
+import com.radixdlt.consensus.bft.VerifiedVertex;
+import com.radixdlt.consensus.bft.VerifiedVertexStoreState;
+import com.radixdlt.consensus.bft.View;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.ledger.AccumulatorState;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.EnvironmentConfig;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VertexStoreJournalTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+	private final SystemCounters counters = new SystemCountersImpl();
+	private Environment environment;
+	private Database database;
+	private VertexStoreJournal journal;
+
+	@Before
+	public void setup() {
+		this.environment = new Environment(
+			folder.getRoot(),
+			new EnvironmentConfig().setAllowCreate(true).setTransactional(true)
+		);
+		this.database = environment.openDatabase(
+			null,
+			"vertex_store_journal",
+			new DatabaseConfig().setAllowCreate(true).setTransactional(true)
+		);
+		this.journal = new VertexStoreJournal(database, DefaultSerialization.getInstance(), counters);
+	}
+
+	@After
+	public void teardown() {
+		this.database.close();
+		this.environment.close();
+	}
+
+	@Test
+	public void when_nothing_saved__then_nothing_is_loaded() {
+		assertThat(journal.load()).isEmpty();
+	}
+
+	@Test
+	public void when_vertices_are_added_and_pruned__then_journal_replays_the_last_state() {
+		var a = vertex(1);
+		var b = vertex(2);
+		var c = vertex(3);
+		var highQC1 = highQC(a);
+		var highQC2 = highQC(b);
+
+		assertThat(save(state(a, ImmutableList.of(b), highQC1))).isTrue();
+		var bytesWritten = counters.get(CounterType.COUNT_BDB_VERTEX_STORE_BYTES_WRITE);
+
+		// Only the new vertex is written
+		assertThat(save(state(a, ImmutableList.of(b, c), highQC1))).isFalse();
+		assertThat(database.count()).isEqualTo(4);
+		assertThat(counters.get(CounterType.COUNT_BDB_VERTEX_STORE_BYTES_WRITE) - bytesWritten).isLessThan(bytesWritten);
+
+		// Pruning deletes the old root and replaces the state record
+		save(state(b, ImmutableList.of(c), highQC2));
+		assertThat(database.count()).isEqualTo(3);
+
+		var loaded = new VertexStoreJournal(database, DefaultSerialization.getInstance(), counters).load();
+		assertThat(loaded).contains(
+			new SerializedVertexStoreState(highQC2, b.toSerializable(), ImmutableList.of(c.toSerializable()), null)
+		);
+	}
+
+	@Test
+	public void when_saving_after_reload__then_journal_continues_from_replayed_records() {
+		var a = vertex(1);
+		var b = vertex(2);
+		var c = vertex(3);
+		save(state(a, ImmutableList.of(b), highQC(a)));
+
+		this.journal = new VertexStoreJournal(database, DefaultSerialization.getInstance(), counters);
+		assertThat(journal.load()).isPresent();
+		assertThat(save(state(a, ImmutableList.of(b, c), highQC(a)))).isFalse();
+
+		assertThat(database.count()).isEqualTo(4);
+		assertThat(journal.load().orElseThrow().getVertices()).containsExactly(b.toSerializable(), c.toSerializable());
+	}
+
+	@Test
+	public void when_save_is_aborted__then_next_save_writes_the_aborted_records_again() {
+		var a = vertex(1);
+		var b = vertex(2);
+		var c = vertex(3);
+		save(state(a, ImmutableList.of(b), highQC(a)));
+
+		var transaction = environment.beginTransaction(null, null);
+		journal.save(transaction, state(b, ImmutableList.of(c), highQC(b)));
+		transaction.abort();
+		journal.invalidate();
+
+		assertThat(save(state(b, ImmutableList.of(c), highQC(b)))).isFalse();
+
+		var loaded = new VertexStoreJournal(database, DefaultSerialization.getInstance(), counters).load();
+		assertThat(loaded).contains(
+			new SerializedVertexStoreState(highQC(b), b.toSerializable(), ImmutableList.of(c.toSerializable()), null)
+		);
+		assertThat(database.count()).isEqualTo(3);
+	}
+
+	private boolean save(VerifiedVertexStoreState state) {
+		var transaction = environment.beginTransaction(null, null);
+		var wasEmpty = journal.save(transaction, state);
+		transaction.commit();
+		return wasEmpty;
+	}
+
+	private VerifiedVertex vertex(long timestamp) {
+		var header = LedgerHeader.create(1, View.genesis(), new AccumulatorState(0, HashUtils.zero256()), timestamp);
+		var vertex = UnverifiedVertex.createGenesis(header);
+		return new VerifiedVertex(vertex, hasher.hash(vertex));
+	}
+
+	private static HighQC highQC(VerifiedVertex vertex) {
+		return HighQC.from(QuorumCertificate.ofGenesis(vertex, vertex.getParentHeader().getLedgerHeader()));
+	}
+
+	private static VerifiedVertexStoreState state(VerifiedVertex root, ImmutableList<VerifiedVertex> vertices, HighQC highQC) {
+		var state = mock(VerifiedVertexStoreState.class);
+		when(state.getRoot()).thenReturn(root);
+		when(state.getVertices()).thenReturn(vertices);
+		when(state.getHighQC()).thenReturn(highQC);
+		when(state.getHighestTC()).thenReturn(Optional.empty());
+		return state;
+	}
+}
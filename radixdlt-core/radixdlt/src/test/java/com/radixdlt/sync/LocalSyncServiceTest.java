@@ -65,12 +65,14 @@
 package com.radixdlt.sync;
 
 import static com.radixdlt.utils.TypedMocks.rmock;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.when;
@@ -82,8 +84,10 @@ import com.google.common.collect.ImmutableSet;
 import com.radixdlt.atom.Txn;
 import com.radixdlt.consensus.LedgerHeader;
 import com.radixdlt.consensus.LedgerProof;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
 import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.crypto.HashUtils;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.environment.ScheduledEventDispatcher;
 import com.radixdlt.identifiers.AID;
@@ -165,6 +169,7 @@ public class LocalSyncServiceTest {
 			validatorSetVerifier,
 			signaturesVerifier,
 			accumulatorVerifier,
+			Runnable::run,
 			verifiedSyncResponseHandler,
 			invalidSyncResponseHandler,
 			syncState
@@ -409,6 +414,27 @@ public class LocalSyncServiceTest {
 		verifyNoMoreInteractions(syncRequestDispatcher);
 	}
 
+	@Test
+	public void when_accumulator_verification_fails_with_exception__then_should_propagate_it() {
+		final var currentHeader = createHeaderAtStateVersion(19L);
+		final var targetHeader = createHeaderAtStateVersion(20L);
+
+		final var peer1 = createPeer();
+		setupPeersView(peer1);
+
+		final var syncState = SyncState.SyncingState.init(
+			currentHeader, ImmutableList.of(peer1), targetHeader).withPendingRequest(peer1, 1L);
+		this.setupSyncServiceWithState(syncState);
+
+		final var syncResponse = createValidMockedSyncResponse();
+		final var failure = new IllegalStateException("Accumulator verification failed");
+		when(accumulatorVerifier.verify(any(), any(), any())).thenThrow(failure);
+
+		assertThatThrownBy(() -> this.localSyncService.syncResponseEventProcessor().process(peer1, syncResponse))
+			.isSameAs(failure);
+		verifyNoInteractions(verifiedSyncResponseHandler);
+	}
+
 	@Test
 	public void when_received_ledger_update_and_fully_synced__then_should_wait_for_another_sync_trigger() {
 		final var currentHeader = createHeaderAtStateVersion(19L);
@@ -593,6 +619,129 @@ public class LocalSyncServiceTest {
 		verify(syncRequestDispatcher, times(2)).dispatch(eq(peer1), any());
 	}
 
+	@Test
+	public void when_sync_window_allows__then_should_request_next_batch_before_commit() {
+		this.syncConfig = SyncConfig.of(1000L, 10, 10000L, 10, 50, 2);
+		final var currentHeader = createHeaderAtStateVersion(19L);
+		final var targetHeader = createHeaderAtStateVersion(30L);
+
+		final var peer1 = createPeer();
+		final var peer2 = createPeer();
+		final var peer3 = createPeer();
+		setupPeersView(peer1, peer2, peer3);
+
+		final var syncState = SyncState.SyncingState.init(
+			currentHeader, ImmutableList.of(peer1, peer2, peer3), targetHeader);
+		this.setupSyncServiceWithState(syncState);
+
+		this.localSyncService.ledgerUpdateEventProcessor().process(ledgerUpdateAtStateVersion(19L));
+		verify(syncRequestDispatcher, times(1)).dispatch(eq(peer1), any());
+
+		// one uncommitted batch and one request
+		final var response1 = createChainedSyncResponse(currentHeader.getAccumulatorState(), 20L);
+		this.localSyncService.syncResponseEventProcessor().process(peer1, response1);
+		verify(syncRequestDispatcher, times(1)).dispatch(eq(peer2), any());
+
+		final var response2 = createChainedSyncResponse(
+			response1.getTxnsAndProof().getTail().getLedgerHeader().getAccumulatorState(), 21L);
+		this.localSyncService.syncResponseEventProcessor().process(peer2, response2);
+		verify(verifiedSyncResponseHandler, times(1)).handleVerifiedSyncResponse(response1);
+		verify(verifiedSyncResponseHandler, times(1)).handleVerifiedSyncResponse(response2);
+		verifyNoMoreInteractions(syncRequestDispatcher); // window is full
+
+		this.localSyncService.ledgerUpdateEventProcessor().process(ledgerUpdateAtStateVersion(20L));
+		verify(syncRequestDispatcher, times(1)).dispatch(eq(peer3), any());
+	}
+
+	@Test
+	public void when_sync_window_is_larger__then_should_keep_that_many_batches_in_flight() {
+		this.syncConfig = SyncConfig.of(1000L, 10, 10000L, 10, 50, 3);
+		final var currentHeader = createHeaderAtStateVersion(19L);
+		final var targetHeader = createHeaderAtStateVersion(30L);
+
+		final var peer1 = createPeer();
+		final var peer2 = createPeer();
+		final var peer3 = createPeer();
+		setupPeersView(peer1, peer2, peer3);
+
+		final var syncState = SyncState.SyncingState.init(
+			currentHeader, ImmutableList.of(peer1, peer2, peer3), targetHeader);
+		this.setupSyncServiceWithState(syncState);
+
+		this.localSyncService.ledgerUpdateEventProcessor().process(ledgerUpdateAtStateVersion(19L));
+		final var response1 = createChainedSyncResponse(currentHeader.getAccumulatorState(), 20L);
+		this.localSyncService.syncResponseEventProcessor().process(peer1, response1);
+		final var response2 = createChainedSyncResponse(
+			response1.getTxnsAndProof().getTail().getLedgerHeader().getAccumulatorState(), 21L);
+		this.localSyncService.syncResponseEventProcessor().process(peer2, response2);
+
+		// two uncommitted batches and one request
+		verify(syncRequestDispatcher, times(1)).dispatch(eq(peer3), any());
+
+		final var response3 = createChainedSyncResponse(
+			response2.getTxnsAndProof().getTail().getLedgerHeader().getAccumulatorState(), 22L);
+		this.localSyncService.syncResponseEventProcessor().process(peer3, response3);
+		verify(verifiedSyncResponseHandler, times(1)).handleVerifiedSyncResponse(response3);
+		verify(syncRequestDispatcher, times(1)).dispatch(eq(peer1), any()); // window is full
+
+		this.localSyncService.ledgerUpdateEventProcessor().process(ledgerUpdateAtStateVersion(20L));
+		verify(syncRequestDispatcher, times(2)).dispatch(eq(peer1), any());
+	}
+
+	@Test
+	public void when_sync_window_is_one__then_should_wait_for_commit_before_next_request() {
+		this.syncConfig = SyncConfig.of(1000L, 10, 10000L, 10, 50, 1);
+		final var currentHeader = createHeaderAtStateVersion(19L);
+		final var targetHeader = createHeaderAtStateVersion(30L);
+
+		final var peer1 = createPeer();
+		final var peer2 = createPeer();
+		setupPeersView(peer1, peer2);
+
+		final var syncState = SyncState.SyncingState.init(
+			currentHeader, ImmutableList.of(peer1, peer2), targetHeader);
+		this.setupSyncServiceWithState(syncState);
+
+		this.localSyncService.ledgerUpdateEventProcessor().process(ledgerUpdateAtStateVersion(19L));
+		final var response1 = createChainedSyncResponse(currentHeader.getAccumulatorState(), 20L);
+		this.localSyncService.syncResponseEventProcessor().process(peer1, response1);
+		verify(verifiedSyncResponseHandler, times(1)).handleVerifiedSyncResponse(response1);
+		verify(syncRequestDispatcher, never()).dispatch(eq(peer2), any());
+	}
+
+	private SyncResponse createChainedSyncResponse(AccumulatorState headAccumulatorState, long tailStateVersion) {
+		final var respHeadLedgerHeader = mock(LedgerHeader.class);
+		when(respHeadLedgerHeader.getAccumulatorState()).thenReturn(headAccumulatorState);
+		final var respTailLedgerHeader = mock(LedgerHeader.class);
+		final var respTailAccumulatorState = mock(AccumulatorState.class);
+		when(respTailAccumulatorState.getStateVersion()).thenReturn(tailStateVersion);
+		when(respTailLedgerHeader.getAccumulatorState()).thenReturn(respTailAccumulatorState);
+		final var respHead = mock(DtoLedgerProof.class);
+		when(respHead.getLedgerHeader()).thenReturn(respHeadLedgerHeader);
+		final var respTail = mock(DtoLedgerProof.class);
+		when(respTail.getLedgerHeader()).thenReturn(respTailLedgerHeader);
+		when(respTail.getOpaque()).thenReturn(HashUtils.random256());
+		when(respTail.getSignatures()).thenReturn(mock(TimestampedECDSASignatures.class));
+		final var response = mock(DtoTxnsAndProof.class);
+		final var txn = mock(Txn.class);
+		when(txn.getId()).thenReturn(AID.ZERO);
+		when(response.getTxns()).thenReturn(ImmutableList.of(txn));
+		when(response.getHead()).thenReturn(respHead);
+		when(response.getTail()).thenReturn(respTail);
+
+		final var syncResponse = SyncResponse.create(response);
+
+		when(validatorSetVerifier.verifyValidatorSet(syncResponse)).thenReturn(true);
+		when(signaturesVerifier.verifyResponseSignatures(syncResponse)).thenReturn(true);
+		when(accumulatorVerifier.verify(
+			eq(headAccumulatorState),
+			any(),
+			eq(respTailAccumulatorState)
+		)).thenReturn(true);
+
+		return syncResponse;
+	}
+
 	private SyncResponse createValidMockedSyncResponse() {
 		final var respHeadLedgerHeader = mock(LedgerHeader.class);
 		final var respHeadAccumulatorState = mock(AccumulatorState.class);
@@ -66,6 +66,8 @@ package com.radixdlt.crypto;
 
 import com.google.common.hash.HashCode;
 
+import java.util.Arrays;
+
 /**
  * An object capable of hashing an object
  */
@@ -84,4 +86,14 @@ public interface Hasher {
 	 * @param bytes byte array to hash
 	 */
 	HashCode hashBytes(byte[] bytes);
+
+	/**
+	 * Hashes a range of a raw byte array.
+	 * @param bytes byte array containing the bytes to hash
+	 * @param offset offset of the first byte to hash
+	 * @param length number of bytes to hash
+	 */
+	default HashCode hashBytes(byte[] bytes, int offset, int length) {
+		return hashBytes(Arrays.copyOfRange(bytes, offset, offset + length));
+	}
 }
@@ -91,6 +91,8 @@ import com.radixdlt.constraintmachine.SubstateSerialization;
 import com.radixdlt.constraintmachine.SystemMapKey;
 import com.radixdlt.constraintmachine.exceptions.AuthorizationException;
 import com.radixdlt.constraintmachine.exceptions.ConstraintMachineException;
+import com.radixdlt.engine.parser.ParsedTxn;
+import com.radixdlt.engine.parser.ParsedTxnCache;
 import com.radixdlt.engine.parser.REParser;
 import com.radixdlt.engine.parser.exceptions.TxnParseException;
 import com.radixdlt.identifiers.REAddr;
@@ -115,15 +117,20 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Top Level Class for the Radix Engine, a real-time, shardable, distributed state machine.
  */
 public final class RadixEngine<M> {
 	private static final Logger logger = LogManager.getLogger();
+	private static final int PARALLEL_PARSE_THRESHOLD = 4;
 	private final EngineStore<M> engineStore;
 	private final Object stateUpdateEngineLock = new Object();
 	private final List<RadixEngineBranch<M>> branches = new ArrayList<>();
+	private final ParsedTxnCache parsedTxnCache;
+	// Creates engines on top of a store with the current rules without taking the engine lock
+	private volatile Function<EngineStore<M>, RadixEngine<M>> detachedEngineFactory;
 
 	private REParser parser;
 	private SubstateSerialization serialization;
@@ -148,6 +155,26 @@ public final class RadixEngine<M> {
 		ConstraintMachine constraintMachine,
 		EngineStore<M> engineStore,
 		BatchVerifier<M> batchVerifier
+	) {
+		this(
+			parser,
+			serialization,
+			actionConstructors,
+			constraintMachine,
+			engineStore,
+			batchVerifier,
+			new ParsedTxnCache(ParsedTxnCache.DEFAULT_MAX_SIZE)
+		);
+	}
+
+	public RadixEngine(
+		REParser parser,
+		SubstateSerialization serialization,
+		REConstructor actionConstructors,
+		ConstraintMachine constraintMachine,
+		EngineStore<M> engineStore,
+		BatchVerifier<M> batchVerifier,
+		ParsedTxnCache parsedTxnCache
 	) {
 		this.parser = Objects.requireNonNull(parser);
 		this.serialization = Objects.requireNonNull(serialization);
@@ -155,6 +182,24 @@ public final class RadixEngine<M> {
 		this.constraintMachine = Objects.requireNonNull(constraintMachine);
 		this.engineStore = Objects.requireNonNull(engineStore);
 		this.batchVerifier = batchVerifier;
+		this.parsedTxnCache = Objects.requireNonNull(parsedTxnCache);
+		updateDetachedEngineFactory();
+	}
+
+	private void updateDetachedEngineFactory() {
+		var currentParser = this.parser;
+		var currentSerialization = this.serialization;
+		var currentActionConstructors = this.actionConstructors;
+		var currentConstraintMachine = this.constraintMachine;
+		this.detachedEngineFactory = store -> new RadixEngine<>(
+			currentParser,
+			currentSerialization,
+			currentActionConstructors,
+			currentConstraintMachine,
+			store,
+			BatchVerifier.empty(),
+			parsedTxnCache
+		);
 	}
 
 	public void replaceConstraintMachine(
@@ -175,6 +220,8 @@ public final class RadixEngine<M> {
 			this.batchVerifier = batchVerifier;
 			this.parser = parser;
 			this.serialization = serialization;
+			this.parsedTxnCache.clear();
+			updateDetachedEngineFactory();
 		}
 	}
 
@@ -191,7 +238,8 @@ public final class RadixEngine<M> {
 			SubstateSerialization serialization,
 			REConstructor actionToConstructorMap,
 			ConstraintMachine constraintMachine,
-			EngineStore<M> parentStore
+			EngineStore<M> parentStore,
+			ParsedTxnCache parsedTxnCache
 		) {
 			var transientEngineStore = new TransientEngineStore<>(parentStore);
 
@@ -201,7 +249,8 @@ public final class RadixEngine<M> {
 				actionToConstructorMap,
 				constraintMachine,
 				transientEngineStore,
-				BatchVerifier.empty()
+				BatchVerifier.empty(),
+				parsedTxnCache
 			);
 		}
 
@@ -209,6 +258,10 @@ public final class RadixEngine<M> {
 			deleted = true;
 		}
 
+		public boolean isDeleted() {
+			return deleted;
+		}
+
 		private void assertNotDeleted() {
 			if (deleted) {
 				throw new IllegalStateException("Radix engine branch is deleted");
@@ -243,6 +296,18 @@ public final class RadixEngine<M> {
 		}
 	}
 
+	/**
+	 * Deletes a single branch leaving any other branches intact.
+	 *
+	 * @param branch the branch to delete
+	 */
+	public void deleteBranch(RadixEngineBranch<M> branch) {
+		synchronized (stateUpdateEngineLock) {
+			branch.delete();
+			branches.remove(branch);
+		}
+	}
+
 	public RadixEngineBranch<M> transientBranch() {
 		synchronized (stateUpdateEngineLock) {
 			RadixEngineBranch<M> branch = new RadixEngineBranch<>(
@@ -250,7 +315,34 @@ public final class RadixEngine<M> {
 				this.serialization,
 				this.actionConstructors,
 				this.constraintMachine,
-				this.engineStore
+				this.engineStore,
+				this.parsedTxnCache
+			);
+
+			branches.add(branch);
+
+			return branch;
+		}
+	}
+
+	/**
+	 * Creates a transient branch on top of an existing branch so that state already
+	 * executed on the parent branch does not have to be re-executed. The parent branch
+	 * must not be executed on anymore once child branches have been created from it.
+	 *
+	 * @param parent the branch to build on top of
+	 * @return a new transient branch
+	 */
+	public RadixEngineBranch<M> transientBranch(RadixEngineBranch<M> parent) {
+		synchronized (stateUpdateEngineLock) {
+			parent.assertNotDeleted();
+			RadixEngineBranch<M> branch = new RadixEngineBranch<>(
+				parent.engine.parser,
+				parent.engine.serialization,
+				parent.engine.actionConstructors,
+				parent.engine.constraintMachine,
+				parent.engine.engineStore,
+				parent.engine.parsedTxnCache
 			);
 
 			branches.add(branch);
@@ -259,10 +351,71 @@ public final class RadixEngine<M> {
 		}
 	}
 
-	private REProcessedTxn verify(EngineStore.EngineStoreInTransaction<M> engineStoreInTransaction, Txn txn, ExecutionContext context)
-		throws AuthorizationException, TxnParseException, ConstraintMachineException {
+	/**
+	 * Executes transactions on a throwaway transient view of the committed state. Unlike
+	 * {@link #transientBranch()} the view is not tracked by this engine, so it neither takes
+	 * the engine lock nor has to be deleted before the next commit, and any number of these
+	 * may run concurrently. Reads of committed state are not isolated from concurrent commits
+	 * so results must be treated as a pre-check, e.g. for mempool admission.
+	 *
+	 * @param txns transactions to execute
+	 * @return the result of executing the transactions
+	 * @throws RadixEngineException if any of the transactions fail to execute
+	 */
+	public RadixEngineResult executeDetached(List<Txn> txns) throws RadixEngineException {
+		var detached = detachedEngineFactory.apply(TransientEngineStore.readCommitted(engineStore));
+		return detached.execute(txns);
+	}
+
+	/**
+	 * Result of parsing a transaction ahead of its execution, either the parsed
+	 * transaction or the exception to be thrown once the transaction is executed.
+	 */
+	private static final class ParseResult {
+		private final ParsedTxn parsedTxn;
+		private final Exception exception;
+
+		private ParseResult(ParsedTxn parsedTxn, Exception exception) {
+			this.parsedTxn = parsedTxn;
+			this.exception = exception;
+		}
+
+		private ParsedTxn get() throws TxnParseException {
+			if (exception instanceof TxnParseException) {
+				throw (TxnParseException) exception;
+			} else if (exception != null) {
+				throw (RuntimeException) exception;
+			}
+			return parsedTxn;
+		}
+	}
 
-		var parsedTxn = parser.parse(txn);
+	private ParseResult parse(Txn txn) {
+		try {
+			return new ParseResult(parsedTxnCache.parse(parser, txn), null);
+		} catch (TxnParseException | RuntimeException e) {
+			return new ParseResult(null, e);
+		}
+	}
+
+	/**
+	 * Parses transactions and recovers their signatures, which does not depend on ledger state
+	 * and so is done before the store transaction is opened. Larger batches are parsed in parallel
+	 * on the common fork join pool, failures are kept so they are only raised when the failing
+	 * transaction is executed.
+	 */
+	private List<ParseResult> parseAll(List<Txn> txns) {
+		if (txns.size() < PARALLEL_PARSE_THRESHOLD) {
+			return txns.stream().map(this::parse).collect(Collectors.toList());
+		}
+		return txns.parallelStream().map(this::parse).collect(Collectors.toList());
+	}
+
+	private REProcessedTxn verify(
+		EngineStore.EngineStoreInTransaction<M> engineStoreInTransaction,
+		ParsedTxn parsedTxn,
+		ExecutionContext context
+	) throws AuthorizationException, ConstraintMachineException {
 		parsedTxn.getSignedBy().ifPresent(context::setKey);
 		context.setDisableResourceAllocAndDestroy(parsedTxn.disableResourceAllocAndDestroy());
 
@@ -303,13 +456,20 @@ public final class RadixEngine<M> {
 					)
 				);
 			}
-			return engineStore.transaction(store -> executeInternal(store, txns, meta, permissionLevel));
+			var verificationStopwatch = Stopwatch.createStarted();
+			var parseResults = parseAll(txns);
+			verificationStopwatch.stop();
+			return engineStore.transaction(store ->
+				executeInternal(store, txns, parseResults, verificationStopwatch, meta, permissionLevel)
+			);
 		}
 	}
 
 	private RadixEngineResult executeInternal(
 		EngineStore.EngineStoreInTransaction<M> engineStoreInTransaction,
 		List<Txn> txns,
+		List<ParseResult> parseResults,
+		Stopwatch verificationStopwatch,
 		M meta,
 		PermissionLevel permissionLevel
 	) throws RadixEngineException {
@@ -319,7 +479,6 @@ public final class RadixEngine<M> {
 		// FIXME: Should probably just change metering
 		var sigsLeft = meta != null ? 0 : 1000; // Start with 0
 		var storageStopwatch = Stopwatch.createUnstarted();
-		var verificationStopwatch = Stopwatch.createUnstarted();
 
 		for (int i = 0; i < txns.size(); i++) {
 			var txn = txns.get(i);
@@ -328,7 +487,7 @@ public final class RadixEngine<M> {
 			var context = new ExecutionContext(txn, permissionLevel, sigsLeft);
 			final REProcessedTxn processedTxn;
 			try {
-				processedTxn = this.verify(engineStoreInTransaction, txn, context);
+				processedTxn = this.verify(engineStoreInTransaction, parseResults.get(i).get(), context);
 			} catch (TxnParseException | AuthorizationException | ConstraintMachineException e) {
 				throw new RadixEngineException(i, txns.size(), txn, e);
 			}
@@ -455,6 +614,13 @@ public final class RadixEngine<M> {
 		throw new TxBuilderException("Not enough fees: unable to construct with fees after " + maxTries + " tries.");
 	}
 
+	/**
+	 * Cache of parsed transactions shared by this engine and all of its branches.
+	 */
+	public ParsedTxnCache getParsedTxnCache() {
+		return parsedTxnCache;
+	}
+
 	public REParser getParser() {
 		synchronized (stateUpdateEngineLock) {
 			return parser;
@@ -80,4 +80,13 @@ public interface EngineStore<M> extends SubstateStore {
 		R start(EngineStoreInTransaction<M> store) throws RadixEngineException;
 	}
 	<R> R transaction(TransactionEngineStoreConsumer<M, R> consumer) throws RadixEngineException;
+
+	/**
+	 * Opens a view of the store which may only be read from. Stores may implement this
+	 * without transactional isolation, callers must not rely on reads being repeatable.
+	 * Reads failing due to concurrent commits throw a {@link StoreReadException}.
+	 */
+	default <R> R readOnlyTransaction(TransactionEngineStoreConsumer<M, R> consumer) throws RadixEngineException {
+		return transaction(consumer);
+	}
 }
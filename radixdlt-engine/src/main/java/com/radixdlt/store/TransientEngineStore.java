@@ -81,15 +81,34 @@ import java.util.Optional;
 
 public class TransientEngineStore<M> implements EngineStore<M> {
 	private final EngineStore<M> base;
+	private final boolean isolated;
 	private final InMemoryEngineStore<M> transientStore = new InMemoryEngineStore<>();
 
 	public TransientEngineStore(EngineStore<M> base) {
+		this(base, true);
+	}
+
+	private TransientEngineStore(EngineStore<M> base, boolean isolated) {
 		this.base = Objects.requireNonNull(base);
+		this.isolated = isolated;
+	}
+
+	/**
+	 * Creates a transient store which reads the base store through
+	 * {@link EngineStore#readOnlyTransaction}, so reads are not isolated from
+	 * concurrent commits to the base store.
+	 */
+	public static <M> TransientEngineStore<M> readCommitted(EngineStore<M> base) {
+		return new TransientEngineStore<>(base, false);
 	}
 
 	@Override
 	public <R> R transaction(TransactionEngineStoreConsumer<M, R> consumer) throws RadixEngineException {
-		return base.transaction(baseStore ->
+		return isolated ? base.transaction(consumer(consumer)) : base.readOnlyTransaction(consumer(consumer));
+	}
+
+	private <R> TransactionEngineStoreConsumer<M, R> consumer(TransactionEngineStoreConsumer<M, R> consumer) {
+		return baseStore ->
 			transientStore.transaction(tStore ->
 				consumer.start(new EngineStoreInTransaction<M>() {
 					@Override
@@ -133,8 +152,7 @@ public class TransientEngineStore<M> implements EngineStore<M> {
 						return tStore.loadResource(addr).or(() -> baseStore.loadResource(addr));
 					}
 				})
-			)
-		);
+			);
 	}
 
 	@Override
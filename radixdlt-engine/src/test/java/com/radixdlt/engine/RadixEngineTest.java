@@ -0,0 +1,255 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.engine;
+
+import com.radixdlt.application.system.construction.CreateSystemConstructorV2;
+import com.radixdlt.application.system.scrypt.Syscall;
+import com.radixdlt.application.system.scrypt.SystemConstraintScrypt;
+import com.radixdlt.application.unique.scrypt.MutexConstraintScrypt;
+import com.radixdlt.atom.CloseableCursor;
+import com.radixdlt.atom.REConstructor;
+import com.radixdlt.atom.SubstateId;
+import com.radixdlt.atom.TxBuilder;
+import com.radixdlt.atom.Txn;
+import com.radixdlt.atom.TxnConstructionRequest;
+import com.radixdlt.atom.actions.CreateSystem;
+import com.radixdlt.atomos.CMAtomOS;
+import com.radixdlt.constraintmachine.ConstraintMachine;
+import com.radixdlt.constraintmachine.PermissionLevel;
+import com.radixdlt.constraintmachine.RawSubstateBytes;
+import com.radixdlt.constraintmachine.SubstateIndex;
+import com.radixdlt.constraintmachine.SubstateSerialization;
+import com.radixdlt.constraintmachine.SystemMapKey;
+import com.radixdlt.constraintmachine.exceptions.InvalidHashedKeyException;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.engine.parser.ParsedTxnCache;
+import com.radixdlt.engine.parser.REParser;
+import com.radixdlt.engine.parser.exceptions.TxnParseException;
+import com.radixdlt.identifiers.REAddr;
+import com.radixdlt.store.EngineStore;
+import com.radixdlt.store.InMemoryEngineStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RadixEngineTest {
+	// At or above the size from which batches are parsed in parallel
+	private static final int BATCH_SIZE = 8;
+
+	private final ECKeyPair keyPair = ECKeyPair.generateNew();
+	private final InMemoryEngineStore<Void> store = new InMemoryEngineStore<>();
+	private final AtomicInteger parsedOnTransaction = new AtomicInteger(-1);
+	private final ParsedTxnCache parsedTxnCache = new ParsedTxnCache(ParsedTxnCache.DEFAULT_MAX_SIZE);
+	private RadixEngine<Void> sut;
+	private REParser parser;
+	private SubstateSerialization serialization;
+	private Txn genesis;
+
+	/**
+	 * Records the number of transactions parsed when the store transaction is opened.
+	 */
+	private final class RecordingStore implements EngineStore<Void> {
+		@Override
+		public <R> R transaction(TransactionEngineStoreConsumer<Void, R> consumer) throws RadixEngineException {
+			parsedOnTransaction.set(parsedTxnCache.size());
+			return store.transaction(consumer);
+		}
+
+		@Override
+		public CloseableCursor<RawSubstateBytes> openIndexedCursor(SubstateIndex<?> index) {
+			return store.openIndexedCursor(index);
+		}
+
+		@Override
+		public Optional<RawSubstateBytes> get(SystemMapKey key) {
+			return store.get(key);
+		}
+	}
+
+	@Before
+	public void setup() throws Exception {
+		var cmAtomOS = new CMAtomOS();
+		cmAtomOS.load(new MutexConstraintScrypt());
+		cmAtomOS.load(new SystemConstraintScrypt());
+		var cm = new ConstraintMachine(
+			cmAtomOS.getProcedures(),
+			cmAtomOS.buildSubstateDeserialization(),
+			cmAtomOS.buildVirtualSubstateDeserialization()
+		);
+		this.parser = new REParser(cmAtomOS.buildSubstateDeserialization());
+		this.serialization = cmAtomOS.buildSubstateSerialization();
+		this.sut = new RadixEngine<>(
+			parser,
+			serialization,
+			REConstructor.newBuilder()
+				.put(CreateSystem.class, new CreateSystemConstructorV2())
+				.build(),
+			cm,
+			new RecordingStore(),
+			BatchVerifier.empty(),
+			parsedTxnCache
+		);
+		this.genesis = this.sut.construct(
+			TxnConstructionRequest.create()
+				.action(new CreateSystem(0))
+		).buildWithoutSignature();
+		this.sut.execute(List.of(genesis), null, PermissionLevel.SYSTEM);
+	}
+
+	private List<Txn> mutexes(int count) throws Exception {
+		var txns = new ArrayList<Txn>();
+		for (int i = 0; i < count; i++) {
+			var name = "mutex" + i;
+			txns.add(this.sut.construct(b -> b.mutex(keyPair.getPublicKey(), name)).signAndBuild(keyPair::sign));
+		}
+		return txns;
+	}
+
+	private static Txn unparseable() {
+		return Txn.create(new byte[] {(byte) 0xff});
+	}
+
+	private Txn someoneElsesMutex() {
+		var addr = REAddr.ofHashedKey(ECKeyPair.generateNew().getPublicKey(), "smthng");
+		var builder = TxBuilder.newBuilder(parser.getSubstateDeserialization(), serialization)
+			.toLowLevelBuilder()
+			.syscall(Syscall.READDR_CLAIM, "smthng".getBytes(StandardCharsets.UTF_8))
+			.virtualDown(SubstateId.ofSubstate(genesis.getId(), 0), addr.getBytes())
+			.end();
+		var sig = keyPair.sign(builder.hashToSign());
+		return builder.sig(sig).build();
+	}
+
+	@Test
+	public void batch_is_parsed_before_the_store_transaction_is_opened() throws Exception {
+		// Arrange
+		var txns = mutexes(BATCH_SIZE);
+		var parsedBefore = parsedTxnCache.size();
+
+		// Act
+		var result = this.sut.execute(txns);
+
+		// Assert
+		assertThat(result.getProcessedTxns()).hasSize(BATCH_SIZE);
+		assertThat(parsedOnTransaction.get()).isEqualTo(parsedBefore + BATCH_SIZE);
+	}
+
+	@Test
+	public void first_unparseable_txn_of_a_batch_is_reported() throws Exception {
+		// Arrange
+		var txns = mutexes(BATCH_SIZE);
+		txns.set(3, unparseable());
+		txns.set(5, unparseable());
+
+		// Act
+		// Assert
+		assertThatThrownBy(() -> this.sut.execute(txns))
+			.isInstanceOfSatisfying(RadixEngineException.class, e -> {
+				assertThat(e.getTxnIndex()).isEqualTo(3);
+				assertThat(e.getBatchSize()).isEqualTo(BATCH_SIZE);
+				assertThat(e.getTxn()).isEqualTo(txns.get(3));
+			})
+			.hasCauseInstanceOf(TxnParseException.class);
+	}
+
+	@Test
+	public void earlier_execution_failure_takes_precedence_over_later_parse_failure() throws Exception {
+		// Arrange
+		var txns = mutexes(BATCH_SIZE);
+		txns.set(1, someoneElsesMutex());
+		txns.set(4, unparseable());
+
+		// Act
+		// Assert
+		assertThatThrownBy(() -> this.sut.execute(txns))
+			.isInstanceOfSatisfying(RadixEngineException.class, e -> {
+				assertThat(e.getTxnIndex()).isEqualTo(1);
+				assertThat(e.getBatchSize()).isEqualTo(BATCH_SIZE);
+			})
+			.hasRootCauseInstanceOf(InvalidHashedKeyException.class);
+	}
+
+	@Test
+	public void earlier_parse_failure_takes_precedence_over_later_execution_failure() throws Exception {
+		// Arrange
+		var txns = mutexes(BATCH_SIZE);
+		txns.set(2, unparseable());
+		txns.set(6, someoneElsesMutex());
+
+		// Act
+		// Assert
+		assertThatThrownBy(() -> this.sut.execute(txns))
+			.isInstanceOfSatisfying(RadixEngineException.class, e -> assertThat(e.getTxnIndex()).isEqualTo(2))
+			.hasCauseInstanceOf(TxnParseException.class);
+	}
+}
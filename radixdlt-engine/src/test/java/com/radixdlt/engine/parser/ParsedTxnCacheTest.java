@@ -0,0 +1,171 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+
+package com.radixdlt.engine.parser;
+
+import com.radixdlt.atom.Txn;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParsedTxnCacheTest {
+	private REParser parser;
+	private ParsedTxnCache cache;
+
+	@Before
+	public void setup() throws Exception {
+		this.parser = mock(REParser.class);
+		when(parser.parse(any())).thenAnswer(i -> mock(ParsedTxn.class));
+		this.cache = new ParsedTxnCache(2);
+	}
+
+	@Test
+	public void repeated_parse_of_same_txn_only_parses_once() throws Exception {
+		// Arrange
+		var txn = Txn.create(new byte[] {1});
+
+		// Act
+		var first = cache.parse(parser, txn);
+		var second = cache.parse(parser, Txn.create(new byte[] {1}));
+
+		// Assert
+		assertThat(second).isSameAs(first);
+		verify(parser, times(1)).parse(any());
+		assertThat(cache.hits()).isEqualTo(1);
+		assertThat(cache.misses()).isEqualTo(1);
+	}
+
+	@Test
+	public void evicted_txn_is_parsed_again() throws Exception {
+		// Arrange
+		var txn = Txn.create(new byte[] {1});
+		cache.parse(parser, txn);
+
+		// Act
+		cache.evict(List.of(txn.getId()));
+		cache.parse(parser, txn);
+
+		// Assert
+		verify(parser, times(2)).parse(txn);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void least_recently_used_txn_is_dropped_when_full() throws Exception {
+		// Arrange
+		var txn0 = Txn.create(new byte[] {0});
+		var txn1 = Txn.create(new byte[] {1});
+		var txn2 = Txn.create(new byte[] {2});
+		cache.parse(parser, txn0);
+		cache.parse(parser, txn1);
+		cache.parse(parser, txn0);
+
+		// Act
+		cache.parse(parser, txn2);
+		cache.parse(parser, txn0);
+		cache.parse(parser, txn1);
+
+		// Assert
+		assertThat(cache.size()).isEqualTo(2);
+		verify(parser, times(1)).parse(txn0);
+		verify(parser, times(2)).parse(txn1);
+	}
+
+	@Test
+	public void entries_of_another_parser_are_not_returned() throws Exception {
+		// Arrange
+		var txn = Txn.create(new byte[] {1});
+		var otherParser = mock(REParser.class);
+		when(otherParser.parse(any())).thenAnswer(i -> mock(ParsedTxn.class));
+		var first = cache.parse(parser, txn);
+
+		// Act
+		var second = cache.parse(otherParser, txn);
+
+		// Assert
+		assertThat(second).isNotSameAs(first);
+		verify(otherParser, times(1)).parse(txn);
+	}
+
+	@Test
+	public void failed_parse_is_not_cached() throws Exception {
+		// Arrange
+		var txn = Txn.create(new byte[] {1});
+		when(parser.parse(txn)).thenThrow(new IllegalStateException());
+
+		// Act
+		// Assert
+		assertThatThrownBy(() -> cache.parse(parser, txn)).isInstanceOf(IllegalStateException.class);
+		assertThat(cache.size()).isZero();
+	}
+}
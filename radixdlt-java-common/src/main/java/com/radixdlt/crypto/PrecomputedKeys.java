@@ -0,0 +1,165 @@
+/* Copyright 2021 Radix Publishing Ltd incorporated in Jersey (Channel Islands).
+ *
+ * Licensed under the Radix License, Version 1.0 (the "License"); you may not use this
+ * file except in compliance with the License. You may obtain a copy of the License at:
+ *
+ * radixfoundation.org/licenses/LICENSE-v1
+ *
+ * The Licensor hereby grants permission for the Canonical version of the Work to be
+ * published, distributed and used under or by reference to the Licensor’s trademark
+ * Radix ® and use of any unregistered trade names, logos or get-up.
+ *
+ * The Licensor provides the Work (and each Contributor provides its Contributions) on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied,
+ * including, without limitation, any warranties or conditions of TITLE, NON-INFRINGEMENT,
+ * MERCHANTABILITY, or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * Whilst the Work is capable of being deployed, used and adopted (instantiated) to create
+ * a distributed ledger it is your responsibility to test and validate the code, together
+ * with all logic and performance of that code under all foreseeable scenarios.
+ *
+ * The Licensor does not make or purport to make and hereby excludes liability for all
+ * and any representation, warranty or undertaking in any form whatsoever, whether express
+ * or implied, to any entity or person, including any representation, warranty or
+ * undertaking, as to the functionality security use, value or other characteristics of
+ * any distributed ledger nor in respect the functioning or value of any tokens which may
+ * be created stored or transferred using the Work. The Licensor does not warrant that the
+ * Work or any use of the Work complies with any law or regulation in any territory where
+ * it may be implemented or used or that it will be appropriate for any specific purpose.
+ *
+ * Neither the licensor nor any current or former employees, officers, directors, partners,
+ * trustees, representatives, agents, advisors, contractors, or volunteers of the Licensor
+ * shall be liable for any direct or indirect, special, incidental, consequential or other
+ * losses of any kind, in tort, contract or otherwise (including but not limited to loss
+ * of revenue, income or profits, or loss of use or data, or loss of reputation, or loss
+ * of any economic or other opportunity of whatsoever nature or howsoever arising), arising
+ * out of or in connection with (without limitation of any use, misuse, of any ledger system
+ * or use made or its functionality or any performance or operation of any code or protocol
+ * caused by bugs or programming or logic errors or otherwise);
+ *
+ * A. any offer, purchase, holding, use, sale, exchange or transmission of any
+ * cryptographic keys, tokens or assets created, exchanged, stored or arising from any
+ * interaction with the Work;
+ *
+ * B. any failure in a transmission or loss of any token or assets keys or other digital
+ * artefacts due to errors in transmission;
+ *
+ * C. bugs, hacks, logic errors or faults in the Work or any communication;
+ *
+ * D. system software or apparatus including but not limited to losses caused by errors
+ * in holding or transmitting tokens by any third-party;
+ *
+ * E. breaches or failure of security including hacker attacks, loss or disclosure of
+ * password, loss of private key, unauthorised use or misuse of such passwords or keys;
+ *
+ * F. any losses including loss of anticipated savings or other benefits resulting from
+ * use of the Work or any changes to the Work (however implemented).
+ *
+ * You are solely responsible for; testing, validating and evaluation of all operation
+ * logic, functionality, security and appropriateness of using the Work for any commercial
+ * or non-commercial purpose and for any reproduction or redistribution by You of the
+ * Work. You assume all risks associated with Your use of the Work and the exercise of
+ * permissions under this License.
+ */
+package com.radixdlt.crypto;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.radixdlt.SecurityCritical;
+import com.radixdlt.SecurityCritical.SecurityKind;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.WNafUtil;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * A fixed set of public keys prepared for repeated signature verification, such as
+ * the keys of the validators of an epoch.
+ * <p>
+ * Bouncy Castle keeps the wNAF tables of a point, including the ones for the GLV
+ * endomorphism of secp256k1, on the point itself. Keys decoded from messages are new
+ * points every time though, so each verification validates the point and builds its
+ * tables from scratch. Here each key has a single validated point which is configured
+ * for wide windows and precomputed up front, so verifications against it only pay for
+ * the multiplication itself. Verifications against other keys take the regular path.
+ */
+@SecurityCritical(SecurityKind.SIG_VERIFY)
+public final class PrecomputedKeys {
+	private static final PrecomputedKeys EMPTY = new PrecomputedKeys(ImmutableMap.of());
+
+	private final ImmutableMap<ECPublicKey, ECPoint> points;
+
+	private PrecomputedKeys(ImmutableMap<ECPublicKey, ECPoint> points) {
+		this.points = points;
+	}
+
+	/**
+	 * Returns an empty set of keys, all verifications take the regular path.
+	 */
+	public static PrecomputedKeys empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Prepares the specified keys for verification. This does the precomputation
+	 * for all keys, and so is relatively expensive.
+	 *
+	 * @param keys the keys to prepare
+	 * @return the prepared keys
+	 */
+	public static PrecomputedKeys of(Collection<ECPublicKey> keys) {
+		final var generator = ECKeyUtils.domain().getG();
+		final var points = new HashMap<ECPublicKey, ECPoint>();
+		for (var key : keys) {
+			// Decoded separately so the tables are not shared with the caller's key
+			final var point = ECKeyUtils.curve().getCurve().decodePoint(key.getCompressedBytes()).normalize();
+			if (!point.isValid()) {
+				throw new IllegalArgumentException("Invalid public key: " + key);
+			}
+			WNafUtil.configureBasepoint(point);
+			ECAlgorithms.sumOfTwoMultiplies(generator, BigInteger.ONE, point, BigInteger.ONE);
+			points.put(key, point);
+		}
+		return new PrecomputedKeys(ImmutableMap.copyOf(points));
+	}
+
+	/**
+	 * Returns {@code true} if the specified key has been prepared.
+	 */
+	public boolean contains(ECPublicKey key) {
+		return this.points.containsKey(key);
+	}
+
+	/**
+	 * Returns the number of prepared keys.
+	 */
+	public int size() {
+		return this.points.size();
+	}
+
+	/**
+	 * Verifies the signature against the hash with the specified key, using the
+	 * precomputed point of the key if it has been prepared.
+	 *
+	 * @param key the public key to verify with
+	 * @param hash the hash to verify
+	 * @param signature the signature to verify
+	 * @return {@code true} if the signature matches, {@code false} otherwise
+	 */
+	public boolean verify(ECPublicKey key, HashCode hash, ECDSASignature signature) {
+		final var point = this.points.get(Objects.requireNonNull(key));
+		if (point == null) {
+			return key.verify(hash, signature);
+		}
+		return signature != null && ECKeyUtils.keyHandler.verify(hash.asBytes(), signature, point);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s keys]", getClass().getSimpleName(), this.points.size());
+	}
+}